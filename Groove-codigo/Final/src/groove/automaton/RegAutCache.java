@@ -0,0 +1,276 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.automaton;
+
+import groove.automaton.RegAut.Result;
+import groove.grammar.host.HostEdge;
+import groove.grammar.host.HostGraph;
+import groove.grammar.host.HostNode;
+import groove.grammar.rule.Valuation;
+import groove.grammar.type.TypeElement;
+import groove.transform.DeltaApplier;
+import groove.transform.DeltaTarget;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the path matches of regular automata in a fixed host graph.
+ * A cache may be derived from the cache of a basis graph and the delta
+ * leading from the basis to the cached graph; matches of automata whose
+ * alphabet is disjoint from the types of the elements in the delta are
+ * then carried over, whereas all other matches are recomputed on demand.
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public class RegAutCache {
+    /** Constructs an initially empty cache. */
+    public RegAutCache() {
+        this.alphabetMap = new ConcurrentHashMap<RegAut,Set<TypeElement>>();
+    }
+
+    /**
+     * Constructs a cache for a graph that is derived from a basis graph by a delta.
+     * The entries of the basis cache are only inspected upon the first query.
+     * @param basis the cache of the basis graph; if {@code null}, the new cache
+     * is initially empty
+     * @param delta the delta from the basis graph to the graph of this cache
+     */
+    public RegAutCache(RegAutCache basis, DeltaApplier delta) {
+        if (basis == null) {
+            this.alphabetMap = new ConcurrentHashMap<RegAut,Set<TypeElement>>();
+        } else {
+            this.alphabetMap = basis.alphabetMap;
+            this.basis = basis;
+            this.delta = delta;
+        }
+    }
+
+    /**
+     * Returns the matches of a given automaton in the graph of this cache,
+     * computing and storing them if they are not yet cached.
+     * The parameters are as for {@link RegAut#getMatches(HostGraph, HostNode, HostNode, Valuation)}.
+     * The returned set should not be modified.
+     * @param graph the graph of this cache
+     */
+    public Set<Result> getMatches(RegAut aut, HostGraph graph, HostNode startImage,
+        HostNode endImage, Valuation valuation) {
+        Key key = new Key(aut, startImage, endImage, valuation);
+        Set<Result> result = get(key);
+        if (result == null) {
+            result = aut.getMatches(graph, startImage, endImage, valuation);
+            put(key, result);
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return result;
+    }
+
+    /** Looks up a query in the cache, after inheriting from the basis if necessary. */
+    private synchronized Set<Result> get(Key key) {
+        if (this.basis != null) {
+            inherit(this.basis, this.delta);
+            // release the basis, so the chain of caches can be collected
+            this.basis = null;
+            this.delta = null;
+        }
+        return this.matchMap == null ? null : this.matchMap.get(key);
+    }
+
+    /** Stores the matches for a query. */
+    private synchronized void put(Key key, Set<Result> matches) {
+        if (this.matchMap == null) {
+            this.matchMap = new HashMap<Key,Set<Result>>();
+        }
+        this.matchMap.put(key, matches);
+    }
+
+    /**
+     * Copies those entries of a basis cache that are not affected by a delta.
+     * An entry is affected if the alphabet of its automaton contains the type of
+     * an added or removed element, if its start or end node has been removed,
+     * or if it is unconstrained and nodes have been added or removed.
+     */
+    private void inherit(RegAutCache basis, DeltaApplier delta) {
+        synchronized (basis) {
+            if (basis.matchMap == null) {
+                return;
+            }
+            DeltaTypes deltaTypes = new DeltaTypes();
+            delta.applyDelta(deltaTypes);
+            Map<RegAut,Boolean> affectedMap = new HashMap<RegAut,Boolean>();
+            for (Map.Entry<Key,Set<Result>> entry : basis.matchMap.entrySet()) {
+                Key key = entry.getKey();
+                Boolean affected = affectedMap.get(key.aut);
+                if (affected == null) {
+                    affected = deltaTypes.affects(getAlphabet(key.aut));
+                    affectedMap.put(key.aut, affected);
+                }
+                if (affected) {
+                    continue;
+                }
+                if (key.start == null && key.end == null) {
+                    if (deltaTypes.nodesChanged) {
+                        continue;
+                    }
+                } else if (deltaTypes.removedNodes.contains(key.start)
+                    || deltaTypes.removedNodes.contains(key.end)) {
+                    continue;
+                }
+                put(key, entry.getValue());
+            }
+        }
+    }
+
+    /** Returns the (cached) alphabet of a given automaton. */
+    private Set<TypeElement> getAlphabet(RegAut aut) {
+        Set<TypeElement> result = this.alphabetMap.get(aut);
+        if (result == null) {
+            result = aut.getAlphabet();
+            this.alphabetMap.put(aut, result);
+        }
+        return result;
+    }
+
+    /** Mapping from queries to the corresponding matches; created on demand. */
+    private Map<Key,Set<Result>> matchMap;
+    /** Cache of the basis graph, as long as its entries have not been inherited. */
+    private RegAutCache basis;
+    /** Delta with respect to the basis graph, as long as {@link #basis} is set. */
+    private DeltaApplier delta;
+    /**
+     * Mapping from automata to their alphabets.
+     * Shared among all caches derived from one another.
+     */
+    private final Map<RegAut,Set<TypeElement>> alphabetMap;
+
+    /** Returns the number of queries answered from a cache so far. */
+    public static int getHitCount() {
+        return hitCount;
+    }
+
+    /** Returns the number of queries for which the matches were computed so far. */
+    public static int getMissCount() {
+        return missCount;
+    }
+
+    /** Number of queries answered from a cache. */
+    private static int hitCount;
+    /** Number of queries for which the matches had to be computed. */
+    private static int missCount;
+
+    /** Key of a cached query. */
+    private static class Key {
+        Key(RegAut aut, HostNode start, HostNode end, Valuation valuation) {
+            this.aut = aut;
+            this.start = start;
+            this.end = end;
+            this.valuation = valuation == null || valuation.isEmpty() ? null : valuation;
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = System.identityHashCode(this.aut);
+            result = prime * result + (this.start == null ? 0 : this.start.hashCode());
+            result = prime * result + (this.end == null ? 0 : this.end.hashCode());
+            result = prime * result + (this.valuation == null ? 0 : this.valuation.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            if (this.aut != other.aut) {
+                return false;
+            }
+            if (this.start == null ? other.start != null : !this.start.equals(other.start)) {
+                return false;
+            }
+            if (this.end == null ? other.end != null : !this.end.equals(other.end)) {
+                return false;
+            }
+            if (this.valuation == null) {
+                return other.valuation == null;
+            } else {
+                return this.valuation.equals(other.valuation);
+            }
+        }
+
+        final RegAut aut;
+        final HostNode start;
+        final HostNode end;
+        final Valuation valuation;
+    }
+
+    /** Delta target that collects the types of the changed elements. */
+    private static class DeltaTypes implements DeltaTarget {
+        @Override
+        public boolean addNode(HostNode elem) {
+            this.types.add(elem.getType());
+            this.nodesChanged = true;
+            return true;
+        }
+
+        @Override
+        public boolean removeNode(HostNode elem) {
+            this.types.add(elem.getType());
+            this.removedNodes.add(elem);
+            this.nodesChanged = true;
+            return true;
+        }
+
+        @Override
+        public boolean addEdge(HostEdge elem) {
+            this.types.add(elem.getType());
+            return true;
+        }
+
+        @Override
+        public boolean removeEdge(HostEdge elem) {
+            this.types.add(elem.getType());
+            return true;
+        }
+
+        /** Tests if any of the collected types is in a given alphabet. */
+        boolean affects(Set<TypeElement> alphabet) {
+            for (TypeElement type : this.types) {
+                if (alphabet.contains(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** The types of all added and removed elements. */
+        final Set<TypeElement> types = new HashSet<TypeElement>();
+        /** The removed nodes. */
+        final Set<HostNode> removedNodes = new HashSet<HostNode>();
+        /** Flag indicating that nodes have been added or removed. */
+        boolean nodesChanged;
+    }
+}
@@ -111,7 +111,7 @@ public class Automaton {
     /** Computes and inserts the host nodes to be used for constant value arguments. */
     public void initialise(final HostFactory factory) {
         getProgram().getTemplate().initialise(factory);
-        ThreadPool threads = ThreadPool.instance();
+        ThreadPool.Batch threads = ThreadPool.instance().newBatch();
         for (final Procedure proc : getProgram().getProcs().values()) {
             threads.start(new Runnable() {
                 @Override
@@ -121,7 +121,6 @@ public class Automaton {
             });
         }
         threads.sync();
-        threads.shutdown();
     }
 
     /** Fully explores this automaton. */
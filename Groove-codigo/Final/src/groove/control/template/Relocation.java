@@ -45,7 +45,7 @@ public class Relocation extends HashMap<Location,Location> {
      * setting the attempts (relocated using this map).
      */
     public void build() {
-        ThreadPool threads = ThreadPool.instance();
+        ThreadPool.Batch threads = ThreadPool.instance().newBatch();
         for (Map.Entry<Template,Template> e : this.templates.entrySet()) {
             final Template source = e.getKey();
             final Template target = e.getValue();
@@ -80,7 +80,7 @@ public class TemplateBuilder {
         for (Builder builder : this.builderMap.values()) {
             builder.buildNext();
         }
-        ThreadPool threads = ThreadPool.instance();
+        ThreadPool.Batch threads = ThreadPool.instance().newBatch();
         for (final Builder builder : this.builderMap.values()) {
             threads.start(new Runnable() {
                 @Override
@@ -118,7 +118,6 @@ public class TemplateBuilder {
             map.putAll(norm.three());
         }
         map.build();
-        ThreadPool.instance().shutdown();
         return result;
     }
 
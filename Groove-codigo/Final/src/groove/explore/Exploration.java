@@ -22,6 +22,7 @@ import groove.explore.result.CycleAcceptor;
 import groove.explore.strategy.LTLStrategy;
 import groove.explore.strategy.Strategy;
 import groove.grammar.Grammar;
+import groove.grammar.StateHashing;
 import groove.lts.GTS;
 import groove.lts.GraphState;
 import groove.util.Reporter;
@@ -46,6 +47,7 @@ public class Exploration {
     private final Serialized strategy;
     private final Serialized acceptor;
     private final int bound;
+    private final boolean distinct;
     private GTS lastGts;
     /** Result of the last exploration. */
     private ExploreResult lastResult;
@@ -66,11 +68,25 @@ public class Exploration {
      * @param bound number of results: {@code 0} means unbounded
      */
     public Exploration(Serialized strategy, Serialized acceptor, int bound) {
+        this(strategy, acceptor, bound, false);
+    }
+
+    /**
+     * Initialise to a given exploration, which optionally only counts results
+     * that are distinct up to isomorphism.
+     * @param strategy strategy component of the exploration; non-{@code null}
+     * @param acceptor acceptor component of the exploration; non-{@code null}
+     * @param bound number of results: {@code 0} means unbounded
+     * @param distinct if {@code true}, isomorphic result states are only counted once,
+     * even if the GTS does not collapse them
+     */
+    public Exploration(Serialized strategy, Serialized acceptor, int bound, boolean distinct) {
         assert strategy != null;
         this.strategy = strategy;
         assert acceptor != null;
         this.acceptor = acceptor;
         this.bound = bound;
+        this.distinct = distinct;
     }
 
     /**
@@ -151,6 +167,13 @@ public class Exploration {
         return this.bound;
     }
 
+    /**
+     * Indicates if this exploration only counts results that are distinct up to isomorphism.
+     */
+    public boolean isDistinct() {
+        return this.distinct;
+    }
+
     /**
      * Returns the result of the most recent exploration.
      */
@@ -229,11 +252,17 @@ public class Exploration {
     public final void play(GTS gts, GraphState state) throws FormatException {
         this.lastGts = gts;
         Grammar grammar = gts.getGrammar();
+        if (grammar.getProperties().getStateHashing() == StateHashing.BITSTATE
+            && !gts.getRecord().isPruning()) {
+            throw new FormatException(
+                "Bit-state hashing is only supported if the LTS is neither saved nor analysed");
+        }
         // parse the strategy
         Strategy parsedStrategy = getParsedStrategy(grammar);
 
         // parse the acceptor
         final Acceptor parsedAcceptor = getParsedAcceptor(grammar).newAcceptor(this.bound);
+        parsedAcceptor.setDistinct(this.distinct);
 
         // initialize acceptor and GTS
         parsedStrategy.setGTS(gts);
@@ -17,6 +17,7 @@
 package groove.explore;
 
 import groove.lts.GTS;
+import groove.lts.GTS.StateSet;
 import groove.lts.GraphState;
 import groove.lts.GraphTransition;
 
@@ -34,8 +35,24 @@ public class ExploreResult implements Iterable<GraphState> {
      * Creates a fresh, empty result for a given (non-{@code null}) GTS.
      */
     public ExploreResult(GTS gts) {
+        this(gts, false);
+    }
+
+    /**
+     * Creates a fresh, empty result for a given (non-{@code null}) GTS,
+     * which optionally only stores states that are distinct up to isomorphism.
+     * @param distinct if {@code true}, a state is not added if the result
+     * already contains an isomorphic state, even if the GTS does not collapse them
+     */
+    public ExploreResult(GTS gts, boolean distinct) {
         this.gts = gts;
         this.elements = createResultSet();
+        this.distinct = distinct;
+        if (distinct && gts.hasIsomorphicStates()) {
+            this.isoIndex = GTS.newIsoStateSet();
+        } else {
+            this.isoIndex = null;
+        }
     }
 
     /** Returns the graph transformation system to which this result applies. */
@@ -45,11 +62,32 @@ public class ExploreResult implements Iterable<GraphState> {
 
     private final GTS gts;
 
+    /**
+     * Indicates if this result only stores states that are distinct up to isomorphism.
+     * @see #ExploreResult(GTS, boolean)
+     */
+    public boolean isDistinct() {
+        return this.distinct;
+    }
+
+    private final boolean distinct;
+
+    /**
+     * Certificate-indexed set of the states in this result.
+     * Only used if this result is distinct and the GTS itself does not
+     * collapse isomorphic states; {@code null} otherwise.
+     */
+    private final StateSet isoIndex;
+
     /**
      * Adds a state to the result.
+     * For a distinct result, the state is ignored if an isomorphic state
+     * has already been added.
      */
     public void addState(GraphState t) {
-        this.elements.add(t);
+        if (this.isoIndex == null || this.isoIndex.add(t)) {
+            this.elements.add(t);
+        }
     }
 
     /**
@@ -22,7 +22,9 @@ import groove.explore.util.ExplorationReporter;
 import groove.explore.util.GenerateProgressListener;
 import groove.explore.util.LTSLabels;
 import groove.explore.util.LTSReporter;
+import groove.explore.util.LTSStreamReporter;
 import groove.explore.util.LogReporter;
+import groove.explore.util.MetricsReporter;
 import groove.explore.util.StateReporter;
 import groove.grammar.GrammarKey;
 import groove.lts.Filter;
@@ -92,6 +94,19 @@ public class Generator extends GrooveCmdLineTool<ExploreResult> {
 
     private static final String SOFT_REF_POLICY_NAME = "-XX:SoftRefLRUPolicyMSPerMB";
 
+    /* Checks the combinations of option values that the parser cannot check. */
+    @Override
+    protected void parseArguments() throws CmdLineException {
+        super.parseArguments();
+        if (getMetricsInterval() <= 0) {
+            throw new CmdLineException(getParser(), "Metrics interval should be positive");
+        }
+        if (isMinimise() && getFilter() != Filter.NONE) {
+            throw new CmdLineException(getParser(),
+                "Option -minimise cannot be combined with -spanning or -traces");
+        }
+    }
+
     /**
      * Compute the exploration out of the command line options.
      * Uses the default exploration for components that were not specified.
@@ -112,6 +127,9 @@ public class Generator extends GrooveCmdLineTool<ExploreResult> {
             }
         }
         result.setResultCount(getResultCount());
+        result.setDistinct(isDistinct());
+        // known states may only be pruned if the LTS is not saved
+        result.setPruning(!isSaveLts());
         return result;
     }
 
@@ -183,6 +201,18 @@ public class Generator extends GrooveCmdLineTool<ExploreResult> {
     @Option(name = RESULT_NAME, metaVar = RESULT_VAR, usage = RESULT_USAGE)
     private int resultCount;
 
+    /**
+     * Indicates if only results that are distinct up to isomorphism are counted.
+     */
+    public boolean isDistinct() {
+        return this.distinct;
+    }
+
+    @Option(name = "-distinct",
+        usage = "If switched on, isomorphic result states are only counted once, "
+            + "also if isomorphism checking is switched off")
+    private boolean distinct;
+
     /** Returns the locally set grammar properties, if any. */
     public Map<GrammarKey,String> getGrammarProperties() {
         return this.grammarProperties;
@@ -235,9 +265,62 @@ public class Generator extends GrooveCmdLineTool<ExploreResult> {
         usage = "Save the generated LTS to a file with name derived from <file>, "
             + "in which '#' is instantiated with the grammar ID. "
             + "The \"-ef\"-option controls some additional state labels. "
-            + "The optional extension determines the output format (default is .gxl)")
+            + "The optional extension determines the output format (default is .gxl); "
+            + "use .glts for a compact file that can be model checked directly")
     private String ltsPattern;
 
+    /**
+     * Indicates if the LTS should be streamed to its output file during exploration,
+     * rather than saved after exploration has finished.
+     * This is only done for unfiltered LTSs in a streamable format.
+     * @see LTSStreamReporter#canStream(String)
+     */
+    public boolean isStreamLts() {
+        return this.streamLts && isSaveLts() && getFilter() == Filter.NONE && !isMinimise()
+            && LTSStreamReporter.canStream(getLtsPattern());
+    }
+
+    @Option(name = "-stream", depends = "-o",
+        usage = "If switched on, the LTS is written to the \"-o\" file while it is being generated. "
+            + "Only supported for .aut and .gxl output without -spanning or -traces")
+    private boolean streamLts;
+
+    /**
+     * Indicates if the LTS should be minimised modulo bisimilarity before it is saved.
+     */
+    public boolean isMinimise() {
+        return this.minimise;
+    }
+
+    @Option(name = "-minimise", depends = "-o",
+        usage = "If switched on, the LTS is saved modulo bisimilarity, "
+            + "which preserves the validity of CTL properties. "
+            + "Not supported together with -spanning or -traces")
+    private boolean minimise;
+
+    /**
+     * Returns the (optional) file to which exploration metrics are
+     * periodically written during exploration.
+     * @return the metrics file, or {@code null} if not set
+     */
+    public File getMetricsFile() {
+        return this.metricsFile;
+    }
+
+    @Option(name = "-metrics", metaVar = "file",
+        usage = "Periodically write exploration metrics to <file> during exploration, "
+            + "as one JSON object per line")
+    private File metricsFile;
+
+    /** Returns the minimum time between metrics snapshots, in milliseconds. */
+    public int getMetricsInterval() {
+        return this.metricsInterval;
+    }
+
+    @Option(name = "-mi", metaVar = "ms", depends = "-metrics",
+        usage = "Time between metrics snapshots, in milliseconds (default: 1000)")
+    private int metricsInterval = MetricsReporter.DEFAULT_INTERVAL;
+
     /**
      * Indicates if the state save option is set.
      * @return {@code true} if {@link #getStatePattern()} is not {@code null}
@@ -318,12 +401,18 @@ public class Generator extends GrooveCmdLineTool<ExploreResult> {
     private CompositeReporter computeReporter() {
         CompositeReporter result = new CompositeReporter();
         LogReporter logger = new LogReporter(getVerbosity(), getLogDir());
-        if (isSaveLts()) {
-            result.add(new LTSReporter(getLtsPattern(), getLtsLabels(), logger, getFilter()));
+        if (isStreamLts()) {
+            result.add(new LTSStreamReporter(getLtsPattern(), getLtsLabels(), logger));
+        } else if (isSaveLts()) {
+            result.add(new LTSReporter(getLtsPattern(), getLtsLabels(), logger, getFilter(),
+                isMinimise()));
         }
         if (isSaveState()) {
             result.add(new StateReporter(getStatePattern(), logger));
         }
+        if (getMetricsFile() != null) {
+            result.add(new MetricsReporter(getMetricsFile(), getMetricsInterval(), logger));
+        }
         // add the logger last, to ensure that any messages from the
         // other reporters are included.
         result.add(logger);
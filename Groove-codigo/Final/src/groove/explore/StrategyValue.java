@@ -1,6 +1,7 @@
 package groove.explore;
 
 import groove.explore.encode.EncodedBoundary;
+import groove.explore.encode.EncodedCostFunction;
 import groove.explore.encode.EncodedEdgeMap;
 import groove.explore.encode.EncodedEnabledRule;
 import groove.explore.encode.EncodedHostName;
@@ -29,10 +30,12 @@ import groove.explore.result.ExploreCondition;
 import groove.explore.result.IsRuleApplicableCondition;
 import groove.explore.result.NodeBoundCondition;
 import groove.explore.strategy.BFSStrategy;
+import groove.explore.strategy.BestFirstStrategy;
 import groove.explore.strategy.Boundary;
 import groove.explore.strategy.BoundedLTLStrategy;
 import groove.explore.strategy.BoundedPocketLTLStrategy;
 import groove.explore.strategy.ConditionalBFSStrategy;
+import groove.explore.strategy.CostFunction;
 import groove.explore.strategy.DFSStrategy;
 import groove.explore.strategy.ExploreStateStrategy;
 import groove.explore.strategy.LTLStrategy;
@@ -44,6 +47,7 @@ import groove.explore.strategy.ReteLinearStrategy;
 import groove.explore.strategy.ReteRandomLinearStrategy;
 import groove.explore.strategy.ReteStrategy;
 import groove.explore.strategy.Strategy;
+import groove.explore.strategy.SwarmStrategy;
 import groove.grammar.Rule;
 import groove.grammar.model.GrammarModel;
 import groove.grammar.type.TypeLabel;
@@ -62,6 +66,19 @@ public enum StrategyValue implements ParsableValue {
     DFS("dfs", "Depth-First Exploration",
         "This strategy first generates all possible transitions from each "
             + "open state, and then continues in a depth-first fashion."),
+    /** Best-first strategy. */
+    BEST_FIRST("best", "Best-First Exploration",
+        "This strategy first generates all possible transitions from each "
+            + "open state, and then continues with the open state of lowest cost. "
+            + "The cost is the number of nodes or edges of the state graph (nodes, edges), "
+            + "the value of a numeric rule parameter (rule:<name>:<index>) "
+            + "or given by a user-supplied class (class:<name>)."),
+    /** A* strategy. */
+    ASTAR("astar", "A* Exploration",
+        "This strategy first generates all possible transitions from each "
+            + "open state, and then continues with the open state for which the "
+            + "sum of its distance from the start state and its cost is lowest. "
+            + "The cost is specified as for best-first exploration."),
     /** Linear strategy. */
     LINEAR("linear", "Linear Exploration",
         "This strategy chooses one transition from each open state. "
@@ -70,6 +87,12 @@ public enum StrategyValue implements ParsableValue {
     RANDOM("random", "Random Linear Exploration",
         "This strategy chooses one transition from each open state. "
             + "The transition is chosen randomly."),
+    /** Swarm random simulation strategy. */
+    SWARM("swarm", "Swarm Random Simulation",
+        "This strategy runs a number of independent random walks of bounded length "
+            + "in parallel, each determined by a seed derived from a master seed, "
+            + "so that the outcome is reproducible from the master seed. "
+            + "The walks that reach a result are replayed in the state space."),
     /** Single-state strategy. */
     STATE("state", "Single-State Exploration", "This strategy fully explores the current state."),
     /** Depth-first RETE strategy. */
@@ -115,7 +138,8 @@ public enum StrategyValue implements ParsableValue {
             + "and optimised to avoid reexploring connected components ('pockets')"),
     /** Minimax strategy. */
     MINIMAX("minimax", "Minimax Strategy Generation",
-        "This strategy generates a strategy for a two-player game."),
+        "This strategy computes the minimax value of a two-player game, "
+            + "using a parallel alpha-beta search"),
     /** Remote strategy. */
     REMOTE("remote", "Remote Exploration",
         "This strategy sends the result as an STS to a remote server.");
@@ -222,6 +246,32 @@ public enum StrategyValue implements ParsableValue {
                 }
             };
 
+        case BEST_FIRST:
+        case ASTAR:
+            return new MyTemplate1<CostFunction>(new PAll("cost"), "cost",
+                new EncodedCostFunction()) {
+
+                @Override
+                public Strategy create(CostFunction cost) {
+                    return new BestFirstStrategy(cost, StrategyValue.this == ASTAR);
+                }
+            };
+
+        case SWARM:
+            return new MyTemplate3<Integer,Integer,Integer>(new PSequence(new PNumber("walks"),
+                new PLiteral(","), new PNumber("depth"), new PLiteral(","), new PNumber("seed")),
+                "walks", new EncodedInt(1, -1), "depth", new EncodedInt(0, -1), "seed",
+                new EncodedInt(0, -1)) {
+
+                @Override
+                public Strategy create(Object[] arguments) {
+                    Integer walks = (Integer) arguments[0];
+                    Integer depth = (Integer) arguments[1];
+                    Integer seed = (Integer) arguments[2];
+                    return new SwarmStrategy(walks, depth, seed);
+                }
+            };
+
         case STATE:
             return new MyTemplate0() {
                 @Override
@@ -400,6 +450,16 @@ public enum StrategyValue implements ParsableValue {
         }
     }
 
+    /** Specialised 3-parameter template that uses the strategy value's keyword, name and description. */
+    private abstract class MyTemplate3<T1,T2,T3> extends TemplateN<Strategy> {
+        @SuppressWarnings("unchecked")
+        public MyTemplate3(SerializedParser parser, String name1, EncodedType<T1,String> type1,
+            String name2, EncodedType<T2,String> type2, String name3, EncodedType<T3,String> type3) {
+            super(StrategyValue.this, parser, new String[] {name1, name2, name3}, type1, type2,
+                type3);
+        }
+    }
+
     /** Specialised 5-parameter template that uses the strategy value's keyword, name and description. */
     private abstract class MyTemplate5<T1,T2,T3,T4,T5> extends TemplateN<Strategy> {
         @SuppressWarnings("unchecked")
@@ -0,0 +1,109 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.explore.encode;
+
+import groove.explore.strategy.CostFunction;
+import groove.explore.strategy.GraphSizeCost;
+import groove.explore.strategy.RuleParameterCost;
+import groove.grammar.Grammar;
+import groove.grammar.Rule;
+import groove.grammar.model.GrammarModel;
+import groove.util.parse.FormatException;
+
+/**
+ * Encoding of a cost function for a best-first strategy. The syntax is one of
+ * <ul>
+ * <li>{@code nodes} or {@code edges}, for the size of the state graph;
+ * <li>{@code rule:<name>:<index>}, for the value of a numeric rule parameter;
+ * <li>{@code class:<name>}, for a user-supplied implementation of {@link CostFunction}.
+ * </ul>
+ * @see EncodedType
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public class EncodedCostFunction implements EncodedType<CostFunction,String> {
+    @Override
+    public EncodedTypeEditor<CostFunction,String> createEditor(GrammarModel grammar) {
+        return new StringEditor<CostFunction>(grammar, GraphSizeCost.NODES, 20);
+    }
+
+    @Override
+    public CostFunction parse(Grammar rules, String source) throws FormatException {
+        CostFunction result;
+        if (source.equals(GraphSizeCost.NODES)) {
+            result = new GraphSizeCost(false);
+        } else if (source.equals(GraphSizeCost.EDGES)) {
+            result = new GraphSizeCost(true);
+        } else if (source.startsWith(RuleParameterCost.PREFIX)) {
+            result = parseRuleParameter(rules, source.substring(RuleParameterCost.PREFIX.length()));
+        } else if (source.startsWith(CLASS_PREFIX)) {
+            result = parseClass(source.substring(CLASS_PREFIX.length()));
+        } else {
+            throw new FormatException("Unknown cost function '%s': should be '%s', '%s', "
+                + "'%s<rule>:<index>' or '%s<class>'", source, GraphSizeCost.NODES,
+                GraphSizeCost.EDGES, RuleParameterCost.PREFIX, CLASS_PREFIX);
+        }
+        return result;
+    }
+
+    /** Parses a rule parameter cost function of the form {@code <name>:<index>}. */
+    private CostFunction parseRuleParameter(Grammar rules, String source) throws FormatException {
+        int colon = source.lastIndexOf(':');
+        if (colon < 0) {
+            throw new FormatException("Rule cost function '%s' should be of the form "
+                + "<rule>:<index>", source);
+        }
+        String name = source.substring(0, colon);
+        Rule rule = rules.getRule(name);
+        if (rule == null) {
+            throw new FormatException("'%s' is not an enabled rule in the loaded grammar", name);
+        }
+        int index;
+        try {
+            index = Integer.parseInt(source.substring(colon + 1));
+        } catch (NumberFormatException exc) {
+            throw new FormatException("'%s' is not a valid parameter index",
+                source.substring(colon + 1));
+        }
+        try {
+            return new RuleParameterCost(rule, index);
+        } catch (IllegalArgumentException exc) {
+            throw new FormatException(exc.getMessage());
+        }
+    }
+
+    /** Instantiates a user-supplied cost function class. */
+    private CostFunction parseClass(String name) throws FormatException {
+        try {
+            Class<?> costClass = Class.forName(name);
+            if (!CostFunction.class.isAssignableFrom(costClass)) {
+                throw new FormatException("Class '%s' does not implement %s", name,
+                    CostFunction.class.getName());
+            }
+            return (CostFunction) costClass.newInstance();
+        } catch (ClassNotFoundException exc) {
+            throw new FormatException("Cost function class '%s' not found", name);
+        } catch (InstantiationException exc) {
+            throw new FormatException("Cost function class '%s' cannot be instantiated", name);
+        } catch (IllegalAccessException exc) {
+            throw new FormatException("Cost function class '%s' has no public constructor", name);
+        }
+    }
+
+    /** Prefix of a user-supplied cost function class name. */
+    public static final String CLASS_PREFIX = "class:";
+}
@@ -84,9 +84,28 @@ public abstract class Acceptor extends GTSAdapter {
      * @param gts the GTS being explored
      */
     protected ExploreResult createResult(GTS gts) {
-        return new ExploreResult(gts);
+        return new ExploreResult(gts, isDistinct());
     }
 
+    /**
+     * Sets the acceptor to only count results that are distinct up to isomorphism,
+     * also if the GTS does not collapse isomorphic states.
+     * This affects both the result and the exploration bound.
+     * Should be invoked before {@link #prepare(GTS)}.
+     * @see ExploreResult#isDistinct()
+     */
+    public void setDistinct(boolean distinct) {
+        assert !this.prototype : "Using a prototype acceptor";
+        this.distinct = distinct;
+    }
+
+    /** Indicates if this acceptor only counts results that are distinct up to isomorphism. */
+    public boolean isDistinct() {
+        return this.distinct;
+    }
+
+    private boolean distinct;
+
     /** Tests if the exploration is done,
      * according to the demands of this acceptor.
      */
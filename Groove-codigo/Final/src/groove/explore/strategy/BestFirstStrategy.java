@@ -0,0 +1,204 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.explore.strategy;
+
+import groove.explore.result.Acceptor;
+import groove.lts.GTS;
+import groove.lts.GTSAdapter;
+import groove.lts.GraphState;
+import groove.lts.GraphTransition;
+import groove.lts.RuleTransition;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Strategy that explores the open state with the lowest cost first.
+ * The cost of a state is given by a {@link CostFunction};
+ * in A* mode, the number of steps by which the state was reached is added to that cost.
+ * If a shorter path to a state is found later on, its distance is decreased:
+ * an open state is re-queued with its lower cost, and for an explored state the
+ * decrease is passed on to its successors.
+ * Hence, in A* mode with a cost function that never overestimates the distance to a goal,
+ * the first state found to be final upon exploration is one at minimal distance from the start state.
+ * (This does not hold for goals recognised upon their creation,
+ * as the distance of a new state may still decrease afterwards.)
+ * States of equal cost are explored in breadth-first order.
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public class BestFirstStrategy extends ClosingStrategy {
+    /**
+     * Constructs a strategy for a given cost function.
+     * @param cost the cost function for the states
+     * @param astar if {@code true}, the strategy is A*, meaning that
+     * the distance from the start state is added to the cost of a state
+     */
+    public BestFirstStrategy(CostFunction cost, boolean astar) {
+        this.cost = cost;
+        this.astar = astar;
+    }
+
+    @Override
+    public void prepare(GTS gts, GraphState state, Acceptor acceptor) {
+        super.prepare(gts, state, acceptor);
+        this.depth = 0;
+        this.counter = 0;
+        this.distances.clear();
+        if (this.astar) {
+            gts.addLTSListener(this.distanceListener);
+        }
+    }
+
+    @Override
+    public void finish() {
+        super.finish();
+        getGTS().removeLTSListener(this.distanceListener);
+    }
+
+    @Override
+    protected GraphState getFromPool() {
+        Entry entry;
+        do {
+            entry = this.pool.poll();
+            // skip entries superseded by a decrease of the distance
+        } while (entry != null && entry.depth > this.distances.get(entry.state));
+        if (entry == null) {
+            return null;
+        } else {
+            this.depth = entry.depth;
+            return entry.state;
+        }
+    }
+
+    @Override
+    protected void putInPool(GraphState state) {
+        // states are put in the pool either while they are being explored
+        // (if they are not yet done), or when they are reached from the
+        // state currently being explored
+        int depth = state == getNextState() ? this.depth : this.depth + 1;
+        Integer oldDepth = this.distances.get(state);
+        if (oldDepth != null && oldDepth < depth) {
+            depth = oldDepth;
+        }
+        offer(state, depth);
+    }
+
+    /** Adds a state to the pool, with a given distance from the start state. */
+    private void offer(GraphState state, int depth) {
+        this.distances.put(state, depth);
+        double cost = this.cost.getCost(state);
+        if (this.astar) {
+            cost += depth;
+        }
+        this.pool.offer(new Entry(state, cost, depth, this.counter++));
+    }
+
+    /**
+     * Decreases the distance of a state to a given value, if that is lower
+     * than its current distance. If the state is still open, it is re-queued;
+     * if it has been explored, the decrease is passed on to its successors.
+     */
+    private void decrease(GraphState state, int depth) {
+        Queue<GraphState> states = new LinkedList<GraphState>();
+        Queue<Integer> depths = new LinkedList<Integer>();
+        states.add(state);
+        depths.add(depth);
+        while (!states.isEmpty()) {
+            GraphState next = states.poll();
+            int nextDepth = depths.poll();
+            Integer oldDepth = this.distances.get(next);
+            if (oldDepth == null || oldDepth <= nextDepth) {
+                continue;
+            }
+            if (next.isClosed()) {
+                this.distances.put(next, nextDepth);
+                for (RuleTransition out : next.getRuleTransitions()) {
+                    states.add(out.target());
+                    depths.add(nextDepth + 1);
+                }
+            } else {
+                offer(next, nextDepth);
+            }
+        }
+    }
+
+    @Override
+    protected void clearPool() {
+        this.pool.clear();
+    }
+
+    /** Returns the cost function of this strategy. */
+    public CostFunction getCostFunction() {
+        return this.cost;
+    }
+
+    /** Indicates if this strategy adds the distance from the start state to the cost. */
+    public boolean isAStar() {
+        return this.astar;
+    }
+
+    private final CostFunction cost;
+    private final boolean astar;
+    /** Distance from the start state of the (non-transient) state currently being explored. */
+    private int depth;
+    /** Least known distance from the start state of the states that have been put in the pool. */
+    private final Map<GraphState,Integer> distances = new HashMap<GraphState,Integer>();
+    /**
+     * Listener that decreases the distance of known states
+     * reached by a shorter path; only used in A* mode.
+     */
+    private final GTSAdapter distanceListener = new GTSAdapter() {
+        @Override
+        public void addUpdate(GTS gts, GraphTransition transition) {
+            Integer sourceDepth = BestFirstStrategy.this.distances.get(transition.source());
+            int depth = sourceDepth == null ? BestFirstStrategy.this.depth : sourceDepth;
+            decrease(transition.target(), depth + 1);
+        }
+    };
+    /** Number of entries added to the pool so far; used to break ties. */
+    private long counter;
+    /** The pool of states, ordered by cost. */
+    private final PriorityQueue<Entry> pool = new PriorityQueue<Entry>();
+
+    /** Pool entry, consisting of a state and its cost. */
+    private static class Entry implements Comparable<Entry> {
+        Entry(GraphState state, double cost, int depth, long index) {
+            this.state = state;
+            this.cost = cost;
+            this.depth = depth;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            int result = Double.compare(this.cost, o.cost);
+            if (result == 0) {
+                result = this.index < o.index ? -1 : this.index == o.index ? 0 : 1;
+            }
+            return result;
+        }
+
+        final GraphState state;
+        final double cost;
+        final int depth;
+        final long index;
+    }
+}
@@ -53,9 +53,7 @@ public abstract class ClosingStrategy extends GTSStrategy {
                 }
             }
         }
-        for (MatchResult next : matches) {
-            state.applyMatch(next);
-        }
+        getGTS().getMatchApplier().applyAll(state, matches);
         setNextState();
         return state;
     }
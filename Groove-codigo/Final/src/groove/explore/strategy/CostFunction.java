@@ -0,0 +1,37 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.explore.strategy;
+
+import groove.lts.GraphState;
+
+/**
+ * Function estimating the cost of reaching a goal from a given state,
+ * used to direct a {@link BestFirstStrategy}.
+ * For A* search to find goals at minimal distance, the cost should never
+ * exceed the number of steps actually needed to reach a goal.
+ * Implementations that are to be specified by class name on the command line
+ * should have a public parameterless constructor.
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public interface CostFunction {
+    /**
+     * Returns the estimated cost of reaching a goal from a given state.
+     * Lower values are explored first.
+     */
+    public double getCost(GraphState state);
+}
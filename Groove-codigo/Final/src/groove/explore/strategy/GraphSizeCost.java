@@ -0,0 +1,56 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.explore.strategy;
+
+import groove.grammar.host.HostGraph;
+import groove.lts.GraphState;
+
+/**
+ * Cost function measuring the size of the state graph,
+ * either in terms of its nodes or of its edges.
+ * @author Arend Rensink
+ * @version $Revision $
+ * @see GraphNodeSizeBoundary
+ */
+public class GraphSizeCost implements CostFunction {
+    /**
+     * Constructs a graph size cost function.
+     * @param edges if {@code true}, the cost is the number of edges,
+     * otherwise it is the number of nodes
+     */
+    public GraphSizeCost(boolean edges) {
+        this.edges = edges;
+    }
+
+    @Override
+    public double getCost(GraphState state) {
+        HostGraph graph = state.getGraph();
+        return this.edges ? graph.edgeCount() : graph.nodeCount();
+    }
+
+    @Override
+    public String toString() {
+        return this.edges ? EDGES : NODES;
+    }
+
+    private final boolean edges;
+
+    /** Textual representation of the node count cost function. */
+    public static final String NODES = "nodes";
+    /** Textual representation of the edge count cost function. */
+    public static final String EDGES = "edges";
+}
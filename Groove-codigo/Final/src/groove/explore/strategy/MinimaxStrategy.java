@@ -19,41 +19,65 @@ package groove.explore.strategy;
 import groove.explore.result.Acceptor;
 import groove.grammar.Rule;
 import groove.grammar.host.AnchorValue;
+import groove.grammar.host.HostFactory;
 import groove.grammar.host.ValueNode;
 import groove.lts.GTS;
-import groove.lts.GTSListener;
 import groove.lts.GraphState;
-import groove.lts.GraphTransition;
+import groove.lts.MatchResult;
 import groove.lts.RuleTransition;
-import groove.lts.Status.Flag;
 import groove.transform.RuleEvent;
+import groove.util.ThreadPool;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * An exploration strategy which calculates the Minimax value of the starting state and all states reachable from it.
+ * An exploration strategy which calculates the Minimax value of the starting state,
+ * using a depth-first alpha-beta search.
+ * A state is a maximising state if the minmax rule matches in it with a {@code true}
+ * value for its minmax parameter; otherwise it is minimising.
+ * A transition of an evaluation rule to a state without matches ends a game;
+ * its heuristic parameter gives the score of the game.
+ * The moves of every state are ordered so that moves with the best known scores
+ * are tried first; subtrees that cannot influence the outcome are not explored.
+ * The moves of the starting state are searched in parallel, in the global
+ * {@link ThreadPool}, after the first (best-ordered) move has established an initial bound.
  */
-public class MinimaxStrategy extends ClosingStrategy implements GTSListener {
+public class MinimaxStrategy extends GTSStrategy {
     /** Constant used to disable bounded exploration */
     public static final int DEPTH_INFINITE = 0;
     private static final boolean DEBUG = false;
-    private static final boolean VERBOSE = DEBUG && false;
 
     private long timer;
 
-    //internal storage
-    private final LinkedList<MinimaxTree> nodes = new LinkedList<MinimaxTree>(); //contains the heuristic values for Minimax
-
-    //exploration stack (DFS)
-    private final ArrayDeque<GraphState> explorationStack = new ArrayDeque<GraphState>(); //unsynchronized stack
+    //search results
+    private Integer score; //minimax score of the starting state
+    private Move bestMove; //best move of the starting state
+    private List<Move> rootMoves; //ordered moves of the starting state
+    private boolean searched; //flag indicating that the search has been done
+    private volatile boolean aborted; //flag indicating that the search was interrupted
+
+    //transposition table: exact scores of searched states, with remaining depth;
+    //scores that depend on the path by which a state was reached are not stored
+    private final Map<GraphState,Entry> table = new ConcurrentHashMap<GraphState,Entry>();
+    //number of states expanded during the search
+    private final AtomicInteger expandCount = new AtomicInteger();
+    //lock for the (non thread-safe) exploration of the GTS
+    private final Object gtsLock = new Object();
 
     //configurable parameters
     private final int heuristicparam; //index of the heuristic parameter used
@@ -61,6 +85,7 @@ public class MinimaxStrategy extends ClosingStrategy implements GTSListener {
     private final ArrayList<String> enabledrules; //names of evaluation rules
     private final String minmaxRule; //name of the turn rule
     private final int maxdepth; //maximum depth of the exploration
+    private boolean parallel = true; //flag controlling the parallel search of the root moves
 
     /**
      * Constructs a strategy which uses the Minimax algorithm to generate a strategy while performing an optionally depth-bound DFS
@@ -117,37 +142,70 @@ public class MinimaxStrategy extends ClosingStrategy implements GTSListener {
         }
     }
 
+    /**
+     * Sets whether the moves of the starting state are searched in parallel.
+     * Parallel search is the default.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     @Override
     public void prepare(GTS gts, GraphState state, Acceptor acceptor) {
         super.prepare(gts, state, acceptor);
-        getGTS().addLTSListener(this);
+        this.table.clear();
+        this.expandCount.set(0);
+        this.score = null;
+        this.bestMove = null;
+        this.rootMoves = null;
+        this.searched = false;
+        this.aborted = false;
         this.timer = System.currentTimeMillis();
     }
 
     @Override
-    protected GraphState getFromPool() {
-        if (this.explorationStack.isEmpty()) {
-            return null;
-        } else {
-            GraphState result = this.explorationStack.pop();
-            GraphState startstate = getStartState();
-            int depth = getNodeDepth(result, startstate);
-            if (this.maxdepth != DEPTH_INFINITE && depth > this.maxdepth) { //if the next node is too deep, do not explore it
-                result = this.getFromPool(); //explore the next node (the current node is already popped from the stack)
-            }
-            return result;
-        }
+    public boolean hasNext() {
+        return !this.searched;
     }
 
+    /** Performs the complete search, and returns the starting state. */
     @Override
-    protected void putInPool(GraphState state) {
-        this.explorationStack.push(state);
+    public GraphState doNext() {
+        searchRoot();
+        this.searched = true;
+        return getStartState();
     }
 
     @Override
-    protected void clearPool() {
-        this.nodes.clear();
-        this.explorationStack.clear();
+    protected GraphState computeNextState() {
+        // the next state is not used to drive this strategy
+        return null;
+    }
+
+    /**
+     * Returns the minimax score of the starting state,
+     * or {@code null} if no game end was found within the search depth.
+     * Only meaningful after the exploration has run.
+     */
+    public Integer getScore() {
+        return this.score;
+    }
+
+    /**
+     * Returns the transition from the starting state to the best successor,
+     * or {@code null} if there is no such successor.
+     * Only meaningful after the exploration has run.
+     */
+    public RuleTransition getBestMove() {
+        return this.bestMove == null ? null : this.bestMove.transition;
+    }
+
+    /**
+     * Returns the number of states whose moves have been computed during the search.
+     * Only meaningful after the exploration has run.
+     */
+    public int getExpandCount() {
+        return this.expandCount.get();
     }
 
     /**
@@ -212,55 +270,25 @@ public class MinimaxStrategy extends ClosingStrategy implements GTSListener {
     }
 
     /**
-     * Function which exports a tree like string to a file
+     * Function which exports the scores of the moves of the starting state to a file
      * The file is overwritten by this method
      */
     public void printMinimaxDebugTree(File out) {
-        MinimaxTree mt = getNodeValue(this.getStartState().getNumber());
-        try { //write to a file, as tree representations can get quite large (10MB for tic-tac-toe)
-            File f = out;
-            if (f.exists()) {
-                f.delete();
-                f.createNewFile();
+        try {
+            PrintWriter pw = new PrintWriter(out);
+            pw.printf("[%s:%s]%n", getStartState().getNumber(), this.score);
+            if (this.rootMoves != null) {
+                for (Move move : this.rootMoves) {
+                    pw.printf("  %s%s: %s%n", move == this.bestMove ? "* " : "",
+                        move.transition, move.exact ? move.value : "bound " + move.value);
+                }
             }
-            PrintWriter pw = new PrintWriter(f);
-            pw.println(mt.toString());
             pw.flush();
             pw.close();
-            System.out.println("Wrote tree to file: " + f.getAbsolutePath());
+            System.out.println("Wrote tree to file: " + out.getAbsolutePath());
         } catch (IOException e) {
             e.printStackTrace();
         }
-
-    }
-
-    //
-    //
-    //Minimax storage functions
-
-    /**
-     * Set the tree node at the given position
-     * @param node the position of the assigned tree node
-     * @param value the assigned tree node
-     */
-    private void setNodeValue(int node, MinimaxTree value) {
-        while (this.nodes.size() - 1 < node) { //grow the array
-            this.nodes.add(null);
-        }
-        this.nodes.set(node, value);
-    }
-
-    /**
-     * Obtain the tree node stored at the given position
-     * @param node the position
-     * @return the tree node stored at the given position, or null if no tree node has been stored at that position.
-     */
-    private MinimaxTree getNodeValue(int node) {
-        if (node > this.nodes.size() - 1) {
-            return null;
-        } else {
-            return this.nodes.get(node);
-        }
     }
 
     /**
@@ -274,7 +302,17 @@ public class MinimaxStrategy extends ClosingStrategy implements GTSListener {
     }
 
     private boolean isMinMaxrule(String r) {
-        return this.minmaxRule.equals(r);
+        return this.minmaxRule != null && this.minmaxRule.equals(r);
+    }
+
+    /** Tests if a state at a given depth may still be expanded. */
+    private boolean isExpandable(int depth) {
+        return this.maxdepth == DEPTH_INFINITE || depth <= this.maxdepth;
+    }
+
+    /** Returns the remaining search depth for a state at a given depth. */
+    private int getRemainingDepth(int depth) {
+        return this.maxdepth == DEPTH_INFINITE ? Integer.MAX_VALUE : this.maxdepth - depth;
     }
 
     @Override
@@ -287,216 +325,361 @@ public class MinimaxStrategy extends ClosingStrategy implements GTSListener {
         }
     }
 
-    @Override
-    public void addUpdate(GTS gts, GraphTransition transition) {
-        //update the tree datastructure
-        GraphState source = transition.source();
-        GraphState target = transition.target();
-        MinimaxTree mts = getNodeValue(source.getNumber());
-        MinimaxTree mtt = getNodeValue(target.getNumber());
-        if (mts == null) {
-            assert source.getNumber() == this.getStartState().getNumber(); //the source node only exists at the first node
-            mts = new MinimaxTree(source.getNumber());
-            setNodeValue(mts.getNodeno(), mts);
-        }
-        if (mtt == null) {
-            mtt = new MinimaxTree(target.getNumber());
-            setNodeValue(mtt.getNodeno(), mtt);
-        }
-        if (VERBOSE) {
-            System.out.println("State added: " + transition.target().getNumber());
+    //
+    //
+    //Alpha-beta search
+
+    /**
+     * Searches the starting state.
+     * The first move is searched sequentially; the remaining moves
+     * are then searched in parallel, each starting with the best bound
+     * found so far.
+     */
+    private void searchRoot() {
+        GraphState root = getStartState();
+        List<Move> moves = expand(root);
+        this.rootMoves = moves;
+        if (moves.isEmpty()) {
+            return;
         }
-        //if we have a minmax rule, update the variable in the tree, and dont add tree nodes
-        if (isMinMaxrule(transition.label().getAction().getLastName())) {
-            Boolean minmax = getMinMaxParam((RuleTransition) transition);
-            mts.setMinMax(minmax);
+        boolean max = moves.get(0).max;
+        searchRootMove(moves.get(0));
+        List<Move> rest = moves.subList(1, moves.size());
+        if (this.parallel && rest.size() > 1 && ThreadPool.instance().isParallel()) {
+            // successors are created concurrently
+            HostFactory factory = getGTS().getHostFactory();
+            factory.share();
+            try {
+                searchParallel(rest);
+            } finally {
+                factory.unshare();
+            }
         } else {
-            //update the score
-            if (isRuleEnabled(transition.label().getAction().getLastName())
-                && target.getMatch() == null) {
-                int score = getHeuristicScore((RuleTransition) transition);
-                mtt.setScore(score);
+            for (Move move : rest) {
+                searchRootMove(move);
             }
         }
-        mts.addChild(mtt); //add child reference, set interface ensures uniqueness
-        if (VERBOSE) {
-            System.out.printf("Child added: %s for %s%n", mtt.getNodeno(), mts.getNodeno());
+        // choose the first best move in move order, among the exactly scored ones
+        Move best = null;
+        for (Move move : moves) {
+            if (move.exact && move.value != null
+                && (best == null || (max ? move.value > best.value : move.value < best.value))) {
+                best = move;
+            }
         }
+        this.bestMove = best;
+        this.score = best == null ? null : best.value;
     }
 
-    @Override
-    public void statusUpdate(GTS gts, GraphState state, Flag flag, int oldStatus) {
-        //unnessecary when all transitions are already handled
-    }
-
-    @Override
-    public void addUpdate(GTS gts, GraphState state) {
-        //dont do anything with states
+    /** Searches moves of the starting state in parallel, and waits for them to finish. */
+    private void searchParallel(List<Move> moves) {
+        ThreadPool threads = ThreadPool.instance();
+        List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(moves.size());
+        for (Move move : moves) {
+            tasks.add(threads.submit(new RootTask(move)));
+        }
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException exc) {
+            // stop the remaining tasks and wait for the running ones to notice,
+            // then restore the interrupt status so the exploration will stop
+            this.aborted = true;
+            for (ForkJoinTask<?> task : tasks) {
+                task.cancel(false);
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.quietlyJoin();
+            }
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException exc) {
+            throw new IllegalStateException(exc.getCause());
+        }
     }
 
-    //
-    //storage classes
-
     /**
-     * Abstract class to store the internal minimax heuristic scores as a tree
-     * @author Rick
-     * @version $Revision $
+     * Searches a move of the starting state, with a window
+     * determined by the best root score found so far.
      */
-    private class MinimaxTree {
-        private int nodeno;
-        private boolean max;
-        private Integer score = null;
-        private Set<MinimaxTree> children = null;
-
-        /**
-         * Constructs an entity in a minimax tree
-         * @param nodeno the corresponding node number from the LTS
-         */
-        public MinimaxTree(int nodeno) {
-            this.nodeno = nodeno;
+    private void searchRootMove(Move move) {
+        GraphState root = getStartState();
+        if (move.score != null) {
+            move.value = move.score;
+            move.exact = true;
+        } else if (isExpandable(1) && move.target != root) {
+            Integer bound = getRootBound();
+            int alpha = move.max && bound != null ? bound : Integer.MIN_VALUE;
+            int beta = !move.max && bound != null ? bound : Integer.MAX_VALUE;
+            Map<GraphState,Integer> path = new HashMap<GraphState,Integer>();
+            path.put(root, 0);
+            Integer value = search(move.target, 1, alpha, beta, path).value;
+            move.value = value;
+            move.exact = value == null || alpha < value && value < beta;
         }
-
-        /**
-         * Obtain the node number of this tree node
-         * @return the node number
-         */
-        public int getNodeno() {
-            return this.nodeno;
+        if (move.exact && move.value != null) {
+            setRootBound(move.max, move.value);
         }
+    }
 
-        /**
-         * Set whether to maximize or minimize the values of children nodes
-         * @param max true to maximize, false to minimize
-         */
-        public void setMinMax(boolean max) {
-            this.max = max;
-        }
+    /** Returns the best exact root score found so far. */
+    private synchronized Integer getRootBound() {
+        return this.rootBound;
+    }
 
-        /**
-         * Obtains whether this node will maximize or minimize the values of children nodes
-         * @return true when this node will maximize the values of children nodes
-         */
-        public boolean getMinMax() {
-            return this.max;
+    /** Improves the best root score found so far, if appropriate. */
+    private synchronized void setRootBound(boolean max, int value) {
+        if (this.rootBound == null || (max ? value > this.rootBound : value < this.rootBound)) {
+            this.rootBound = value;
         }
+    }
 
-        /**
-         * Checks whether this tree node functions as a leaf node
-         * @return true when this node is a leaf node
-         */
-        public boolean isLeafNode() {
-            return this.score != null;
-        }
+    /** Best exact root score found during the current search. */
+    private Integer rootBound;
 
-        /**
-         * Obtain the children of this node, converts this node to a tree node
-         * @return a set with the children of this node
-         */
-        public Set<MinimaxTree> getChildren() {
-            ensureChildren();
-            return this.children;
+    /**
+     * Fail-soft alpha-beta search of a given state.
+     * A value of {@code null} stands for "no game end found". Such a value
+     * never improves on a known score, for either player: a move without
+     * score is only chosen if no move of the state has a score.
+     * Moves to states on the path from the starting state are not searched,
+     * to avoid cycles; they count as having no score. A result that depends on
+     * such a cycle cut-off depends on the path by which the state was reached,
+     * and is therefore not stored in the transposition table.
+     * @param state the state to be searched
+     * @param depth the depth of {@code state} in the search
+     * @param alpha the lower bound of the search window
+     * @param beta the upper bound of the search window
+     * @param path the states on the path from the starting state, with their depths;
+     * is restored upon return
+     * @return the score of the state if strictly within the window;
+     * otherwise a bound on the score outside the window
+     */
+    private Result search(GraphState state, int depth, int alpha, int beta,
+        Map<GraphState,Integer> path) {
+        if (this.aborted) {
+            return Result.NONE;
         }
-
-        /**
-         * Add a child to this node, converts this node to a tree node
-         * @param mt the node to be added as a child of this node
-         */
-        public void addChild(MinimaxTree mt) {
-            ensureChildren();
-            if (mt != this && !mt.isDescendant(this)) {
-                getChildren().add(mt);
+        int remaining = getRemainingDepth(depth);
+        Entry entry = this.table.get(state);
+        if (entry != null && entry.remaining >= remaining) {
+            return new Result(entry.value, Integer.MAX_VALUE);
+        }
+        List<Move> moves = expand(state);
+        if (moves.isEmpty()) {
+            return Result.NONE;
+        }
+        boolean max = moves.get(0).max;
+        boolean expandTargets = isExpandable(depth + 1);
+        Integer best = null;
+        // least depth of a state on the path at which a cycle was cut off
+        int cycleDepth = Integer.MAX_VALUE;
+        boolean cut = false;
+        path.put(state, depth);
+        for (Move move : moves) {
+            Integer value;
+            Integer targetDepth = path.get(move.target);
+            if (move.score != null) {
+                value = move.score;
+            } else if (targetDepth != null) {
+                cycleDepth = Math.min(cycleDepth, targetDepth);
+                value = null;
+            } else if (expandTargets) {
+                Result result;
+                if (max) {
+                    result =
+                        search(move.target, depth + 1, best == null ? alpha : Math.max(alpha,
+                            best), beta, path);
+                } else {
+                    result =
+                        search(move.target, depth + 1, alpha, best == null ? beta : Math.min(
+                            beta, best), path);
+                }
+                value = result.value;
+                cycleDepth = Math.min(cycleDepth, result.cycleDepth);
             } else {
-                if (VERBOSE) {
-                    System.out.println("Prevented cycle to node: " + mt.getNodeno());
+                value = null;
+            }
+            if (value != null && (best == null || (max ? value > best : value < best))) {
+                best = value;
+                if (max ? best >= beta : best <= alpha) {
+                    cut = true;
+                    break;
                 }
             }
         }
-
-        /**
-         * Checks whether a node is a descendant of this node
-         * @param mt the node to look for
-         * @return true if mt is a descendant of this node
-         */
-        public boolean isDescendant(MinimaxTree mt) {
-            if (isLeafNode()) {
-                return false;
-            } else {
-                for (MinimaxTree child : getChildren()) {
-                    if (child.isDescendant(mt)) {
-                        return true;
-                    }
-                }
-                return false;
+        path.remove(state);
+        // cycles back to this state or below do not depend on the path to this state
+        if (cycleDepth >= depth) {
+            cycleDepth = Integer.MAX_VALUE;
+            if (!cut && !this.aborted && (best == null || alpha < best && best < beta)) {
+                this.table.put(state, new Entry(remaining, best));
             }
         }
+        return new Result(best, cycleDepth);
+    }
 
-        /**
-         * Obtain the minimax score of this node
-         * @return the minimax score of this node
-         */
-        public Integer getScore() {
-            Integer result = null;
-            if (isLeafNode()) {
-                result = this.score;
-            } else {
-                if (!getChildren().isEmpty()) { //only valid scores exist when there is at least one leaf node
-                    //calculate the tree score
-                    for (MinimaxTree mt : getChildren()) {
-                        Integer mtscore = mt.getScore();
-                        if (result == null) {
-                            //if there is no maximum or minimum yet, any value will do (even nulls)
-                            result = mtscore;
-                        } else if (mtscore != null) {
-                            if (getMinMax()) {
-                                result = Math.max(result, mtscore);
-                            } else {
-                                result = Math.min(result, mtscore);
-                            }
-                        }
+    /**
+     * Computes the moves of a state, ordered for the player to move.
+     * Only the parts of the exploration that change or inspect the GTS are done
+     * under a global lock, as the GTS cannot be extended concurrently;
+     * the graphs and certificates of fresh successors are computed outside it.
+     * This includes the matching, as it may close the state and
+     * notify the listeners of the GTS.
+     * A state may be reached along several paths, and is therefore
+     * locked itself to avoid concurrent expansion.
+     */
+    private List<Move> expand(GraphState state) {
+        List<Move> result = new ArrayList<Move>();
+        boolean max = false;
+        synchronized (state) {
+            this.expandCount.incrementAndGet();
+            List<MatchResult> matches;
+            synchronized (this.gtsLock) {
+                matches = state.getMatches();
+            }
+            getGTS().getMatchApplier().applyAll(state, matches, this.gtsLock);
+            synchronized (this.gtsLock) {
+                Set<GraphState> targets = new HashSet<GraphState>();
+                for (RuleTransition trans : state.getRuleTransitions()) {
+                    String name = trans.getAction().getLastName();
+                    GraphState target = trans.target();
+                    if (isMinMaxrule(name)) {
+                        max = getMinMaxParam(trans);
+                    }
+                    if (target == state) {
+                        continue;
+                    }
+                    Integer score = null;
+                    if (isRuleEnabled(name) && target.getMatch() == null) {
+                        score = getHeuristicScore(trans);
+                    } else if (!targets.add(target)) {
+                        // another transition to the same target has already been added
+                        continue;
                     }
+                    result.add(new Move(trans, score));
                 }
             }
-            return result;
         }
+        for (Move move : result) {
+            move.max = max;
+        }
+        Collections.sort(result, max ? this.maxOrder : this.minOrder);
+        return result;
+    }
 
-        /**
-         * Sets the heuristic score of this node. Converts this node to a leaf node.
-         * @param score The score to set.
-         */
-        public void setScore(Integer score) {
-            this.children = null;
-            this.score = score;
+    /**
+     * Returns the best known score of a move: either its game score,
+     * or the score of its target in the transposition table.
+     * @return the known score, or {@code null} if there is none
+     */
+    private Integer getKnownScore(Move move) {
+        if (move.score != null) {
+            return move.score;
         }
+        Entry entry = this.table.get(move.target);
+        return entry == null ? null : entry.value;
+    }
 
-        /**
-         * Helper method for recursive printing of tree nodes.
-         * @return a string representation of the score of this node, and the representations of all child nodes.
-         */
-        private String getText() {
-            String result = getScore() + "";
-            if (!isLeafNode()) {
-                result = result + " ";
-                for (MinimaxTree mt : getChildren()) {
-                    result = result + mt.toString();
-                }
+    /** Move ordering for the maximising player: highest known scores first. */
+    private final Comparator<Move> maxOrder = new MoveOrder(true);
+    /** Move ordering for the minimising player: lowest known scores first. */
+    private final Comparator<Move> minOrder = new MoveOrder(false);
+
+    /**
+     * Move ordering, putting moves with known scores first, best first.
+     * Moves without known score keep their relative order.
+     */
+    private class MoveOrder implements Comparator<Move> {
+        MoveOrder(boolean max) {
+            this.max = max;
+        }
+
+        @Override
+        public int compare(Move o1, Move o2) {
+            Integer score1 = getKnownScore(o1);
+            Integer score2 = getKnownScore(o2);
+            if (score1 == null) {
+                return score2 == null ? 0 : 1;
+            } else if (score2 == null) {
+                return -1;
+            } else {
+                return this.max ? score2.compareTo(score1) : score1.compareTo(score2);
             }
-            return result;
+        }
+
+        private final boolean max;
+    }
+
+    /** Task searching a single move of the starting state. */
+    private class RootTask implements Runnable {
+        RootTask(Move move) {
+            this.move = move;
         }
 
         @Override
-        public String toString() {
-            return "[" + getNodeno() + ";" + (getMinMax() ? "min()" : "max()") + ":" + getText()
-                + "]";
+        public void run() {
+            searchRootMove(this.move);
+        }
+
+        private final Move move;
+    }
+
+    //
+    //storage classes
+
+    /** Move of a state, i.e., an outgoing rule transition. */
+    private static class Move {
+        Move(RuleTransition transition, Integer score) {
+            this.transition = transition;
+            this.target = transition.target();
+            this.score = score;
         }
 
+        /** The transition of this move. */
+        final RuleTransition transition;
+        /** The target of the transition. */
+        final GraphState target;
+        /** The game score if this move ends the game; {@code null} otherwise. */
+        final Integer score;
+        /** Flag indicating that the source state of this move is maximising. */
+        boolean max;
+        /** The minimax score of the move, if it has been searched from the starting state. */
+        Integer value;
+        /** Flag indicating that {@link #value} is exact, rather than a bound. */
+        boolean exact;
+    }
+
+    /** Result of the search of a state. */
+    private static class Result {
+        Result(Integer value, int cycleDepth) {
+            this.value = value;
+            this.cycleDepth = cycleDepth;
+        }
+
+        /** The score or bound of the state; {@code null} if no game end was found. */
+        final Integer value;
         /**
-         * Converts this node to a tree node if it is not already a tree node.
+         * The least depth of a state on the search path at which a cycle was cut off
+         * while searching the state; {@link Integer#MAX_VALUE} if the result
+         * does not depend on the path.
          */
-        private void ensureChildren() {
-            if (this.children == null) {
-                this.children = new HashSet<MinimaxTree>();
-                this.score = null;
-            }
+        final int cycleDepth;
+
+        /** Path-independent result without score. */
+        static final Result NONE = new Result(null, Integer.MAX_VALUE);
+    }
+
+    /** Transposition table entry. */
+    private static class Entry {
+        Entry(int remaining, Integer value) {
+            this.remaining = remaining;
+            this.value = value;
         }
+
+        /** The remaining search depth with which the value was computed. */
+        final int remaining;
+        /** The exact score; {@code null} if no game end was found. */
+        final Integer value;
     }
 }
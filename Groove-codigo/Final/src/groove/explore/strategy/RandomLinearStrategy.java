@@ -16,10 +16,14 @@
  */
 package groove.explore.strategy;
 
+import groove.explore.result.Acceptor;
+import groove.lts.GTS;
+import groove.lts.GraphState;
 import groove.lts.MatchResult;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Explores a single path until reaching a final state or a loop. In case of
@@ -45,6 +49,52 @@ public class RandomLinearStrategy extends LinearStrategy {
      */
     public RandomLinearStrategy(boolean closeFast) {
         super(closeFast);
+        this.seed = 0;
+        this.maxDepth = 0;
+    }
+
+    /**
+     * Constructs a reproducible instance of the strategy, in which the random
+     * choices are determined by a given seed, and the length of the path
+     * is optionally bounded.
+     * @param seed the seed for the random choice of matches
+     * @param maxDepth the maximum number of transitions along the path;
+     * if {@code 0}, the path is unbounded
+     */
+    public RandomLinearStrategy(long seed, int maxDepth) {
+        super(false);
+        this.seed = seed;
+        this.maxDepth = maxDepth;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /** Returns the seed of this strategy; only meaningful if the strategy was seeded. */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    @Override
+    public void prepare(GTS gts, GraphState state, Acceptor acceptor) {
+        if (this.random != null) {
+            this.random = new SplittableRandom(this.seed);
+        }
+        this.depth = 0;
+        super.prepare(gts, state, acceptor);
+    }
+
+    @Override
+    public GraphState doNext() {
+        this.depth++;
+        return super.doNext();
+    }
+
+    @Override
+    protected GraphState computeNextState() {
+        if (this.maxDepth > 0 && this.depth >= this.maxDepth) {
+            return null;
+        } else {
+            return super.computeNextState();
+        }
     }
 
     /** This implementation returns a random element from the set of all matches. */
@@ -58,9 +108,23 @@ public class RandomLinearStrategy extends LinearStrategy {
         if (matchCount == 0) {
             return null;
         } else {
-            int randomIndex = (int) (Math.random() * matchCount);
+            int randomIndex;
+            if (this.random == null) {
+                randomIndex = (int) (Math.random() * matchCount);
+            } else {
+                randomIndex = this.random.nextInt(matchCount);
+            }
             // add the random match
             return matches.get(randomIndex);
         }
     }
+
+    /** Seed of the random generator, if this strategy is seeded. */
+    private final long seed;
+    /** Maximum length of the explored path; {@code 0} if unbounded. */
+    private final int maxDepth;
+    /** Number of steps taken so far. */
+    private int depth;
+    /** Random generator; {@code null} if the strategy is not seeded. */
+    private SplittableRandom random;
 }
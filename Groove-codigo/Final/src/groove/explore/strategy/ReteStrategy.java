@@ -62,7 +62,9 @@ public class ReteStrategy extends GTSStrategy {
 
         for (MatchResult nextMatch : ruleMatches) {
             RuleTransition trans = getNextState().applyMatch(nextMatch);
-            outTransitions.add(trans.target());
+            if (trans != null) {
+                outTransitions.add(trans.target());
+            }
         }
 
         addToPool(outTransitions);
@@ -0,0 +1,107 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.explore.strategy;
+
+import groove.algebra.Sort;
+import groove.control.CtrlPar.Var;
+import groove.grammar.Rule;
+import groove.grammar.host.HostNode;
+import groove.grammar.host.ValueNode;
+import groove.grammar.rule.RuleNode;
+import groove.grammar.rule.VariableNode;
+import groove.lts.GraphState;
+import groove.transform.Proof;
+
+/**
+ * Cost function that reads the cost from a numeric parameter of a rule.
+ * Typically the rule is a condition that computes a heuristic value
+ * from the state graph.
+ * The cost of a state is the minimum parameter value over all matches of the rule
+ * in the state graph, regardless of the control program; if the rule does not match,
+ * the cost is infinite.
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public class RuleParameterCost implements CostFunction {
+    /**
+     * Constructs a cost function for a given rule and parameter.
+     * @param rule the rule providing the cost
+     * @param index the index of the rule parameter that holds the cost
+     * @throws IllegalArgumentException if the rule has no parameter with the given index
+     * that is of type int or real and is bound by matching the rule
+     */
+    public RuleParameterCost(Rule rule, int index) throws IllegalArgumentException {
+        if (index >= rule.getSignature().size()) {
+            throw new IllegalArgumentException(String.format("Rule '%s' has no parameter %d",
+                rule.getFullName(),
+                index));
+        }
+        Var par = rule.getSignature().get(index);
+        if (par.isInOnly()) {
+            throw new IllegalArgumentException(String.format(
+                "Parameter %d of rule '%s' is an input parameter, which is not bound by matching",
+                index,
+                rule.getFullName()));
+        }
+        RuleNode node = par.getRuleNode();
+        if (!(node instanceof VariableNode) || !isNumeric(((VariableNode) node).getSignature())
+            || !rule.lhs().nodeSet().contains(node)) {
+            throw new IllegalArgumentException(String.format(
+                "Parameter %d of rule '%s' should be of type int or real, "
+                    + "and bound by the left hand side",
+                index,
+                rule.getFullName()));
+        }
+        this.rule = rule;
+        this.index = index;
+        this.node = node;
+    }
+
+    /** Tests if a given sort has numeric values. */
+    private static boolean isNumeric(Sort sort) {
+        return sort == Sort.INT || sort == Sort.REAL;
+    }
+
+    @Override
+    public double getCost(GraphState state) {
+        double result = Double.POSITIVE_INFINITY;
+        for (Proof proof : this.rule.getAllMatches(state.getGraph(), null)) {
+            HostNode image = proof.getPatternMap().getNode(this.node);
+            Object value = ((ValueNode) image).toJavaValue();
+            if (!(value instanceof Number)) {
+                throw new IllegalStateException(String.format(
+                    "Parameter %d of rule '%s' should be numeric",
+                    this.index,
+                    this.rule.getFullName()));
+            }
+            result = Math.min(result, ((Number) value).doubleValue());
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return PREFIX + this.rule.getFullName() + ":" + this.index;
+    }
+
+    private final Rule rule;
+    private final int index;
+    private final RuleNode node;
+
+    /** Prefix of the textual representation of a rule parameter cost function. */
+    public static final String PREFIX = "rule:";
+}
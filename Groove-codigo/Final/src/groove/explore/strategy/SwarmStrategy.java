@@ -0,0 +1,417 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.explore.strategy;
+
+import groove.explore.result.Acceptor;
+import groove.explore.result.NoStateAcceptor;
+import groove.grammar.Grammar;
+import groove.grammar.Rule;
+import groove.grammar.host.DefaultHostGraph;
+import groove.grammar.host.HostEdge;
+import groove.grammar.host.HostFactory;
+import groove.grammar.host.HostGraph;
+import groove.grammar.host.HostNode;
+import groove.lts.GTS;
+import groove.lts.GTSAdapter;
+import groove.lts.GraphState;
+import groove.lts.GraphTransition;
+import groove.lts.MatchResult;
+import groove.lts.RuleTransition;
+import groove.util.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Swarm simulation: a number of independent random walks of bounded length,
+ * run in parallel. Every walk is a {@link RandomLinearStrategy} with its own seed,
+ * exploring a private GTS of the same grammar; the seeds of the walks are
+ * derived from a single master seed.
+ * Every walk has its own host element factory, copied from that of the GTS
+ * of this strategy, and starts on its own copy of the start graph; moreover,
+ * the matches within a walk are computed sequentially. Hence the numbering
+ * of fresh nodes, and so the choices made by a walk, only depend on its seed.
+ * As a consequence, the outcome of a swarm is reproducible from its
+ * master seed, irrespective of the interleaving of the walks.
+ * The walks only share the set of fingerprints of the states they visited.
+ * Walks that reach a result state of the acceptor are afterwards replayed,
+ * one by one, in the GTS of this strategy, so that the result states and the
+ * paths leading to them end up in the GTS.
+ * Walks always start in the start state of the GTS.
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public class SwarmStrategy extends GTSStrategy {
+    /**
+     * Constructs a swarm strategy.
+     * @param walkCount the number of random walks
+     * @param maxDepth the maximum length of every walk; if {@code 0}, walks are unbounded
+     * @param seed the master seed, from which the seeds of the walks are derived
+     */
+    public SwarmStrategy(int walkCount, int maxDepth, long seed) {
+        this.walkCount = walkCount;
+        this.maxDepth = maxDepth;
+        this.seed = seed;
+    }
+
+    @Override
+    public void prepare(GTS gts, GraphState state, Acceptor acceptor) {
+        super.prepare(gts, state, acceptor);
+        this.acceptor = acceptor;
+        this.visited = Collections.newSetFromMap(new ConcurrentHashMap<Long,Boolean>());
+        this.walks = null;
+        this.replays = new LinkedList<Walk>();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.walks == null || !this.replays.isEmpty();
+    }
+
+    /**
+     * The first call runs the swarm; every subsequent call replays
+     * one of the walks that reached a result state.
+     */
+    @Override
+    public GraphState doNext() {
+        if (this.walks == null) {
+            runSwarm();
+            return getGTS().startState();
+        } else {
+            return replay(this.replays.poll());
+        }
+    }
+
+    @Override
+    protected GraphState computeNextState() {
+        // the next state is not used to drive this strategy
+        return null;
+    }
+
+    /**
+     * Runs all walks in the global thread pool, and waits for them to finish.
+     * As the pool is work-stealing, the walks may themselves use it
+     * (for instance, in the initialisation of the control automaton).
+     * The start state of the GTS is created beforehand, so that the host
+     * factory of the GTS already contains the start graph and the constants
+     * of the control program when the walks copy it.
+     */
+    private void runSwarm() {
+        HostGraph startGraph = getGTS().startState().getGraph();
+        SplittableRandom seeds = new SplittableRandom(this.seed);
+        List<Walk> walks = new ArrayList<Walk>(this.walkCount);
+        List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(this.walkCount);
+        for (int i = 0; i < this.walkCount; i++) {
+            Walk walk = new Walk(seeds.nextLong(), startGraph);
+            walks.add(walk);
+            tasks.add(ThreadPool.instance().submit(walk));
+        }
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException exc) {
+            // stop the remaining walks and wait for the running ones to notice,
+            // then restore the interrupt status so the exploration will stop
+            for (ForkJoinTask<?> task : tasks) {
+                task.cancel(false);
+            }
+            for (Walk walk : walks) {
+                walk.abort();
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.quietlyJoin();
+            }
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException exc) {
+            throw new IllegalStateException(exc.getCause());
+        }
+        for (Walk walk : walks) {
+            if (walk.isAccepted()) {
+                this.replays.add(walk);
+            }
+        }
+        this.walks = walks;
+    }
+
+    /**
+     * Replays a walk in the GTS of this strategy.
+     * In every step, the matches of the recorded rule are applied until one
+     * yields a state with the recorded fingerprint; the other successors
+     * that are thereby added are genuine states of the GTS.
+     * @return the last state reached
+     */
+    private GraphState replay(Walk walk) {
+        GraphState state = getGTS().startState();
+        for (Step step : walk.getSteps()) {
+            GraphState next = null;
+            for (MatchResult match : state.getMatches()) {
+                if (match.getAction() != step.rule) {
+                    continue;
+                }
+                RuleTransition trans = state.applyMatch(match);
+                if (trans != null && GTS.getFingerprint(trans.target()) == step.fingerprint) {
+                    next = trans.target();
+                    break;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            state = next;
+        }
+        // compute the matches, so the final state is closed and acceptors are notified
+        state.getMatches();
+        return state;
+    }
+
+    /** Returns the number of walks in the swarm. */
+    public int getWalkCount() {
+        return this.walkCount;
+    }
+
+    /** Returns the maximum length of every walk; {@code 0} if the walks are unbounded. */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /** Returns the master seed of the swarm. */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Returns the seeds of the walks that reached a result state.
+     * Only meaningful after the exploration has run.
+     */
+    public List<Long> getAcceptedSeeds() {
+        List<Long> result = new ArrayList<Long>();
+        if (this.walks != null) {
+            for (Walk walk : this.walks) {
+                if (walk.isAccepted()) {
+                    result.add(walk.getSeed());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct states (up to isomorphism, with high probability)
+     * visited by all walks together.
+     * Only meaningful after the exploration has run.
+     */
+    public int getVisitedCount() {
+        return this.visited == null ? 0 : this.visited.size();
+    }
+
+    private final int walkCount;
+    private final int maxDepth;
+    private final long seed;
+    /** The acceptor of the exploration; may be {@code null}. */
+    private Acceptor acceptor;
+    /** Fingerprints of the states visited by any of the walks. */
+    private Set<Long> visited;
+    /** The walks of the swarm; {@code null} as long as the swarm has not run. */
+    private List<Walk> walks;
+    /** Walks that reached a result, and remain to be replayed. */
+    private Queue<Walk> replays;
+
+    /** Single random walk of the swarm, on a private GTS. */
+    private class Walk extends GTSAdapter implements Runnable {
+        Walk(long seed, HostGraph startGraph) {
+            this.seed = seed;
+            this.startGraph = startGraph;
+        }
+
+        @Override
+        public void run() {
+            if (!start()) {
+                return;
+            }
+            try {
+                walk();
+            } finally {
+                stop();
+            }
+        }
+
+        /** Performs the actual walk. */
+        private void walk() {
+            GTS gts = new WalkGTS(getGTS().getGrammar(), this.startGraph);
+            Acceptor acceptor =
+                SwarmStrategy.this.acceptor == null ? NoStateAcceptor.INSTANCE.newAcceptor(1)
+                    : SwarmStrategy.this.acceptor.newAcceptor(1);
+            Strategy strategy = new RandomLinearStrategy(this.seed, getMaxDepth());
+            gts.startState();
+            strategy.setGTS(gts);
+            strategy.setAcceptor(acceptor);
+            gts.addLTSListener(this);
+            strategy.play();
+            gts.removeLTSListener(this);
+            this.accepted = !acceptor.getResult().isEmpty();
+        }
+
+        /**
+         * Registers the current thread as running this walk.
+         * @return {@code false} if the walk has already been aborted
+         */
+        private synchronized boolean start() {
+            if (this.aborted) {
+                return false;
+            }
+            this.thread = Thread.currentThread();
+            return true;
+        }
+
+        /**
+         * Deregisters the thread running this walk, clearing any interrupt
+         * caused by {@link #abort()}, as the thread belongs to the pool.
+         */
+        private synchronized void stop() {
+            this.thread = null;
+            if (this.aborted) {
+                Thread.interrupted();
+            }
+        }
+
+        /** Stops this walk, by interrupting the thread running it, if any. */
+        synchronized void abort() {
+            this.aborted = true;
+            if (this.thread != null) {
+                this.thread.interrupt();
+            }
+        }
+
+        @Override
+        public void addUpdate(GTS gts, GraphState state) {
+            this.lastState = state;
+            this.lastFingerprint = GTS.getFingerprint(state);
+            SwarmStrategy.this.visited.add(this.lastFingerprint);
+        }
+
+        @Override
+        public void addUpdate(GTS gts, GraphTransition transition) {
+            if (transition instanceof RuleTransition) {
+                GraphState target = transition.target();
+                long fingerprint =
+                    target == this.lastState ? this.lastFingerprint : GTS.getFingerprint(target);
+                this.steps.add(new Step(((RuleTransition) transition).getAction(), fingerprint));
+            }
+        }
+
+        /** Returns the seed of this walk. */
+        long getSeed() {
+            return this.seed;
+        }
+
+        /** Returns the rule transitions taken by this walk. */
+        List<Step> getSteps() {
+            return this.steps;
+        }
+
+        /** Indicates if this walk has reached a result state. */
+        boolean isAccepted() {
+            return this.accepted;
+        }
+
+        private final long seed;
+        /** The start graph of the GTS of this strategy. */
+        private final HostGraph startGraph;
+        private final List<Step> steps = new ArrayList<Step>();
+        private boolean accepted;
+        /** Flag indicating that the walk has been aborted. */
+        private boolean aborted;
+        /** The thread running this walk, if it is currently running. */
+        private Thread thread;
+        /** The most recently added state, and its fingerprint. */
+        private GraphState lastState;
+        private long lastFingerprint;
+    }
+
+    /**
+     * GTS of a single walk, with a private copy of the host factory
+     * and of the start graph of the GTS of this strategy.
+     */
+    private static class WalkGTS extends GTS {
+        /**
+         * Constructs the GTS of a walk.
+         * @param grammar the grammar of the GTS
+         * @param startGraph the start graph of the GTS of this strategy;
+         * its factory is copied, rather than shared
+         */
+        WalkGTS(Grammar grammar, HostGraph startGraph) {
+            super(grammar);
+            this.startGraph = startGraph;
+            this.factory = startGraph.getFactory().copy();
+        }
+
+        @Override
+        public HostFactory getHostFactory() {
+            return this.factory;
+        }
+
+        /**
+         * The walks themselves run in parallel; parallel matching within a walk
+         * would make the numbering of fresh value nodes nondeterministic.
+         */
+        @Override
+        public boolean allowsParallelMatching() {
+            return false;
+        }
+
+        /**
+         * Copies the start graph into the private host factory.
+         * The nodes themselves can be reused, as the factory contains them.
+         */
+        @Override
+        protected HostGraph createStartGraph() {
+            DefaultHostGraph result =
+                new DefaultHostGraph(this.startGraph.getName(), this.factory);
+            for (HostNode node : this.startGraph.nodeSet()) {
+                result.addNode(node);
+            }
+            for (HostEdge edge : this.startGraph.edgeSet()) {
+                result.addEdgeContext(edge);
+            }
+            result.setFixed();
+            return result;
+        }
+
+        private final HostGraph startGraph;
+        private final HostFactory factory;
+    }
+
+    /** Rule transition of a walk, recorded by rule and target fingerprint. */
+    private static class Step {
+        Step(Rule rule, long fingerprint) {
+            this.rule = rule;
+            this.fingerprint = fingerprint;
+        }
+
+        final Rule rule;
+        final long fingerprint;
+    }
+}
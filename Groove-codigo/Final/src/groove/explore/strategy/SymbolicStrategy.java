@@ -118,8 +118,11 @@ public class SymbolicStrategy extends GTSStrategy {
                     }
                     temp.add(sr);
                     RuleTransition transition = getNextState().applyMatch(next);
-                    Location l = this.sts.hostGraphToLocation(transition.target().getGraph());
-                    current.addSwitchRelation(sr, l);
+                    if (transition != null) {
+                        Location l =
+                            this.sts.hostGraphToLocation(transition.target().getGraph());
+                        current.addSwitchRelation(sr, l);
+                    }
                 }
                 if (emptyGuard) {
                     // A higher priority rule is always applicable from the current location,
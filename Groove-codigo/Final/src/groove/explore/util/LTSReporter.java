@@ -27,6 +27,8 @@ import groove.lts.Filter;
 import groove.lts.GTS;
 import groove.util.Groove;
 import groove.util.Pair;
+import groove.verify.CompactModel;
+import groove.verify.Minimiser;
 
 import java.io.File;
 import java.io.IOException;
@@ -42,20 +44,45 @@ public class LTSReporter extends AExplorationReporter {
      * @param filter determines which part of the LTS should be included
      */
     public LTSReporter(String filePattern, LTSLabels labels, LogReporter logger, Filter filter) {
+        this(filePattern, labels, logger, filter, false);
+    }
+
+    /** Constructs a new LTS reporter, for a given output file name pattern,
+     * a set of format flags and an LTS filter, which optionally minimises
+     * the LTS before saving it.
+     * @param filter determines which part of the LTS should be included
+     * @param minimise if {@code true}, the LTS is saved modulo bisimilarity
+     * @see #exportMinimisedLTS(GTS, String, LTSLabels, ExploreResult)
+     */
+    public LTSReporter(String filePattern, LTSLabels labels, LogReporter logger, Filter filter,
+        boolean minimise) {
         this.filePattern = filePattern;
         this.labels = labels == null ? LTSLabels.DEFAULT : labels;
         this.filter = filter;
         this.logger = logger;
+        this.minimise = minimise;
     }
 
     @Override
     public void report() throws IOException {
-        File outFile =
-            exportLTS(getGTS(),
-                this.filePattern,
-                this.labels,
-                this.filter,
-                getExploration().getResult());
+        File outFile;
+        if (this.minimise) {
+            if (this.filter != Filter.NONE) {
+                throw new IOException("Only complete LTSs can be minimised");
+            }
+            outFile =
+                exportMinimisedLTS(getGTS(),
+                    this.filePattern,
+                    this.labels,
+                    getExploration().getResult());
+        } else {
+            outFile =
+                exportLTS(getGTS(),
+                    this.filePattern,
+                    this.labels,
+                    this.filter,
+                    getExploration().getResult());
+        }
         this.logger.append("LTS saved as %s%n", outFile.getPath());
     }
 
@@ -63,6 +90,7 @@ public class LTSReporter extends AExplorationReporter {
     private final String filePattern;
     private final Filter filter;
     private final LTSLabels labels;
+    private final boolean minimise;
 
     /**
      * Saves a LTS as a plain graph under a given file name,
@@ -78,20 +106,57 @@ public class LTSReporter extends AExplorationReporter {
      */
     public static File exportLTS(GTS lts, String filePattern, LTSLabels labels, Filter filter,
         ExploreResult answer) throws IOException {
+        File outFile = toOutFile(lts, filePattern);
+        if (FileType.COMPACT_LTS.hasExtension(outFile)) {
+            // the compact format is written directly from the GTS
+            if (filter != Filter.NONE || answer == null) {
+                throw new IOException(String.format("%s can only store complete exploration results",
+                    FileType.COMPACT_LTS.getDescription()));
+            }
+            CompactModel.save(answer, outFile);
+            return outFile;
+        }
         // Create the LTS view to be exported.
         MultiGraph ltsGraph = lts.toPlainGraph(labels, filter, answer);
         // Export GTS.
-        String ltsName;
-        File dir = new File(filePattern);
-        if (dir.isDirectory()) {
-            ltsName = PLACEHOLDER;
+        Pair<FileType,Exporter> gtsFormat = Exporters.getAcceptingFormat(outFile.getName());
+        if (gtsFormat != null) {
+            try {
+                gtsFormat.two().doExport(new Exportable(ltsGraph), outFile, gtsFormat.one());
+            } catch (PortException e1) {
+                throw new IOException(e1);
+            }
         } else {
-            ltsName = dir.getName();
-            dir = dir.getParentFile();
+            if (!FileType.hasAnyExtension(outFile)) {
+                outFile = FileType.GXL.addExtension(outFile);
+            }
+            Groove.saveGraph(ltsGraph, outFile);
         }
-        ltsName = ltsName.replace(PLACEHOLDER, lts.getGrammar().getId());
-        File outFile = new File(dir, ltsName);
-        Pair<FileType,Exporter> gtsFormat = Exporters.getAcceptingFormat(ltsName);
+        return outFile;
+    }
+
+    /**
+     * Saves the quotient of an LTS modulo bisimilarity under a given file name,
+     * with options to label particular special states.
+     * The states of the saved LTS are the bisimilarity classes of the real states;
+     * see {@link Minimiser}.
+     * @param lts the LTS to be saved
+     * @param filePattern string  to derive the file name and format from
+     * @param labels options to label particular special states
+     * @param answer the result of the exploration, used to flag result states
+     * @return the output file name
+     * @throws IOException if any error occurred during export
+     */
+    public static File exportMinimisedLTS(GTS lts, String filePattern, LTSLabels labels,
+        ExploreResult answer) throws IOException {
+        File outFile = toOutFile(lts, filePattern);
+        CompactModel quotient = Minimiser.minimise(CompactModel.build(answer));
+        if (FileType.COMPACT_LTS.hasExtension(outFile)) {
+            quotient.save(outFile);
+            return outFile;
+        }
+        MultiGraph ltsGraph = quotient.toPlainGraph(lts.getName(), labels);
+        Pair<FileType,Exporter> gtsFormat = Exporters.getAcceptingFormat(outFile.getName());
         if (gtsFormat != null) {
             try {
                 gtsFormat.two().doExport(new Exportable(ltsGraph), outFile, gtsFormat.one());
@@ -107,6 +172,28 @@ public class LTSReporter extends AExplorationReporter {
         return outFile;
     }
 
+    /**
+     * Derives the output file for an LTS from a file name pattern.
+     * If the pattern is a directory, the file is placed in that directory
+     * and named after the grammar; otherwise the placeholder in the pattern
+     * is replaced by the grammar ID.
+     * @param lts the LTS to be saved
+     * @param filePattern string to derive the file name from
+     * @return the (not yet extended) output file
+     */
+    static File toOutFile(GTS lts, String filePattern) {
+        String ltsName;
+        File dir = new File(filePattern);
+        if (dir.isDirectory()) {
+            ltsName = PLACEHOLDER;
+        } else {
+            ltsName = dir.getName();
+            dir = dir.getParentFile();
+        }
+        ltsName = ltsName.replace(PLACEHOLDER, lts.getGrammar().getId());
+        return new File(dir, ltsName);
+    }
+
     /** Placeholder in LTS and state filename patterns to insert further information. */
     private static final String PLACEHOLDER = "#";
 }
@@ -0,0 +1,504 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.explore.util;
+
+import groove.explore.Exploration;
+import groove.explore.ExploreResult;
+import groove.graph.GraphProperties;
+import groove.graph.GraphRole;
+import groove.io.FileType;
+import groove.lts.GTS;
+import groove.lts.GTSAdapter;
+import groove.lts.GraphState;
+import groove.lts.GraphTransition;
+import groove.lts.Status.Flag;
+import groove.util.Version;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Exploration reporter that saves the LTS while it is being generated,
+ * rather than building a plain graph of the complete LTS after exploration.
+ * A state is written out as soon as it is done, and a transition as soon
+ * as both its source and target are done; states and transitions that are
+ * still pending at the end of the exploration are written out when the
+ * exploration stops.
+ * Only unfiltered LTSs can be streamed, in either the {@link FileType#AUT}
+ * or the {@link FileType#GXL} format.
+ * @author Arend Rensink
+ * @version $Revision $
+ * @see LTSReporter
+ */
+public class LTSStreamReporter extends AExplorationReporter {
+    /** Constructs a new streaming LTS reporter, for a given output file name pattern
+     * and set of format flags.
+     * @param filePattern string to derive the file name and format from;
+     * should satisfy {@link #canStream(String)}
+     */
+    public LTSStreamReporter(String filePattern, LTSLabels labels, LogReporter logger) {
+        assert canStream(filePattern);
+        this.filePattern = filePattern;
+        this.labels = labels == null ? LTSLabels.DEFAULT : labels;
+        this.logger = logger;
+    }
+
+    @Override
+    public void start(Exploration exploration, GTS gts) {
+        super.start(exploration, gts);
+        this.error = null;
+        this.written = new BitSet();
+        this.pending = new HashMap<GraphState,List<GraphTransition>>();
+        File outFile = LTSReporter.toOutFile(gts, this.filePattern);
+        try {
+            if (FileType.AUT.hasExtension(outFile)) {
+                this.out = new AutStream(outFile, gts.startState().getNumber());
+            } else {
+                if (!FileType.hasAnyExtension(outFile)) {
+                    outFile = FileType.GXL.addExtension(outFile);
+                }
+                this.out = new GxlStream(outFile, gts.getName());
+            }
+            // take care of the part of the GTS that is already there
+            for (GraphState state : gts.nodeSet()) {
+                if (state.isDone()) {
+                    writeState(state);
+                }
+            }
+            for (GraphTransition transition : gts.edgeSet()) {
+                addTransition(transition);
+            }
+        } catch (IOException exc) {
+            this.error = exc;
+        }
+        gts.addLTSListener(this.listener);
+    }
+
+    /**
+     * Writes all states and transitions that have not yet been written,
+     * and removes the GTS listener.
+     */
+    @Override
+    public void stop(GTS gts) {
+        gts.removeLTSListener(this.listener);
+        if (this.out != null && this.error == null) {
+            try {
+                for (GraphState state : gts.nodeSet()) {
+                    if (!this.written.get(state.getNumber())) {
+                        writeState(state);
+                    }
+                }
+                for (List<GraphTransition> transitions : this.pending.values()) {
+                    for (GraphTransition transition : transitions) {
+                        writeTransition(transition);
+                    }
+                }
+            } catch (IOException exc) {
+                this.error = exc;
+            }
+        }
+        this.pending = null;
+    }
+
+    /**
+     * Adds the result labels (which are only known after the exploration)
+     * and completes the output file.
+     */
+    @Override
+    public void report() throws IOException {
+        StreamWriter out = this.out;
+        this.out = null;
+        if (out == null) {
+            throw this.error == null ? new IOException("LTS output was not started") : this.error;
+        }
+        try {
+            ExploreResult answer = getExploration().getResult();
+            if (this.error == null && this.labels.showResult() && answer != null) {
+                for (GraphState state : answer) {
+                    if (this.written.get(state.getNumber())) {
+                        out.writeEdge(state.getNumber(),
+                            this.labels.getResultLabel(),
+                            state.getNumber());
+                    }
+                }
+            }
+        } finally {
+            out.close();
+        }
+        if (this.error != null) {
+            throw this.error;
+        }
+        this.logger.append("LTS streamed to %s%n", out.getFile().getPath());
+    }
+
+    /**
+     * Writes a given state and its special labels to the output,
+     * unless it should be excluded from the LTS.
+     */
+    private void writeState(GraphState state) throws IOException {
+        int number = state.getNumber();
+        this.written.set(number);
+        if (isExcluded(state)) {
+            return;
+        }
+        LTSLabels flags = this.labels;
+        StreamWriter out = this.out;
+        out.writeNode(number);
+        if (flags.showFinal() && state.isFinal()) {
+            out.writeEdge(number, flags.getFinalLabel(), number);
+        }
+        if (flags.showStart() && getGTS().startState().equals(state)) {
+            out.writeEdge(number, flags.getStartLabel(), number);
+        }
+        if (flags.showOpen() && !state.isClosed()) {
+            out.writeEdge(number, flags.getOpenLabel(), number);
+        }
+        if (flags.showNumber()) {
+            String label = flags.getNumberLabel().replaceAll("#", "" + number);
+            out.writeEdge(number, label, number);
+        }
+        if (flags.showTransience() && state.isTransient()) {
+            String label =
+                flags.getTransienceLabel().replaceAll("#",
+                    "" + state.getActualFrame().getTransience());
+            out.writeEdge(number, label, number);
+        }
+        if (flags.showRecipes() && state.isInternalState()) {
+            String label =
+                flags.getRecipeLabel().replaceAll("#",
+                    "" + state.getActualFrame().getRecipe().getFullName());
+            out.writeEdge(number, label, number);
+        }
+    }
+
+    /**
+     * Processes a newly added transition. The transition is written if both
+     * its source and target state are done; otherwise it is kept pending
+     * until that is the case, as the states may still turn out to be absent.
+     */
+    private void addTransition(GraphTransition transition) throws IOException {
+        GraphState source = transition.source();
+        GraphState target = transition.target();
+        if (!source.isDone()) {
+            addPending(source, transition);
+        } else if (!target.isDone()) {
+            addPending(target, transition);
+        } else {
+            writeTransition(transition);
+        }
+    }
+
+    /** Adds a transition to the pending transitions of a given state. */
+    private void addPending(GraphState state, GraphTransition transition) {
+        List<GraphTransition> transitions = this.pending.get(state);
+        if (transitions == null) {
+            this.pending.put(state, transitions = new ArrayList<GraphTransition>());
+        }
+        transitions.add(transition);
+    }
+
+    /**
+     * Callback method invoked when a state is done.
+     * Writes the state and reconsiders its pending transitions.
+     */
+    private void setDone(GraphState state) throws IOException {
+        writeState(state);
+        List<GraphTransition> transitions = this.pending.remove(state);
+        if (transitions != null) {
+            for (GraphTransition transition : transitions) {
+                addTransition(transition);
+            }
+        }
+    }
+
+    /** Writes a given transition to the output, unless it should be excluded from the LTS. */
+    private void writeTransition(GraphTransition transition) throws IOException {
+        // don't include partial transitions unless forced to
+        if (transition.isInternalStep() && !this.labels.showRecipes()) {
+            return;
+        }
+        GraphState source = transition.source();
+        GraphState target = transition.target();
+        if (isExcluded(source) || isExcluded(target)) {
+            return;
+        }
+        this.out.writeEdge(source.getNumber(), transition.label().text(), target.getNumber());
+    }
+
+    /** Indicates if a given state should be excluded from the LTS. */
+    private boolean isExcluded(GraphState state) {
+        // don't include transient states unless forced to
+        return state.isInternalState() && !this.labels.showRecipes() || state.isAbsent();
+    }
+
+    private final LogReporter logger;
+    private final String filePattern;
+    private final LTSLabels labels;
+    /** Writer for the currently streamed LTS. */
+    private StreamWriter out;
+    /** Set of state numbers that have already been written. */
+    private BitSet written;
+    /**
+     * Transitions that cannot be written yet, stored under a state
+     * that is not yet done.
+     */
+    private Map<GraphState,List<GraphTransition>> pending;
+    /** First error that occurred while streaming, if any. */
+    private IOException error;
+    /** The GTS listener that writes states and transitions as they become available. */
+    private final GTSAdapter listener = new GTSAdapter() {
+        @Override
+        public void addUpdate(GTS gts, GraphTransition transition) {
+            if (LTSStreamReporter.this.error == null) {
+                try {
+                    addTransition(transition);
+                } catch (IOException exc) {
+                    LTSStreamReporter.this.error = exc;
+                }
+            }
+        }
+
+        @Override
+        public void statusUpdate(GTS gts, GraphState state, Flag flag, int oldStatus) {
+            if (flag == Flag.DONE && LTSStreamReporter.this.error == null) {
+                try {
+                    setDone(state);
+                } catch (IOException exc) {
+                    LTSStreamReporter.this.error = exc;
+                }
+            }
+        }
+    };
+
+    /**
+     * Indicates if a given file name pattern specifies a format
+     * that can be streamed.
+     */
+    public static boolean canStream(String filePattern) {
+        String name = new File(filePattern).getName();
+        return !FileType.hasAnyExtension(name) || FileType.AUT.hasExtension(name)
+            || FileType.GXL.hasExtension(name);
+    }
+
+    /** Sequential writer for the nodes and edges of an LTS. */
+    private static abstract class StreamWriter {
+        StreamWriter(File file) {
+            this.file = file;
+        }
+
+        /** Returns the file being written. */
+        File getFile() {
+            return this.file;
+        }
+
+        private final File file;
+
+        /** Writes a state with a given number. */
+        abstract void writeNode(int number) throws IOException;
+
+        /** Writes a labelled edge between two states. */
+        abstract void writeEdge(int source, String label, int target) throws IOException;
+
+        /** Completes the output and closes the file. */
+        abstract void close() throws IOException;
+    }
+
+    /**
+     * Writer for the CADP {@code .aut} format.
+     * The header contains the transition and state counts, which are
+     * only known at the end; therefore a fixed-width header is reserved
+     * and overwritten upon closing.
+     */
+    private static class AutStream extends StreamWriter {
+        AutStream(File file, int initial) throws IOException {
+            super(file);
+            this.initial = initial;
+            this.writer = new BufferedWriter(new FileWriter(file), BUFFER_SIZE);
+            this.writer.write(header());
+        }
+
+        @Override
+        void writeNode(int number) {
+            this.nodeCount = Math.max(this.nodeCount, number + 1);
+        }
+
+        @Override
+        void writeEdge(int source, String label, int target) throws IOException {
+            this.nodeCount = Math.max(this.nodeCount, Math.max(source, target) + 1);
+            this.edgeCount++;
+            Writer writer = this.writer;
+            writer.write('(');
+            writer.write(Integer.toString(source));
+            writer.write(',');
+            if (label.indexOf(',') >= 0) {
+                writer.write('"');
+                writer.write(label);
+                writer.write('"');
+            } else {
+                writer.write(label);
+            }
+            writer.write(',');
+            writer.write(Integer.toString(target));
+            writer.write(')');
+            writer.write(NEWLINE);
+        }
+
+        @Override
+        void close() throws IOException {
+            this.writer.close();
+            RandomAccessFile file = new RandomAccessFile(getFile(), "rw");
+            try {
+                file.write(header().getBytes("US-ASCII"));
+            } finally {
+                file.close();
+            }
+        }
+
+        /** Returns the header line, padded to a fixed width. */
+        private String header() {
+            StringBuilder result =
+                new StringBuilder(String.format("des (%d, %d, %d)",
+                    this.initial,
+                    this.edgeCount,
+                    this.nodeCount));
+            while (result.length() < HEADER_WIDTH - NEWLINE.length()) {
+                result.append(' ');
+            }
+            result.append(NEWLINE);
+            return result.toString();
+        }
+
+        private final Writer writer;
+        private final int initial;
+        private long edgeCount;
+        private int nodeCount;
+        /** Width reserved for the header line, including the line separator. */
+        private static final int HEADER_WIDTH = 64;
+        private static final String NEWLINE = System.getProperty("line.separator");
+    }
+
+    /** Writer for the GXL format, as used by {@link groove.io.graph.GxlIO}. */
+    private static class GxlStream extends StreamWriter {
+        GxlStream(File file, String name) throws IOException {
+            super(file);
+            this.stream = new FileOutputStream(file);
+            try {
+                this.writer =
+                    XMLOutputFactory.newInstance().createXMLStreamWriter(this.stream, "UTF-8");
+                this.writer.writeStartDocument("UTF-8", "1.0");
+                newline(0);
+                this.writer.writeStartElement("gxl");
+                this.writer.writeDefaultNamespace(GXL_NAMESPACE);
+                newline(1);
+                this.writer.writeStartElement("graph");
+                this.writer.writeAttribute("id", name);
+                this.writer.writeAttribute("role", GraphRole.LTS.toString());
+                this.writer.writeAttribute("edgeids", "false");
+                this.writer.writeAttribute("edgemode", "directed");
+                newline(2);
+                writeAttr(GraphProperties.Key.VERSION.getName(), Version.GXL_VERSION);
+            } catch (XMLStreamException exc) {
+                this.stream.close();
+                throw new IOException(exc);
+            }
+        }
+
+        @Override
+        void writeNode(int number) throws IOException {
+            try {
+                newline(2);
+                this.writer.writeEmptyElement("node");
+                this.writer.writeAttribute("id", "n" + number);
+            } catch (XMLStreamException exc) {
+                throw new IOException(exc);
+            }
+        }
+
+        @Override
+        void writeEdge(int source, String label, int target) throws IOException {
+            try {
+                newline(2);
+                this.writer.writeStartElement("edge");
+                this.writer.writeAttribute("from", "n" + source);
+                this.writer.writeAttribute("to", "n" + target);
+                newline(3);
+                writeAttr("label", label);
+                newline(2);
+                this.writer.writeEndElement();
+            } catch (XMLStreamException exc) {
+                throw new IOException(exc);
+            }
+        }
+
+        /** Writes a string-valued GXL attribute element. */
+        private void writeAttr(String name, String value) throws XMLStreamException {
+            this.writer.writeStartElement("attr");
+            this.writer.writeAttribute("name", name);
+            this.writer.writeStartElement("string");
+            this.writer.writeCharacters(value);
+            this.writer.writeEndElement();
+            this.writer.writeEndElement();
+        }
+
+        @Override
+        void close() throws IOException {
+            try {
+                newline(1);
+                this.writer.writeEndElement();
+                newline(0);
+                this.writer.writeEndElement();
+                newline(0);
+                this.writer.writeEndDocument();
+                this.writer.close();
+            } catch (XMLStreamException exc) {
+                throw new IOException(exc);
+            } finally {
+                this.stream.close();
+            }
+        }
+
+        /** Starts a new line with a given indentation level. */
+        private void newline(int indent) throws XMLStreamException {
+            this.writer.writeCharacters("\n");
+            for (int i = 0; i < indent; i++) {
+                this.writer.writeCharacters("    ");
+            }
+        }
+
+        private final OutputStream stream;
+        private final XMLStreamWriter writer;
+        private static final String GXL_NAMESPACE = "http://www.gupro.de/GXL/gxl-1.0.dtd";
+    }
+
+    /** Size of the output buffer for the {@code .aut} writer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+}
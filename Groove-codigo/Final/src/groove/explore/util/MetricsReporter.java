@@ -0,0 +1,201 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.explore.util;
+
+import groove.explore.Exploration;
+import groove.graph.iso.IsoChecker;
+import groove.lts.GTS;
+import groove.lts.GTSAdapter;
+import groove.lts.GraphTransition;
+import groove.util.cache.CacheReference;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Exploration reporter that periodically writes a snapshot of
+ * exploration metrics to a file, while the exploration is running.
+ * Every snapshot is a single line containing a JSON object, with
+ * the elapsed time, the size of the GTS, the exploration speed since
+ * the previous snapshot, heap and garbage collection figures,
+ * and state cache and isomorphism checking counters.
+ * Snapshots are written by a timer thread at every snapshot interval,
+ * so also during long rule applications that do not change the GTS;
+ * a final snapshot is written when the exploration stops.
+ * The GTS is not queried by the timer thread, except for its state counts;
+ * transitions are counted through a listener instead.
+ * @author Arend Rensink
+ * @version $Revision $
+ * @see StatisticsReporter
+ */
+public class MetricsReporter extends AExplorationReporter {
+    /**
+     * Constructs a metrics reporter for a given output file and snapshot interval.
+     * @param file the file to write the snapshots to
+     * @param interval the time between snapshots, in milliseconds; should be positive
+     */
+    public MetricsReporter(File file, int interval, LogReporter logger) {
+        this.file = file;
+        this.interval = interval;
+        this.logger = logger;
+    }
+
+    @Override
+    public void start(Exploration exploration, GTS gts) {
+        super.start(exploration, gts);
+        this.error = null;
+        this.startTime = System.currentTimeMillis();
+        this.lastTime = this.startTime;
+        this.lastStateCount = gts.getStateCount();
+        this.transitionCount = gts.getTransitionCount();
+        try {
+            this.out =
+                new PrintWriter(new OutputStreamWriter(new FileOutputStream(this.file), "UTF-8"));
+        } catch (IOException exc) {
+            this.error = exc;
+            return;
+        }
+        writeSnapshot();
+        gts.addLTSListener(this.listener);
+        this.timer = new Timer("Exploration metrics", true);
+        this.timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                writeSnapshot();
+            }
+        }, this.interval, this.interval);
+    }
+
+    /** Stops the timer, removes the GTS listener and writes a final snapshot. */
+    @Override
+    public void stop(GTS gts) {
+        if (this.out != null) {
+            this.timer.cancel();
+            this.timer = null;
+            gts.removeLTSListener(this.listener);
+            this.transitionCount = gts.getTransitionCount();
+            synchronized (this) {
+                writeSnapshot();
+                this.out.close();
+                if (this.out.checkError() && this.error == null) {
+                    this.error = new IOException("Error while writing metrics to " + this.file);
+                }
+                this.out = null;
+            }
+        }
+    }
+
+    @Override
+    public void report() throws IOException {
+        if (this.error != null) {
+            throw this.error;
+        }
+        this.logger.append("Exploration metrics written to %s%n", this.file.getPath());
+    }
+
+    /**
+     * Writes a single line with the current metrics to the output,
+     * if the output is (still) open.
+     * Synchronised, as it is invoked by both the timer and the exploration thread.
+     */
+    private synchronized void writeSnapshot() {
+        if (this.out == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        GTS gts = getGTS();
+        int stateCount = gts.getStateCount();
+        long elapsed = now - this.lastTime;
+        double stateRate =
+            elapsed == 0 ? 0 : (1000.0 * (stateCount - this.lastStateCount)) / elapsed;
+        Runtime runtime = Runtime.getRuntime();
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTime += Math.max(0, gc.getCollectionTime());
+        }
+        StringBuilder line = new StringBuilder("{");
+        append(line, "time", now - this.startTime);
+        append(line, "states", stateCount);
+        append(line, "transitions", this.transitionCount);
+        append(line, "open", gts.getOpenStateCount());
+        append(line, "final", gts.getFinalStateCount());
+        append(line, "errors", gts.getErrorStateCount());
+        append(line, "statesPerSec", String.format(Locale.US, "%.1f", stateRate));
+        append(line, "heapUsed", runtime.totalMemory() - runtime.freeMemory());
+        append(line, "heapMax", runtime.maxMemory());
+        append(line, "gcCount", gcCount);
+        append(line, "gcTime", gcTime);
+        append(line, "cacheCreated", CacheReference.getCreateCount());
+        append(line, "cacheCleared", CacheReference.getClearCount());
+        append(line, "cacheCollected", CacheReference.getCollectCount());
+        append(line, "cacheReconstructed", CacheReference.getIncarnationCount());
+        append(line, "isoChecks", IsoChecker.getTotalCheckCount());
+        append(line, "isoEqualGraphs", IsoChecker.getEqualGraphsCount());
+        append(line, "isoEqualCerts", IsoChecker.getEqualCertsCount());
+        line.setCharAt(line.length() - 1, '}');
+        this.out.println(line);
+        this.out.flush();
+        this.lastTime = now;
+        this.lastStateCount = stateCount;
+    }
+
+    /** Appends a numeric JSON field to a line under construction. */
+    private void append(StringBuilder line, String key, Object value) {
+        line.append('"').append(key).append("\":").append(value).append(',');
+    }
+
+    private final File file;
+    private final int interval;
+    private final LogReporter logger;
+    /** The output writer; only non-{@code null} while the exploration is running. */
+    private PrintWriter out;
+    /** Exception thrown while opening the output, if any. */
+    private IOException error;
+    /** Time at which the exploration started. */
+    private long startTime;
+    /** Time of the most recent snapshot. */
+    private long lastTime;
+    /** Number of states at the most recent snapshot. */
+    private int lastStateCount;
+    /** Number of real transitions, as counted by the listener. */
+    private volatile int transitionCount;
+    /** Timer writing the snapshots; only non-{@code null} while the exploration is running. */
+    private Timer timer;
+
+    /** Listener that counts the real transitions added to the GTS. */
+    private final GTSAdapter listener = new GTSAdapter() {
+        @Override
+        public void addUpdate(GTS gts, GraphTransition transition) {
+            if (transition.isRealStep()) {
+                MetricsReporter.this.transitionCount++;
+            }
+        }
+    };
+
+    /** Default interval between snapshots, in milliseconds. */
+    public static final int DEFAULT_INTERVAL = 1000;
+}
@@ -223,6 +223,9 @@ public class StatisticsReporter extends AExplorationReporter {
             emit(HIGH, subFormatString, "Final:", getGTS().getFinalStateCount());
         }
         emit(MEDIUM, formatString, "Transitions:", getGTS().getTransitionCount());
+        if (getGTS().isApproximate()) {
+            emit(MEDIUM, "%-14s%.3g%n", "Omission:", getGTS().getOmissionProbability());
+        }
     }
 
     /** Gives some statistics regarding the graphs and deltas. */
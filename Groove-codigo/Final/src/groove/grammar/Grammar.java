@@ -354,6 +354,28 @@ public class Grammar {
      */
     private Automaton control;
 
+    /**
+     * Returns the dependencies between the rules of this grammar.
+     * The dependencies are computed upon the first invocation, which is
+     * only allowed if the grammar is fixed.
+     * @throws IllegalStateException if the grammar is not yet fixed
+     */
+    public synchronized RuleDependencies getDependencies() {
+        testFixed(true);
+        if (this.dependencies == null) {
+            RuleDependencies result = new RuleDependencies(this);
+            result.collectCharacteristics();
+            this.dependencies = result;
+        }
+        return this.dependencies;
+    }
+
+    /**
+     * The dependencies between the rules of this grammar,
+     * computed on demand.
+     */
+    private RuleDependencies dependencies;
+
     /**
      * Sets a Prolog environment for this grammar. This is only allowed if the
      * grammar is not yet fixed, as indicated by {@link #isFixed()}.
@@ -94,6 +94,17 @@ public enum GrammarKey implements PropertyKey<Object>, GrammarChecker {
     ISOMORPHISM("checkIsomorphism",
         "Flag controlling whether states are checked up to isomorphism", Parser.boolTrue),
 
+    /**
+     * Way in which states are identified; the approximate modes
+     * may wrongly consider new states to be known.
+     */
+    STATE_HASHING("stateHashing", "<body>Flag controlling how states are identified"
+        + "<li>- <i>none</i> (default): " + StateHashing.NONE.getExplanation()
+        + "<li>- <i>compact</i>: " + StateHashing.COMPACT.getExplanation()
+        + "<li>- <i>bitstate</i>: " + StateHashing.BITSTATE.getExplanation(),
+        new Parser.EnumParser<StateHashing>(StateHashing.class, StateHashing.NONE, "none",
+            "compact", "bitstate")),
+
     /**
      * Space-separated list of active start graph names.
      */
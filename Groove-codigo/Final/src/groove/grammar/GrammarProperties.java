@@ -340,6 +340,22 @@ public class GrammarProperties extends Properties {
         return (Boolean) parseProperty(GrammarKey.ISOMORPHISM);
     }
 
+    /**
+     * Sets the way in which states are identified.
+     * @see GrammarKey#STATE_HASHING
+     */
+    public void setStateHashing(StateHashing hashing) {
+        storeProperty(GrammarKey.STATE_HASHING, hashing);
+    }
+
+    /**
+     * Returns the way in which states are identified.
+     * @see GrammarKey#STATE_HASHING
+     */
+    public StateHashing getStateHashing() {
+        return (StateHashing) parseProperty(GrammarKey.STATE_HASHING);
+    }
+
     /**
      * Returns the value of the RHS-as-NAC property.
      * @return if <code>true</code>, the RHS is treated as a negative
@@ -31,6 +31,7 @@ import groove.grammar.rule.LabelVar;
 import groove.grammar.rule.RuleEdge;
 import groove.grammar.rule.RuleElement;
 import groove.grammar.rule.RuleGraph;
+import groove.grammar.rule.RuleLabel;
 import groove.grammar.rule.RuleNode;
 import groove.grammar.rule.RuleToHostMap;
 import groove.grammar.type.TypeGraph;
@@ -59,6 +60,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Type of a production rule. The rule essentially consists of a left hand
@@ -462,7 +465,59 @@ public class Rule implements Action, Fixable {
         assert isFixed();
         RuleToHostMap seedMap =
             contextMap == null ? host.getFactory().createRuleToHostMap() : contextMap;
-        getMatcher(seedMap).traverse(host, contextMap, new Visitor<TreeMatch,R>() {
+        return traverseMatches(getMatcher(seedMap), host, contextMap, visitor);
+    }
+
+    /**
+     * Traverses the matches of this rule on a given host graph and for
+     * a given context map, that moreover map a given seed node
+     * onto a given host node.
+     * This is used to search for the matches that involve some host element
+     * added with respect to a previous graph; see {@link #isSeedable()}.
+     * @param host the graph in which the match is to be found
+     * @param contextMap a matching of the pattern of this condition; may be
+     *        <code>null</code> if the condition is ground.
+     * @param seedNode a node from {@link #getSeedNodes()}
+     * @param seedImage the image of {@code seedNode}; should be in {@code host}
+     * and of a type matched by {@code seedNode}
+     * @param visitor the visitor invoked for all the matches
+     * @return the result of the visitor after the traversal
+     * @see #traverseMatches(HostGraph, RuleToHostMap, Visitor)
+     */
+    public <R> R traverseMatches(final HostGraph host, RuleToHostMap contextMap,
+        RuleNode seedNode, HostNode seedImage, final Visitor<Proof,R> visitor) {
+        assert isFixed();
+        assert getSeedNodes().contains(seedNode);
+        assert seedNode.getMatchingTypes().contains(seedImage.getType());
+        RuleToHostMap seedMap = host.getFactory().createRuleToHostMap();
+        if (contextMap != null) {
+            seedMap.putAll(contextMap);
+        }
+        HostNode contextImage = seedMap.getNode(seedNode);
+        if (contextImage == null) {
+            seedMap.putNode(seedNode, seedImage);
+        } else if (contextImage != seedImage) {
+            return visitor.getResult();
+        }
+        Set<RuleNode> seedNodes = new HashSet<RuleNode>(seedMap.nodeMap().keySet());
+        Matcher matcher = this.seededMatcherMap.get(seedNodes);
+        if (matcher == null) {
+            matcher = createMatcher(new Anchor(seedNodes));
+            Matcher oldMatcher = this.seededMatcherMap.putIfAbsent(seedNodes, matcher);
+            if (oldMatcher != null) {
+                matcher = oldMatcher;
+            }
+        }
+        return traverseMatches(matcher, host, seedMap, visitor);
+    }
+
+    /**
+     * Traverses the matches found by a given matcher,
+     * and calls the visitor's visit method on all valid proofs.
+     */
+    private <R> R traverseMatches(SearchStrategy matcher, final HostGraph host,
+        RuleToHostMap seedMap, final Visitor<Proof,R> visitor) {
+        matcher.traverse(host, seedMap, new Visitor<TreeMatch,R>() {
             @Override
             protected boolean process(TreeMatch match) {
                 assert visitor.isContinue();
@@ -475,6 +530,70 @@ public class Rule implements Action, Fixable {
         return visitor.getResult();
     }
 
+    /**
+     * Indicates if the matches of this rule are determined by the images of
+     * its seed nodes and left hand side edges only, apart from
+     * (flat) negative application conditions.
+     * If so, then any match of this rule in a graph that is not a match
+     * in a predecessor graph either maps some seed node onto an added node or onto
+     * an end node of an added edge, or is due to the deletion of an element
+     * that the rule tests for negatively.
+     * This is the case for top-level rules without sub-rules, regular expressions,
+     * nested conditions below negations, or type guards on the seed nodes.
+     * @see #getSeedNodes()
+     */
+    public boolean isSeedable() {
+        if (this.seedable == null) {
+            this.seedable = computeSeedable();
+        }
+        return this.seedable;
+    }
+
+    private boolean computeSeedable() {
+        assert isFixed();
+        if (!isTop() || hasSubRules()) {
+            return false;
+        }
+        for (Condition subCondition : getCondition().getSubConditions()) {
+            if (subCondition.getOp() != Condition.Op.NOT
+                || !subCondition.getSubConditions().isEmpty()) {
+                return false;
+            }
+        }
+        for (RuleEdge edge : lhs().edgeSet()) {
+            RuleLabel label = edge.label();
+            if (!label.isAtom() && !label.isSharp() && !label.isWildcard() && !label.isEmpty()
+                && !label.isNeg()) {
+                return false;
+            }
+        }
+        for (RuleNode node : getSeedNodes()) {
+            List<TypeGuard> guards = node.getTypeGuards();
+            if (guards != null && !guards.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the nodes of the left hand side that are matched
+     * to graph nodes, as opposed to data values.
+     * @see #isSeedable()
+     */
+    public Set<RuleNode> getSeedNodes() {
+        if (this.seedNodes == null) {
+            Set<RuleNode> result = new HashSet<RuleNode>();
+            for (RuleNode node : lhs().nodeSet()) {
+                if (node instanceof DefaultRuleNode) {
+                    result.add(node);
+                }
+            }
+            this.seedNodes = result;
+        }
+        return this.seedNodes;
+    }
+
     /**
      * Lazily creates and returns a matcher for rule events of this rule. The
      * matcher will try to extend anchor maps to full matches. This is in
@@ -513,7 +632,10 @@ public class Rule implements Action, Fixable {
             if (result == null) {
                 Anchor seed = new Anchor(seedMap.nodeMap().keySet());
                 result = createMatcher(seed);
-                this.matcherMap.put(initPars, result);
+                Matcher oldResult = this.matcherMap.putIfAbsent(initPars, result);
+                if (oldResult != null) {
+                    result = oldResult;
+                }
             }
         } else {
             result = getMatcher();
@@ -1462,12 +1584,28 @@ public class Rule implements Action, Fixable {
 
     /**
      * Mapping from sets of initialised parameters to match strategies.
+     * Concurrent, as matchers may be requested from concurrent explorations.
      */
-    private final Map<BitSet,Matcher> matcherMap = new HashMap<BitSet,Matcher>();
+    private final ConcurrentMap<BitSet,Matcher> matcherMap =
+        new ConcurrentHashMap<BitSet,Matcher>();
 
     /** The matcher for events of this rule. */
     private Matcher eventMatcher;
 
+    /**
+     * Mapping from sets of seeded nodes to match strategies,
+     * used to search for matches involving added graph elements.
+     * Concurrent, as matchers may be requested from concurrent explorations.
+     */
+    private final ConcurrentMap<Set<RuleNode>,Matcher> seededMatcherMap =
+        new ConcurrentHashMap<Set<RuleNode>,Matcher>();
+
+    /** Flag indicating that this rule is seedable; computed on demand. */
+    private Boolean seedable;
+
+    /** The left hand side nodes matched to graph nodes; computed on demand. */
+    private Set<RuleNode> seedNodes;
+
     /** Returns the current anchor factory for all rules. */
     public static AnchorFactory getAnchorFactory() {
         return anchorFactory;
@@ -17,15 +17,19 @@
 package groove.grammar;
 
 import static groove.grammar.model.ResourceKind.RULE;
+import groove.algebra.Constant;
+import groove.algebra.Sort;
 import groove.automaton.RegAut;
 import groove.grammar.Condition.Op;
 import groove.grammar.model.GrammarModel;
 import groove.grammar.model.ResourceModel;
 import groove.grammar.model.RuleModel;
+import groove.grammar.rule.DefaultRuleNode;
 import groove.grammar.rule.RuleEdge;
 import groove.grammar.rule.RuleGraph;
 import groove.grammar.rule.RuleLabel;
 import groove.grammar.rule.RuleNode;
+import groove.grammar.rule.VariableNode;
 import groove.grammar.type.TypeEdge;
 import groove.grammar.type.TypeElement;
 import groove.grammar.type.TypeGraph;
@@ -177,6 +181,23 @@ public class RuleDependencies {
         return this.enabledMap.get(rule);
     }
 
+    /**
+     * Returns, for a given rule, the set of rules it enables other than
+     * by producing elements they test for positively, namely by consuming
+     * elements they test for negatively or by having a higher priority.
+     * New matches of any other enabled rule necessarily involve some
+     * element produced by the given rule.
+     * @param rule the rule for which we want to have the indirectly enabled rules
+     * @return the set of indirectly enabled rules for <code>rule</code>
+     * @see #getEnableds(Rule)
+     */
+    public Set<Rule> getIndirectEnableds(Rule rule) {
+        if (!this.rules.isEmpty() && this.indirectEnabledMap.isEmpty()) {
+            collectCharacteristics();
+        }
+        return this.indirectEnabledMap.get(rule);
+    }
+
     /**
      * Returns, for a given rule, the set of its enablers, i.e., those rules
      * that <i>increase</i> its applicability.
@@ -283,17 +304,22 @@ public class RuleDependencies {
         init(this.disablerMap);
         init(this.enabledMap);
         init(this.disabledMap);
+        init(this.indirectEnabledMap);
         for (Rule rule : this.rules) {
             Set<TypeElement> positives = this.positiveMap.get(rule);
             Set<TypeElement> negatives = this.negativeMap.get(rule);
             //            Set<CtrlType> inPars = this.inParameterMap.get(rule);
             for (Rule depRule : this.rules) {
+                // if both rules are simple enough, dependencies found on the
+                // basis of labels are confirmed on the level of rule elements
+                boolean elementwise = isElementwise(rule) && isElementwise(depRule);
                 // a positive dependency exists if the other rule produces
                 // labels
                 // that this one needs
                 Set<TypeElement> depProduces =
                     new HashSet<TypeElement>(this.producedMap.get(depRule));
-                if (depProduces.removeAll(positives)) {
+                if (depProduces.removeAll(positives)
+                    && (!elementwise || isProduceUse(depRule, rule))) {
                     addEnabling(depRule, rule);
                 }
                 // a positive dependency exists if the other rule consumes
@@ -302,14 +328,14 @@ public class RuleDependencies {
                 Set<TypeElement> depConsumes =
                     new HashSet<TypeElement>(this.consumedMap.get(depRule));
                 if (depConsumes.removeAll(negatives)) {
-                    addEnabling(depRule, rule);
+                    addIndirectEnabling(depRule, rule);
                 }
                 // a positive dependency exists if the other rule has higher
                 // priority than this one
                 int rulePriority = rule.getPriority();
                 int depRulePriority = depRule.getPriority();
                 if (rulePriority < depRulePriority) {
-                    addEnabling(depRule, rule);
+                    addIndirectEnabling(depRule, rule);
                 }
                 // a negative dependency exists if the other rule produces
                 // labels
@@ -317,7 +343,8 @@ public class RuleDependencies {
                 // HARMEN: what is the point with mergers?
                 depProduces =
                     new HashSet<TypeElement>(this.producedMap.get(depRule));
-                if (depProduces.removeAll(negatives)) {
+                if (depProduces.removeAll(negatives)
+                    && (!elementwise || isProduceForbid(depRule, rule))) {
                     addDisabling(depRule, rule);
                 }
                 // a negative dependency exists if the other rule consumes
@@ -325,7 +352,8 @@ public class RuleDependencies {
                 // that this one needs
                 depConsumes =
                     new HashSet<TypeElement>(this.consumedMap.get(depRule));
-                if (depConsumes.removeAll(positives)) {
+                if (depConsumes.removeAll(positives)
+                    && (!elementwise || isDeleteUse(depRule, rule))) {
                     addDisabling(depRule, rule);
                 }
             }
@@ -482,8 +510,14 @@ public class RuleDependencies {
             for (RuleNode lhsNode : pattern.nodeSet()) {
                 if (!rhs.containsNode(lhsNode)) {
                     Set<TypeEdge> danglingEdges = new HashSet<TypeEdge>();
-                    danglingEdges.addAll(this.typeGraph.inEdgeSet(lhsNode.getType()));
-                    danglingEdges.addAll(this.typeGraph.outEdgeSet(lhsNode.getType()));
+                    // incident edge types may be declared on supertypes
+                    // of any type the node matches
+                    for (TypeNode type : lhsNode.getMatchingTypes()) {
+                        for (TypeNode superType : type.getSupertypes()) {
+                            danglingEdges.addAll(this.typeGraph.inEdgeSet(superType));
+                            danglingEdges.addAll(this.typeGraph.outEdgeSet(superType));
+                        }
+                    }
                     for (RuleEdge rhsEdge : pattern.edgeSet(lhsNode)) {
                         TypeEdge edgeType = rhsEdge.getType();
                         if (edgeType != null) {
@@ -500,6 +534,236 @@ public class RuleDependencies {
         }
     }
 
+    /**
+     * Indicates if the dependencies of a given rule may be analysed on the
+     * level of its elements rather than only their types.
+     * This is the case for top-level rules without sub-rules or mergers,
+     * of which the application condition consists of a left hand side and
+     * possibly some flat negative conditions, all with simple edge labels.
+     */
+    boolean isElementwise(Rule rule) {
+        Boolean result = this.elementwiseMap.get(rule);
+        if (result == null) {
+            result = computeElementwise(rule);
+            this.elementwiseMap.put(rule, result);
+        }
+        return result;
+    }
+
+    private boolean computeElementwise(Rule rule) {
+        if (!rule.isTop() || rule.hasSubRules() || rule.hasMergers()) {
+            return false;
+        }
+        for (RuleEdge edge : rule.lhs().edgeSet()) {
+            RuleLabel label = edge.label();
+            if (label.isNeg()) {
+                label = label.getNegOperand().toLabel();
+            }
+            if (!isSimple(label)) {
+                return false;
+            }
+        }
+        for (Condition subCond : rule.getCondition().getSubConditions()) {
+            if (subCond.getOp() != Op.NOT || !subCond.getSubConditions().isEmpty()) {
+                return false;
+            }
+            // negations within negative conditions would test positively
+            for (RuleEdge edge : subCond.getPattern().edgeSet()) {
+                RuleLabel label = edge.label();
+                if (label.isNeg() ? !label.getNegOperand().toLabel().isEmpty()
+                        : !isSimple(label)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Tests if a label matches at most single edges. */
+    private boolean isSimple(RuleLabel label) {
+        return label.isAtom() || label.isSharp() || label.isWildcard() || label.isEmpty();
+    }
+
+    /**
+     * Tests if a rule produces some element that may be part of a
+     * new match of another rule.
+     * Both rules should be analysable elementwise.
+     * @see #isElementwise(Rule)
+     */
+    private boolean isProduceUse(Rule producer, Rule user) {
+        RuleGraph lhs = user.lhs();
+        for (RuleEdge creatorEdge : producer.getCreatorEdges()) {
+            for (RuleEdge edge : lhs.edgeSet()) {
+                if (isPositive(edge) && isOverlapping(creatorEdge, edge)) {
+                    return true;
+                }
+            }
+        }
+        // a fresh node can only be matched by an LHS node without
+        // incident edges, as those are tested for separately
+        for (RuleNode node : lhs.nodeSet()) {
+            if (isIsolated(lhs, node) && isCreatorOverlapping(producer, node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests if a rule produces some element that may be forbidden by
+     * another rule.
+     * Both rules should be analysable elementwise.
+     * @see #isElementwise(Rule)
+     */
+    private boolean isProduceForbid(Rule producer, Rule user) {
+        for (RuleEdge edge : user.lhs().edgeSet()) {
+            RuleLabel label = edge.label();
+            if (label.isNeg() && !label.getNegOperand().toLabel().isEmpty()) {
+                for (RuleEdge creatorEdge : producer.getCreatorEdges()) {
+                    if (isOverlapping(creatorEdge, edge)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        for (Condition subCond : user.getCondition().getSubConditions()) {
+            RuleGraph pattern = subCond.getPattern();
+            Set<RuleEdge> freshEdges = new HashSet<RuleEdge>(pattern.edgeSet());
+            freshEdges.removeAll(subCond.getRoot().edgeSet());
+            for (RuleEdge edge : freshEdges) {
+                if (!isPositive(edge)) {
+                    continue;
+                }
+                for (RuleEdge creatorEdge : producer.getCreatorEdges()) {
+                    if (isOverlapping(creatorEdge, edge)) {
+                        return true;
+                    }
+                }
+            }
+            for (RuleNode node : pattern.nodeSet()) {
+                if (!subCond.getRoot().containsNode(node) && isIsolated(pattern, node)
+                    && isCreatorOverlapping(producer, node)) {
+                    return true;
+                }
+            }
+        }
+        // edges created at a node to be deleted make the dangling edge check fail
+        if (this.properties.isCheckDangling()) {
+            for (RuleNode eraserNode : user.getEraserNodes()) {
+                for (RuleEdge creatorEdge : producer.getCreatorEdges()) {
+                    if (isOverlapping(creatorEdge.source(), eraserNode)
+                        || isOverlapping(creatorEdge.target(), eraserNode)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests if a rule consumes some element that may be part of a
+     * match of another rule.
+     * Both rules should be analysable elementwise.
+     * @see #isElementwise(Rule)
+     */
+    private boolean isDeleteUse(Rule consumer, Rule user) {
+        RuleGraph lhs = user.lhs();
+        for (RuleEdge eraserEdge : consumer.getEraserEdges()) {
+            for (RuleEdge edge : lhs.edgeSet()) {
+                if (isPositive(edge) && isOverlapping(eraserEdge, edge)) {
+                    return true;
+                }
+            }
+        }
+        // the incident edges of a deleted node are deleted as well,
+        // so it suffices to compare the nodes
+        for (RuleNode eraserNode : consumer.getEraserNodes()) {
+            for (RuleNode node : lhs.nodeSet()) {
+                if (isOverlapping(eraserNode, node)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Tests if a given rule edge tests for the presence of a host edge. */
+    private boolean isPositive(RuleEdge edge) {
+        return !edge.label().isNeg() && !edge.label().isEmpty();
+    }
+
+    /**
+     * Tests if a given (default) rule node has no incident edges in a given
+     * rule graph that test for the presence of host edges.
+     */
+    private boolean isIsolated(RuleGraph graph, RuleNode node) {
+        if (!(node instanceof DefaultRuleNode)) {
+            return false;
+        }
+        for (RuleEdge edge : graph.edgeSet(node)) {
+            if (isPositive(edge)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Tests if some creator node of a rule may be matched by a given node. */
+    private boolean isCreatorOverlapping(Rule producer, RuleNode node) {
+        for (RuleNode creatorNode : producer.getCreatorNodes()) {
+            if (creatorNode instanceof DefaultRuleNode && isOverlapping(creatorNode, node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests if the images of two rule edges may coincide, as far as can be
+     * determined from their types, the types of their end nodes and
+     * any constant end nodes.
+     */
+    private boolean isOverlapping(RuleEdge edge, RuleEdge other) {
+        Set<TypeElement> types = getMatchingTypes(edge);
+        if (!types.removeAll(getMatchingTypes(other))) {
+            return false;
+        }
+        return isOverlapping(edge.source(), other.source())
+            && isOverlapping(edge.target(), other.target());
+    }
+
+    /**
+     * Tests if the images of two rule nodes may coincide, as far as can be
+     * determined from their types and constant values.
+     */
+    private boolean isOverlapping(RuleNode node, RuleNode other) {
+        Set<TypeNode> types = new HashSet<TypeNode>(node.getMatchingTypes());
+        if (!types.removeAll(other.getMatchingTypes())) {
+            return false;
+        }
+        if (node instanceof VariableNode && other instanceof VariableNode) {
+            VariableNode var = (VariableNode) node;
+            VariableNode otherVar = (VariableNode) other;
+            if (var.hasConstant() && otherVar.hasConstant()) {
+                return !isDistinct(var.getConstant(), otherVar.getConstant());
+            }
+        }
+        return true;
+    }
+
+    /** Tests if two constants certainly denote different values. */
+    private boolean isDistinct(Constant constant, Constant other) {
+        if (constant.getSort() != other.getSort()) {
+            return false;
+        }
+        if (constant.getSort() == Sort.REAL) {
+            // decimals are only equal if they have the same scale
+            return constant.getRealRepr().compareTo(other.getRealRepr()) != 0;
+        }
+        return !constant.equals(other);
+    }
+
     /**
      * Adds a pair of rules to the enabling relation.
      * @param enabler rule that enables applications of the other
@@ -510,6 +774,17 @@ public class RuleDependencies {
         add(this.enabledMap, enabler, enabled);
     }
 
+    /**
+     * Adds a pair of rules to the enabling relation, where the enabling
+     * is not due to elements produced by the enabler.
+     * @param enabler rule that enables applications of the other
+     * @param enabled rule that receives more applications
+     */
+    void addIndirectEnabling(Rule enabler, Rule enabled) {
+        addEnabling(enabler, enabled);
+        add(this.indirectEnabledMap, enabler, enabled);
+    }
+
     /**
      * Adds a pair of rules to the disabling relation.
      * @param disabler rule that disables applications of the other
@@ -605,6 +880,12 @@ public class RuleDependencies {
      */
     private final Map<Rule,Set<Rule>> enabledMap =
         new HashMap<Rule,Set<Rule>>();
+    /**
+     * Mapping from rules to sets of rules that may be increased in their
+     * applicability other than through the production of elements.
+     */
+    private final Map<Rule,Set<Rule>> indirectEnabledMap =
+        new HashMap<Rule,Set<Rule>>();
     /**
      * Mapping from rules to sets of disabled rules, i.e., rules that may be
      * decreased in their applicability.
@@ -620,6 +901,8 @@ public class RuleDependencies {
     /** Mapping from rules to the sets of labels consumed by those rules. */
     private final Map<Rule,Set<TypeElement>> consumedMap =
         new HashMap<Rule,Set<TypeElement>>();
+    /** Mapping from rules to flags indicating if they can be analysed elementwise. */
+    private final Map<Rule,Boolean> elementwiseMap = new HashMap<Rule,Boolean>();
     /** Mapping from rules to the sets of labels produced by those rules. */
     private final Map<Rule,Set<TypeElement>> producedMap =
         new HashMap<Rule,Set<TypeElement>>();
@@ -0,0 +1,73 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.grammar;
+
+/**
+ * Way in which the states of a GTS are identified during exploration.
+ * The approximate modes trade a (small) probability of wrongly
+ * identifying distinct states for speed; hash compaction moreover
+ * saves the memory taken by the graph certificates.
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public enum StateHashing {
+    /** States are identified precisely, by comparing their graphs. */
+    NONE("none", "States are compared precisely"),
+    /**
+     * Hash compaction: states are identified by a 64-bit fingerprint
+     * of their graph certificate. Only the fingerprints are retained
+     * for comparison, rather than the graphs and certificates.
+     */
+    COMPACT("compact", "States with the same 64-bit fingerprint are identified"),
+    /**
+     * Bit-state hashing: a state is considered known if all bits
+     * derived from its fingerprint are set in a large bit array.
+     * Known states are pruned, so the resulting GTS only records the visited states;
+     * it is therefore not supported if the LTS is saved or analysed.
+     * This is a speed-only option: it does not reduce memory usage, as the visited
+     * states remain in the GTS (every state refers to the state it was derived from),
+     * and the bit array comes on top of that. The only gain over {@link #COMPACT}
+     * is that no transitions to known states are recorded.
+     */
+    BITSTATE("bitstate",
+        "States for which all hash bits are already set are pruned (not if the LTS is saved); "
+            + "this saves time, but not memory");
+
+    private StateHashing(String name, String explanation) {
+        this.name = name;
+        this.explanation = explanation;
+    }
+
+    /** Returns the name of this mode. */
+    public String getName() {
+        return this.name;
+    }
+
+    private final String name;
+
+    /** Returns a short (capitalised) explanation of the mode. */
+    public String getExplanation() {
+        return this.explanation;
+    }
+
+    private final String explanation;
+
+    /** Indicates if this mode may wrongly identify distinct states. */
+    public boolean isApproximate() {
+        return this != NONE;
+    }
+}
@@ -18,6 +18,7 @@ package groove.grammar.host;
 
 import static groove.graph.GraphRole.HOST;
 import groove.algebra.AlgebraFamily;
+import groove.automaton.RegAutCache;
 import groove.grammar.type.TypeGraph;
 import groove.grammar.type.TypeLabel;
 import groove.graph.AGraph;
@@ -65,6 +66,7 @@ public final class DeltaHostGraph extends AGraph<HostNode,HostEdge> implements H
         this.basis = null;
         this.copyData = copyData;
         this.delta = new FrozenDeltaApplier(delta);
+        this.pathCache = new RegAutCache();
         setFixed();
     }
 
@@ -75,9 +77,10 @@ public final class DeltaHostGraph extends AGraph<HostNode,HostEdge> implements H
      * @param delta the delta with respect to the basis; non-<code>null</code>
      * @param copyData if <code>true</code>, the data structures will be
      *        copied from one graph to the next; otherwise, they will be reused
+     * @param fix if <code>true</code>, the graph is fixed upon construction
      */
     private DeltaHostGraph(String name, final DeltaHostGraph basis, final DeltaApplier delta,
-        boolean copyData) {
+        boolean copyData, boolean fix) {
         super(name);
         this.basis = basis;
         this.factory = basis.getFactory();
@@ -87,7 +90,11 @@ public final class DeltaHostGraph extends AGraph<HostNode,HostEdge> implements H
         } else {
             this.delta = new DeltaStore(delta);
         }
-        setFixed();
+        this.pathCache =
+            this.delta == null ? new RegAutCache() : new RegAutCache(basis.pathCache, this.delta);
+        if (fix) {
+            setFixed();
+        }
     }
 
     @Override
@@ -121,7 +128,19 @@ public final class DeltaHostGraph extends AGraph<HostNode,HostEdge> implements H
      * @param name the name of the new graph
      */
     public DeltaHostGraph newGraph(String name, DeltaHostGraph graph, DeltaApplier applier) {
-        return new DeltaHostGraph(name, graph, applier, this.copyData);
+        return new DeltaHostGraph(name, graph, applier, this.copyData, true);
+    }
+
+    /**
+     * Creates a new delta graph from a given basis and delta applier,
+     * which is not yet fixed. This allows the graph to be constructed
+     * before its eventual name is known; the graph should be named and
+     * fixed before it is made available.
+     * @param name the provisional name of the new graph
+     */
+    public DeltaHostGraph newUnfixedGraph(String name, DeltaHostGraph graph,
+        DeltaApplier applier) {
+        return new DeltaHostGraph(name, graph, applier, this.copyData, false);
     }
 
     /** Creates a new delta graph from a given element array.
@@ -375,6 +394,38 @@ public final class DeltaHostGraph extends AGraph<HostNode,HostEdge> implements H
         }
     }
 
+    /**
+     * Initialises the data structures of this graph, if this has not yet been done,
+     * without modifying those of the basis graph.
+     * In contrast to the lazy initialisation, where the data structures of the
+     * basis may be reused, this allows several graphs with the same basis
+     * to be initialised concurrently, provided the basis has itself been
+     * initialised beforehand.
+     * The edge sets of the basis that are not affected by the delta are shared
+     * rather than copied; hence, neither the basis nor this graph will
+     * subsequently hand over its data structures to a child graph.
+     */
+    public void initDataIndependently() {
+        if (this.basis == null || !this.basis.isDataInitialised()) {
+            initData();
+        } else if (!isDataInitialised()) {
+            DeltaHostGraph basis = this.basis;
+            basis.sharedData = true;
+            DataTarget target = basis.new CopyTarget(false);
+            this.delta.applyDelta(target);
+            target.install(this);
+            this.sharedData = true;
+        }
+    }
+
+    /**
+     * Returns the cache of regular path matches in this graph.
+     * The cache is derived from that of the basis graph at construction time.
+     */
+    public RegAutCache getPathCache() {
+        return this.pathCache;
+    }
+
     /** Reports if the data structures of this delta graph have been initialised. */
     private boolean isDataInitialised() {
         return this.edgeSet != null;
@@ -388,7 +439,7 @@ public final class DeltaHostGraph extends AGraph<HostNode,HostEdge> implements H
         DataTarget result;
         // data should have been initialised
         assert isDataInitialised();
-        if (exceedsCopyBound(chainLength, totalDelta)) {
+        if (this.sharedData || exceedsCopyBound(chainLength, totalDelta)) {
             result = new CopyTarget(!this.copyData);
         } else {
             result = this.copyData ? new CopyTarget(false) : new SwingTarget();
@@ -474,6 +525,8 @@ public final class DeltaHostGraph extends AGraph<HostNode,HostEdge> implements H
     HostEdgeStore<HostNode> nodeOutEdgeStore;
     /** Mapping from labels to sets of edges with that label. */
     HostEdgeStore<TypeLabel> labelEdgeStore;
+    /** The cache of regular path matches in this graph. */
+    private final RegAutCache pathCache;
     /** The certificate strategy of this graph, set on demand. */
     private Reference<CertificateStrategy> certifier;
     /**
@@ -481,6 +534,13 @@ public final class DeltaHostGraph extends AGraph<HostNode,HostEdge> implements H
      * {@link #getDataTarget(int,int)}.
      */
     private boolean copyData = true;
+    /**
+     * Flag indicating that the edge sets of this graph may be shared
+     * with another graph, due to {@link #initDataIndependently()}.
+     * If set, the data structures are never handed over to a child graph,
+     * as this modifies them in place.
+     */
+    private boolean sharedData;
 
     @Override
     public FormatErrorSet checkTypeConstraints() {
@@ -122,10 +122,20 @@ public class HostFactory extends StoreFactory<HostNode,HostEdge,TypeLabel> {
         return createEdge(source, type, target);
     }
 
-    /** Creates a host edge with given source and target nodes, and edge type. */
+    /**
+     * Creates a host edge with given source and target nodes, and edge type.
+     * Synchronised on this factory if it is currently shared.
+     */
     public HostEdge createEdge(HostNode source, TypeEdge type, HostNode target) {
-        HostEdge edge = newEdge(source, type, target, getEdgeCount());
-        return storeEdge(edge);
+        HostEdge result;
+        if (isShared()) {
+            synchronized (this) {
+                result = storeEdge(newEdge(source, type, target, getEdgeCount()));
+            }
+        } else {
+            result = storeEdge(newEdge(source, type, target, getEdgeCount()));
+        }
+        return result;
     }
 
     /**
@@ -179,8 +189,22 @@ public class HostFactory extends StoreFactory<HostNode,HostEdge,TypeLabel> {
      * Method to normalise an array of host nodes.
      * Normalised arrays reuse the same array object for an
      * array containing the same nodes.
+     * Synchronised on this factory if it is currently shared.
      */
     public HostNode[] normalise(HostNode[] nodes) {
+        HostNode[] result;
+        if (isShared()) {
+            synchronized (this) {
+                result = doNormalise(nodes);
+            }
+        } else {
+            result = doNormalise(nodes);
+        }
+        return result;
+    }
+
+    /** Normalises an array of host nodes, without synchronisation. */
+    private HostNode[] doNormalise(HostNode[] nodes) {
         if (this.normalHostNodeMap == null) {
             this.normalHostNodeMap = new HashMap<List<HostNode>,HostNode[]>();
         }
@@ -199,6 +223,32 @@ public class HostFactory extends StoreFactory<HostNode,HostEdge,TypeLabel> {
     /** Store of normalised host node arrays. */
     private Map<List<HostNode>,HostNode[]> normalHostNodeMap;
 
+    /**
+     * Returns a fresh factory for the same type factory, which initially
+     * contains the nodes of this factory under the same numbers, including
+     * the value nodes, as well as the edges of this factory. Graphs over
+     * this factory may therefore be copied element by element into the new
+     * factory. New elements of either factory are numbered independently
+     * of the other.
+     * Should not be called while this factory is being modified.
+     */
+    public HostFactory copy() {
+        HostFactory result = newInstance(getTypeFactory());
+        for (int nr = 0; nr <= getMaxNodeNr(); nr++) {
+            HostNode node = getNode(nr);
+            if (node != null) {
+                result.registerNode(node);
+            }
+        }
+        for (Map.Entry<String,Map<Object,ValueNode>> entry : this.valueMaps.entrySet()) {
+            result.valueMaps.put(entry.getKey(), new HashMap<Object,ValueNode>(entry.getValue()));
+        }
+        for (HostEdge edge : getEdges()) {
+            result.storeEdge(edge);
+        }
+        return result;
+    }
+
     /** Returns a fresh instance of this factory, with a fresh type graph. */
     public static HostFactory newInstance() {
         return newInstance(TypeFactory.newInstance());
@@ -260,9 +310,25 @@ public class HostFactory extends StoreFactory<HostNode,HostEdge,TypeLabel> {
             this.value = value;
         }
 
-        /* Overridden as value nodes should always be reused when possible. */
+        /*
+         * Overridden as value nodes should always be reused when possible.
+         * Synchronised on the host factory if that is shared.
+         */
         @Override
         public HostNode createNode(Dispenser dispenser) {
+            HostNode result;
+            if (isShared()) {
+                synchronized (HostFactory.this) {
+                    result = doCreateNode(dispenser);
+                }
+            } else {
+                result = doCreateNode(dispenser);
+            }
+            return result;
+        }
+
+        /** Retrieves or creates the value node, without synchronisation. */
+        private ValueNode doCreateNode(Dispenser dispenser) {
             Map<Object,ValueNode> valueMap = getValueMap(this.algebra);
             ValueNode result = valueMap.get(this.value);
             if (result == null) {
@@ -19,6 +19,8 @@ package groove.grammar.type;
 import groove.grammar.host.HostEdge;
 import groove.grammar.host.HostGraph;
 import groove.grammar.host.HostNode;
+import groove.transform.DeltaApplier;
+import groove.transform.DeltaTarget;
 import groove.util.parse.FormatErrorSet;
 
 import java.util.ArrayList;
@@ -52,6 +54,10 @@ public class ContainmentChecker implements TypeChecker {
                 }
             }
         }
+        this.checkLabels = new HashSet<TypeLabel>();
+        for (TypeEdge check : this.checks) {
+            this.checkLabels.add(check.label());
+        }
     }
 
     @Override
@@ -63,6 +69,8 @@ public class ContainmentChecker implements TypeChecker {
 
     /** The set of node types for which we want to check a multiplicity. */
     private final List<TypeEdge> checks;
+    /** The labels of the edge types in {@link #checks}. */
+    private final Set<TypeLabel> checkLabels;
 
     @Override
     public boolean isTrivial() {
@@ -81,6 +89,66 @@ public class ContainmentChecker implements TypeChecker {
         return result;
     }
 
+    /**
+     * Only searches for cycles through the containment edges added by the delta,
+     * as any new cycle has to pass through one of those.
+     */
+    @Override
+    public FormatErrorSet check(HostGraph host, DeltaApplier delta) {
+        final List<HostEdge> addedEdges = new ArrayList<HostEdge>();
+        delta.applyDelta(new DeltaTarget() {
+            @Override
+            public boolean addNode(HostNode elem) {
+                return true;
+            }
+
+            @Override
+            public boolean removeNode(HostNode elem) {
+                return true;
+            }
+
+            @Override
+            public boolean addEdge(HostEdge elem) {
+                if (ContainmentChecker.this.checkLabels.contains(elem.label())) {
+                    addedEdges.add(elem);
+                }
+                return true;
+            }
+
+            @Override
+            public boolean removeEdge(HostEdge elem) {
+                return true;
+            }
+        }, DeltaApplier.EDGES_ONLY);
+        FormatErrorSet result = new FormatErrorSet();
+        for (HostEdge edge : addedEdges) {
+            if (isReachable(host, edge.target(), edge.source())) {
+                result.add("Containment cycle starting at %s", edge.source());
+            }
+        }
+        return result;
+    }
+
+    /** Tests if one node can be reached from another through containment edges. */
+    private boolean isReachable(HostGraph host, HostNode from, HostNode to) {
+        Set<HostNode> visited = new HashSet<HostNode>();
+        Stack<HostNode> pending = new Stack<HostNode>();
+        pending.push(from);
+        visited.add(from);
+        while (!pending.isEmpty()) {
+            HostNode node = pending.pop();
+            if (node == to) {
+                return true;
+            }
+            for (HostEdge out : host.outEdgeSet(node)) {
+                if (this.checkLabels.contains(out.label()) && visited.add(out.target())) {
+                    pending.push(out.target());
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Builds the connection map for a given host graph.
      */
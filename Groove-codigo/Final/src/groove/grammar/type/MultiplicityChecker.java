@@ -20,13 +20,17 @@ import groove.grammar.host.HostEdge;
 import groove.grammar.host.HostGraph;
 import groove.grammar.host.HostNode;
 import groove.graph.Direction;
+import groove.transform.DeltaApplier;
+import groove.transform.DeltaTarget;
 import groove.util.Pair;
 import groove.util.parse.FormatErrorSet;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The {@link MultiplicityChecker} class provides functionality for
@@ -81,34 +85,77 @@ public class MultiplicityChecker implements TypeChecker {
     public FormatErrorSet check(HostGraph source) {
         FormatErrorSet result = new FormatErrorSet();
         for (HostNode node : source.nodeSet()) {
-            List<Check> nodeChecks = this.checks.get(node.getType());
-            if (nodeChecks == null) {
-                continue;
+            check(source, node, result);
+        }
+        return result;
+    }
+
+    /**
+     * Only checks the nodes that have been added by the delta, and the
+     * remaining end nodes of added and removed edges.
+     */
+    @Override
+    public FormatErrorSet check(HostGraph source, DeltaApplier delta) {
+        final Set<HostNode> touched = new HashSet<HostNode>();
+        final Set<HostNode> removed = new HashSet<HostNode>();
+        delta.applyDelta(new DeltaTarget() {
+            @Override
+            public boolean addNode(HostNode elem) {
+                return touched.add(elem);
             }
-            for (Check c : nodeChecks) {
-                TypeEdge type = c.one();
-                Direction dir = c.two();
-                Multiplicity mult =
-                    dir == Direction.INCOMING ? type.getInMult() : type.getOutMult();
-                int count = 0;
-                for (HostEdge edge : dir.edges(source, node)) {
-                    if (edge.getType() == type) {
-                        count++;
-                    }
-                }
-                if (!mult.inRange(count)) {
-                    result.add("Node %s violates %s edge multiplicity %s for edge type %s: actual count = %s",
-                        node,
-                        dir,
-                        mult,
-                        type,
-                        count);
-                }
+
+            @Override
+            public boolean removeNode(HostNode elem) {
+                return removed.add(elem);
             }
+
+            @Override
+            public boolean addEdge(HostEdge elem) {
+                touched.add(elem.source());
+                return touched.add(elem.target());
+            }
+
+            @Override
+            public boolean removeEdge(HostEdge elem) {
+                touched.add(elem.source());
+                return touched.add(elem.target());
+            }
+        });
+        touched.removeAll(removed);
+        FormatErrorSet result = new FormatErrorSet();
+        for (HostNode node : touched) {
+            check(source, node, result);
         }
         return result;
     }
 
+    /** Checks the multiplicities of a single node, and adds the violations to a set of errors. */
+    private void check(HostGraph source, HostNode node, FormatErrorSet result) {
+        List<Check> nodeChecks = this.checks.get(node.getType());
+        if (nodeChecks == null) {
+            return;
+        }
+        for (Check c : nodeChecks) {
+            TypeEdge type = c.one();
+            Direction dir = c.two();
+            Multiplicity mult = dir == Direction.INCOMING ? type.getInMult() : type.getOutMult();
+            int count = 0;
+            for (HostEdge edge : dir.edges(source, node)) {
+                if (edge.getType() == type) {
+                    count++;
+                }
+            }
+            if (!mult.inRange(count)) {
+                result.add("Node %s violates %s edge multiplicity %s for edge type %s: actual count = %s",
+                    node,
+                    dir,
+                    mult,
+                    type,
+                    count);
+            }
+        }
+    }
+
     /** The set of node types for which we want to check a multiplicity. */
     private final Map<TypeNode,List<Check>> checks;
 
@@ -17,6 +17,7 @@
 package groove.grammar.type;
 
 import groove.grammar.host.HostGraph;
+import groove.transform.DeltaApplier;
 import groove.util.parse.FormatErrorSet;
 
 /**
@@ -36,4 +37,14 @@ public interface TypeChecker {
      * found.
      */
     FormatErrorSet check(HostGraph graph);
+
+    /**
+     * Checks a given host graph for violations that may have been introduced
+     * by a delta, and returns the errors found.
+     * The graph is assumed to be the result of applying the delta to a graph
+     * that has no violations.
+     * @param graph the graph to be checked
+     * @param delta the delta that produced {@code graph}
+     */
+    FormatErrorSet check(HostGraph graph, DeltaApplier delta);
 }
@@ -44,6 +44,7 @@ import groove.graph.GraphRole;
 import groove.graph.Label;
 import groove.graph.Node;
 import groove.graph.NodeSetEdgeSetGraph;
+import groove.transform.DeltaApplier;
 import groove.util.Groove;
 import groove.util.parse.FormatError;
 import groove.util.parse.FormatErrorSet;
@@ -1354,6 +1355,15 @@ public class TypeGraph extends NodeSetEdgeSetGraph<TypeNode,TypeEdge> implements
         return result;
     }
 
+    @Override
+    public FormatErrorSet check(HostGraph graph, DeltaApplier delta) {
+        FormatErrorSet result = new FormatErrorSet();
+        for (TypeChecker checker : getCheckers()) {
+            result.addAll(checker.check(graph, delta));
+        }
+        return result;
+    }
+
     /** Returns the list of type checkers for this type graph. */
     public List<TypeChecker> getCheckers() {
         if (this.checkers == null) {
@@ -18,6 +18,8 @@ package groove.graph;
 
 import groove.util.Dispenser;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Factory class for graph elements.
  * @author Arend Rensink
@@ -63,6 +65,50 @@ public abstract class ElementFactory<N extends Node,E extends Edge>
 
     private int maxNodeNr;
 
+    /** Synchronised on this factory if it is currently shared. */
+    @Override
+    public N createNode(Dispenser dispenser) {
+        N result;
+        if (isShared()) {
+            synchronized (this) {
+                result = super.createNode(dispenser);
+            }
+        } else {
+            result = super.createNode(dispenser);
+        }
+        return result;
+    }
+
+    /**
+     * Indicates if this factory is currently shared by concurrent computations.
+     * Only then is the creation of elements synchronised, so as not to
+     * slow down the (usual) sequential use of the factory.
+     * @see #share()
+     */
+    public final boolean isShared() {
+        return this.shareCount.get() > 0;
+    }
+
+    /**
+     * Signals that this factory may be used by concurrent computations,
+     * until a matching call of {@link #unshare()}. This should be called
+     * before the concurrent computations are started, and
+     * {@link #unshare()} only after they have all finished.
+     */
+    public final void share() {
+        this.shareCount.incrementAndGet();
+    }
+
+    /**
+     * Signals that a period of concurrent use, started by {@link #share()}, has ended.
+     */
+    public final void unshare() {
+        this.shareCount.decrementAndGet();
+    }
+
+    /** Number of unmatched calls of {@link #share()}. */
+    private final AtomicInteger shareCount = new AtomicInteger();
+
     @Override
     protected boolean isAllowed(N node) {
         return true;
@@ -95,6 +141,20 @@ public abstract class ElementFactory<N extends Node,E extends Edge>
      */
     protected abstract class DependentNodeFactory extends
             NodeFactory<N> {
+        /** Synchronised on the embedding element factory if that is shared. */
+        @Override
+        public N createNode(Dispenser dispenser) {
+            N result;
+            if (isShared()) {
+                synchronized (ElementFactory.this) {
+                    result = super.createNode(dispenser);
+                }
+            } else {
+                result = super.createNode(dispenser);
+            }
+            return result;
+        }
+
         @Override
         protected N getNode(int nr) {
             return ElementFactory.this.getNode(nr);
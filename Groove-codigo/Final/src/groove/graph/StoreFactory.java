@@ -21,6 +21,9 @@ import groove.graph.plain.PlainEdge;
 import groove.util.Dispenser;
 import groove.util.collect.TreeHashSet;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * Abstract factory class that stores canonical representatives
  * of nodes and edges.
@@ -118,17 +121,25 @@ public abstract class StoreFactory<N extends Node,E extends Edge,L extends Label
      */
     private int nodeCount;
 
+    /** Synchronised on this factory if it is currently shared. */
     @Override
     public E createEdge(N source, Label label, N target) {
         assert source != null : "Source node " + label.text() + "-edge should not be null";
         assert target != null : "Target node " + label.text() + "-edge should not be null";
-        E edge = newEdge(source, label, target, getEdgeCount());
-        return storeEdge(edge);
+        E result;
+        if (isShared()) {
+            synchronized (this) {
+                result = storeEdge(newEdge(source, label, target, getEdgeCount()));
+            }
+        } else {
+            result = storeEdge(newEdge(source, label, target, getEdgeCount()));
+        }
+        return result;
     }
 
     /** Tests if a given edge was constructed by this factory. */
     public boolean containsEdge(E edge) {
-        return this.edgeStore.put(edge) == edge;
+        return putEdge(edge) == edge;
     }
 
     /**
@@ -139,15 +150,40 @@ public abstract class StoreFactory<N extends Node,E extends Edge,L extends Label
         return this.edgeStore.size();
     }
 
+    /**
+     * Returns an unmodifiable view on the edges created so far.
+     * Should not be called while edges are being created.
+     */
+    protected Collection<E> getEdges() {
+        return Collections.unmodifiableCollection(this.edgeStore);
+    }
+
     /** Puts an edge in the store and returns its canonical representative. */
     protected E storeEdge(E edge) {
-        E result = this.edgeStore.put(edge);
+        E result = putEdge(edge);
         if (result == null) {
             result = edge;
         }
         return result;
     }
 
+    /**
+     * Puts an edge in the store, and returns the previously stored
+     * equal edge, if any.
+     * Synchronised on this factory if it is currently shared.
+     */
+    private E putEdge(E edge) {
+        E result;
+        if (isShared()) {
+            synchronized (this) {
+                result = this.edgeStore.put(edge);
+            }
+        } else {
+            result = this.edgeStore.put(edge);
+        }
+        return result;
+    }
+
     /**
      * Callback factory method to create a new edge object.
      * This will then be compared with the edge store to replace it by its
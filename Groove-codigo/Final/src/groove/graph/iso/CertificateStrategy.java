@@ -364,7 +364,7 @@ public abstract class CertificateStrategy {
      * the computation of certificates has taken a number of iterations equal to
      * the index.
      */
-    public static List<Integer> getIterateCount() {
+    public static synchronized List<Integer> getIterateCount() {
         List<Integer> result = new ArrayList<Integer>();
         for (int element : iterateCountArray) {
             result.add(element);
@@ -377,7 +377,7 @@ public abstract class CertificateStrategy {
      * number of iterations.
      * @param count the number of iterations
      */
-    static void recordIterateCount(int count) {
+    static synchronized void recordIterateCount(int count) {
         if (iterateCountArray.length < count + 1) {
             int[] newIterateCount = new int[count + 1];
             System.arraycopy(iterateCountArray, 0, newIterateCount, 0, iterateCountArray.length);
@@ -173,8 +173,8 @@ public class PartitionRefiner extends CertificateStrategy {
 
     /** Extends the {@link #tmpCertIxs} array, if necessary. */
     private void resizeTmpCertIxs() {
-        if (this.nodeCertCount > tmpCertIxs.length) {
-            tmpCertIxs = new int[this.nodeCertCount + 100];
+        if (this.nodeCertCount > tmpCertIxs.get().length) {
+            tmpCertIxs.set(new int[this.nodeCertCount + 100]);
         }
     }
 
@@ -195,6 +195,8 @@ public class PartitionRefiner extends CertificateStrategy {
      *        {@link #nodePartitionCount} are recalculated
      */
     private void advanceNodeCerts(boolean store) {
+        TreeHashSet<MyNodeCert> certStore = PartitionRefiner.certStore.get();
+        int[] tmpCertIxs = PartitionRefiner.tmpCertIxs.get();
         int tmpSize = 0;
         for (int i = 0; i < this.nodeCertCount; i++) {
             MyNodeCert nodeCert = (MyNodeCert) this.nodeCerts[i];
@@ -336,26 +338,38 @@ public class PartitionRefiner extends CertificateStrategy {
      */
     private static final int TREE_RESOLUTION = 3;
     /**
-     * Store for node certificates, to count the number of partitions
+     * Store for node certificates, to count the number of partitions.
+     * The store is thread-local, so that certificates of different graphs
+     * can be computed concurrently.
      */
-    private static final TreeHashSet<MyNodeCert> certStore = new TreeHashSet<MyNodeCert>(
-        TREE_RESOLUTION) {
-        /**
-         * For the purpose of this set, only the certificate value is of
-         * importance.
-         */
-        @Override
-        protected boolean allEqual() {
-            return true;
-        }
+    private static final ThreadLocal<TreeHashSet<MyNodeCert>> certStore =
+        new ThreadLocal<TreeHashSet<MyNodeCert>>() {
+            @Override
+            protected TreeHashSet<MyNodeCert> initialValue() {
+                return new TreeHashSet<MyNodeCert>(TREE_RESOLUTION) {
+                    /**
+                     * For the purpose of this set, only the certificate value is of
+                     * importance.
+                     */
+                    @Override
+                    protected boolean allEqual() {
+                        return true;
+                    }
 
+                    @Override
+                    protected int getCode(MyNodeCert key) {
+                        return key.getValue();
+                    }
+                };
+            }
+        };
+    /** Thread-local temporary storage for node certificates. */
+    private static final ThreadLocal<int[]> tmpCertIxs = new ThreadLocal<int[]>() {
         @Override
-        protected int getCode(MyNodeCert key) {
-            return key.getValue();
+        protected int[] initialValue() {
+            return new int[100];
         }
     };
-    /** Temporary storage for node certificates. */
-    private static int[] tmpCertIxs = new int[100];
 
     /** Debug flag to switch the use of duplicate breaking on and off. */
     private static final boolean BREAK_DUPLICATES = true;
@@ -100,6 +100,12 @@ public class JAttr {
     public static final int EMPH_WIDTH = 3;
     /** Difference in line width between emphasised and non-emphasised. */
     public static final int EMPH_INCREMENT = EMPH_WIDTH - DEFAULT_LINE_WIDTH;
+    /**
+     * Scale of the JGraph below which node and edge labels are not painted.
+     * At such a zoom level the labels are unreadable anyway, whereas
+     * laying out their HTML text dominates the painting time of large graphs.
+     */
+    public static final double LABEL_CULLING_SCALE = 0.5;
 
     /**
      * Static flag determining if gradient background paint should be used.
@@ -117,7 +117,7 @@ public class JEdgeView extends EdgeView {
 
     @Override
     public MyEdgeRenderer getRenderer() {
-        return (MyEdgeRenderer) super.getRenderer();
+        return edgeRenderer.get();
     }
 
     /**
@@ -326,8 +326,21 @@ public class JEdgeView extends EdgeView {
     /** Preferred distance between parallel edges. */
     private static final int PAR_EDGES_DISTANCE = 4;
 
+    /**
+     * The renderer for all instances of <tt>JEdgeView</tt>.
+     * The renderer is thread-local, so that graphs can be rendered
+     * concurrently outside the event thread.
+     */
+    private static final ThreadLocal<MyEdgeRenderer> edgeRenderer =
+        new ThreadLocal<MyEdgeRenderer>() {
+            @Override
+            protected MyEdgeRenderer initialValue() {
+                return new MyEdgeRenderer();
+            }
+        };
+
     static {
-        renderer = new MyEdgeRenderer();
+        renderer = edgeRenderer.get();
     }
 
     /**
@@ -416,6 +429,7 @@ public class JEdgeView extends EdgeView {
             this.line2color = visuals.getInnerLine();
             this.twoLines = this.line2color != null;
             this.error = visuals.isError();
+            this.culled = jGraph instanceof JGraph && ((JGraph<?>) jGraph).isCullingLabels();
             if (this.error) {
                 Rectangle b = getLabelBounds(jGraph, view).getBounds();
                 b.setRect(b.x - 1, b.y - 1, b.width, b.height + 1);
@@ -641,6 +655,9 @@ public class JEdgeView extends EdgeView {
          */
         @Override
         protected void paintLabel(Graphics g, String label, Point2D p, boolean mainLabel) {
+            if (this.culled) {
+                return;
+            }
             if (!mainLabel) {
                 super.paintLabel(g, label, p, mainLabel);
             } else if (this.labelsEnabled && p != null) {
@@ -754,6 +771,8 @@ public class JEdgeView extends EdgeView {
         /** Flag indicating that the underlying edge has an error. */
         private boolean error;
         private Rectangle2D errorBounds;
+        /** Flag indicating that the labels are not painted at the current zoom level. */
+        private boolean culled;
 
         /** Component used for rendering HTML text. */
         private final JLabel jLabel;
@@ -775,7 +775,12 @@ public abstract class JGraph<G extends Graph> extends org.jgraph.JGraph {
             Runnable paint = new Runnable() {
                 @Override
                 public void run() {
-                    paint(graphics);
+                    JGraph.this.imaging = true;
+                    try {
+                        paint(graphics);
+                    } finally {
+                        JGraph.this.imaging = false;
+                    }
                 }
             };
             if (SwingUtilities.isEventDispatchThread()) {
@@ -1303,6 +1308,18 @@ public abstract class JGraph<G extends Graph> extends org.jgraph.JGraph {
     /** Flag indicating if the JGraph is being layouted. */
     private boolean layouting;
 
+    /**
+     * Indicates if the labels of the cells should be left out when painting,
+     * because this jGraph is zoomed out below {@link JAttr#LABEL_CULLING_SCALE}.
+     * Labels are never left out when painting an image of the jGraph.
+     */
+    public boolean isCullingLabels() {
+        return getScale() < JAttr.LABEL_CULLING_SCALE && !this.imaging;
+    }
+
+    /** Flag indicating that the JGraph is being painted into an image. */
+    private boolean imaging;
+
     /** Sets the visual refreshed to be used for a given visual key. */
     protected final void setVisualValue(VisualKey key, VisualValue<?> value) {
         this.visualValueMap.put(key, value);
@@ -91,11 +91,11 @@ public class JVertexView extends VertexView {
     }
 
     /*
-     * This implementation returns the (static) {@link JVertexView.MyRenderer}.
+     * This implementation returns the (thread-local) {@link JVertexView.MyRenderer}.
      */
     @Override
     public MyRenderer getRenderer() {
-        return renderer;
+        return renderer.get();
     }
 
     /*
@@ -279,9 +279,20 @@ public class JVertexView extends VertexView {
     private static final Insets DEFAULT_INSETS = new Insets(2, 4, 2, 4);
     /** Insets for empty vertices. */
     private static final Insets EMPTY_INSETS = new Insets(0, 0, 0, 0);
+    /** Plain text standing in for the actual vertex text, if that is not painted. */
+    private static final String CULLED_TEXT = " ";
 
-    /** The renderer for all instances of <tt>JVertexView</tt>. */
-    private static final MyRenderer renderer = new MyRenderer();
+    /**
+     * The renderer for all instances of <tt>JVertexView</tt>.
+     * The renderer is thread-local, so that graphs can be rendered
+     * concurrently outside the event thread.
+     */
+    private static final ThreadLocal<MyRenderer> renderer = new ThreadLocal<MyRenderer>() {
+        @Override
+        protected MyRenderer initialValue() {
+            return new MyRenderer();
+        }
+    };
 
     /** The editor for all instances of <tt>JVertexView</tt>. */
     private static final MultiLinedEditor editor = new MultiLinedEditor();
@@ -350,7 +361,13 @@ public class JVertexView extends VertexView {
             }
             Font font = Options.getLabelFont().deriveFont(visuals.getFont());
             setFont((font != null) ? font : graph.getFont());
-            setText(this.view.getText());
+            String text = this.view.getText();
+            // leave out the (costly) HTML text if it is not going to be painted;
+            // this is only possible if the text size is known
+            this.culled =
+                graph instanceof JGraph && ((JGraph<?>) graph).isCullingLabels()
+                    && !this.cell.isStale(VisualKey.NODE_SIZE);
+            setText(this.culled && text.length() > 0 ? CULLED_TEXT : text);
             this.error = visuals.isError();
             this.nodeEdge = this.cell.getLooks().contains(Look.NODIFIED);
             // do this last: it calls getTextSize, which depends on nodeEdge among others
@@ -372,7 +389,9 @@ public class JVertexView extends VertexView {
                 if (isOpaque()) {
                     paintBackground(g2, shape);
                 }
-                paintText(g2);
+                if (!this.culled) {
+                    paintText(g2);
+                }
                 paintBorder(g2, shape);
                 paintErrorOverlay(g2);
                 paintParameter(g2);
@@ -813,6 +832,8 @@ public class JVertexView extends VertexView {
         private float line2width;
         /** Flag indicating that the vertex has an error. */
         private boolean error;
+        /** Flag indicating that the text of the vertex is not painted. */
+        private boolean culled;
         private String adornment;
         private int adornHeight;
         private int adornWidth;
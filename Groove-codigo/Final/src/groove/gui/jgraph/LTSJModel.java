@@ -30,7 +30,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Graph model adding a concept of active state and transition, with special
@@ -64,10 +66,17 @@ public final class LTSJModel extends JModel<GTS> implements GTSListener {
     }
 
     @Override
-    public synchronized void addUpdate(GTS gts, GraphState state) {
+    public void addUpdate(GTS gts, GraphState state) {
         if (isExploring()) {
-            this.addedNodes.add(state);
-        } else if (isAcceptState(state)) {
+            recordState(state);
+        } else {
+            addState(state);
+        }
+    }
+
+    /** Adds a cell for a new state, if it is acceptable. */
+    private synchronized void addState(GraphState state) {
+        if (isAcceptState(state)) {
             prepareInsert();
             // add a corresponding GraphCell to the GraphModel
             addNode(state);
@@ -76,10 +85,17 @@ public final class LTSJModel extends JModel<GTS> implements GTSListener {
     }
 
     @Override
-    public synchronized void addUpdate(GTS gts, GraphTransition transition) {
+    public void addUpdate(GTS gts, GraphTransition transition) {
         if (isExploring()) {
-            this.addedEdges.add(transition);
-        } else if (isAcceptTransition(transition)) {
+            recordTransition(transition);
+        } else {
+            addTransitionCell(transition);
+        }
+    }
+
+    /** Adds a cell for a new transition, if it is acceptable. */
+    private synchronized void addTransitionCell(GraphTransition transition) {
+        if (isAcceptTransition(transition)) {
             prepareInsert();
             // note that (as per GraphListener contract)
             // source and target Nodes (if any) have already been added
@@ -97,41 +113,40 @@ public final class LTSJModel extends JModel<GTS> implements GTSListener {
 
     @Override
     public void statusUpdate(GTS lts, GraphState explored, Flag flag, int oldStatus) {
-        JCell<GTS> jCell = registerChange(explored, flag, oldStatus);
-        if (jCell != null) {
-            if (isExploring()) {
-                this.changedCells.add(jCell);
-            } else {
-                getJGraph().refreshCells(Collections.singleton(jCell));
+        if (isExploring()) {
+            recordStatus(explored);
+        } else {
+            LTSJVertex jCell = (LTSJVertex) getJCellForNode(explored);
+            if (jCell != null && refreshStatus(jCell)) {
+                getJGraph().refreshCells(Collections.<JCell<GTS>>singleton(jCell));
             }
         }
     }
 
     /**
-     * Registers a status change in a previously explored state.
-     * @return the cell that was changed as a consequence to the state change;
-     * {@code null} if there was no change.
+     * Brings the looks of an existing state cell in line with the
+     * current status of its state.
+     * @return {@code true} if any of the looks changed as a consequence
      */
-    private JCell<GTS> registerChange(GraphState explored, Flag flag, int oldStatus) {
-        JVertex<GTS> jCell = getJCellForNode(explored);
-        if (jCell != null) {
-            if (flag == Flag.CLOSED) {
-                jCell.setLook(Look.OPEN, false);
-            } else if (flag == Flag.DONE) {
-                jCell.setLook(Look.RECIPE, explored.isInternalState());
-                jCell.setLook(Look.TRANSIENT, explored.isTransient());
-                jCell.setLook(Look.FINAL, explored.isFinal());
-            }
-            if (explored.isAbsent() && !Flag.ABSENT.test(oldStatus)) {
-                Iterator<? extends JEdge<GTS>> iter = jCell.getContext();
-                while (iter.hasNext()) {
-                    iter.next().setLook(Look.ABSENT, true);
-                }
-                jCell.setLook(Look.ABSENT, true);
+    private boolean refreshStatus(LTSJVertex jCell) {
+        GraphState state = jCell.getNode();
+        boolean result = jCell.setLook(Look.OPEN, !state.isClosed());
+        if (state.isDone()) {
+            result |= jCell.setLook(Look.RECIPE, state.isInternalState());
+            result |= jCell.setLook(Look.TRANSIENT, state.isTransient());
+            result |= jCell.setLook(Look.FINAL, state.isFinal());
+        }
+        if (state.isAbsent() && jCell.setLook(Look.ABSENT, true)) {
+            Iterator<? extends JEdge<GTS>> iter = jCell.getContext();
+            while (iter.hasNext()) {
+                iter.next().setLook(Look.ABSENT, true);
             }
+            result = true;
+        }
+        if (result) {
             jCell.setStale(VisualKey.refreshables());
         }
-        return jCell;
+        return result;
     }
 
     @Override
@@ -142,6 +157,7 @@ public final class LTSJModel extends JModel<GTS> implements GTSListener {
             oldGTS.removeLTSListener(this);
         }
         prepareLoad(gts);
+        clearExploration();
         addElements(gts.nodeSet(), null, true);
         if (gts != oldGTS) {
             gts.addLTSListener(this);
@@ -290,35 +306,103 @@ public final class LTSJModel extends JModel<GTS> implements GTSListener {
 
     /**
      * Sets or resets the exploring mode.
-     * When exploring is set to {@code false}, all registered changes
-     * are pushed to the GUI.
+     * When exploring is set to {@code false}, the registered changes
+     * are pushed to the GUI in a single batch.
      */
     public void setExploring(boolean exploring) {
         boolean changed = (this.exploring != exploring);
         if (changed) {
-            this.exploring = exploring;
             if (exploring) {
-                this.addedNodes.clear();
-                this.addedEdges.clear();
-                this.changedCells.clear();
+                clearExploration();
+                this.exploring = true;
             } else {
-                if (!this.addedNodes.isEmpty() || !this.addedEdges.isEmpty()) {
-                    addElements(this.addedNodes, this.addedEdges, false);
-                }
-                if (!this.changedCells.isEmpty()) {
-                    getJGraph().refreshCells(this.changedCells);
+                this.exploring = false;
+                if (this.explored) {
+                    flushExploration();
                 }
             }
         }
     }
 
-    private boolean exploring;
-    /** Set of nodes added during the last exploration. */
-    private final List<Node> addedNodes = new ArrayList<Node>();
-    /** Set of edges added during the last exploration. */
-    private final List<Edge> addedEdges = new ArrayList<Edge>();
-    /** Set of JCells with status changes during the last exploration. */
-    private final List<JCell<GTS>> changedCells = new ArrayList<JCell<GTS>>();
+    /**
+     * Records a state added to the GTS in exploring mode.
+     * The state is only recorded if it is acceptable for display,
+     * and may fall within the state bound upon the next flush.
+     */
+    private synchronized void recordState(GraphState state) {
+        this.explored = true;
+        if (isAcceptState(state) && nodeCount() + this.addedStates.size() <= getStateBound()) {
+            this.addedStates.add(state);
+        }
+    }
+
+    /**
+     * Records a transition added to the GTS in exploring mode.
+     * The transition is only recorded if its source state is displayed,
+     * or is recorded to be displayed upon the next flush.
+     */
+    private synchronized void recordTransition(GraphTransition transition) {
+        this.explored = true;
+        GraphState source = transition.source();
+        if (this.addedStates.contains(source) || getJCellForNode(source) != null) {
+            this.addedTransitions.add(transition);
+        }
+    }
+
+    /**
+     * Records a status change of a state in exploring mode.
+     * The change is only recorded if the state is already displayed;
+     * cells created upon the next flush take the current status into account.
+     */
+    private synchronized void recordStatus(GraphState state) {
+        this.explored = true;
+        if (getJCellForNode(state) != null) {
+            this.changedStates.add(state);
+        }
+    }
+
+    /** Discards the changes recorded in exploring mode. */
+    private synchronized void clearExploration() {
+        this.explored = false;
+        this.addedStates.clear();
+        this.addedTransitions.clear();
+        this.changedStates.clear();
+    }
+
+    /**
+     * Brings the model in line with the GTS after an exploration.
+     * The changes are not passed on one by one while exploring; instead,
+     * only the states and transitions added since the last flush are inserted,
+     * and the looks of the state cells whose status has changed are refreshed.
+     * This keeps the cost of the GTS listener callbacks negligible
+     * during exploration, and the cost of the update proportional to the
+     * number of changes within the displayed part of the GTS.
+     */
+    private synchronized void flushExploration() {
+        List<JCell<GTS>> changedCells = new ArrayList<JCell<GTS>>();
+        for (GraphState state : this.changedStates) {
+            LTSJVertex jVertex = (LTSJVertex) getJCellForNode(state);
+            if (jVertex != null && refreshStatus(jVertex)) {
+                changedCells.add(jVertex);
+            }
+        }
+        addElements(this.addedStates, this.addedTransitions, false);
+        clearExploration();
+        if (!changedCells.isEmpty()) {
+            getJGraph().refreshCells(changedCells);
+        }
+    }
+
+    /** Flag indicating that the model is in exploring mode. */
+    private volatile boolean exploring;
+    /** Flag indicating that the GTS has changed since exploring mode was set. */
+    private volatile boolean explored;
+    /** States added to the GTS since the last flush, insofar as they may be displayed. */
+    private final Set<GraphState> addedStates = new LinkedHashSet<GraphState>();
+    /** Transitions added to the GTS since the last flush, from displayable source states. */
+    private final List<GraphTransition> addedTransitions = new ArrayList<GraphTransition>();
+    /** Displayed states whose status has changed since the last flush. */
+    private final Set<GraphState> changedStates = new LinkedHashSet<GraphState>();
 
     /** Default name of an LTS model. */
     public static final String DEFAULT_LTS_NAME = "lts";
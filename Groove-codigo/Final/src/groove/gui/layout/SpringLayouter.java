@@ -172,37 +172,81 @@ public class SpringLayouter extends AbstractLayouter {
     }
 
     private synchronized void avoidLabels() {
-        final float repSum = 200; // a repulsion constant
+        final float repSum = REPULSION_RANGE;
+        fillCells(repSum);
         for (int i = 0; i < this.layoutables.length; i++) {
             Point2D.Double bf = this.positions[i];
             float fromDx = 0;
             float fromDy = 0;
-            for (int j = i + 1; j < this.layoutables.length; j++) {
-                Point2D.Double bt = this.positions[j];
-
-                double vx = bf.x - bt.x;
-                double vy = bf.y - bt.y;
-                if (Math.abs(vx) < repSum && Math.abs(vy) < repSum) {
-                    double len = (vx * vx + vy * vy) / repSum; // so it's
-                    // length
-                    // squared
-                    double dx, dy;
-                    if (len < 1 / repSum) {
-                        dx = repSum * (float) Math.random();
-                        dy = repSum * (float) Math.random();
-                    } else {
-                        dx = vx / len;
-                        dy = vy / len;
+            // only layoutables in the same or adjacent cells are close enough to repulse
+            int cellX = toCell(bf.x, repSum);
+            int cellY = toCell(bf.y, repSum);
+            for (int x = cellX - 1; x <= cellX + 1; x++) {
+                for (int y = cellY - 1; y <= cellY + 1; y++) {
+                    Integer head = this.cellHeads.get(toCellKey(x, y));
+                    if (head == null) {
+                        continue;
+                    }
+                    for (int j = head; j >= 0; j = this.cellNext[j]) {
+                        if (j <= i) {
+                            continue;
+                        }
+                        Point2D.Double bt = this.positions[j];
+
+                        double vx = bf.x - bt.x;
+                        double vy = bf.y - bt.y;
+                        if (Math.abs(vx) < repSum && Math.abs(vy) < repSum) {
+                            double len = (vx * vx + vy * vy) / repSum; // so it's
+                            // length
+                            // squared
+                            double dx, dy;
+                            if (len < 1 / repSum) {
+                                dx = repSum * (float) Math.random();
+                                dy = repSum * (float) Math.random();
+                            } else {
+                                dx = vx / len;
+                                dy = vy / len;
+                            }
+                            fromDx += dx;
+                            fromDy += dy;
+                            shiftDelta(this.deltas[j], -dx, -dy);
+                        }
                     }
-                    fromDx += dx;
-                    fromDy += dy;
-                    shiftDelta(this.deltas[j], -dx, -dy);
                 }
             }
             shiftDelta(this.deltas[i], fromDx, fromDy);
         }
     }
 
+    /**
+     * Distributes the layoutables over a grid of square cells
+     * with a given side length, based on their current positions.
+     * The layoutables in a cell form a linked list, starting at
+     * the index stored in {@link #cellHeads} and continued through {@link #cellNext}.
+     */
+    private void fillCells(float cellSize) {
+        this.cellHeads.clear();
+        if (this.cellNext == null || this.cellNext.length != this.layoutables.length) {
+            this.cellNext = new int[this.layoutables.length];
+        }
+        for (int i = this.layoutables.length - 1; i >= 0; i--) {
+            Point2D.Double position = this.positions[i];
+            Long key = toCellKey(toCell(position.x, cellSize), toCell(position.y, cellSize));
+            Integer head = this.cellHeads.put(key, i);
+            this.cellNext[i] = head == null ? -1 : head;
+        }
+    }
+
+    /** Returns the grid cell coordinate of a given position coordinate. */
+    private static int toCell(double coordinate, float cellSize) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /** Combines a pair of grid cell coordinates into a single key. */
+    private static Long toCellKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
     private synchronized void moveNodes() {
         float shiftX = 0;
         float shiftY = 0;
@@ -307,6 +351,20 @@ public class SpringLayouter extends AbstractLayouter {
      */
     private final Map<LayoutNode,Point2D.Float> deltaMap = new HashMap<LayoutNode,Point2D.Float>();
 
+    /**
+     * Mapping from grid cells (see {@link #toCellKey(int, int)}) to the index
+     * of the first layoutable in that cell.
+     * Transient value; only used while layout is running.
+     */
+    private final Map<Long,Integer> cellHeads = new HashMap<Long,Integer>();
+
+    /**
+     * For every layoutable, the index of the next layoutable in the same grid cell,
+     * or {@code -1} if it is the last one.
+     * Transient value; only used while layout is running.
+     */
+    private int[] cellNext;
+
     /**
      * Source vertices or midpoints of the edge fragments in this graph.
      * Transient value; only used while layout is running.
@@ -362,6 +420,12 @@ public class SpringLayouter extends AbstractLayouter {
      */
     public static final int DEFAULT_DURATION = 2000;
 
+    /**
+     * Distance (in both x and y direction) beyond which layoutables
+     * no longer repulse each other.
+     */
+    private static final float REPULSION_RANGE = 200;
+
     /**
      * An epsilon float value, used as border case to decide whether a value is
      * "almost zero".
@@ -58,6 +58,8 @@ public enum FileType {
     CONTROL("Groove control files", ".gcp"),
     /** Property files. */
     PROPERTY("Groove property files", ".properties"),
+    /** Compact binary LTS files. */
+    COMPACT_LTS("Groove compact LTS files", ".glts"),
 
     // Text files.
     /** Log files. */
@@ -41,6 +41,7 @@ import groove.io.external.Porter;
 import groove.io.external.Porter.Kind;
 import groove.util.Groove;
 import groove.util.Pair;
+import groove.util.ThreadPool;
 import groove.util.cli.ExistingFileHandler;
 import groove.util.cli.GrooveCmdLineTool;
 import groove.util.parse.FormatException;
@@ -53,15 +54,30 @@ import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -171,21 +187,37 @@ public class Imager extends GrooveCmdLineTool<Object> {
         }
         try {
             GrammarModel grammar = GrammarModel.newInstance(grammarFile, false);
-            makeImage(grammar, inFile, outFile);
+            List<ImageJob> jobs = new ArrayList<ImageJob>();
+            try {
+                collectImages(grammar, inFile, outFile, jobs);
+                if (isConcurrent() && jobs.size() > 1) {
+                    makeImagesConcurrently(grammar, jobs);
+                } else {
+                    for (ImageJob job : jobs) {
+                        emit(MEDIUM, "Imaging %s as %s%n", job.inFile, job.exportFile);
+                        makeImage(job);
+                        job.storeHash();
+                    }
+                }
+            } finally {
+                saveHashes();
+            }
         } catch (IllegalArgumentException e) {
             throw new IOException(e.getMessage());
         }
     }
 
     /**
-     * Makes an image file from the specified input file. If the input file is a
+     * Collects the images to be made from the specified input file. If the input file is a
      * directory, the method descends recursively. The types of input files
      * recognized are: gxl, gps and gst
      * @param inFile the input file to be converted
      * @param outFile the intended output file. If {@code inFile} is a directory,
      * then {@code outFile} is guaranteed to be a directory as well.
+     * @param jobs list to which the images to be made are added
      */
-    private void makeImage(GrammarModel grammar, File inFile, File outFile) throws IOException {
+    private void collectImages(GrammarModel grammar, File inFile, File outFile, List<ImageJob> jobs)
+        throws IOException {
         // if the given input-file is a directory, call this method recursively
         // for each file it contains but ensure:
         // --> output-file exists or can be created
@@ -200,7 +232,7 @@ public class Imager extends GrooveCmdLineTool<Object> {
                         process = resource != null && resource.one().isGraphBased();
                     }
                     if (process) {
-                        makeImage(grammar, element, new File(outFile, element.getName()));
+                        collectImages(grammar, element, new File(outFile, element.getName()), jobs);
                     }
                 }
             } else {
@@ -231,42 +263,213 @@ public class Imager extends GrooveCmdLineTool<Object> {
             }
             // Determine output file format
             FileType outFileType = getFormatMap().get(getOutFormatExt());
-            final FileType fileType =
+            FileType fileType =
                 outFileType == null ? getFormatMap().values().iterator().next() : outFileType;
-            final Exporter exporter = Exporters.getExporter(fileType);
-            final File exportFile = new File(outParent, fileType.addExtension(outFileName));
-
-            emit(MEDIUM, "Imaging %s as %s%n", inFile, outFile);
+            File exportFile = new File(outParent, fileType.addExtension(outFileName));
+            String hash = null;
+            if (isIncremental()) {
+                hash = computeHash(inFile);
+                if (exportFile.exists() && hash.equals(getHashes(exportFile).get(exportFile.getName()))) {
+                    emit(MEDIUM, "Skipping unchanged %s%n", inFile);
+                    return;
+                }
+            }
             GraphBasedModel<?> resourceModel =
                 (GraphBasedModel<?>) grammar.getResource(resource.one(), resource.two().toString());
-            final Exportable exportable = toExportable(resourceModel, exporter.getFormatKinds());
-            // make sure the export happens on the event thread
-            Runnable export = new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        exporter.doExport(exportable, exportFile, fileType);
-                    } catch (PortException e1) {
-                        throw new RuntimeException(e1);
-                    }
-                }
-            };
-            if (SwingUtilities.isEventDispatchThread()) {
+            jobs.add(new ImageJob(inFile, exportFile, fileType, resourceModel, hash));
+        }
+    }
+
+    /** Makes the image for a given job, on the event thread. */
+    private void makeImage(final ImageJob job) throws IOException {
+        // make sure the export happens on the event thread
+        Runnable export = new Runnable() {
+            @Override
+            public void run() {
                 try {
-                    export.run();
-                } catch (RuntimeException exc) {
-                    throw new IOException(exc.getCause());
+                    job.export();
+                } catch (PortException e1) {
+                    throw new RuntimeException(e1);
                 }
-            } else {
+            }
+        };
+        if (SwingUtilities.isEventDispatchThread()) {
+            try {
+                export.run();
+            } catch (RuntimeException exc) {
+                throw new IOException(exc.getCause());
+            }
+        } else {
+            try {
+                SwingUtilities.invokeAndWait(export);
+            } catch (InterruptedException exc) {
+                // do nothing
+            } catch (InvocationTargetException exc) {
+                throw new IOException(exc.getCause().getCause());
+            }
+        }
+    }
+
+    /**
+     * Makes the images for a list of jobs concurrently, in the global {@link ThreadPool}.
+     * The JGraphs to be rendered are built on the event thread, as they are
+     * Swing components; the workers then render and write the images.
+     * The images are reported in the order in which they are completed.
+     */
+    private void makeImagesConcurrently(GrammarModel grammar, List<ImageJob> jobs)
+        throws IOException {
+        // compute the lazily derived grammar information before the workers query it
+        grammar.getTypeGraph();
+        for (ImageJob job : jobs) {
+            job.resourceModel.getErrors();
+        }
+        CompletionService<ImageJob> service =
+            new ExecutorCompletionService<ImageJob>(ThreadPool.instance().getExecutor());
+        List<Future<ImageJob>> futures = new ArrayList<Future<ImageJob>>(jobs.size());
+        try {
+            for (final ImageJob job : jobs) {
+                futures.add(service.submit(new Callable<ImageJob>() {
+                    @Override
+                    public ImageJob call() throws Exception {
+                        prepareOnEventThread(job);
+                        job.export();
+                        return job;
+                    }
+                }));
+            }
+            for (int i = 0; i < jobs.size(); i++) {
+                ImageJob job = service.take().get();
+                emit(MEDIUM, "Imaged %s as %s%n", job.inFile, job.exportFile);
+                job.storeHash();
+            }
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException exc) {
+            Throwable cause = exc.getCause();
+            if (cause instanceof InvocationTargetException) {
+                cause = cause.getCause();
+            }
+            throw new IOException(cause);
+        } finally {
+            // the pool is shared, so jobs that have not yet started should be withdrawn
+            for (Future<ImageJob> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Builds the exportable object of a job on the event thread,
+     * as this may involve building a JGraph.
+     * The JGraph is never displayed, so once built, it is only accessed by
+     * the thread exporting it; hence it may be rendered outside the event thread.
+     */
+    private void prepareOnEventThread(final ImageJob job) throws InterruptedException,
+        InvocationTargetException {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                job.prepare();
+            }
+        });
+    }
+
+    /** Returns the hashes of the source files of the images in the directory of a given image file. */
+    private synchronized Properties getHashes(File exportFile) throws IOException {
+        File hashFile = new File(exportFile.getAbsoluteFile().getParentFile(), HASH_FILE_NAME);
+        Properties result = this.hashesMap.get(hashFile);
+        if (result == null) {
+            result = new Properties();
+            if (hashFile.exists()) {
+                InputStream in = new FileInputStream(hashFile);
                 try {
-                    SwingUtilities.invokeAndWait(export);
-                } catch (InterruptedException exc) {
-                    // do nothing
-                } catch (InvocationTargetException exc) {
-                    throw new IOException(exc.getCause().getCause());
+                    result.load(in);
+                } finally {
+                    in.close();
                 }
             }
+            this.hashesMap.put(hashFile, result);
+        }
+        return result;
+    }
+
+    /** Saves the hashes of the source files of all images made since the last save. */
+    private synchronized void saveHashes() throws IOException {
+        for (Map.Entry<File,Properties> entry : this.hashesMap.entrySet()) {
+            OutputStream out = new FileOutputStream(entry.getKey());
+            try {
+                entry.getValue().store(out, "Source hashes of images made by the " + APPLICATION_NAME);
+            } finally {
+                out.close();
+            }
+        }
+        this.hashesMap.clear();
+    }
+
+    /** Source hashes of the images, per hash file. */
+    private final Map<File,Properties> hashesMap = new HashMap<File,Properties>();
+
+    /**
+     * Computes a hash of the content of a given file,
+     * combined with the options that influence the image.
+     */
+    private String computeHash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
+        digest.update(Files.readAllBytes(file.toPath()));
+        digest.update((byte) (isEditorView() ? 1 : 0));
+        return String.format("%040x", new BigInteger(1, digest.digest()));
+    }
+
+    /** Image to be made from a graph resource. */
+    private class ImageJob {
+        ImageJob(File inFile, File exportFile, FileType fileType,
+            GraphBasedModel<?> resourceModel, String hash) {
+            this.inFile = inFile;
+            this.exportFile = exportFile;
+            this.fileType = fileType;
+            this.exporter = Exporters.getExporter(fileType);
+            this.resourceModel = resourceModel;
+            this.hash = hash;
+        }
+
+        /** Builds the exportable object for the resource, if this has not yet been done. */
+        void prepare() {
+            if (this.exportable == null) {
+                this.exportable = toExportable(this.resourceModel, this.exporter.getFormatKinds());
+            }
+        }
+
+        /** Builds the exportable object for the resource, if necessary, and exports it. */
+        void export() throws PortException {
+            prepare();
+            try {
+                this.exporter.doExport(this.exportable, this.exportFile, this.fileType);
+            } finally {
+                this.exportable = null;
+            }
+        }
+
+        /** Records the source hash of the exported image, if it was computed. */
+        void storeHash() throws IOException {
+            if (this.hash != null) {
+                getHashes(this.exportFile).put(this.exportFile.getName(), this.hash);
+            }
+        }
+
+        final File inFile;
+        final File exportFile;
+        final FileType fileType;
+        final Exporter exporter;
+        final GraphBasedModel<?> resourceModel;
+        /** Hash of the source file; {@code null} if images are not made incrementally. */
+        final String hash;
+        /** The exportable object for the resource, if built and not yet exported. */
+        private Exportable exportable;
     }
 
     /** Converts a resource model to an exportable object of the right kind. */
@@ -333,6 +536,20 @@ public class Imager extends GrooveCmdLineTool<Object> {
         return this.editorView;
     }
 
+    /**
+     * Indicates whether images are rendered concurrently.
+     * This is the case if a thread pool of more than one worker
+     * has been requested through the {@code -pool} option.
+     */
+    private boolean isConcurrent() {
+        return getPoolSize() > 1;
+    }
+
+    /** Indicates whether images are only made for changed source files. */
+    private boolean isIncremental() {
+        return this.incremental;
+    }
+
     /**
      * The imager frame if the invocation is gui-based; <tt>null</tt> if it is
      * command-line based.
@@ -360,6 +577,11 @@ public class Imager extends GrooveCmdLineTool<Object> {
     @Option(name = "-e", usage = "Enforces editor view export")
     private boolean editorView;
 
+    @Option(name = "-u",
+        usage = "Only images graphs whose source file has changed since the last run with this option. "
+            + "The source hashes are kept in a file '" + HASH_FILE_NAME + "' in the output directory")
+    private boolean incremental;
+
     /**
      * Starts the imager with a list of options and file names.
      * Always exits with {@link System#exit(int)}.
@@ -457,6 +679,8 @@ public class Imager extends GrooveCmdLineTool<Object> {
 
     private static Map<String,FileType> formatMap;
 
+    /** Name of the file in which the hashes of the imaged source files are kept. */
+    public static final String HASH_FILE_NAME = ".imager-hashes";
     /** Name of the imager application. */
     public static final String APPLICATION_NAME = "Imager";
     /** Label for the browse buttons. */
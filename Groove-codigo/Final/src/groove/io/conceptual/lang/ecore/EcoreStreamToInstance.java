@@ -0,0 +1,713 @@
+package groove.io.conceptual.lang.ecore;
+
+import groove.io.FileType;
+import groove.io.conceptual.Field;
+import groove.io.conceptual.Id;
+import groove.io.conceptual.InstanceModel;
+import groove.io.conceptual.Name;
+import groove.io.conceptual.Timer;
+import groove.io.conceptual.TypeModel;
+import groove.io.conceptual.lang.ImportException;
+import groove.io.conceptual.lang.InstanceImporter;
+import groove.io.conceptual.lang.InvalidTypeException;
+import groove.io.conceptual.lang.Message;
+import groove.io.conceptual.lang.Message.MessageType;
+import groove.io.conceptual.type.Class;
+import groove.io.conceptual.type.Container;
+import groove.io.conceptual.type.Type;
+import groove.io.conceptual.value.ContainerValue;
+import groove.io.conceptual.value.Object;
+import groove.io.conceptual.value.Value;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.InternalEObject;
+
+/**
+ * Streaming importer for Ecore instance models.
+ * Unlike {@link EcoreToInstance}, this importer does not load the XMI file
+ * into an EMF resource. It reads the file incrementally with StAX and creates
+ * the objects of the instance model as their elements are read.
+ * A reference to an object that has not been read yet is buffered until the
+ * end of the document. All other references are resolved when the element
+ * holding them is closed. The number of buffered references is bounded;
+ * if the bound is exceeded, a {@link PendingOverflowException} is thrown.
+ * References into other documents are resolved by streaming those documents
+ * as well; like in EMF, the objects reachable from the document then become
+ * part of the instance model.
+ * The resulting instance model is the same as the one built by {@link EcoreToInstance},
+ * provided that the key attributes of objects in references with keys are
+ * given as XML attributes rather than as nested elements.
+ */
+public class EcoreStreamToInstance extends InstanceImporter {
+    // References to the Ecore type model information, retrieved from EcoreToType
+    private final EcoreToType m_ecoreType;
+    private final TypeModel m_typeModel;
+
+    // Maximum number of references that may be pending at any time
+    private final int m_maxPending;
+
+    // Map from absolute URIs to the documents read so far
+    private final Map<URI,Document> m_documents = new HashMap<URI,Document>();
+    // References of which some target could not be resolved when they were read
+    private final List<PendingReference> m_pending = new ArrayList<PendingReference>();
+    // Map from Ecore features to the corresponding fields in the type model
+    private final Map<EStructuralFeature,Field> m_fields = new HashMap<EStructuralFeature,Field>();
+
+    /**
+     * Create a streaming Ecore instance model importer.
+     * @param typeModel EcoreToType to use for the corresponding type model. The type model should not contain errors.
+     * @param filename Name of the instance model file to load
+     * @throws ImportException When the file could not be properly read, or the type model is invalid
+     */
+    public EcoreStreamToInstance(EcoreToType typeModel, String filename) throws ImportException {
+        this(typeModel, filename, MAX_PENDING);
+    }
+
+    /**
+     * Create a streaming Ecore instance model importer with a given bound
+     * on the number of pending references.
+     * @param typeModel EcoreToType to use for the corresponding type model. The type model should not contain errors.
+     * @param filename Name of the instance model file to load
+     * @param maxPending Maximum number of references to objects not read yet
+     * @throws PendingOverflowException When the model has more than {@code maxPending} pending references
+     * @throws ImportException When the file could not be properly read, or the type model is invalid
+     */
+    public EcoreStreamToInstance(EcoreToType typeModel, String filename, int maxPending)
+        throws ImportException {
+        this.m_ecoreType = typeModel;
+        this.m_maxPending = maxPending;
+
+        // "ecore" is the hardcoded string for an ecore type model
+        this.m_typeModel = this.m_ecoreType.getTypeModel("ecore");
+        if (this.m_typeModel == null) {
+            throw new ImportException("Cannot load type model from given EcoreToType");
+        }
+
+        File file = new File(filename);
+        InstanceModel m = new InstanceModel(this.m_typeModel, FileType.getPureName(file));
+        int timer = Timer.start("Ecore to IM");
+        Document document = new Document(file.getAbsoluteFile().toURI().normalize(), m);
+        this.m_documents.put(document.m_uri, document);
+        readDocument(document);
+        resolvePending();
+        if (this.m_documents.size() > 1) {
+            addReachableObjects(m);
+        }
+        Timer.stop(timer);
+
+        addInstanceModel(m);
+    }
+
+    /** Reads the objects of a document into the instance model of the document. */
+    private void readDocument(Document document) throws ImportException {
+        File file = new File(document.m_uri);
+        try {
+            InputStream in = new BufferedInputStream(new FileInputStream(file));
+            try {
+                XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+                try {
+                    readRoots(document, reader);
+                } finally {
+                    reader.close();
+                }
+            } finally {
+                in.close();
+            }
+        } catch (FileNotFoundException e) {
+            throw new ImportException("Cannot find file " + file, e);
+        } catch (IOException e) {
+            throw new ImportException(e);
+        } catch (XMLStreamException e) {
+            throw new ImportException(e);
+        }
+    }
+
+    /** Reads the root object(s) of a document. */
+    private void readRoots(Document document, XMLStreamReader reader)
+        throws XMLStreamException, ImportException {
+        while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+            if (reader.getEventType() == XMLStreamConstants.END_DOCUMENT) {
+                return;
+            }
+        }
+        if (XMI_URI.equals(reader.getNamespaceURI()) && "XMI".equals(reader.getLocalName())) {
+            // several root objects; their fragments are given by their index
+            int index = 0;
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                EClass eClass = getEClass(reader.getNamespaceURI(), reader.getLocalName());
+                readObject(document, reader, eClass, ROOT_NAME, "/" + index);
+                index++;
+            }
+        } else {
+            EClass eClass = getEClass(reader.getNamespaceURI(), reader.getLocalName());
+            readObject(document, reader, eClass, ROOT_NAME, ROOT_NAME);
+        }
+    }
+
+    /**
+     * Resolves the references that were left pending.
+     * Documents loaded in the course of this may add further pending references,
+     * which are resolved as well.
+     */
+    private void resolvePending() throws ImportException {
+        for (int i = 0; i < this.m_pending.size(); i++) {
+            PendingReference pending = this.m_pending.get(i);
+            List<Object> targets = new ArrayList<Object>();
+            for (java.lang.Object target : pending.m_targets) {
+                if (target instanceof String) {
+                    Object object = resolve(pending.m_document, (String) target);
+                    if (object == null) {
+                        addMessage(new Message("Cannot resolve reference " + target,
+                            MessageType.ERROR));
+                        continue;
+                    }
+                    target = object;
+                }
+                targets.add((Object) target);
+            }
+            setReference(pending.m_source, pending.m_reference, targets);
+        }
+        this.m_pending.clear();
+    }
+
+    /**
+     * Adds the objects from other documents that are reachable from
+     * the objects of an instance model, to that instance model.
+     */
+    private void addReachableObjects(InstanceModel m) {
+        Set<Object> reached = new LinkedHashSet<Object>(m.getObjects());
+        List<Object> queue = new ArrayList<Object>(reached);
+        for (int i = 0; i < queue.size(); i++) {
+            for (Value value : queue.get(i).getValue().values()) {
+                List<Value> targets =
+                    value instanceof ContainerValue ? ((ContainerValue) value).getValue()
+                            : Collections.singletonList(value);
+                for (Value target : targets) {
+                    if (target instanceof Object && target != Object.NIL
+                        && reached.add((Object) target)) {
+                        queue.add((Object) target);
+                        m.addObject((Object) target);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an object from the element at which the reader is positioned,
+     * including the objects contained in it.
+     * Afterwards, the reader is positioned at the end of the element.
+     * @param document Document that is being read
+     * @param eClass Ecore class of the object; may be {@code null} if it could not be determined
+     * @param name name of the object, consisting of the URI fragment segments leading up to it
+     * @param rootFragment URI fragment of the root object that (indirectly) contains the object
+     * @return The created Object, or null on error
+     */
+    private Object readObject(Document document, XMLStreamReader reader, EClass eClass,
+        String name, String rootFragment) throws XMLStreamException, ImportException {
+        Class cmClass = null;
+        if (eClass != null) {
+            Id clsId = EcoreUtil.idFromClassifier(eClass);
+            cmClass = this.m_typeModel.getClass(clsId);
+            if (cmClass == null) {
+                addMessage(new Message("Cannot find class " + clsId + " in type model",
+                    MessageType.ERROR));
+            }
+        } else {
+            addMessage(new Message("Cannot find class of element " + reader.getName(),
+                MessageType.ERROR));
+        }
+        if (cmClass == null) {
+            skipElement(reader);
+            return null;
+        }
+
+        Object cmObject = new Object(cmClass, Name.getName(name));
+        document.m_model.addObject(cmObject);
+        document.m_fragments.put(rootFragment + name.substring(1), cmObject);
+        // Many-valued references are empty rather than unset, as in EMF;
+        // opposites of references read later may add to them
+        for (EReference eReference : eClass.getEAllReferences()) {
+            if (eReference.isMany()) {
+                setReference(cmObject, eReference, Collections.<Object>emptyList());
+            }
+        }
+
+        // Collect the (unconverted) values of the features, in the order in which they are read
+        Map<EStructuralFeature,List<java.lang.Object>> values =
+            new LinkedHashMap<EStructuralFeature,List<java.lang.Object>>();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            String localName = reader.getAttributeLocalName(i);
+            String value = reader.getAttributeValue(i);
+            if (XMI_URI.equals(namespace)) {
+                if ("id".equals(localName)) {
+                    document.m_ids.put(value, cmObject);
+                }
+                continue;
+            }
+            if (XSI_URI.equals(namespace)) {
+                continue;
+            }
+            EStructuralFeature feature = eClass.getEStructuralFeature(localName);
+            if (feature == null) {
+                addMessage(new Message("Cannot find feature " + localName + " of class "
+                    + eClass.getName(), MessageType.ERROR));
+                continue;
+            }
+            if (feature instanceof EAttribute && ((EAttribute) feature).isID()) {
+                document.m_ids.put(value, cmObject);
+            }
+            List<java.lang.Object> featureValues = getValues(values, feature);
+            if (feature.isMany() || feature instanceof EReference) {
+                // multiple values and references are separated by whitespace
+                for (String token : value.trim().split("\\s+")) {
+                    if (token.length() > 0) {
+                        featureValues.add(token);
+                    }
+                }
+            } else {
+                featureValues.add(value);
+            }
+        }
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String localName = reader.getLocalName();
+            EStructuralFeature feature = eClass.getEStructuralFeature(localName);
+            if (feature == null) {
+                addMessage(new Message("Cannot find feature " + localName + " of class "
+                    + eClass.getName(), MessageType.ERROR));
+                skipElement(reader);
+                continue;
+            }
+            List<java.lang.Object> featureValues = getValues(values, feature);
+            if (feature instanceof EAttribute) {
+                featureValues.add(reader.getElementText());
+                continue;
+            }
+            EReference eReference = (EReference) feature;
+            String href = reader.getAttributeValue(null, "href");
+            if (href != null || !eReference.isContainment()) {
+                if (href != null) {
+                    featureValues.add(href);
+                }
+                skipElement(reader);
+                continue;
+            }
+            EClass childEClass = getContainedEClass(reader, eReference);
+            String indexSegment = getIndexSegment(eReference, featureValues.size());
+            String segment =
+                eReference.getEKeys().isEmpty() || childEClass == null ? indexSegment
+                        : getKeySegment(reader, eClass, eReference, childEClass);
+            Object child =
+                readObject(document, reader, childEClass, name + "/" + segment, rootFragment);
+            if (child != null) {
+                // like EMF, also resolve the index-based fragment of an object with keys
+                document.m_fragments.put(rootFragment + (name + "/" + indexSegment).substring(1),
+                    child);
+                featureValues.add(child);
+                // the opposite of a containment is the container, which is not stored in XMI
+                EReference eOpposite = eReference.getEOpposite();
+                if (eOpposite != null) {
+                    setReference(child, eOpposite, Collections.singletonList(cmObject));
+                }
+            }
+        }
+
+        setValues(document, cmObject, eClass, values);
+        return cmObject;
+    }
+
+    /** Returns the index-based URI fragment segment of an object in a containment reference. */
+    private String getIndexSegment(EReference eReference, int index) {
+        String result = "@" + eReference.getName();
+        if (eReference.isMany()) {
+            result += "." + index;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the URI fragment segment of an object in a containment reference with keys,
+     * as computed by EMF. The key values are taken from the attributes of the element
+     * at which the reader is positioned; keys given as nested elements are not seen.
+     * @param containerEClass Ecore class of the containing object
+     * @param eClass Ecore class of the contained object
+     */
+    private String getKeySegment(XMLStreamReader reader, EClass containerEClass,
+        EReference eReference, EClass eClass) {
+        EObject container = org.eclipse.emf.ecore.util.EcoreUtil.create(containerEClass);
+        EObject eObject = org.eclipse.emf.ecore.util.EcoreUtil.create(eClass);
+        for (EAttribute key : eReference.getEKeys()) {
+            String literal = reader.getAttributeValue(null, key.getName());
+            if (literal != null && !key.isMany()) {
+                try {
+                    eObject.eSet(key, org.eclipse.emf.ecore.util.EcoreUtil.createFromString(
+                        key.getEAttributeType(), literal));
+                } catch (RuntimeException e) {
+                    // invalid values are reported when the attribute itself is read
+                }
+            }
+        }
+        return ((InternalEObject) container).eURIFragmentSegment(eReference, eObject);
+    }
+
+    /**
+     * Assigns the collected values to the fields of an object.
+     * Attributes that were not read get their default value, as in EMF.
+     */
+    private void setValues(Document document, Object cmObject, EClass eClass,
+        Map<EStructuralFeature,List<java.lang.Object>> values) throws ImportException {
+        for (EStructuralFeature feature : eClass.getEAllStructuralFeatures()) {
+            List<java.lang.Object> featureValues = values.get(feature);
+            if (feature instanceof EAttribute) {
+                EAttribute eAttribute = (EAttribute) feature;
+                java.lang.Object value;
+                if (featureValues == null) {
+                    value =
+                        eAttribute.isMany() ? Collections.emptyList()
+                                : eAttribute.getDefaultValue();
+                } else {
+                    List<java.lang.Object> ecoreValues = new ArrayList<java.lang.Object>();
+                    for (java.lang.Object literal : featureValues) {
+                        try {
+                            ecoreValues.add(org.eclipse.emf.ecore.util.EcoreUtil.createFromString(
+                                eAttribute.getEAttributeType(), (String) literal));
+                        } catch (RuntimeException e) {
+                            addMessage(new Message("Invalid value " + literal + " of attribute "
+                                + eAttribute.getName(), MessageType.ERROR));
+                        }
+                    }
+                    if (eAttribute.isMany()) {
+                        value = ecoreValues;
+                    } else {
+                        value = ecoreValues.isEmpty() ? null : ecoreValues.get(0);
+                    }
+                }
+                visitAttribute(cmObject, eAttribute, value);
+            } else if (featureValues != null) {
+                EReference eReference = (EReference) feature;
+                List<Object> targets = new ArrayList<Object>();
+                boolean resolved = true;
+                for (java.lang.Object target : featureValues) {
+                    if (target instanceof String) {
+                        Object object = resolve(document, (String) target);
+                        if (object == null) {
+                            resolved = false;
+                            break;
+                        }
+                        target = object;
+                    }
+                    targets.add((Object) target);
+                }
+                if (resolved) {
+                    setReference(cmObject, eReference, targets);
+                } else if (this.m_pending.size() < this.m_maxPending) {
+                    this.m_pending.add(new PendingReference(document, cmObject, eReference,
+                        featureValues));
+                } else {
+                    throw new PendingOverflowException("More than " + this.m_maxPending
+                        + " references to objects not read yet");
+                }
+            }
+        }
+    }
+
+    /**
+     * Assigns a list of target objects to a reference field of an object.
+     * For a reference whose opposite is not stored in XMI, also assigns the opposite.
+     */
+    private void setReference(Object cmObject, EReference eReference, List<Object> targets) {
+        Field f = getField(eReference);
+        if (f == null) {
+            return;
+        }
+        if (eReference.isMany()) {
+            ContainerValue cv = new ContainerValue((Container) f.getType());
+            for (Object target : targets) {
+                cv.addValue(target);
+            }
+            cmObject.setFieldValue(f, cv);
+        } else if (!targets.isEmpty()) {
+            cmObject.setFieldValue(f, targets.get(0));
+        }
+
+        EReference eOpposite = eReference.getEOpposite();
+        if (eOpposite != null && eOpposite.isTransient() && !eReference.isContainment()
+            && !eOpposite.isContainment()) {
+            Field oppositeField = getField(eOpposite);
+            if (oppositeField == null) {
+                return;
+            }
+            for (Object target : targets) {
+                if (eOpposite.isMany()) {
+                    ContainerValue cv = (ContainerValue) target.getValue().get(oppositeField);
+                    if (!cv.getValue().contains(cmObject)) {
+                        cv.addValue(cmObject);
+                    }
+                } else {
+                    target.setFieldValue(oppositeField, cmObject);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit an EAttribute value. Value will be assigned to the objects corresponding field
+     * @param cmObject object to assign value to
+     * @param eAttribute attribute to get value from
+     * @param value actual value of the attribute to translate; a list if the attribute is many-valued
+     * @return The Value if translated, null on error
+     */
+    private Value visitAttribute(Object cmObject, EAttribute eAttribute, java.lang.Object value) {
+        // Happens if no value is assigned.
+        if (value == null) {
+            return null;
+        }
+
+        Field f = getField(eAttribute);
+        if (f == null) {
+            return null;
+        }
+
+        if (f.getType() instanceof Container) {
+            Container containerType = (Container) f.getType();
+            ContainerValue cv = new ContainerValue(containerType);
+            cmObject.setFieldValue(f, cv);
+
+            Type subType = containerType.getType();
+            List<?> targets =
+                eAttribute.isMany() ? (List<?>) value : Collections.singletonList(value);
+            for (java.lang.Object target : targets) {
+                try {
+                    cv.addValue(this.m_ecoreType.objectToDataType(this.m_typeModel, subType,
+                        target));
+                } catch (InvalidTypeException e) {
+                    addMessage(new Message(e.getMessage(), MessageType.ERROR));
+                }
+            }
+            return cv;
+        } else {
+            try {
+                Value cmVal =
+                    this.m_ecoreType.objectToDataType(this.m_typeModel, f.getType(), value);
+                cmObject.setFieldValue(f, cmVal);
+                return cmVal;
+            } catch (InvalidTypeException e) {
+                addMessage(new Message(e.getMessage(), MessageType.ERROR));
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns the field corresponding to an Ecore feature.
+     * The feature may be defined in a supertype, so the field is acquired through that.
+     * @return the field, or null on error
+     */
+    private Field getField(EStructuralFeature feature) {
+        Field result = this.m_fields.get(feature);
+        if (result == null) {
+            Id classId = EcoreUtil.idFromClassifier(feature.getEContainingClass());
+            Class featureClass = this.m_typeModel.getClass(classId);
+            if (featureClass == null) {
+                addMessage(new Message("Cannot find class of feature " + feature,
+                    MessageType.ERROR));
+                return null;
+            }
+            result = featureClass.getField(Name.getName(feature.getName()));
+            this.m_fields.put(feature, result);
+        }
+        return result;
+    }
+
+    /** Returns the list of values of a feature, creating it if necessary. */
+    private List<java.lang.Object> getValues(
+        Map<EStructuralFeature,List<java.lang.Object>> values, EStructuralFeature feature) {
+        List<java.lang.Object> result = values.get(feature);
+        if (result == null) {
+            result = new ArrayList<java.lang.Object>();
+            values.put(feature, result);
+        }
+        return result;
+    }
+
+    /**
+     * Resolves a reference from a given document to an object, given as a URI fragment,
+     * an identifier or an href. An href into another document causes that
+     * document to be read, if it has not been read before.
+     * @return the referenced object, or null if it has not been read (yet)
+     */
+    private Object resolve(Document document, String reference) throws ImportException {
+        int hash = reference.indexOf('#');
+        Document target = document;
+        if (hash > 0) {
+            target = getDocument(document, reference.substring(0, hash));
+        }
+        String fragment = reference.substring(hash + 1);
+        if (target == null) {
+            return null;
+        } else if (fragment.startsWith("/")) {
+            return target.m_fragments.get(fragment);
+        } else {
+            return target.m_ids.get(fragment);
+        }
+    }
+
+    /**
+     * Returns the document at a location relative to a given document,
+     * reading it if this has not been done before.
+     * Only local files are read; other documents remain empty.
+     * @return the document, or null if the location is not a valid URI
+     */
+    private Document getDocument(Document base, String location) throws ImportException {
+        URI uri;
+        try {
+            uri = base.m_uri.resolve(location).normalize();
+        } catch (IllegalArgumentException e) {
+            addMessage(new Message("Invalid document location " + location, MessageType.ERROR));
+            return null;
+        }
+        Document result = this.m_documents.get(uri);
+        if (result == null) {
+            InstanceModel m =
+                new InstanceModel(this.m_typeModel, FileType.getPureName(new File(uri.getPath())));
+            result = new Document(uri, m);
+            this.m_documents.put(uri, result);
+            if ("file".equals(uri.getScheme())) {
+                try {
+                    readDocument(result);
+                } catch (PendingOverflowException e) {
+                    throw e;
+                } catch (ImportException e) {
+                    addMessage(new Message("Cannot read document " + uri + ": " + e.getMessage(),
+                        MessageType.ERROR));
+                }
+            } else {
+                addMessage(new Message("Cannot read document " + uri, MessageType.ERROR));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the Ecore class of an object contained in a given reference.
+     * This is given by the type attribute of the element, if there is one;
+     * otherwise it is the type of the reference.
+     */
+    private EClass getContainedEClass(XMLStreamReader reader, EReference eReference) {
+        String type = reader.getAttributeValue(XSI_URI, "type");
+        if (type == null) {
+            type = reader.getAttributeValue(XMI_URI, "type");
+        }
+        if (type == null) {
+            return eReference.getEReferenceType();
+        }
+        int colon = type.indexOf(':');
+        String prefix = colon < 0 ? "" : type.substring(0, colon);
+        return getEClass(reader.getNamespaceURI(prefix), type.substring(colon + 1));
+    }
+
+    /** Looks up an Ecore class by the namespace URI of its package and its name. */
+    private EClass getEClass(String nsURI, String name) {
+        EPackage ePackage = this.m_ecoreType.getResourceSet().getPackageRegistry().getEPackage(nsURI);
+        EClassifier result = ePackage == null ? null : ePackage.getEClassifier(name);
+        return result instanceof EClass ? (EClass) result : null;
+    }
+
+    /** Moves the reader to the end of the element at which it is positioned. */
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /** Document that is read, or being read, by this importer. */
+    private static class Document {
+        Document(URI uri, InstanceModel model) {
+            this.m_uri = uri;
+            this.m_model = model;
+        }
+
+        /** Absolute URI of the document. */
+        private final URI m_uri;
+        /** Instance model to which the objects of the document are added. */
+        private final InstanceModel m_model;
+        /** Map from URI fragments to the objects read so far. */
+        private final Map<String,Object> m_fragments = new HashMap<String,Object>();
+        /** Map from (XMI or ID attribute) identifiers to the objects read so far. */
+        private final Map<String,Object> m_ids = new HashMap<String,Object>();
+    }
+
+    /** Reference of which the targets could not all be resolved when it was read. */
+    private static class PendingReference {
+        PendingReference(Document document, Object source, EReference reference,
+            List<java.lang.Object> targets) {
+            this.m_document = document;
+            this.m_source = source;
+            this.m_reference = reference;
+            this.m_targets = targets;
+        }
+
+        /** Document containing the reference, against which its targets are resolved. */
+        private final Document m_document;
+        private final Object m_source;
+        private final EReference m_reference;
+        /** Targets of the reference; either resolved objects or unresolved strings. */
+        private final List<java.lang.Object> m_targets;
+    }
+
+    /**
+     * Exception thrown if a model has more references to objects not read yet
+     * than the importer is willing to buffer. Such a model is better imported
+     * by {@link EcoreToInstance}.
+     */
+    public static class PendingOverflowException extends ImportException {
+        /** Constructs an exception with a given message. */
+        public PendingOverflowException(String message) {
+            super(message);
+        }
+    }
+
+    /** Default maximum number of pending references. */
+    public static final int MAX_PENDING = 1 << 20;
+    /** Name of a root object, which is also its URI fragment if it is the only root. */
+    private static final String ROOT_NAME = "/";
+    /** Namespace URI of XMI. */
+    private static final String XMI_URI = "http://www.omg.org/XMI";
+    /** Namespace URI of XML schema instances. */
+    private static final String XSI_URI = "http://www.w3.org/2001/XMLSchema-instance";
+}
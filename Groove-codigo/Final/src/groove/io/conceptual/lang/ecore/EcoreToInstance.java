@@ -74,7 +74,7 @@ public class EcoreToInstance extends InstanceImporter {
         // Load the XMI model containing Ecore instance model
         File file = new File(filename);
         try {
-            this.m_resource = rs.createResource(URI.createURI(filename));
+            this.m_resource = rs.createResource(URI.createFileURI(file.getAbsolutePath()));
             FileInputStream in = new FileInputStream(file);
             int timer = Timer.cont("Load Ecore");
             try {
@@ -23,7 +23,10 @@ import groove.io.conceptual.InstanceModel;
 import groove.io.conceptual.TypeModel;
 import groove.io.conceptual.lang.ExportableResource;
 import groove.io.conceptual.lang.ImportException;
+import groove.io.conceptual.lang.InstanceImporter;
 import groove.io.conceptual.lang.ecore.EcoreResource;
+import groove.io.conceptual.lang.ecore.EcoreStreamToInstance;
+import groove.io.conceptual.lang.ecore.EcoreStreamToInstance.PendingOverflowException;
 import groove.io.conceptual.lang.ecore.EcoreToInstance;
 import groove.io.conceptual.lang.ecore.EcoreToType;
 import groove.io.conceptual.lang.ecore.InstanceToEcore;
@@ -61,13 +64,34 @@ public class EcorePorter extends ConceptualPorter {
         File typeFile = getTypeModelChooser().getSelectedFile();
 
         EcoreToType ett = new EcoreToType(typeFile.toString());
-        EcoreToInstance eti = new EcoreToInstance(ett, file.toString());
+        InstanceImporter eti = newInstanceImporter(ett, file);
 
         TypeModel tm = ett.getTypeModel();
         InstanceModel im = eti.getInstanceModel();
         return Pair.newPair(tm, im);
     }
 
+    /**
+     * Imports an instance model with the streaming importer, if streaming is enabled.
+     * Falls back on the EMF-based importer if streaming is disabled, or if the
+     * model has too many forward references to be streamed.
+     */
+    private InstanceImporter newInstanceImporter(EcoreToType ett, File file)
+        throws ImportException {
+        InstanceImporter result = null;
+        if (isStreaming()) {
+            try {
+                result = new EcoreStreamToInstance(ett, file.toString());
+            } catch (PendingOverflowException e) {
+                // the EMF-based importer loads the entire model anyway
+            }
+        }
+        if (result == null) {
+            result = new EcoreToInstance(ett, file.toString());
+        }
+        return result;
+    }
+
     private GrooveFileChooser getTypeModelChooser() {
         return GrooveFileChooser.getInstance(FileType.ECORE_META);
     }
@@ -108,4 +132,19 @@ public class EcorePorter extends ConceptualPorter {
 
     private static final EcorePorter instance = new EcorePorter();
 
+    /** Indicates if Ecore instance models are imported by streaming. */
+    public static boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Sets whether Ecore instance models are imported by streaming, rather than
+     * by loading them into an EMF resource first. Streaming is enabled by default.
+     */
+    public static void setStreaming(boolean streaming) {
+        EcorePorter.streaming = streaming;
+    }
+
+    private static boolean streaming = true;
+
 }
@@ -337,13 +337,9 @@ public final class GraphToTikz<G extends Graph> {
 
         Set<JCell<G>> consumedEdges = new HashSet<JCell<G>>();
         for (Edge edge : this.graph.edgeSet()) {
-            JEdgeLayout layout = null;
-            if (this.layoutMap != null) {
-                layout = this.layoutMap.getLayout(edge);
-            }
             JCell<G> jCell = this.model.getJCellForEdge(edge);
             if (!consumedEdges.contains(jCell)) {
-                appendTikzEdge(jCell, layout);
+                appendTikzEdge(jCell, getLayout(jCell));
                 consumedEdges.add(jCell);
             }
         }
@@ -353,6 +349,24 @@ public final class GraphToTikz<G extends Graph> {
         return this.result.toString();
     }
 
+    /**
+     * Returns the stored layout of a given jCell, if any.
+     * If the jCell represents several graph edges, the layout is taken from
+     * any of them, so that the result does not depend on the edge order.
+     */
+    private JEdgeLayout getLayout(JCell<G> jCell) {
+        JEdgeLayout result = null;
+        if (this.layoutMap != null && jCell != null) {
+            for (Edge edge : jCell.getEdges()) {
+                result = this.layoutMap.getLayout(edge);
+                if (result != null) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Appends the header to the Tikz result string. The header includes
      * additional styles local to the figure.
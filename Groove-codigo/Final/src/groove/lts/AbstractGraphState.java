@@ -177,7 +177,7 @@ public abstract class AbstractGraphState extends AbstractCacheHolder<StateCache>
         CheckPolicy typePolicy = getGTS().getTypePolicy();
         if (typePolicy != CheckPolicy.OFF) {
             HostGraph graph = getGraph();
-            FormatErrorSet errors = graph.checkTypeConstraints();
+            FormatErrorSet errors = checkTypeConstraints(typePolicy);
             if (!errors.isEmpty()) {
                 GraphInfo.addErrors(graph, errors);
                 setFrame(getActualFrame().onPolicy(typePolicy));
@@ -186,6 +186,16 @@ public abstract class AbstractGraphState extends AbstractCacheHolder<StateCache>
         getCache().getMatches().checkConstraints();
     }
 
+    /**
+     * Checks the type constraints on the graph of this state.
+     * This implementation checks the entire graph.
+     * @param typePolicy the (non-{@link CheckPolicy#OFF}) type policy of the GTS
+     * @return the type errors found
+     */
+    protected FormatErrorSet checkTypeConstraints(CheckPolicy typePolicy) {
+        return getGraph().checkTypeConstraints();
+    }
+
     /**
      * Checks final constraints on the state, in particular deadlock
      * constraints.
@@ -16,6 +16,7 @@ package groove.lts;
 
 import groove.control.instance.Step;
 import groove.control.template.Switch;
+import groove.grammar.CheckPolicy;
 import groove.grammar.Rule;
 import groove.grammar.host.DeltaHostGraph;
 import groove.grammar.host.HostGraphMorphism;
@@ -25,6 +26,7 @@ import groove.transform.DeltaApplier;
 import groove.transform.Proof;
 import groove.transform.RuleApplication;
 import groove.transform.RuleEvent;
+import groove.util.parse.FormatErrorSet;
 import groove.util.parse.FormatException;
 
 import java.util.Collections;
@@ -258,6 +260,22 @@ public class DefaultGraphNextState extends AbstractGraphState implements GraphNe
         return getCache().getGraph();
     }
 
+    /**
+     * If violations cause the source state to become an error state or be removed,
+     * the source state (which has this state as successor) is known to
+     * satisfy the type constraints; so only the delta with respect to the
+     * source state has to be checked.
+     */
+    @Override
+    protected FormatErrorSet checkTypeConstraints(CheckPolicy typePolicy) {
+        if (typePolicy == CheckPolicy.SILENT) {
+            return super.checkTypeConstraints(typePolicy);
+        } else {
+            DeltaHostGraph graph = getGraph();
+            return graph.getTypeGraph().check(graph, getDelta());
+        }
+    }
+
     /**
      * Returns the delta applier associated with the rule application leading up
      * to this state.
@@ -16,7 +16,9 @@
  */
 package groove.lts;
 
+import static groove.lts.GTS.CollapseMode.COLLAPSE_BITSTATE;
 import static groove.lts.GTS.CollapseMode.COLLAPSE_EQUAL;
+import static groove.lts.GTS.CollapseMode.COLLAPSE_HASH;
 import static groove.lts.GTS.CollapseMode.COLLAPSE_ISO_STRONG;
 import static groove.lts.GTS.CollapseMode.COLLAPSE_NONE;
 import groove.algebra.AlgebraFamily;
@@ -26,6 +28,7 @@ import groove.explore.ExploreResult;
 import groove.explore.util.LTSLabels;
 import groove.grammar.CheckPolicy;
 import groove.grammar.Grammar;
+import groove.grammar.StateHashing;
 import groove.grammar.host.HostEdgeSet;
 import groove.grammar.host.HostFactory;
 import groove.grammar.host.HostGraph;
@@ -36,6 +39,8 @@ import groove.graph.GraphInfo;
 import groove.graph.GraphRole;
 import groove.graph.Node;
 import groove.graph.iso.CertificateStrategy;
+import groove.graph.iso.CertificateStrategy.EdgeCertificate;
+import groove.graph.iso.CertificateStrategy.NodeCertificate;
 import groove.graph.iso.IsoChecker;
 import groove.graph.multi.MultiGraph;
 import groove.graph.multi.MultiNode;
@@ -94,6 +99,50 @@ public class GTS extends AGraph<GraphState,GraphTransition> implements Cloneable
         return allStateSet().getBytesPerElement();
     }
 
+    /**
+     * Indicates if states are identified approximately,
+     * so that some states may have been omitted from the GTS.
+     * @see #getOmissionProbability()
+     */
+    public boolean isApproximate() {
+        return allStateSet().isApproximate();
+    }
+
+    /**
+     * Indicates if transitions to known states may have been omitted from the GTS,
+     * because their target states were pruned. This is the case under bit-state hashing.
+     * A partial GTS is a set of visited states, and should not be saved
+     * or analysed as an LTS.
+     * @see Record#isPruning()
+     */
+    public boolean isPartial() {
+        return getCollapse() == COLLAPSE_BITSTATE;
+    }
+
+    /**
+     * Returns an estimate of the probability that at least one state
+     * has wrongly been identified with a known state, and so is missing from the GTS.
+     * This is always {@code 0} if the GTS is not approximate.
+     * @see #isApproximate()
+     */
+    public double getOmissionProbability() {
+        return allStateSet().getOmissionProbability();
+    }
+
+    /**
+     * Computes a 64-bit fingerprint of a state, which only depends on
+     * the isomorphism class of the state graph and on the control frame and values.
+     * Distinct fingerprints imply distinct states;
+     * equal fingerprints imply isomorphic states with high probability.
+     * This is the fingerprint used for {@link StateHashing#COMPACT}.
+     * May be called concurrently for states of distinct GTSs, provided these
+     * do not share their state graphs, as every call computes its own
+     * certificates unless these are already cached in the state graph.
+     */
+    public static long getFingerprint(GraphState state) {
+        return StateSet.computeFingerprint(IsoChecker.getInstance(true), state);
+    }
+
     /**
      * Constructs a GTS from a (fixed) graph grammar.
      */
@@ -161,10 +210,14 @@ public class GTS extends AGraph<GraphState,GraphTransition> implements Cloneable
      * Adds a state to the GTS, if it is not isomorphic to an existing state.
      * Returns the isomorphic state if one was found, or <tt>null</tt> if the
      * state was actually added.
+     * Under bit-state hashing, a state that is found to be known is pruned
+     * instead; this is signalled by returning <tt>newState</tt> itself.
      * @param newState the state to be added
-     * @return a state isomorphic to <tt>state</tt>; or <tt>null</tt> if
+     * @return a state isomorphic to <tt>state</tt>; <tt>newState</tt> itself
+     *         if it was pruned; or <tt>null</tt> if
      *         there was no existing isomorphic state (in which case, and only
      *         then, <tt>state</tt> was added and the listeners notified).
+     * @see Record#isPruning()
      */
     public GraphState addState(GraphState newState) {
         // see if isomorphic graph is already in the LTS
@@ -210,15 +263,40 @@ public class GTS extends AGraph<GraphState,GraphTransition> implements Cloneable
         return new StateSet(getCollapse(), null);
     }
 
+    /**
+     * Indicates if distinct states of this GTS may be isomorphic.
+     * This is the case if states are not collapsed at all, or only if their
+     * graphs are equal.
+     */
+    public boolean hasIsomorphicStates() {
+        CollapseMode collapse = getCollapse();
+        return collapse == COLLAPSE_NONE || collapse == COLLAPSE_EQUAL;
+    }
+
+    /**
+     * Creates a state set that collapses isomorphic states, independently of
+     * the collapse mode of any GTS. States are indexed by the certificates of their graphs.
+     */
+    public static StateSet newIsoStateSet() {
+        return new StateSet(COLLAPSE_ISO_STRONG, null);
+    }
+
     /**
      * Method to determine the collapse strategy of the state set. This is
      * determined by {@link Record#isCollapse()} and
-     * {@link Record#isCheckIso()}.
+     * {@link Record#isCheckIso()}, and the state hashing property of the grammar.
+     * Bit-state hashing is only used if {@link Record#isPruning()} is set;
+     * otherwise, the GTS falls back on hash compaction, so that every
+     * transition still leads to the state it actually reaches.
      */
     protected CollapseMode getCollapse() {
         CollapseMode result;
         if (!getRecord().isCollapse()) {
             result = COLLAPSE_NONE;
+        } else if (getGrammar().getProperties().getStateHashing() == StateHashing.BITSTATE) {
+            result = getRecord().isPruning() ? COLLAPSE_BITSTATE : COLLAPSE_HASH;
+        } else if (getGrammar().getProperties().getStateHashing() == StateHashing.COMPACT) {
+            result = COLLAPSE_HASH;
         } else if (!getRecord().isCheckIso()) {
             result = COLLAPSE_EQUAL;
         } else {
@@ -573,6 +651,17 @@ public class GTS extends AGraph<GraphState,GraphTransition> implements Cloneable
         return true;
     }
 
+    /**
+     * Indicates if the match collector may compute the matches of the states
+     * in this GTS concurrently, if parallel matching is enabled at all.
+     * As value nodes may be created during matching, their numbering then
+     * depends on the interleaving of the matching tasks.
+     * @see MatchCollector#isParallel()
+     */
+    public boolean allowsParallelMatching() {
+        return true;
+    }
+
     /**
      * Exports the GTS to a plain graph representation,
      * optionally including special edges to represent start, final and
@@ -845,24 +934,85 @@ public class GTS extends AGraph<GraphState,GraphTransition> implements Cloneable
             super(INITIAL_STATE_SET_SIZE, STATE_SET_RESOLUTION, STATE_SET_ROOT_RESOLUTION);
             this.collapse = collapse;
             if (checker == null) {
-                this.checker = IsoChecker.getInstance(collapse == COLLAPSE_ISO_STRONG);
+                this.checker = IsoChecker.getInstance(collapse == COLLAPSE_ISO_STRONG
+                    || collapse == COLLAPSE_HASH || collapse == COLLAPSE_BITSTATE);
             } else {
                 this.checker = checker;
             }
         }
 
+        /**
+         * Tries to insert a state in the set.
+         * For hash compaction, only the fingerprint of the state is stored
+         * for later comparisons, and the certificates are discarded;
+         * for bit-state hashing, the state itself is returned (meaning that
+         * it should be pruned) if all hash bits of the state are already set,
+         * and is otherwise stored, as it remains reachable from its successors anyway.
+         */
+        @Override
+        public GraphState put(GraphState key) {
+            GraphState result;
+            switch (this.collapse) {
+            case COLLAPSE_HASH:
+                this.pending = key;
+                this.pendingFingerprint = computeFingerprint(key);
+                result = super.put(key);
+                if (result == null) {
+                    storeFingerprint(key.getNumber(), this.pendingFingerprint);
+                }
+                this.pending = null;
+                break;
+            case COLLAPSE_BITSTATE:
+                // the probability that all bits of a new state are set by chance
+                double falseHit = Math.pow((double) this.setBitCount / BITSTATE_SIZE, BITSTATE_K);
+                if (setBits(computeFingerprint(key))) {
+                    result = key;
+                } else {
+                    result = super.put(key);
+                    assert result == null;
+                    this.expectedOmissions += falseHit;
+                }
+                break;
+            default:
+                result = super.put(key);
+            }
+            return result;
+        }
+
+        /**
+         * Tests if a state is in the set. For hash compaction,
+         * this computes the fingerprint of the state.
+         */
+        @Override
+        public boolean contains(Object obj) {
+            boolean result;
+            if (this.collapse == COLLAPSE_HASH && obj instanceof GraphState) {
+                GraphState state = (GraphState) obj;
+                this.pending = state;
+                this.pendingFingerprint = computeFingerprint(state);
+                result = super.contains(obj);
+                this.pending = null;
+            } else {
+                result = super.contains(obj);
+            }
+            return result;
+        }
+
         /**
          * First compares the control locations, then calls
          * {@link IsoChecker#areIsomorphic(Graph, Graph)}.
          */
         @Override
         protected boolean areEqual(GraphState myState, GraphState otherState) {
-            if (this.collapse == COLLAPSE_NONE) {
+            if (this.collapse == COLLAPSE_NONE || this.collapse == COLLAPSE_BITSTATE) {
                 return myState == otherState;
             }
             if (CHECK_CONTROL_LOCATION && myState.getPrimeFrame() != otherState.getPrimeFrame()) {
                 return false;
             }
+            if (this.collapse == COLLAPSE_HASH) {
+                return getFingerprint(myState) == this.fingerprints[otherState.getNumber()];
+            }
             Object[] myBoundNodes = myState.getPrimeValues();
             Object[] otherBoundNodes = otherState.getPrimeValues();
             HostGraph myGraph = myState.getGraph();
@@ -892,8 +1042,11 @@ public class GTS extends AGraph<GraphState,GraphTransition> implements Cloneable
         @Override
         protected int getCode(GraphState stateKey) {
             int result;
-            if (this.collapse == COLLAPSE_NONE) {
+            if (this.collapse == COLLAPSE_NONE || this.collapse == COLLAPSE_BITSTATE) {
                 result = System.identityHashCode(stateKey);
+            } else if (this.collapse == COLLAPSE_HASH) {
+                long fingerprint = getFingerprint(stateKey);
+                result = (int) (fingerprint ^ (fingerprint >>> 32));
             } else if (this.collapse == COLLAPSE_EQUAL) {
                 HostGraph graph = stateKey.getGraph();
                 result = graph.nodeSet().hashCode() + graph.edgeSet().hashCode();
@@ -920,10 +1073,156 @@ public class GTS extends AGraph<GraphState,GraphTransition> implements Cloneable
             return result;
         }
 
+        /**
+         * Computes the certifier with which the graph of a prospective state
+         * will be compared to the states in this set, if any.
+         * This may be invoked concurrently for different graphs, in advance
+         * of the (sequential) insertion of their states.
+         * @return the certifier of the graph, with the certificates computed,
+         * or {@code null} if this set does not compare states by certificates
+         */
+        CertificateStrategy computeCertifier(HostGraph graph) {
+            CertificateStrategy result = null;
+            if (this.collapse != COLLAPSE_NONE && this.collapse != COLLAPSE_EQUAL) {
+                result = this.checker.getCertifier(graph, true);
+                result.getGraphCertificate();
+            }
+            return result;
+        }
+
+        /** Indicates if this set may wrongly identify distinct states. */
+        public boolean isApproximate() {
+            return this.collapse == COLLAPSE_HASH || this.collapse == COLLAPSE_BITSTATE;
+        }
+
+        /**
+         * Returns an estimate of the probability that at least one state
+         * has wrongly been identified with a known state.
+         */
+        public double getOmissionProbability() {
+            double expected;
+            switch (this.collapse) {
+            case COLLAPSE_HASH:
+                // birthday bound for 64-bit fingerprints
+                expected = (double) size() * (size() - 1) / Math.pow(2, 65);
+                break;
+            case COLLAPSE_BITSTATE:
+                expected = this.expectedOmissions;
+                break;
+            default:
+                expected = 0;
+            }
+            return -Math.expm1(-expected);
+        }
+
+        /**
+         * Returns the fingerprint of a state, which is either the state being inserted
+         * or looked up, or a state in the set.
+         */
+        private long getFingerprint(GraphState state) {
+            return state == this.pending ? this.pendingFingerprint
+                : this.fingerprints[state.getNumber()];
+        }
+
+        /** Computes the fingerprint of a state, using the checker of this set. */
+        private long computeFingerprint(GraphState state) {
+            return computeFingerprint(this.checker, state);
+        }
+
+        /**
+         * Computes a 64-bit fingerprint of a state, based on the certificates
+         * of its graph and on its control frame and values.
+         * The certificates are not stored in the graph, unless they were already.
+         * @param checker the isomorphism checker used to obtain the certificates
+         */
+        static long computeFingerprint(IsoChecker checker, GraphState state) {
+            HostGraph graph = state.getGraph();
+            CertificateStrategy certifier = checker.getCertifier(graph, false);
+            if (certifier == null) {
+                certifier = AGraph.getCertificateFactory().newInstance(graph, checker.isStrong());
+            }
+            long result = mix(certifier.getGraphCertificate().hashCode());
+            long sum = 0;
+            for (NodeCertificate cert : certifier.getNodeCertificates()) {
+                sum += mix(cert.getValue());
+            }
+            for (EdgeCertificate cert : certifier.getEdgeCertificates()) {
+                sum += mix(~cert.getValue());
+            }
+            result = mix(result ^ sum);
+            Frame frame = state.getPrimeFrame();
+            if (frame != null) {
+                result = mix(result + System.identityHashCode(frame));
+                result =
+                    mix(result
+                        + Valuator.hashCode(state.getPrimeValues(), certifier.getCertificateMap()));
+            }
+            return result;
+        }
+
+        /** Stores the fingerprint of a state with a given number. */
+        private void storeFingerprint(int number, long fingerprint) {
+            if (number >= this.fingerprints.length) {
+                long[] newFingerprints = new long[Math.max(number + 1, 2 * this.fingerprints.length)];
+                System.arraycopy(this.fingerprints, 0, newFingerprints, 0, this.fingerprints.length);
+                this.fingerprints = newFingerprints;
+            }
+            this.fingerprints[number] = fingerprint;
+        }
+
+        /**
+         * Sets the bits derived from a fingerprint, using double hashing.
+         * @return {@code true} if all bits were already set
+         */
+        private boolean setBits(long fingerprint) {
+            if (this.bits == null) {
+                this.bits = new long[BITSTATE_SIZE >>> 6];
+            }
+            boolean result = true;
+            long step = mix(fingerprint) | 1;
+            for (int i = 0; i < BITSTATE_K; i++) {
+                int bit = (int) ((fingerprint + i * step) & (BITSTATE_SIZE - 1));
+                long mask = 1L << bit;
+                if ((this.bits[bit >>> 6] & mask) == 0) {
+                    this.bits[bit >>> 6] |= mask;
+                    this.setBitCount++;
+                    result = false;
+                }
+            }
+            return result;
+        }
+
+        /** Bit mixing function (the finaliser of MurmurHash3). */
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            value *= 0xc4ceb9fe1a85ec53L;
+            value ^= value >>> 33;
+            return value;
+        }
+
         /** The isomorphism checker of the state set. */
         private final IsoChecker checker;
         /** The value of the collapse property. */
         protected final CollapseMode collapse;
+        /** State currently being inserted or looked up, if any; only used for hash compaction. */
+        private GraphState pending;
+        /** Fingerprint of {@link #pending}. */
+        private long pendingFingerprint;
+        /** Fingerprints of the states in the set, indexed by state number. */
+        private long[] fingerprints = new long[INITIAL_STATE_SET_SIZE];
+        /** Bit array for bit-state hashing; created on demand. */
+        private long[] bits;
+        /** Number of bits set in {@link #bits}. */
+        private int setBitCount;
+        /** Sum of the probabilities that a state was wrongly found to be known. */
+        private double expectedOmissions;
+
+        /** Number of bits in the bit array used for bit-state hashing. */
+        private static final int BITSTATE_SIZE = 1 << 28;
+        /** Number of bits set per state in bit-state hashing. */
+        private static final int BITSTATE_K = 3;
     }
 
     /** Mode type for isomorphism collapsing. */
@@ -948,7 +1247,22 @@ public class GTS extends AGraph<GraphState,GraphTransition> implements Cloneable
          * will never yield false negatives.
          * @see IsoChecker#isStrong()
          */
-        COLLAPSE_ISO_STRONG;
+        COLLAPSE_ISO_STRONG,
+        /**
+         * States with equal 64-bit fingerprints are collapsed (hash compaction).
+         * Distinct states may be collapsed with a small probability.
+         * @see StateHashing#COMPACT
+         */
+        COLLAPSE_HASH,
+        /**
+         * States for which all hash bits are already set are pruned
+         * (bit-state hashing); no transitions to them are added.
+         * Distinct states may be pruned with a small probability.
+         * The states that are not pruned are stored as usual.
+         * @see StateHashing#BITSTATE
+         * @see Record#isPruning()
+         */
+        COLLAPSE_BITSTATE;
     }
 
     /** Set of states that only tests for state number as equality. */
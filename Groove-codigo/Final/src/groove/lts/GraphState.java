@@ -154,7 +154,8 @@ public interface GraphState extends Node {
      * If the match is an outgoing rule transition of this state, nothing happens.
      * @param match the match to be applied
      * @return the added transition (or the match itself if that is an outgoing
-     * transition); non-{@code null}
+     * transition); {@code null} if the target state was pruned, which can only
+     * happen if the GTS uses bit-state hashing
      */
     public RuleTransition applyMatch(MatchResult match);
 
@@ -21,15 +21,29 @@ import groove.control.Valuator;
 import groove.control.instance.Assignment;
 import groove.control.instance.Step;
 import groove.grammar.Rule;
+import groove.grammar.host.DeltaHostGraph;
 import groove.grammar.host.HostNode;
+import groove.graph.AGraph;
+import groove.graph.iso.CertificateStrategy;
+import groove.graph.iso.PartitionRefiner;
+import groove.lts.GTS.StateSet;
 import groove.transform.CompositeEvent;
+import groove.transform.DeltaApplier;
 import groove.transform.MergeMap;
+import groove.transform.Record;
+import groove.transform.RuleApplication;
 import groove.transform.RuleEffect;
 import groove.transform.RuleEffect.Fragment;
 import groove.transform.RuleEvent;
 import groove.util.Reporter;
+import groove.util.ThreadPool;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Provides functionality to add states and transitions to a GTS, based on known
@@ -55,10 +69,203 @@ public class MatchApplier {
     /**
      * Adds a transition to the GTS, from a given source state and for a given
      * rule match. The match is assumed not to have been explored yet.
-     * @return the added (new) transition; non-{@code null}
+     * @return the added (new) transition; {@code null} if the target state
+     * was pruned, which can only happen if {@link Record#isPruning()} is set
      */
     public RuleTransition apply(GraphState source, MatchResult match) {
         addTransitionReporter.start();
+        RuleTransition transition = createShortcut(source, match);
+        if (transition == null) {
+            transition = addState(source, match, new Successor(source, match).createState());
+        }
+        // add transition to gts
+        if (transition != null) {
+            getGTS().addTransition(transition);
+        }
+        addTransitionReporter.stop();
+        return transition;
+    }
+
+    /**
+     * Adds the transitions for a collection of matches from a given source state
+     * to the GTS. Matches that are transitions from the source state
+     * are assumed to be explored already, and are skipped.
+     * The effect is the same as that of calling {@link #apply(GraphState, MatchResult)}
+     * for all matches in turn; however, if parallel application is enabled
+     * and enough of the matches certainly lead to fresh target states, then
+     * the graphs and certificates of those targets are computed concurrently,
+     * in the global {@link ThreadPool}. Only the insertion of the states
+     * and transitions into the GTS takes place sequentially, in the order of the matches.
+     * @param source the source state of the matches
+     * @param matches the matches to be applied
+     * @see #setParallel(boolean)
+     */
+    public void applyAll(GraphState source, Collection<MatchResult> matches) {
+        if (!isParallel() || matches.size() < PARALLEL_THRESHOLD
+            || !ThreadPool.instance().isParallel() || !isConcurrent()) {
+            for (MatchResult match : matches) {
+                if (!isExplored(source, match)) {
+                    apply(source, match);
+                }
+            }
+            return;
+        }
+        addTransitionReporter.start();
+        List<Successor> successors = prepareSuccessors(source, matches);
+        List<Successor> fresh = new ArrayList<Successor>(successors.size());
+        for (Successor successor : successors) {
+            if (successor != null) {
+                fresh.add(successor);
+            }
+        }
+        final StateSet states = getGTS().allStateSet();
+        if (fresh.size() >= PARALLEL_THRESHOLD) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(fresh.size());
+            for (final Successor successor : fresh) {
+                tasks.add(ThreadPool.instance().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        successor.prepareCertifier(states);
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } else {
+            for (Successor successor : fresh) {
+                successor.prepareCertifier(states);
+            }
+        }
+        addSuccessors(source, matches, successors);
+        addTransitionReporter.stop();
+    }
+
+    /**
+     * Adds the transitions for a collection of matches from a given source state
+     * to the GTS, where other states of the GTS may be explored concurrently.
+     * The effect is the same as that of {@link #applyAll(GraphState, Collection)};
+     * however, the graphs and certificates of the successors that certainly lead to
+     * fresh target states are computed in the calling thread, and only the
+     * remaining work, including the insertion of the states and transitions
+     * into the GTS, is synchronised on a given lock.
+     * The matches should have been computed while holding the lock, and the
+     * source state should not be explored concurrently from another thread.
+     * The host factory of the GTS should be shared for the duration of the
+     * concurrent exploration.
+     * @param source the source state of the matches
+     * @param matches the matches to be applied
+     * @param lock the lock guarding the GTS
+     * @see groove.graph.ElementFactory#share()
+     */
+    public void applyAll(GraphState source, Collection<MatchResult> matches, Object lock) {
+        if (!isConcurrent()) {
+            synchronized (lock) {
+                for (MatchResult match : matches) {
+                    if (!isExplored(source, match)) {
+                        apply(source, match);
+                    }
+                }
+            }
+            return;
+        }
+        List<Successor> successors = prepareSuccessors(source, matches);
+        StateSet states = getGTS().allStateSet();
+        for (Successor successor : successors) {
+            if (successor != null) {
+                successor.prepareCertifier(states);
+            }
+        }
+        synchronized (lock) {
+            addTransitionReporter.start();
+            addSuccessors(source, matches, successors);
+            addTransitionReporter.stop();
+        }
+    }
+
+    /**
+     * Indicates if the certificates of fresh successor graphs
+     * may be computed concurrently.
+     */
+    private boolean isConcurrent() {
+        return AGraph.getCertificateFactory() instanceof PartitionRefiner;
+    }
+
+    /**
+     * Computes the successors certainly leading to fresh states for a
+     * collection of matches, and constructs their graphs.
+     * Also makes sure that the data structures of the source graph are in place,
+     * so that the successor graphs can subsequently be initialised from them concurrently.
+     * @return a list containing the successor for every match, or {@code null}
+     * for the matches that are already explored or may not lead to a fresh state
+     */
+    private List<Successor> prepareSuccessors(GraphState source, Collection<MatchResult> matches) {
+        List<Successor> result = new ArrayList<Successor>(matches.size());
+        DeltaHostGraph sourceGraph = (DeltaHostGraph) source.getGraph();
+        sourceGraph.nodeSet();
+        for (MatchResult match : matches) {
+            Successor successor = null;
+            if (!isExplored(source, match) && !hasShortcut(match)) {
+                successor = new Successor(source, match);
+                successor.prepareGraph(sourceGraph);
+            }
+            result.add(successor);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the states and transitions for a collection of matches to the GTS,
+     * in the order of the matches.
+     * @param successors the prepared successors of the matches,
+     * as computed by {@link #prepareSuccessors(GraphState, Collection)}
+     */
+    private void addSuccessors(GraphState source, Collection<MatchResult> matches,
+        List<Successor> successors) {
+        Iterator<Successor> successorIter = successors.iterator();
+        for (MatchResult match : matches) {
+            Successor successor = successorIter.next();
+            RuleTransition transition;
+            if (successor != null) {
+                transition = addState(source, match, successor.createState());
+            } else if (isExplored(source, match)) {
+                continue;
+            } else {
+                transition = createShortcut(source, match);
+                if (transition == null) {
+                    transition = addState(source, match, new Successor(source, match).createState());
+                }
+            }
+            if (transition != null) {
+                getGTS().addTransition(transition);
+            }
+        }
+    }
+
+    /** Indicates if a given match is a known transition from a given source state. */
+    private boolean isExplored(GraphState source, MatchResult match) {
+        return match instanceof RuleTransition && ((RuleTransition) match).source() == source;
+    }
+
+    /**
+     * Indicates if the target of a given match may be found without
+     * creating a fresh state. This is the case if the match is
+     * non-modifying, or may close a confluent diamond.
+     * @see #createShortcut(GraphState, MatchResult)
+     */
+    private boolean hasShortcut(MatchResult match) {
+        return !match.getStep().isModifying()
+            && (!match.getAction().isModifying() || match.hasTransition());
+    }
+
+    /**
+     * Tries to create a transition for a given match to a target state
+     * that does not need to be freshly created. This is the case if the
+     * match is non-modifying, or closes a confluent diamond.
+     * @return the transition, or {@code null} if there is none without
+     * creating a fresh target state
+     */
+    private RuleTransition createShortcut(GraphState source, MatchResult match) {
         RuleTransition transition = null;
         Rule rule = match.getAction();
         if (!match.getStep().isModifying()) {
@@ -87,62 +294,32 @@ public class MatchApplier {
                 }
             }
         }
-        if (transition == null) {
-            GraphNextState freshTarget = createState(source, match);
-            addStateReporter.start();
-            GraphState isoTarget = getGTS().addState(freshTarget);
-            addStateReporter.stop();
-            if (isoTarget == null) {
-                transition = freshTarget;
-            } else {
-                transition =
-                    new DefaultRuleTransition(source, match, freshTarget.getAddedNodes(),
-                        isoTarget, true);
-            }
-        }
-        // add transition to gts
-        getGTS().addTransition(transition);
-        addTransitionReporter.stop();
         return transition;
     }
 
     /**
-     * Creates a fresh graph state, based on a given rule application and source
-     * state.
+     * Adds a freshly created target state to the GTS, and returns the
+     * transition to either that state or an isomorphic state already in the GTS.
+     * If the GTS prunes the target state, the match is marked as explored
+     * and {@code null} is returned.
      */
-    private GraphNextState createState(GraphState source, MatchResult match) {
-        HostNode[] addedNodes;
-        Object[] frameValues;
-        RuleEvent event = match.getEvent();
-        Step ctrlStep = match.getStep();
-        boolean hasFrameValues = ctrlStep.onFinish().hasVars();
-        RuleEffect effectRecord = null;
-        if (reuseCreatedNodes(source, match)) {
-            RuleTransition parentOut = match.getTransition();
-            addedNodes = parentOut.getAddedNodes();
-        } else if (event.getRule().hasNodeCreators()) {
-            // compute the frame values at the same time, if there are any
-            Fragment fragment = hasFrameValues ? Fragment.NODE_ALL : Fragment.NODE_CREATION;
-            effectRecord = new RuleEffect(source.getGraph(), fragment);
-            event.recordEffect(effectRecord);
-            effectRecord.setFixed();
-            addedNodes = effectRecord.getCreatedNodeArray();
-        } else {
-            addedNodes = EMPTY_NODE_ARRAY;
-        }
-        if (hasFrameValues || ctrlStep.onFinish().isNested()) {
-            // only compute the effect if it has not yet been done
-            if (effectRecord == null) {
-                effectRecord = new RuleEffect(source.getGraph(), addedNodes, Fragment.NODE_ALL);
-                event.recordEffect(effectRecord);
-                effectRecord.setFixed();
-            }
-            frameValues = computeFrameValues(ctrlStep, source, event, effectRecord);
+    private RuleTransition addState(GraphState source, MatchResult match,
+        GraphNextState freshTarget) {
+        RuleTransition result;
+        addStateReporter.start();
+        GraphState isoTarget = getGTS().addState(freshTarget);
+        addStateReporter.stop();
+        if (isoTarget == null) {
+            result = freshTarget;
+        } else if (isoTarget == freshTarget) {
+            source.getCache().prune(match);
+            result = null;
         } else {
-            frameValues = EMPTY_NODE_ARRAY;
+            result =
+                new DefaultRuleTransition(source, match, freshTarget.getAddedNodes(), isoTarget,
+                    true);
         }
-        return new DefaultGraphNextState(this.gts.nodeCount(), (AbstractGraphState) source, match,
-            addedNodes, frameValues);
+        return result;
     }
 
     /**
@@ -262,6 +439,100 @@ public class MatchApplier {
         }
     }
 
+    /**
+     * Fresh successor of a source state under a given match, as yet without a state number.
+     * Optionally, the graph and certificates of the successor may be computed
+     * before the state itself is created.
+     */
+    private class Successor {
+        /**
+         * Computes the added nodes and frame values of the successor
+         * of a given source state under a given match.
+         */
+        Successor(GraphState source, MatchResult match) {
+            this.source = source;
+            this.match = match;
+            RuleEvent event = match.getEvent();
+            Step ctrlStep = match.getStep();
+            boolean hasFrameValues = ctrlStep.onFinish().hasVars();
+            RuleEffect effectRecord = null;
+            if (reuseCreatedNodes(source, match)) {
+                RuleTransition parentOut = match.getTransition();
+                this.addedNodes = parentOut.getAddedNodes();
+            } else if (event.getRule().hasNodeCreators()) {
+                // compute the frame values at the same time, if there are any
+                Fragment fragment = hasFrameValues ? Fragment.NODE_ALL : Fragment.NODE_CREATION;
+                effectRecord = new RuleEffect(source.getGraph(), fragment);
+                event.recordEffect(effectRecord);
+                effectRecord.setFixed();
+                this.addedNodes = effectRecord.getCreatedNodeArray();
+            } else {
+                this.addedNodes = EMPTY_NODE_ARRAY;
+            }
+            if (hasFrameValues || ctrlStep.onFinish().isNested()) {
+                // only compute the effect if it has not yet been done
+                if (effectRecord == null) {
+                    effectRecord =
+                        new RuleEffect(source.getGraph(), this.addedNodes, Fragment.NODE_ALL);
+                    event.recordEffect(effectRecord);
+                    effectRecord.setFixed();
+                }
+                this.frameValues = computeFrameValues(ctrlStep, source, event, effectRecord);
+            } else {
+                this.frameValues = EMPTY_NODE_ARRAY;
+            }
+        }
+
+        /**
+         * Constructs the graph of the successor, on the basis of the graph of the source state.
+         * The graph is not fixed, as its name is only known once the state has been created.
+         */
+        void prepareGraph(DeltaHostGraph sourceGraph) {
+            this.delta = new RuleApplication(this.match.getEvent(), sourceGraph, this.addedNodes);
+            this.graph = sourceGraph.newUnfixedGraph(this.source + "'", sourceGraph, this.delta);
+        }
+
+        /**
+         * Initialises the data structures and computes the certificates
+         * of the previously prepared graph.
+         * This may be invoked concurrently for successors of the same source state.
+         * @param states the state set in which the successor is to be inserted
+         */
+        void prepareCertifier(StateSet states) {
+            this.graph.initDataIndependently();
+            this.certifier = states.computeCertifier(this.graph);
+        }
+
+        /**
+         * Creates the successor state, numbered according to the current
+         * size of the GTS.
+         */
+        GraphNextState createState() {
+            DefaultGraphNextState result =
+                new DefaultGraphNextState(getGTS().nodeCount(), (AbstractGraphState) this.source,
+                    this.match, this.addedNodes, this.frameValues);
+            if (this.graph != null) {
+                result.getCache().setGraph(this.graph, this.delta);
+            }
+            return result;
+        }
+
+        private final GraphState source;
+        private final MatchResult match;
+        private final HostNode[] addedNodes;
+        private final Object[] frameValues;
+        /** The rule application from the source graph to the successor graph, if prepared. */
+        private DeltaApplier delta;
+        /** The prepared graph of the successor, if any. */
+        private DeltaHostGraph graph;
+        /**
+         * The certifier of {@link #graph}, if computed.
+         * The graph only keeps a weak reference, so it is retained here.
+         */
+        @SuppressWarnings("unused")
+        private CertificateStrategy certifier;
+    }
+
     /** The underlying GTS. */
     private final GTS gts;
     /**
@@ -289,6 +560,26 @@ public class MatchApplier {
      */
     private static final HostNode[] EMPTY_NODE_ARRAY = new HostNode[0];
 
+    /**
+     * Enables or disables parallel application in {@link #applyAll(GraphState, Collection)}.
+     * If enabled, the graphs and certificates of fresh successor states
+     * are computed concurrently. Parallel application is enabled by default.
+     */
+    public static void setParallel(boolean parallel) {
+        MatchApplier.parallel = parallel;
+    }
+
+    /** Indicates whether parallel application is enabled. */
+    public static boolean isParallel() {
+        return parallel;
+    }
+
+    /** Flag indicating that parallel application is enabled. */
+    private static volatile boolean parallel = true;
+
+    /** Minimum number of matches for which application is done in parallel. */
+    private static final int PARALLEL_THRESHOLD = 4;
+
     /** Reporter for profiling information. */
     private static final Reporter reporter = Reporter.register(MatchApplier.class);
     /** Profiling aid for adding states. */
@@ -27,21 +27,30 @@ import groove.grammar.AnchorKind;
 import groove.grammar.Rule;
 import groove.grammar.host.AnchorValue;
 import groove.grammar.host.HostEdge;
+import groove.grammar.host.HostFactory;
 import groove.grammar.host.HostGraph;
 import groove.grammar.host.HostNode;
+import groove.grammar.host.HostNodeSet;
 import groove.grammar.host.ValueNode;
 import groove.grammar.rule.RuleNode;
 import groove.grammar.rule.RuleToHostMap;
 import groove.grammar.rule.VariableNode;
+import groove.match.MatcherFactory;
 import groove.transform.CompositeEvent;
+import groove.transform.DeltaStore;
 import groove.transform.Proof;
 import groove.transform.Record;
 import groove.transform.RuleEvent;
 import groove.util.Pair;
+import groove.util.ThreadPool;
 import groove.util.Visitor;
 import groove.util.collect.KeySet;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Algorithm to create the set of current match results for a given state.
@@ -64,11 +73,84 @@ public class MatchCollector {
             Rule lastRule = ((GraphNextState) state).getEvent().getRule();
             this.enabledRules = this.record.getEnabledRules(lastRule);
             this.disabledRules = this.record.getDisabledRules(lastRule);
+            this.indirectEnabledRules = this.record.getIndirectlyEnabledRules(lastRule);
         } else {
             this.parentClosed = false;
             this.parentTransMap = null;
             this.enabledRules = null;
             this.disabledRules = null;
+            this.indirectEnabledRules = null;
+        }
+    }
+
+    /**
+     * Returns the sets of matching events for a list of control steps,
+     * in the order of the steps.
+     * If parallel matching is enabled and allowed by the GTS, there are
+     * enough steps and the current search engine supports it, the
+     * matches for the steps are computed concurrently, in the global {@link ThreadPool}.
+     * @param steps the control steps for which matches are to be found
+     * @see #setParallel(boolean)
+     */
+    public List<MatchResultSet> computeMatches(List<Step> steps) {
+        List<MatchResultSet> result = new ArrayList<MatchResultSet>(steps.size());
+        if (isParallel() && this.state.getGTS().allowsParallelMatching()
+            && steps.size() >= PARALLEL_THRESHOLD
+            && ThreadPool.instance().isParallel()
+            && MatcherFactory.instance().getEngine().isConcurrent()) {
+            prepareGraph(steps);
+            // matching may create value nodes
+            HostFactory factory = this.state.getGraph().getFactory();
+            factory.share();
+            try {
+                List<ForkJoinTask<MatchResultSet>> tasks =
+                    new ArrayList<ForkJoinTask<MatchResultSet>>(steps.size());
+                for (final Step step : steps) {
+                    tasks.add(ThreadPool.instance().submit(new Callable<MatchResultSet>() {
+                        @Override
+                        public MatchResultSet call() {
+                            return computeMatches(step);
+                        }
+                    }));
+                }
+                for (ForkJoinTask<MatchResultSet> task : tasks) {
+                    result.add(task.join());
+                }
+            } finally {
+                factory.unshare();
+            }
+        } else {
+            for (Step step : steps) {
+                result.add(computeMatches(step));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Initialises the lazily computed data structures of the state graph,
+     * so that it can subsequently be matched concurrently.
+     * This includes the touched nodes, if any of the steps is to be matched
+     * incrementally, as their computation may involve the parent graph,
+     * which shares its data structures with the state graph.
+     */
+    private void prepareGraph(List<Step> steps) {
+        for (Step step : steps) {
+            Call call = step.getRuleCall();
+            if (!isDisabled(call) && isSeeded(call)) {
+                getTouchedNodes();
+                break;
+            }
+        }
+        HostGraph graph = this.state.getGraph();
+        graph.nodeSet();
+        for (HostEdge edge : graph.edgeSet()) {
+            HostNode node = edge.source();
+            graph.edgeSet(node);
+            graph.inEdgeSet(node);
+            graph.outEdgeSet(node);
+            graph.edgeSet(edge.label());
+            break;
         }
     }
 
@@ -132,7 +214,25 @@ public class MatchCollector {
                         return true;
                     }
                 };
-                step.getRule().traverseMatches(this.state.getGraph(), boundMap, eventCollector);
+                Rule rule = step.getRule();
+                HostGraph host = this.state.getGraph();
+                if (!isDisabled && isSeeded(step.getRuleCall())) {
+                    // the parent matches are all there, so we only have to look
+                    // for the matches that involve a node touched by the last step
+                    for (RuleNode seedNode : rule.getSeedNodes()) {
+                        for (HostNode seedImage : getTouchedNodes()) {
+                            if (seedNode.getMatchingTypes().contains(seedImage.getType())) {
+                                rule.traverseMatches(host,
+                                    boundMap,
+                                    seedNode,
+                                    seedImage,
+                                    eventCollector);
+                            }
+                        }
+                    }
+                } else {
+                    rule.traverseMatches(host, boundMap, eventCollector);
+                }
             }
         }
         if (DEBUG) {
@@ -187,6 +287,54 @@ public class MatchCollector {
         return triedCalls == null || !triedCalls.contains(call);
     }
 
+    /**
+     * Indicates if the new matches of a given control call, with respect to the
+     * parent state, are guaranteed to involve a node touched by the last
+     * rule application. This is the case if the parent matches of the call
+     * are complete and the call's rule was enabled only by the production
+     * of elements it tests for positively.
+     * Should only be called if the call is not disabled.
+     * @see #getTouchedNodes()
+     * @see Rule#isSeedable()
+     */
+    private boolean isSeeded(Call call) {
+        if (!isIncremental() || this.indirectEnabledRules == null || !this.parentClosed
+            || !(this.state instanceof DefaultGraphNextState)) {
+            return false;
+        }
+        Rule rule = call.getRule();
+        if (!this.enabledRules.contains(rule) || this.indirectEnabledRules.contains(rule)) {
+            return false;
+        }
+        // the parent matches are only complete if the call was tried there
+        Set<Call> triedCalls = ((GraphNextState) this.state).source()
+            .getActualFrame()
+            .getPastCalls();
+        return triedCalls != null && triedCalls.contains(call) && rule.isSeedable();
+    }
+
+    /**
+     * Lazily computes and returns the graph nodes touched by the last
+     * rule application, consisting of the added nodes and the non-value end
+     * nodes of the added edges.
+     */
+    private Set<HostNode> getTouchedNodes() {
+        if (this.touchedNodes == null) {
+            DeltaStore delta = new DeltaStore(((DefaultGraphNextState) this.state).getDelta());
+            Set<HostNode> result = new HostNodeSet(delta.getAddedNodeSet());
+            for (HostEdge edge : delta.getAddedEdgeSet()) {
+                if (!(edge.source() instanceof ValueNode)) {
+                    result.add(edge.source());
+                }
+                if (!(edge.target() instanceof ValueNode)) {
+                    result.add(edge.target());
+                }
+            }
+            this.touchedNodes = result;
+        }
+        return this.touchedNodes;
+    }
+
     /**
      * Indicates if matches of a given control call might have been disabled
      * since the parent state.
@@ -297,6 +445,10 @@ public class MatchCollector {
     protected final Set<Rule> enabledRules;
     /** The rules that may be disabled. */
     protected final Set<Rule> disabledRules;
+    /** The rules that may be enabled other than by production of elements. */
+    protected final Set<Rule> indirectEnabledRules;
+    /** The nodes touched by the last rule application; computed on demand. */
+    private Set<HostNode> touchedNodes;
 
     /** Returns the total number of reused parent events. */
     public static int getEventReuse() {
@@ -306,6 +458,43 @@ public class MatchCollector {
     /** Counter for the number of reused parent events. */
     private static int parentOutReuse;
 
+    /**
+     * Sets whether the matches of the steps of a single control attempt
+     * are computed concurrently. Parallel matching is enabled by default.
+     */
+    public static void setParallel(boolean parallel) {
+        MatchCollector.parallel = parallel;
+    }
+
+    /** Indicates whether parallel matching is enabled. */
+    public static boolean isParallel() {
+        return parallel;
+    }
+
+    /** Flag indicating that parallel matching is enabled. */
+    private static volatile boolean parallel = true;
+
+    /**
+     * Sets whether the fresh matches of rules that were enabled by the
+     * last rule application are searched for incrementally, starting from the
+     * nodes touched by that application.
+     * Incremental matching is enabled by default.
+     */
+    public static void setIncremental(boolean incremental) {
+        MatchCollector.incremental = incremental;
+    }
+
+    /** Indicates whether incremental matching is enabled. */
+    public static boolean isIncremental() {
+        return incremental;
+    }
+
+    /** Flag indicating that incremental matching is enabled. */
+    private static volatile boolean incremental = true;
+
+    /** Minimum number of control steps for which matching is done in parallel. */
+    private static final int PARALLEL_THRESHOLD = 4;
+
     /** Debug flag for the match collector. */
     private static final boolean DEBUG = false;
 }
@@ -55,7 +55,9 @@ public class StateCache {
     protected StateCache(AbstractGraphState state) {
         this.state = state;
         this.record = state.getRecord();
-        this.freezeGraphs = this.record.isCollapse();
+        // graphs of approximately compared states are never compared again,
+        // so there is no point in freezing them
+        this.freezeGraphs = this.record.isCollapse() && !state.getGTS().isApproximate();
         this.graphFactory = DeltaHostGraph.getInstance(this.record.isCopyGraphs());
     }
 
@@ -78,6 +80,18 @@ public class StateCache {
         return result;
     }
 
+    /**
+     * Removes a match from the unexplored matches, without adding a transition.
+     * This is done if the target state of the match has been pruned.
+     * @see Record#isPruning()
+     */
+    void prune(MatchResult match) {
+        getMatches().remove(match);
+        if (getMatches().isFinished()) {
+            getState().setClosed(true);
+        }
+    }
+
     Set<? extends GraphTransition> getTransitions(final GraphTransition.Claz claz) {
         if (claz == GraphTransition.Claz.ANY) {
             return getTransitionMap();
@@ -122,6 +136,20 @@ public class StateCache {
         return this.graph;
     }
 
+    /**
+     * Sets the graph of the underlying state to one that has been constructed
+     * in advance and is not yet fixed, and the delta with respect to
+     * the parent state to the one from which the graph was constructed.
+     * The graph is named after the state and then fixed.
+     */
+    final void setGraph(DeltaHostGraph graph, DeltaApplier delta) {
+        assert this.graph == null;
+        graph.setName(getState().toString());
+        graph.setFixed();
+        this.graph = graph;
+        this.delta = delta;
+    }
+
     /** Indicates if this cache currently stores a graph. */
     final boolean hasGraph() {
         return this.graph != null;
@@ -160,8 +160,11 @@ public class StateMatches extends MatchResultSet {
             // keep track of property violations
             CheckPolicy violated = CheckPolicy.SILENT;
             List<MatchResult> outstanding = new LinkedList<MatchResult>();
+            // compute the matches of all steps at once, so this can be done in parallel
+            Iterator<MatchResultSet> matchesIter =
+                getMatchCollector().computeMatches(attempt).iterator();
             for (Step step : attempt) {
-                MatchResultSet matches = getMatchCollector().computeMatches(step);
+                MatchResultSet matches = matchesIter.next();
                 Rule action = step.getRule();
                 if (action.getRole() == (matches.isEmpty() ? Role.INVARIANT : Role.FORBIDDEN)) {
                     assert attempt.isConstraint();
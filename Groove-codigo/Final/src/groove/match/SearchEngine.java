@@ -42,4 +42,12 @@ public abstract class SearchEngine {
     public abstract SearchStrategy createMatcher(Condition condition, Anchor seed,
         ValueOracle oracle);
 
+    /**
+     * Indicates if the match strategies created by this engine may be
+     * used concurrently.
+     * This is not the case by default.
+     */
+    public boolean isConcurrent() {
+        return false;
+    }
 }
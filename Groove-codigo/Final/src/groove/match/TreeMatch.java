@@ -547,9 +547,8 @@ public class TreeMatch implements Fixable {
          * if it has been disposed, or constructing a fresh one. 
          */
         public <T> ProofWrapperVisitor<R> newInstance(Visitor<Proof,R> visitor) {
-            if (isDisposed()) {
+            if (resurrect()) {
                 this.visitor = visitor;
-                resurrect();
                 return this;
             } else {
                 return new ProofWrapperVisitor<R>(visitor);
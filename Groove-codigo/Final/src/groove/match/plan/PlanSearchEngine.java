@@ -120,6 +120,12 @@ public class PlanSearchEngine extends SearchEngine {
         return result;
     }
 
+    /** Search plans keep their search state per traversal. */
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
     private static PlanSearchEngine instance = new PlanSearchEngine();
 
     /** Returns an instance of this factory class.
@@ -141,9 +141,10 @@ public class PlanSearchStrategy implements SearchStrategy {
      * Callback factory method for an auxiliary {@link Search} object.
      */
     private Search getSearch(HostGraph host, RuleToHostMap seedMap) {
-        this.search = createSearch();
-        this.search.initialise(host, seedMap);
-        return this.search;
+        // the search is not stored in this strategy, as traversals may be concurrent
+        Search result = createSearch();
+        result.initialise(host, seedMap);
+        return result;
     }
 
     /**
@@ -284,8 +285,6 @@ public class PlanSearchStrategy implements SearchStrategy {
         }
     }
 
-    /** The fixed search object. */
-    private Search search;
     private final ValueOracle oracle;
     /** The engine used to create this strategy. */
     private final PlanSearchEngine engine;
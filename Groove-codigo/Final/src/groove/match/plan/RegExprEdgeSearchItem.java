@@ -3,6 +3,7 @@ package groove.match.plan;
 
 import groove.automaton.RegAut;
 import groove.automaton.RegExpr;
+import groove.grammar.host.DeltaHostGraph;
 import groove.grammar.host.HostGraph;
 import groove.grammar.host.HostNode;
 import groove.grammar.rule.LabelVar;
@@ -165,6 +166,24 @@ class RegExprEdgeSearchItem extends AbstractSearchItem {
             this.sourceFound, this.targetFound);
     }
 
+    /**
+     * Returns the matches of the label automaton in a given host graph.
+     * For (fixed) state graphs, the matches are retrieved from the
+     * graph's path cache, so they can be reused across states.
+     */
+    Set<RegAut.Result> getMatches(HostGraph host, HostNode sourceFind, HostNode targetFind,
+        Valuation valuation) {
+        if (host instanceof DeltaHostGraph) {
+            return ((DeltaHostGraph) host).getPathCache().getMatches(this.labelAutomaton,
+                host,
+                sourceFind,
+                targetFind,
+                valuation);
+        } else {
+            return this.labelAutomaton.getMatches(host, sourceFind, targetFind, valuation);
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("Find %s--%s->%s", this.source, this.edgeExpr, this.target);
@@ -267,10 +286,7 @@ class RegExprEdgeSearchItem extends AbstractSearchItem {
             if (targetFind == null && RegExprEdgeSearchItem.this.targetFound) {
                 targetFind = this.search.getNode(RegExprEdgeSearchItem.this.targetIx);
             }
-            return RegExprEdgeSearchItem.this.labelAutomaton.getMatches(this.host,
-                sourceFind,
-                targetFind,
-                valuation);
+            return getMatches(this.host, sourceFind, targetFind, valuation);
         }
 
         @Override
@@ -328,10 +344,7 @@ class RegExprEdgeSearchItem extends AbstractSearchItem {
                 valuation.put(var, image);
             }
             Set<RegAut.Result> matches =
-                RegExprEdgeSearchItem.this.labelAutomaton.getMatches(this.host,
-                    this.sourceFind,
-                    this.targetFind,
-                    valuation);
+                getMatches(this.host, this.sourceFind, this.targetFind, valuation);
             this.imageIter = matches.iterator();
         }
 
@@ -44,10 +44,12 @@ import groove.util.parse.FormatException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -192,6 +194,7 @@ public class GrooveEnvironment extends Environment {
         }
         getModule().removePredicateListener(listener);
         this.userTags.addAll(listener.getPredicates());
+        this.programs.add(program);
         FormatErrorSet errors = new FormatErrorSet();
         for (PrologTextLoaderError error : loaderState.getErrors()) {
             errors.add("%s", error.getMessage(), error.getLine(), error.getColumn());
@@ -199,6 +202,20 @@ public class GrooveEnvironment extends Environment {
         errors.throwException();
     }
 
+    /**
+     * Creates a fresh environment with the same user programs loaded as this one.
+     * The copy can be used by an interpreter running in parallel with
+     * interpreters on this environment.
+     * @throws FormatException if one of the programs could not be reloaded
+     */
+    public GrooveEnvironment copy() throws FormatException {
+        GrooveEnvironment result = new GrooveEnvironment(null, null);
+        for (String program : this.programs) {
+            result.loadProgram(program);
+        }
+        return result;
+    }
+
     /**
      * @return the grooveState
      */
@@ -235,6 +252,7 @@ public class GrooveEnvironment extends Environment {
             getModule().removeDefinedPredicate(tag);
         }
         this.userTags.clear();
+        this.programs.clear();
     }
 
     /**
@@ -253,6 +271,9 @@ public class GrooveEnvironment extends Environment {
     /** The set of user-defined predicates. */
     private final Set<CompoundTermTag> userTags = new TagSet();
 
+    /** The user programs loaded into this environment, in order of loading. */
+    private final List<String> programs = new ArrayList<String>();
+
     /**
      * Mapping from Groove built-in predicates to 
      * corresponding tool tip text.
@@ -19,10 +19,14 @@
 package groove.prolog;
 
 import groove.grammar.Grammar;
+import groove.grammar.host.HostGraph;
 import groove.lts.GTS;
 import groove.lts.GraphState;
 import groove.transform.RuleEvent;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * The current state in groove.
  * @author Lesley Wevers
@@ -57,6 +61,21 @@ public class GrooveState {
      */
     public GrooveState(Grammar graphGrammar, GTS gts, GraphState state,
             RuleEvent event) {
+        this(graphGrammar, gts, state, event, false);
+    }
+
+    /**
+     * Constructs a groove state that is possibly one of several
+     * used concurrently on the same GTS.
+     * @param graphGrammar      A grammar view
+     * @param gts               A GTS
+     * @param state             The currently selected state in the GTS
+     * @param event   The currently selected rule event in the GTS
+     * @param concurrent if {@code true}, state graphs are retrieved
+     * as private copies; see {@link #getGraph(GraphState)}
+     */
+    public GrooveState(Grammar graphGrammar, GTS gts, GraphState state,
+            RuleEvent event, boolean concurrent) {
         if (graphGrammar == null) {
             throw new NullPointerException();
         }
@@ -65,6 +84,7 @@ public class GrooveState {
         this.gts = gts;
         this.state = state;
         this.event = event;
+        this.graphs = concurrent ? new HashMap<GraphState,HostGraph>() : null;
     }
 
     /**
@@ -98,4 +118,31 @@ public class GrooveState {
     public RuleEvent getActiveEvent() {
         return this.event;
     }
+
+    /**
+     * Returns the graph of a given state.
+     * For a concurrent groove state, this is a private copy of the state graph,
+     * created while holding the lock on the GTS: state graphs share (and hand over)
+     * their data structures with related states, and therefore cannot be queried
+     * by several threads at the same time.
+     */
+    public HostGraph getGraph(GraphState state) {
+        if (this.graphs == null) {
+            return state.getGraph();
+        }
+        HostGraph result = this.graphs.get(state);
+        if (result == null) {
+            synchronized (state.getGTS()) {
+                result = state.getGraph().clone();
+            }
+            this.graphs.put(state, result);
+        }
+        return result;
+    }
+
+    /**
+     * Private copies of state graphs, for a concurrent groove state;
+     * {@code null} otherwise.
+     */
+    private final Map<GraphState,HostGraph> graphs;
 }
@@ -17,12 +17,14 @@
 package groove.prolog;
 
 import groove.explore.Generator;
+import groove.explore.Verbosity;
 import groove.grammar.Grammar;
 import groove.lts.GTS;
 import groove.util.cli.GrooveCmdLineParser;
 import groove.util.cli.GrooveCmdLineTool;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import org.kohsuke.args4j.CmdLineException;
@@ -82,18 +84,26 @@ public class PrologChecker extends GrooveCmdLineTool<Object> {
         } catch (Exception e) {
             throw new Exception("Error while invoking Generator\n" + e.getMessage(), e);
         }
+        if (gts.isPartial()) {
+            throw new Exception("Can't query a GTS generated with bit-state hashing");
+        }
 
         long prologStartTime = System.currentTimeMillis();
 
         Grammar grammar = gts.getGrammar();
         GrooveEnvironment prologEnv = grammar.getPrologEnvironment();
-        PrologEngine prologEngine = new PrologEngine(prologEnv);
-        prologEngine.setGrooveState(new GrooveState(grammar, gts, null, null));
 
         emit("%nProlog outcome:%n");
-        for (String query : this.queries) {
-            emit("%nRunning query: ?- %s%n", query);
-            prologEngine.newQuery(query);
+        if (this.perState) {
+            StateChecker checker = new StateChecker(gts, this.workerCount);
+            for (String query : this.queries) {
+                emit("%nRunning query on all states: ?- %s%n", query);
+                BitSet holds = checker.check(query);
+                emit("Query holds in %d of %d states%n", holds.cardinality(), gts.nodeCount());
+                emit(Verbosity.HIGH, "States: %s%n", holds);
+            }
+        } else {
+            runQueries(prologEnv, grammar, gts);
         }
 
         long endTime = System.currentTimeMillis();
@@ -102,9 +112,28 @@ public class PrologChecker extends GrooveCmdLineTool<Object> {
         emit("** Total Running Time (ms):\t%d%n", endTime - genStartTime);
     }
 
+    /** Runs the queries once, on the GTS as a whole. */
+    private void runQueries(GrooveEnvironment prologEnv, Grammar grammar, GTS gts)
+        throws Exception {
+        PrologEngine prologEngine = new PrologEngine(prologEnv);
+        prologEngine.setGrooveState(new GrooveState(grammar, gts, null, null));
+        for (String query : this.queries) {
+            emit("%nRunning query: ?- %s%n", query);
+            prologEngine.newQuery(query);
+        }
+    }
+
     @Option(name = "-p", metaVar = "query", usage = "Performs the given query (multiple allowed)",
         handler = QueryHandler.class, required = true)
     private List<String> queries;
+    @Option(name = "-s",
+        usage = "Evaluate the queries on every state of the GTS, with that state as active state, "
+            + "and report the states for which they succeed")
+    private boolean perState;
+    @Option(name = "-threads", metaVar = "count", depends = "-s",
+        usage = "Number of threads used to evaluate the queries on the states (default: half the "
+            + "number of processors)")
+    private int workerCount = StateChecker.DEFAULT_WORKER_COUNT;
     @Option(name = "-g", metaVar = "args",
         usage = "Invoke the generator using <args> as options + arguments",
         handler = GeneratorHandler.class, required = true)
@@ -0,0 +1,149 @@
+/*
+ * GROOVE: GRaphs for Object Oriented VErification Copyright 2003--2007
+ * University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * $Id$
+ */
+package groove.prolog;
+
+import gnu.prolog.vm.PrologException;
+import groove.grammar.Grammar;
+import groove.lts.GTS;
+import groove.lts.GraphState;
+import groove.util.ThreadPool;
+import groove.util.parse.FormatException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates a Prolog query on every state of a GTS.
+ * For every state, the query is run with that state as the active state
+ * (see {@code active_state/1}); the outcome is the set of states for
+ * which the query succeeds.
+ * The states are divided over a number of workers that run in parallel,
+ * each with its own {@link PrologEngine} on a copy of the grammar's
+ * Prolog environment.
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public class StateChecker {
+    /**
+     * Constructs a checker for a given GTS.
+     * @param gts the (fully explored) GTS whose states are to be checked
+     * @param workerCount the number of workers evaluating queries in parallel
+     */
+    public StateChecker(GTS gts, int workerCount) {
+        assert workerCount > 0;
+        this.gts = gts;
+        this.workerCount = workerCount;
+    }
+
+    /** Returns the GTS of this checker. */
+    public GTS getGTS() {
+        return this.gts;
+    }
+
+    /**
+     * Evaluates a query on all states of the GTS.
+     * @param query the Prolog query to be evaluated
+     * @return the set of numbers of the states for which the query succeeds
+     * @throws FormatException if there is an error in the Prolog environment
+     * or the query
+     * @throws PrologException if an error occurs while executing the query
+     */
+    public BitSet check(final String query) throws FormatException, PrologException {
+        final List<GraphState> states = new ArrayList<GraphState>(getGTS().getStates());
+        final BitSet result = new BitSet(states.size());
+        final AtomicInteger next = new AtomicInteger();
+        this.formatError = null;
+        this.prologError = null;
+        ThreadPool.Batch threads = ThreadPool.instance().newBatch();
+        for (int i = 0; i < Math.min(this.workerCount, states.size()); i++) {
+            threads.start(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        PrologEngine engine = createEngine();
+                        int ix;
+                        while (!isFailed() && (ix = next.getAndIncrement()) < states.size()) {
+                            GraphState state = states.get(ix);
+                            if (check(engine, state, query)) {
+                                synchronized (result) {
+                                    result.set(state.getNumber());
+                                }
+                            }
+                        }
+                    } catch (FormatException exc) {
+                        setError(exc, null);
+                    } catch (PrologException exc) {
+                        setError(null, exc);
+                    }
+                }
+            });
+        }
+        threads.sync();
+        if (this.formatError != null) {
+            throw this.formatError;
+        }
+        if (this.prologError != null) {
+            throw this.prologError;
+        }
+        return result;
+    }
+
+    /** Creates an engine for a worker, on a private copy of the Prolog environment. */
+    private PrologEngine createEngine() throws FormatException {
+        GrooveEnvironment env;
+        // loading the environment is not thread safe
+        synchronized (this) {
+            env = getGTS().getGrammar().getPrologEnvironment().copy();
+        }
+        return new PrologEngine(env);
+    }
+
+    /** Evaluates the query for a single state. */
+    private boolean check(PrologEngine engine, GraphState state, String query)
+        throws FormatException, PrologException {
+        Grammar grammar = getGTS().getGrammar();
+        engine.setGrooveState(new GrooveState(grammar, getGTS(), state, null, true));
+        QueryReturnValue value = engine.newQuery(query).getReturnValue();
+        return value == QueryReturnValue.SUCCESS || value == QueryReturnValue.SUCCESS_LAST;
+    }
+
+    /** Indicates if one of the workers has encountered an error. */
+    private synchronized boolean isFailed() {
+        return this.formatError != null || this.prologError != null;
+    }
+
+    /** Records the first error encountered by any of the workers. */
+    private synchronized void setError(FormatException formatError, PrologException prologError) {
+        if (!isFailed()) {
+            this.formatError = formatError;
+            this.prologError = prologError;
+        }
+    }
+
+    private final GTS gts;
+    private final int workerCount;
+    /** The first format error thrown by a worker, if any. */
+    private FormatException formatError;
+    /** The first Prolog error thrown by a worker, if any. */
+    private PrologException prologError;
+
+    /** The default number of workers, based on the number of available processors. */
+    public static final int DEFAULT_WORKER_COUNT =
+        (Runtime.getRuntime().availableProcessors() + 1) / 2;
+}
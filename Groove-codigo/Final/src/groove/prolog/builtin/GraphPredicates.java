@@ -109,7 +109,7 @@ public class GraphPredicates extends GroovePredicates {
         s(":-build_in(graph_edge_count/2,'groove.prolog.builtin.graph.Predicate_graph_edge_count').");
     }
 
-    @Signature({"Graph", "Node", "Edge", "++?"})
+    @Signature({"Graph", "Node", "Edge", "++?", "+?+"})
     @ToolTipBody("Gets an edge from a node, can be incoming or outgoing")
     @ToolTipPars({"the graph", "the node", "the edge"})
     //    % @see groove.graph.GraphShape#edgeSet(Node,int)
@@ -125,7 +125,7 @@ public class GraphPredicates extends GroovePredicates {
         s(":-build_in(node_edge_set/3,'groove.prolog.builtin.graph.Predicate_node_edge_set').");
     }
 
-    @Signature({"Graph", "Node", "Edge", "++?"})
+    @Signature({"Graph", "Node", "Edge", "++?", "+?+"})
     @ToolTipBody("Gets an outgoing edge from a node")
     @ToolTipPars({"the graph", "the node", "list of outgoing edges"})
     //    % @see groove.graph.GraphShape#outEdgeSet(Node)
@@ -133,6 +133,14 @@ public class GraphPredicates extends GroovePredicates {
         s(":-build_in(node_out_edge/3,'groove.prolog.builtin.graph.Predicate_node_out_edge').");
     }
 
+    @Signature({"Graph", "Node", "Edge", "++?", "+?+"})
+    @ToolTipBody("Gets an incoming edge of a node")
+    @ToolTipPars({"the graph", "the node", "the incoming edge"})
+    //    % @see groove.graph.GraphShape#inEdgeSet(Node)
+    public void node_in_edge_3() {
+        s(":-build_in(node_in_edge/3,'groove.prolog.builtin.graph.Predicate_node_in_edge').");
+    }
+
     @Signature({"Graph", "Node", "EdgeSet", "++?"})
     @ToolTipBody("Gets the outgoing edges for a given node")
     @ToolTipPars({"the graph", "the node", "list of outgoing edges"})
@@ -142,7 +150,7 @@ public class GraphPredicates extends GroovePredicates {
     }
 
     @Signature({"Graph", "Label", "Edge", "++?"})
-    @ToolTipBody("Gets an edge with a given label")
+    @ToolTipBody("Gets an edge with a given label; the label may also be given as label text")
     @ToolTipPars({"the graph", "the label", "the edges"})
     //    % @see groove.graph.GraphShape#labelEdgeSet(int,Label)
     public void label_edge_3() {
@@ -28,10 +28,18 @@ import gnu.prolog.vm.Interpreter;
 import gnu.prolog.vm.PrologCode;
 import gnu.prolog.vm.PrologException;
 import groove.grammar.host.HostGraph;
+import groove.grammar.type.TypeLabel;
 import groove.graph.Edge;
 import groove.graph.Graph;
+import groove.graph.Label;
 import groove.graph.Node;
 import groove.lts.GraphState;
+import groove.prolog.GrooveEnvironment;
+import groove.prolog.GrooveState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * This class contains some utility methods to extract Java objects from prolog terms
@@ -61,6 +69,39 @@ public abstract class GraphPrologCode implements PrologCode {
         return null;
     }
 
+    /**
+     * Get a graph from a term representing a graph.
+     * If the term represents a graph state, the state graph is retrieved
+     * through the {@link GrooveState} of the interpreter's environment.
+     * @param interpreter The interpreter evaluating the predicate
+     * @param term      A term representing a graph
+     * @return          A graph
+     */
+    public static final Graph getGraph(Interpreter interpreter, Term term)
+        throws PrologException {
+        if (term instanceof JavaObjectTerm
+            && ((JavaObjectTerm) term).value instanceof GraphState) {
+            return getStateGraph(interpreter, (GraphState) ((JavaObjectTerm) term).value);
+        }
+        return getGraph(term);
+    }
+
+    /**
+     * Returns the graph of a given state, as provided by the
+     * {@link GrooveState} of the interpreter's environment (if any).
+     * @see GrooveState#getGraph(GraphState)
+     */
+    public static final HostGraph getStateGraph(Interpreter interpreter, GraphState state) {
+        Environment env = interpreter.getEnvironment();
+        if (env instanceof GrooveEnvironment) {
+            GrooveState grooveState = ((GrooveEnvironment) env).getGrooveState();
+            if (grooveState != null) {
+                return grooveState.getGraph(state);
+            }
+        }
+        return state.getGraph();
+    }
+
     /**
      * Get a host graph from a term representing a host graph
      * @param term      A term representing a host graph
@@ -119,6 +160,92 @@ public abstract class GraphPrologCode implements PrologCode {
         return null;
     }
 
+    /**
+     * Returns the edge a term is bound to, if any.
+     * Used to select an indexed lookup instead of a scan over all edges.
+     * @param term      A term that may represent an edge
+     * @return          The edge, or {@code null} if the term is not bound to an edge
+     */
+    public static final Edge getBoundEdge(Term term) {
+        term = term.dereference();
+        if (term instanceof JavaObjectTerm && ((JavaObjectTerm) term).value instanceof Edge) {
+            return (Edge) ((JavaObjectTerm) term).value;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the node a term is bound to, if any.
+     * @param term      A term that may represent a node
+     * @return          The node, or {@code null} if the term is not bound to a node
+     */
+    public static final Node getBoundNode(Term term) {
+        term = term.dereference();
+        if (term instanceof JavaObjectTerm && ((JavaObjectTerm) term).value instanceof Node) {
+            return (Node) ((JavaObjectTerm) term).value;
+        }
+        return null;
+    }
+
+    /**
+     * Tests if a graph contains a given edge, using the outgoing edge
+     * set of the edge source rather than the complete edge set.
+     */
+    public static final boolean containsEdge(Graph graph, Edge edge) {
+        return graph.containsNode(edge.source())
+            && graph.outEdgeSet(edge.source()).contains(edge);
+    }
+
+    /**
+     * Returns the edges of a graph with a given label.
+     * The label term is either a label object or the label text,
+     * as returned by {@code edge_label/2}.
+     * @param graph     The graph to retrieve the edges from
+     * @param term      A term representing a label
+     * @return          The edges of the graph with the given label
+     */
+    public static final Collection<? extends Edge> getLabelEdges(Graph graph,
+            Term term) throws PrologException {
+        term = term.dereference();
+        if (term instanceof JavaObjectTerm
+            && ((JavaObjectTerm) term).value instanceof Label) {
+            return graph.edgeSet((Label) ((JavaObjectTerm) term).value);
+        }
+        if (!(term instanceof AtomTerm)) {
+            PrologException.typeError(LABEL_ATOM, term);
+        }
+        String text = ((AtomTerm) term).value;
+        List<Edge> result = new ArrayList<Edge>();
+        if (graph instanceof HostGraph) {
+            // look up all type labels with this text in the label store
+            for (TypeLabel label : ((HostGraph) graph).getTypeGraph().getLabels()) {
+                if (label.text().equals(text)) {
+                    result.addAll(graph.edgeSet(label));
+                }
+            }
+        } else {
+            for (Edge edge : graph.edgeSet()) {
+                if (edge.label().text().equals(text)) {
+                    result.add(edge);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tests if an edge has the label represented by a given term.
+     * @see #getLabelEdges(Graph, Term)
+     */
+    public static final boolean hasLabel(Edge edge, Term term) {
+        term = term.dereference();
+        if (term instanceof JavaObjectTerm) {
+            return edge.label().equals(((JavaObjectTerm) term).value);
+        }
+        return term instanceof AtomTerm
+            && edge.label().text().equals(((AtomTerm) term).value);
+    }
+
     /**
      * Returns true if the input contains the option with the given values
      */
@@ -175,6 +302,11 @@ public abstract class GraphPrologCode implements PrologCode {
      */
     public static final AtomTerm EDGE_ATOM = AtomTerm.get("edge");
 
+    /**
+     * Atom term "label"
+     */
+    public static final AtomTerm LABEL_ATOM = AtomTerm.get("label");
+
     @Override
     public void install(Environment env) {
         /**
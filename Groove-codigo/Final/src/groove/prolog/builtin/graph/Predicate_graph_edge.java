@@ -22,6 +22,7 @@ import gnu.prolog.term.Term;
 import gnu.prolog.vm.Interpreter;
 import gnu.prolog.vm.PrologCollectionIterator;
 import gnu.prolog.vm.PrologException;
+import groove.graph.Edge;
 import groove.graph.Graph;
 
 /**
@@ -38,7 +39,11 @@ public class Predicate_graph_edge extends GraphPrologCode {
             interpreter.undo(it.getUndoPosition());
             return it.nextSolution(interpreter);
         } else {
-            Graph graph = getGraph(args[0]);
+            Graph graph = getGraph(interpreter, args[0]);
+            Edge edge = getBoundEdge(args[1]);
+            if (edge != null) {
+                return containsEdge(graph, edge) ? SUCCESS_LAST : FAIL;
+            }
             PrologCollectionIterator it =
                 new PrologCollectionIterator(graph.edgeSet(), args[1],
                     interpreter.getUndoPosition());
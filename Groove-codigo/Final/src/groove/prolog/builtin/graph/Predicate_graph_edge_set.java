@@ -33,7 +33,7 @@ public class Predicate_graph_edge_set extends GraphPrologCode {
     @Override
     public int execute(Interpreter interpreter, boolean backtrackMode,
             Term[] args) throws PrologException {
-        Graph graph = getGraph(args[0]);
+        Graph graph = getGraph(interpreter, args[0]);
         Term edgeSetTerm =
             CompoundTerm.getList(PrologUtils.createJOTlist(graph.edgeSet()));
         return interpreter.unify(edgeSetTerm, args[1]);
@@ -18,13 +18,12 @@
  */
 package groove.prolog.builtin.graph;
 
-import gnu.prolog.term.JavaObjectTerm;
 import gnu.prolog.term.Term;
 import gnu.prolog.vm.Interpreter;
 import gnu.prolog.vm.PrologCollectionIterator;
 import gnu.prolog.vm.PrologException;
+import groove.graph.Edge;
 import groove.graph.Graph;
-import groove.graph.Label;
 
 /**
  * Predicate label_edge(+Graph,+Label,?Edge)
@@ -41,13 +40,15 @@ public class Predicate_label_edge extends GraphPrologCode {
             return it.nextSolution(interpreter);
         } else {
             try {
-                Graph graph = getGraph(args[0]);
-
-                Label label = (Label) ((JavaObjectTerm) args[1]).value;
-
+                Graph graph = getGraph(interpreter, args[0]);
+                Edge edge = getBoundEdge(args[2]);
+                if (edge != null) {
+                    return hasLabel(edge, args[1]) && containsEdge(graph, edge)
+                        ? SUCCESS_LAST : FAIL;
+                }
                 PrologCollectionIterator it =
-                    new PrologCollectionIterator(graph.edgeSet(label), args[2],
-                        interpreter.getUndoPosition());
+                    new PrologCollectionIterator(getLabelEdges(graph, args[1]),
+                        args[2], interpreter.getUndoPosition());
                 return it.nextSolution(interpreter);
             } catch (Exception e) {
                 return FAIL;
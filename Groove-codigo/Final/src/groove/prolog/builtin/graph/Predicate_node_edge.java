@@ -22,11 +22,15 @@ import gnu.prolog.term.Term;
 import gnu.prolog.vm.Interpreter;
 import gnu.prolog.vm.PrologCollectionIterator;
 import gnu.prolog.vm.PrologException;
+import groove.graph.Edge;
 import groove.graph.Graph;
 import groove.graph.Node;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 /**
- * Predicate node_edge(+Graph,+Node,?Edge)
+ * Predicate node_edge(+Graph,?Node,?Edge)
  * @author Michiel Hendriks
  */
 public class Predicate_node_edge extends GraphPrologCode {
@@ -39,7 +43,20 @@ public class Predicate_node_edge extends GraphPrologCode {
             interpreter.undo(it.getUndoPosition());
             return it.nextSolution(interpreter);
         } else {
-            Graph graph = getGraph(args[0]);
+            Graph graph = getGraph(interpreter, args[0]);
+            Edge edge = getBoundEdge(args[2]);
+            if (edge != null) {
+                if (!containsEdge(graph, edge)) {
+                    return FAIL;
+                }
+                Set<Node> ends = new LinkedHashSet<Node>();
+                ends.add(edge.source());
+                ends.add(edge.target());
+                PrologCollectionIterator it =
+                    new PrologCollectionIterator(ends, args[1],
+                        interpreter.getUndoPosition());
+                return it.nextSolution(interpreter);
+            }
             Node node = getNode(args[1]);
             PrologCollectionIterator it =
                 new PrologCollectionIterator(graph.edgeSet(node), args[2],
@@ -0,0 +1,59 @@
+/*
+ * Groove Prolog Interface
+ * Copyright (C) 2009 Michiel Hendriks, University of Twente
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package groove.prolog.builtin.graph;
+
+import gnu.prolog.term.JavaObjectTerm;
+import gnu.prolog.term.Term;
+import gnu.prolog.vm.Interpreter;
+import gnu.prolog.vm.PrologCollectionIterator;
+import gnu.prolog.vm.PrologException;
+import groove.graph.Edge;
+import groove.graph.Graph;
+import groove.graph.Node;
+
+/**
+ * Predicate node_in_edge(+Graph,?Node,?Edge)
+ * @author Arend Rensink
+ */
+public class Predicate_node_in_edge extends GraphPrologCode {
+    @Override
+    public int execute(Interpreter interpreter, boolean backtrackMode,
+            Term[] args) throws PrologException {
+        if (backtrackMode) {
+            PrologCollectionIterator it =
+                (PrologCollectionIterator) interpreter.popBacktrackInfo();
+            interpreter.undo(it.getUndoPosition());
+            return it.nextSolution(interpreter);
+        } else {
+            Graph graph = getGraph(interpreter, args[0]);
+            Edge edge = getBoundEdge(args[2]);
+            if (edge != null) {
+                if (!containsEdge(graph, edge)) {
+                    return FAIL;
+                }
+                return interpreter.unify(args[1], new JavaObjectTerm(edge.target()));
+            }
+            Node node = getNode(args[1]);
+            PrologCollectionIterator it =
+                new PrologCollectionIterator(graph.inEdgeSet(node), args[2],
+                    interpreter.getUndoPosition());
+            return it.nextSolution(interpreter);
+        }
+    }
+}
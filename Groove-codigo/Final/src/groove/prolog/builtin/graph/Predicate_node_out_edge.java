@@ -18,15 +18,17 @@
  */
 package groove.prolog.builtin.graph;
 
+import gnu.prolog.term.JavaObjectTerm;
 import gnu.prolog.term.Term;
 import gnu.prolog.vm.Interpreter;
 import gnu.prolog.vm.PrologCollectionIterator;
 import gnu.prolog.vm.PrologException;
+import groove.graph.Edge;
 import groove.graph.Graph;
 import groove.graph.Node;
 
 /**
- * Predicate node_out_edge(+Graph,+Node,?Edge)
+ * Predicate node_out_edge(+Graph,?Node,?Edge)
  * @author Michiel Hendriks
  */
 public class Predicate_node_out_edge extends GraphPrologCode {
@@ -39,7 +41,14 @@ public class Predicate_node_out_edge extends GraphPrologCode {
             interpreter.undo(it.getUndoPosition());
             return it.nextSolution(interpreter);
         } else {
-            Graph graph = getGraph(args[0]);
+            Graph graph = getGraph(interpreter, args[0]);
+            Edge edge = getBoundEdge(args[2]);
+            if (edge != null) {
+                if (!containsEdge(graph, edge)) {
+                    return FAIL;
+                }
+                return interpreter.unify(args[1], new JavaObjectTerm(edge.source()));
+            }
             Node node = getNode(args[1]);
             PrologCollectionIterator it =
                 new PrologCollectionIterator(graph.outEdgeSet(node), args[2],
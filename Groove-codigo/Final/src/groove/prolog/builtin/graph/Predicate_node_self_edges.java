@@ -69,7 +69,7 @@ public class Predicate_node_self_edges extends GraphPrologCode {
         } else {
             SelfEdgesBacktrackInfo bi = new SelfEdgesBacktrackInfo();
             bi.startUndoPosition = interpreter.getUndoPosition();
-            bi.graph = getGraph(args[0]);
+            bi.graph = getGraph(interpreter, args[0]);
             bi.nodes = bi.graph.nodeSet().iterator();
             bi.argNode = args[1];
             if (args[2] instanceof VariableTerm) {
@@ -23,6 +23,7 @@ import gnu.prolog.term.Term;
 import gnu.prolog.vm.Interpreter;
 import gnu.prolog.vm.PrologException;
 import groove.lts.GraphState;
+import groove.prolog.builtin.graph.GraphPrologCode;
 
 /**
  * Predicate state_graph(+State,?Graph)
@@ -33,7 +34,7 @@ public class Predicate_state_graph extends LtsPrologCode {
     public int execute(Interpreter interpreter, boolean backtrackMode,
             Term[] args) throws PrologException {
         GraphState graphState = getGraphState(args[0]);
-        Term value = new JavaObjectTerm(graphState.getGraph());
+        Term value = new JavaObjectTerm(GraphPrologCode.getStateGraph(interpreter, graphState));
         return interpreter.unify(args[1], value);
     }
 }
@@ -42,7 +42,7 @@ public class Predicate_ruleevent_created_edge extends TransPrologCode {
             return it.nextSolution(interpreter);
         } else {
             RuleEvent re = getRuleEvent(args[0]);
-            HostGraph graph = (HostGraph) getGraph(args[1]);
+            HostGraph graph = (HostGraph) getGraph(interpreter, args[1]);
             RuleEffect record = re.getEffect(graph);
             Iterable<HostEdge> createdEdges = record.getAddedEdges();
             if (createdEdges == null) {
@@ -42,7 +42,7 @@ public class Predicate_ruleevent_erased_edge extends TransPrologCode {
             return it.nextSolution(interpreter);
         } else {
             RuleEvent event = getRuleEvent(args[0]);
-            HostGraph graph = (HostGraph) getGraph(args[1]);
+            HostGraph graph = (HostGraph) getGraph(interpreter, args[1]);
             RuleEffect record = event.getEffect(graph);
             Iterable<HostEdge> erasedEdges = record.getRemovedEdges();
             if (erasedEdges == null) {
@@ -34,7 +34,7 @@ public class Predicate_ruleevent_match extends TransPrologCode {
     public int execute(Interpreter interpreter, boolean backtrackMode,
             Term[] args) throws PrologException {
         RuleEvent re = getRuleEvent(args[0]);
-        HostGraph graph = (HostGraph) getGraph(args[1]);
+        HostGraph graph = (HostGraph) getGraph(interpreter, args[1]);
         Term res = new JavaObjectTerm(re.getMatch(graph));
         return interpreter.unify(args[2], res);
     }
@@ -41,7 +41,7 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({AllAlgebraTests.class, AllControlTests.class, AllCriticalPairTests.class,
     AllGraphTests.class, AllPrologTests.class, AllRuleTests.class, AllTypeTests.class,
     AllRelTests.class, AllVerifyTests.class, BinaryEdgeTest.class, ExplorationTest.class,
-    IOTest.class, AllUtilTests.class, AllSTSTests.class})
+    IOTest.class, AllUtilTests.class, AllSTSTests.class, EcoreImportTest.class})
 public class CheckinTests {
     // Empty by design.
 }
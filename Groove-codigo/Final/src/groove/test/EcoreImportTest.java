@@ -0,0 +1,123 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.test;
+
+import groove.io.conceptual.Field;
+import groove.io.conceptual.InstanceModel;
+import groove.io.conceptual.lang.ImportException;
+import groove.io.conceptual.lang.InstanceImporter;
+import groove.io.conceptual.lang.ecore.EcoreStreamToInstance;
+import groove.io.conceptual.lang.ecore.EcoreStreamToInstance.PendingOverflowException;
+import groove.io.conceptual.lang.ecore.EcoreToInstance;
+import groove.io.conceptual.lang.ecore.EcoreToType;
+import groove.io.conceptual.type.Container;
+import groove.io.conceptual.type.Container.Kind;
+import groove.io.conceptual.value.ContainerValue;
+import groove.io.conceptual.value.Object;
+import groove.io.conceptual.value.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Tests the streaming importer for Ecore instance models against
+ * the EMF-based importer.
+ * @version $Revision $
+ */
+@SuppressWarnings("javadoc")
+public class EcoreImportTest {
+    private static final String TEST_DIR = "junit/samples/ecore/";
+    private static final String TYPE_FILE = TEST_DIR + "library.ecore";
+    private static final String INSTANCE_FILE = TEST_DIR + "library.xmi";
+
+    @Test
+    public void testStreamingImport() throws ImportException {
+        InstanceImporter emf = new EcoreToInstance(new EcoreToType(TYPE_FILE), INSTANCE_FILE);
+        InstanceImporter stream =
+            new EcoreStreamToInstance(new EcoreToType(TYPE_FILE), INSTANCE_FILE);
+        Assert.assertEquals(Collections.emptyList(), emf.getMessages());
+        Assert.assertEquals(Collections.emptyList(), stream.getMessages());
+        Map<String,String> expected = describe(emf.getInstanceModel());
+        Map<String,String> actual = describe(stream.getInstanceModel());
+        // key-based fragments, and publishers from the referenced catalog only
+        Assert.assertTrue(expected.containsKey("//@writers[name='Ann']"));
+        Assert.assertTrue(expected.containsKey("//@writers[name='Bob%20Smith']"));
+        Assert.assertTrue(expected.containsKey("//@publishers.0"));
+        Assert.assertTrue(expected.containsKey("//@publishers.1"));
+        Assert.assertFalse(expected.containsKey("//@publishers.2"));
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testPendingBound() throws ImportException {
+        try {
+            new EcoreStreamToInstance(new EcoreToType(TYPE_FILE), INSTANCE_FILE, 1);
+            Assert.fail("Pending references should exceed the bound");
+        } catch (PendingOverflowException e) {
+            // expected
+        }
+        new EcoreStreamToInstance(new EcoreToType(TYPE_FILE), INSTANCE_FILE, 10);
+    }
+
+    /**
+     * Returns a description of the objects of an instance model, indexed by their names.
+     * Objects are described by their type and field values, where
+     * the elements of unordered containers are sorted.
+     */
+    private Map<String,String> describe(InstanceModel m) {
+        Map<String,String> result = new TreeMap<String,String>();
+        for (Object object : m.getObjects()) {
+            List<String> fields = new ArrayList<String>();
+            for (Map.Entry<Field,Value> entry : object.getValue().entrySet()) {
+                fields.add(entry.getKey() + "=" + describe(entry.getValue()));
+            }
+            Collections.sort(fields);
+            String name = object.getName();
+            Assert.assertFalse("Duplicate object " + name, result.containsKey(name));
+            result.put(name, object.getType() + " " + fields);
+        }
+        return result;
+    }
+
+    /** Returns a description of a field value. */
+    private String describe(Value value) {
+        String result;
+        if (value instanceof Object) {
+            result = ((Object) value).toShortString();
+        } else if (value instanceof ContainerValue) {
+            List<String> elements = new ArrayList<String>();
+            for (Value element : ((ContainerValue) value).getValue()) {
+                elements.add(describe(element));
+            }
+            Kind kind = ((Container) value.getType()).getContainerType();
+            if (kind == Kind.SET || kind == Kind.BAG) {
+                Collections.sort(elements);
+            }
+            result = elements.toString();
+        } else {
+            result = String.valueOf(value);
+        }
+        return result;
+    }
+}
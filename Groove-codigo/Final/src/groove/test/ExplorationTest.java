@@ -19,21 +19,42 @@ package groove.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import groove.explore.AcceptorEnumerator;
 import groove.explore.Exploration;
 import groove.explore.StrategyEnumerator;
 import groove.explore.encode.Serialized;
+import groove.explore.result.Acceptor;
+import groove.explore.result.NoStateAcceptor;
+import groove.explore.strategy.MinimaxStrategy;
+import groove.explore.strategy.SwarmStrategy;
 import groove.explore.util.LTSLabels;
 import groove.grammar.Grammar;
+import groove.grammar.StateHashing;
 import groove.grammar.host.HostGraph;
 import groove.grammar.model.GrammarModel;
 import groove.grammar.model.ResourceKind;
 import groove.lts.Filter;
 import groove.lts.GTS;
+import groove.lts.GraphState;
+import groove.lts.GraphTransition;
+import groove.lts.MatchApplier;
+import groove.lts.MatchCollector;
 import groove.util.Groove;
+import groove.util.ThreadPool;
 import groove.util.parse.FormatException;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import junit.framework.Assert;
 
@@ -106,6 +127,65 @@ public class ExplorationTest {
         testExploration("car-platooning-no-reg-exp.gps", "start-03", "rete", 268, 561);
     }
 
+    /**
+     * Tests that parallel matching, parallel successor construction and
+     * incremental matching yield the same state space as sequential, full exploration,
+     * for several sizes of the thread pool.
+     */
+    @Test
+    public void testParallelExploration() {
+        testParallelExploration("car-platooning-no-reg-exp.gps", "start-03", 268, 561);
+        testParallelExploration("leader-election.gps", "start", 415, 898);
+        testParallelExploration("subsets.gps", "start", 306, 712);
+        testParallelExploration("ferryman.gps", "start", 114, 198);
+    }
+
+    /**
+     * Explores a grammar sequentially and without incremental matching,
+     * and then with and without incremental matching, for
+     * each of the thread pool sizes in {@link #PARALLELISM},
+     * and tests that the resulting transition systems coincide.
+     * As the order of the matches, and hence the numbering of the states,
+     * may differ between the explorations, the transition systems are
+     * compared up to the numbering of the states.
+     */
+    private void testParallelExploration(String grammarName, String startGraphName,
+        int nodeCount, int edgeCount) {
+        boolean parallelMatching = MatchCollector.isParallel();
+        boolean parallelApplication = MatchApplier.isParallel();
+        boolean incremental = MatchCollector.isIncremental();
+        GrammarModel grammar = loadGrammar(grammarName, startGraphName);
+        try {
+            ThreadPool.setParallelism(1);
+            MatchCollector.setParallel(false);
+            MatchApplier.setParallel(false);
+            MatchCollector.setIncremental(false);
+            GTS expected = testExploration(grammar, "bfs", nodeCount, edgeCount, -1);
+            MatchCollector.setParallel(true);
+            MatchApplier.setParallel(true);
+            for (int parallelism : PARALLELISM) {
+                ThreadPool.setParallelism(parallelism);
+                for (boolean incr : new boolean[] {false, true}) {
+                    if (parallelism == 1 && !incr) {
+                        // this is the reference exploration
+                        continue;
+                    }
+                    MatchCollector.setIncremental(incr);
+                    assertSameTransitions(expected,
+                        testExploration(grammar, "bfs", nodeCount, edgeCount, -1));
+                }
+            }
+        } finally {
+            MatchCollector.setParallel(parallelMatching);
+            MatchApplier.setParallel(parallelApplication);
+            MatchCollector.setIncremental(incremental);
+            ThreadPool.setParallelism(0);
+        }
+    }
+
+    /** Thread pool sizes used in {@link #testParallelExploration()}. */
+    private static final int[] PARALLELISM = {1, 2, 4};
+
     /** Tests the complete Car Platooning example
      */
     @Test
@@ -268,6 +348,269 @@ public class ExplorationTest {
         testExploration(gg, null, 21, 56, 0);
     }
 
+    /** Tests the best-first and A* strategies. */
+    @Test
+    public void testBestFirst() {
+        GrammarModel gg = loadGrammar("mergers.gps", "start");
+        testBestFirst(gg, "best:nodes", 20);
+        testBestFirst(gg, "best:edges", 20);
+        testBestFirst(gg, "astar:nodes", 42);
+        gg = loadGrammar("attributes.gps", "start");
+        testBestFirst(gg, "astar:rule:get_score:1", 24);
+        // bool, string and input parameters cannot serve as costs
+        for (String par : new String[] {"set_finished:0", "set_name:0", "set_gravity:0"}) {
+            try {
+                GTS lts = new GTS(gg.toGrammar());
+                Serialized strategy =
+                    StrategyEnumerator.instance().parseCommandline("astar:rule:" + par);
+                new Exploration(strategy, new Serialized("final"), 1).play(lts, null);
+                Assert.fail("Cost parameter " + par + " should have been rejected");
+            } catch (FormatException exc) {
+                // expected
+            }
+        }
+    }
+
+    /** Explores a grammar until the first final state is found. */
+    private void testBestFirst(GrammarModel view, String strategyDescr, int nodeCount) {
+        try {
+            GTS lts = new GTS(view.toGrammar());
+            Serialized strategy = StrategyEnumerator.instance().parseCommandline(strategyDescr);
+            Exploration exploration = new Exploration(strategy, new Serialized("final"), 1);
+            exploration.play(lts, null);
+            assertEquals(1, exploration.getResult().size());
+            assertEquals(nodeCount, lts.nodeCount());
+        } catch (FormatException exc) {
+            Assert.fail(exc.toString());
+        }
+    }
+
+    /** Tests the swarm simulation strategy. */
+    @Test
+    public void testSwarm() {
+        try {
+            Grammar gg = loadGrammar("mergers.gps", "start").toGrammar();
+            GTS lts = new GTS(gg);
+            Serialized strategy = StrategyEnumerator.instance().parseCommandline("swarm:50,100,1");
+            Exploration exploration = new Exploration(strategy, new Serialized("final"), 0);
+            exploration.play(lts, null);
+            assertFalse(exploration.getResult().isEmpty());
+            for (GraphState state : exploration.getResult()) {
+                assertTrue(state.isFinal());
+            }
+        } catch (FormatException exc) {
+            Assert.fail(exc.toString());
+        }
+    }
+
+    /**
+     * Tests that swarm simulations with the same master seed have the same outcome,
+     * even though their walks run in parallel.
+     */
+    @Test
+    public void testSwarmReproducible() {
+        try {
+            Grammar gg = loadGrammar("mergers.gps", "start").toGrammar();
+            Serialized serial = StrategyEnumerator.instance().parseCommandline("swarm:50,3,3");
+            List<Object> first = null;
+            for (int run = 0; run < 3; run++) {
+                GTS lts = new GTS(gg);
+                SwarmStrategy strategy =
+                    (SwarmStrategy) StrategyEnumerator.parseStrategy(gg, serial);
+                Acceptor acceptor =
+                    AcceptorEnumerator.parseAcceptor(gg, new Serialized("final")).newAcceptor(0);
+                strategy.setGTS(lts);
+                strategy.setAcceptor(acceptor);
+                strategy.play();
+                Set<Long> results = new TreeSet<Long>();
+                for (GraphState state : acceptor.getResult()) {
+                    results.add(GTS.getFingerprint(state));
+                }
+                List<Object> outcome = new ArrayList<Object>();
+                outcome.add(strategy.getAcceptedSeeds());
+                outcome.add(strategy.getVisitedCount());
+                outcome.add(lts.nodeCount());
+                outcome.add(results);
+                if (first == null) {
+                    // the walks are too short for all of them to reach a final state
+                    assertFalse(strategy.getAcceptedSeeds().isEmpty());
+                    assertTrue(strategy.getAcceptedSeeds().size() < strategy.getWalkCount());
+                    first = outcome;
+                } else {
+                    assertEquals(first, outcome);
+                }
+            }
+        } catch (FormatException exc) {
+            Assert.fail(exc.toString());
+        }
+    }
+
+    /** Tests the minimax strategy, on a game of Nim with two piles. */
+    @Test
+    public void testMinimax() {
+        for (boolean parallel : new boolean[] {false, true}) {
+            try {
+                Grammar gg = loadGrammar("nim.gps", "start").toGrammar();
+                GTS lts = new GTS(gg);
+                Serialized serial =
+                    StrategyEnumerator.instance().parseCommandline("minimax:0,0,end,MAX,turn,0");
+                MinimaxStrategy strategy =
+                    (MinimaxStrategy) StrategyEnumerator.parseStrategy(gg, serial);
+                strategy.setParallel(parallel);
+                strategy.setGTS(lts);
+                strategy.setAcceptor(NoStateAcceptor.INSTANCE.newAcceptor(0));
+                strategy.play();
+                // the first player wins by taking one token from the larger pile
+                assertEquals(Integer.valueOf(1), strategy.getScore());
+                assertEquals("take1", strategy.getBestMove().getAction().getLastName());
+            } catch (FormatException exc) {
+                Assert.fail(exc.toString());
+            }
+        }
+    }
+
+    /**
+     * Tests the approximate state hashing modes, by comparing the transitions
+     * with those of a precise exploration.
+     */
+    @Test
+    public void testStateHashing() {
+        try {
+            Grammar gg = loadGrammar("ferryman.gps", "start").toGrammar();
+            GTS exact = new GTS(gg);
+            new Exploration().play(exact, null);
+            Map<Integer,Set<String>> exactTransitions = getTransitions(exact);
+            // hash compaction yields the same LTS
+            gg.getProperties().setStateHashing(StateHashing.COMPACT);
+            GTS lts = new GTS(gg);
+            new Exploration().play(lts, null);
+            assertEquals(114, lts.nodeCount());
+            assertEquals(198, lts.edgeCount());
+            assertTrue(lts.isApproximate());
+            assertFalse(lts.isPartial());
+            assertTrue(lts.getOmissionProbability() < 1e-9);
+            assertEquals(exactTransitions, getTransitions(lts));
+            // bit-state hashing is only allowed if states may be pruned
+            gg.getProperties().setStateHashing(StateHashing.BITSTATE);
+            try {
+                new Exploration().play(new GTS(gg), null);
+                Assert.fail("Bit-state hashing should require pruning");
+            } catch (FormatException exc) {
+                // expected
+            }
+            lts = new GTS(gg);
+            lts.getRecord().setPruning(true);
+            new Exploration().play(lts, null);
+            assertEquals(114, lts.nodeCount());
+            assertTrue(lts.edgeCount() < 198);
+            assertTrue(lts.isPartial());
+            assertTrue(lts.getOmissionProbability() < 1e-9);
+            // the remaining transitions all lead to the right target
+            for (Map.Entry<Integer,Set<String>> e : getTransitions(lts).entrySet()) {
+                assertTrue(exactTransitions.get(e.getKey()).containsAll(e.getValue()));
+            }
+        } catch (FormatException exc) {
+            Assert.fail(exc.toString());
+        }
+    }
+
+    /**
+     * Returns the outgoing transitions of all states of a GTS,
+     * as labels combined with target state numbers.
+     */
+    private Map<Integer,Set<String>> getTransitions(GTS gts) {
+        Map<Integer,Set<String>> result = new HashMap<Integer,Set<String>>();
+        for (GraphState state : gts.nodeSet()) {
+            Set<String> out = new HashSet<String>();
+            for (GraphTransition trans : state.getTransitions()) {
+                out.add(trans.label().text() + "->" + trans.target().getNumber());
+            }
+            result.put(state.getNumber(), out);
+        }
+        return result;
+    }
+
+    /**
+     * Tests that two GTSs have the same transitions, up to the numbering of their states.
+     * To this end, the states of both GTSs are coloured, starting by distinguishing
+     * the start states; the colouring is then refined by the labels and target colours
+     * of the outgoing transitions, until the number of colours stabilises.
+     * The GTSs should then have the same number of states of each colour.
+     */
+    private void assertSameTransitions(GTS expected, GTS actual) {
+        GTS[] systems = {expected, actual};
+        Map<GraphState,Integer> colours = new IdentityHashMap<GraphState,Integer>();
+        for (GTS gts : systems) {
+            for (GraphState state : gts.nodeSet()) {
+                colours.put(state, state == gts.startState() ? 1 : 0);
+            }
+        }
+        int colourCount = 0;
+        boolean stable = false;
+        while (!stable) {
+            Map<String,Integer> colourMap = new HashMap<String,Integer>();
+            Map<GraphState,Integer> newColours = new IdentityHashMap<GraphState,Integer>();
+            for (GTS gts : systems) {
+                for (GraphState state : gts.nodeSet()) {
+                    List<String> out = new ArrayList<String>();
+                    for (GraphTransition trans : state.getTransitions()) {
+                        out.add(trans.label().text() + "->" + colours.get(trans.target()));
+                    }
+                    Collections.sort(out);
+                    String signature = colours.get(state) + ":" + out;
+                    Integer colour = colourMap.get(signature);
+                    if (colour == null) {
+                        colour = colourMap.size();
+                        colourMap.put(signature, colour);
+                    }
+                    newColours.put(state, colour);
+                }
+            }
+            stable = colourMap.size() == colourCount;
+            colourCount = colourMap.size();
+            colours = newColours;
+        }
+        assertEquals(getColourCounts(expected, colours), getColourCounts(actual, colours));
+    }
+
+    /** Returns the number of states of a GTS per colour. */
+    private Map<Integer,Integer> getColourCounts(GTS gts, Map<GraphState,Integer> colours) {
+        Map<Integer,Integer> result = new HashMap<Integer,Integer>();
+        for (GraphState state : gts.nodeSet()) {
+            Integer colour = colours.get(state);
+            Integer count = result.get(colour);
+            result.put(colour, count == null ? 1 : count + 1);
+        }
+        return result;
+    }
+
+    /** Tests counting results up to isomorphism when the GTS does not collapse them. */
+    @Test
+    public void testDistinctResults() {
+        try {
+            Grammar gg = loadGrammar("loose-nodes.gps", "start").toGrammar();
+            gg.getProperties().setCheckIsomorphism(false);
+            Serialized bfs = new Serialized("bfs");
+            Serialized any = new Serialized("any");
+            GTS lts = new GTS(gg);
+            Exploration exploration = new Exploration(bfs, any, 0);
+            exploration.play(lts, null);
+            assertEquals(512, lts.nodeCount());
+            assertEquals(512, exploration.getResult().size());
+            lts = new GTS(gg);
+            exploration = new Exploration(bfs, any, 0, true);
+            exploration.play(lts, null);
+            assertTrue(exploration.getResult().isDistinct());
+            assertEquals(104, exploration.getResult().size());
+            lts = new GTS(gg);
+            exploration = new Exploration(bfs, any, 10, true);
+            exploration.play(lts, null);
+            assertEquals(10, exploration.getResult().size());
+        } catch (FormatException exc) {
+            Assert.fail(exc.toString());
+        }
+    }
+
     /** Tests the wildcards sample. */
     @Test
     public void testInjective() {
@@ -20,14 +20,24 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import groove.explore.Exploration;
+import groove.explore.ExploreResult;
+import groove.explore.Generator;
+import groove.explore.util.LTSLabels;
 import groove.grammar.Grammar;
 import groove.grammar.model.GrammarModel;
 import groove.grammar.model.ResourceKind;
+import groove.graph.multi.MultiGraph;
+import groove.graph.plain.PlainGraph;
+import groove.io.graph.AutIO;
+import groove.lts.Filter;
 import groove.lts.GTS;
 import groove.util.Groove;
 import groove.util.parse.FormatException;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
 import java.io.IOException;
 import java.net.URL;
 
@@ -102,6 +112,32 @@ public class IOTest {
 
     }
 
+    /** Tests streaming the LTS to file during exploration. */
+    @Test
+    public void testStreamLTS() {
+        try {
+            File file = File.createTempFile("lts", ".aut");
+            file.deleteOnExit();
+            ExploreResult result =
+                Generator.execute(new String[] {"-v", "0", "-ef", "sfn", "-stream", "-o",
+                    file.getPath(), DIRECTORY});
+            MultiGraph lts =
+                result.getGTS().toPlainGraph(new LTSLabels("sfn"), Filter.NONE, result);
+            // the header line is followed by one line per edge
+            int lineCount = 0;
+            BufferedReader reader = new BufferedReader(new FileReader(file));
+            while (reader.readLine() != null) {
+                lineCount++;
+            }
+            reader.close();
+            assertEquals(lts.edgeCount() + 1, lineCount);
+            PlainGraph loaded = new AutIO().loadGraph(new FileInputStream(file));
+            assertEquals(lts.nodeCount(), loaded.nodeCount());
+        } catch (Exception e) {
+            Assert.fail(e.toString());
+        }
+    }
+
     protected void testControl(GrammarModel view, String startName, String controlName,
             int nodecount, int edgecount) {
         testExploration(view, "control", startName, controlName, 3, nodecount, edgecount);
@@ -18,8 +18,12 @@ package groove.test;
 
 import groove.io.FileType;
 import groove.io.Imager;
+import groove.util.ThreadPool;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -56,6 +60,7 @@ public class ImagerTest {
             file.delete();
         }
         new File(OUTPUT_DIR).delete();
+        ThreadPool.setParallelism(0);
     }
 
     @Test
@@ -73,17 +78,44 @@ public class ImagerTest {
         test(FileType.TIKZ);
     }
 
-    private void test(FileType type) {
+    @Test
+    public void testParallel() {
+        test(FileType.PNG, "-pool", "4");
+        test(FileType.TIKZ, "-pool", "4");
+    }
+
+    @Test
+    public void testIncremental() {
+        test(FileType.PNG, "-u");
+        File[] imageFiles = new File(OUTPUT_DIR).listFiles(FileType.PNG.getFilter());
+        for (File file : imageFiles) {
+            file.setLastModified(0);
+        }
+        // unchanged sources should not be imaged again
+        test(FileType.PNG, "-u");
+        for (File file : imageFiles) {
+            Assert.assertEquals(0, file.lastModified());
+        }
+        // missing images should be made anyway
+        imageFiles[0].delete();
+        test(FileType.PNG, "-u", "-pool", "2");
+        Assert.assertTrue(imageFiles[0].lastModified() > 0);
+        Assert.assertEquals(0, imageFiles[1].lastModified());
+    }
+
+    private void test(FileType type, String... options) {
         new File(OUTPUT_DIR).mkdir();
+        List<String> args = new ArrayList<String>(Arrays.asList(options));
+        args.addAll(Arrays.asList("-f", type.getExtension().substring(1), "-v", "0", TEST_DIR,
+            OUTPUT_DIR));
         try {
-            Imager.execute(new String[] {"-f", type.getExtension().substring(1), "-v", "0",
-                TEST_DIR, OUTPUT_DIR});
+            Imager.execute(args.toArray(new String[args.size()]));
         } catch (Exception exc) {
             exc.printStackTrace();
             Assert.fail(exc.getMessage());
         }
         Set<String> imageFiles = new TreeSet<String>();
-        for (File file : new File(OUTPUT_DIR).listFiles()) {
+        for (File file : new File(OUTPUT_DIR).listFiles(type.getFilter())) {
             imageFiles.add(type.stripExtension(file.getName()));
         }
         Assert.assertEquals(this.graphFiles, imageFiles);
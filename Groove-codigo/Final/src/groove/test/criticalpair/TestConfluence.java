@@ -16,6 +16,7 @@
  */
 package groove.test.criticalpair;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import groove.grammar.Grammar;
 import groove.grammar.model.GrammarModel;
@@ -104,6 +105,49 @@ public class TestConfluence {
         assertTrue(result.getStatus() == expected);
     }
 
+    @Test
+    public void testParallelAnalysis() {
+        String[] grammarStrs =
+            {"junit/criticalpair/phil.gps/", "junit/criticalpair/phil-getBoth.gps/",
+                "junit/criticalpair/basic.gps/"};
+        boolean parallel = ConfluenceResult.isParallel();
+        try {
+            for (String grammarStr : grammarStrs) {
+                for (boolean alternateMethod : new boolean[] {false, true}) {
+                    ConfluenceResult.setParallel(false);
+                    ConfluenceResult expected =
+                        ConfluenceResult.checkStrictlyConfluent(loadGrammar(grammarStr),
+                            ConfluenceStatus.UNTESTED, alternateMethod);
+                    expected.analyzeAll();
+                    ConfluenceResult.setParallel(true);
+                    ConfluenceResult result =
+                        ConfluenceResult.checkStrictlyConfluent(loadGrammar(grammarStr),
+                            ConfluenceStatus.UNTESTED, alternateMethod);
+                    result.analyzeAll();
+                    assertEquals(expected.getStatus(), result.getStatus());
+                    assertEquals(expected.getNonConfluentPairs().size(),
+                        result.getNonConfluentPairs().size());
+                    assertEquals(expected.getUndecidedPairs().size(),
+                        result.getUndecidedPairs().size());
+                }
+            }
+        } finally {
+            ConfluenceResult.setParallel(parallel);
+        }
+    }
+
+    private Grammar loadGrammar(String grammarStr) {
+        Grammar grammar = null;
+        try {
+            grammar = GrammarModel.newInstance(new File(grammarStr), false).toGrammar();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (FormatException e) {
+            e.printStackTrace();
+        }
+        return grammar;
+    }
+
     /**
      * The test below fails, this is because the theory for efficient confluence analysis is not applicable
      * The problem is that some transformations are not pushouts
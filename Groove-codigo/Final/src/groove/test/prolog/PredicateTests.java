@@ -16,15 +16,20 @@
  */
 package groove.test.prolog;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import groove.explore.Exploration;
 import groove.grammar.model.GrammarModel;
 import groove.lts.GTS;
+import groove.lts.GraphState;
 import groove.prolog.GrooveState;
+import groove.prolog.StateChecker;
 import groove.util.parse.FormatException;
 
+import java.util.BitSet;
+
 import org.junit.Test;
 
 /**
@@ -110,6 +115,21 @@ public class PredicateTests {
         failure("start_graph(G), graph_node(G,N), node_out_edge_set(G,N,E), length(E,1)");
         success("start_graph(G), graph_node(G,N), node_out_edge_set(G,N,E), length(E,3)");
 
+        // Test node_in_edge
+        success("start_graph(G), graph_node(G,N), node_in_edge(G,N,E), edge_target(E,N)");
+        // Test the indexed modes with a bound edge
+        success("start_graph(G), graph_edge(G,E), graph_edge(G,E)");
+        success("start_graph(G), graph_edge(G,E), edge_source(E,N), node_out_edge(G,N,E)");
+        success("start_graph(G), graph_edge(G,E), node_out_edge(G,N,E), edge_source(E,N)");
+        success("start_graph(G), graph_edge(G,E), edge_target(E,N), node_in_edge(G,N,E)");
+        success("start_graph(G), graph_edge(G,E), node_in_edge(G,N,E), edge_target(E,N)");
+        success("start_graph(G), graph_edge(G,E), edge_source(E,N), node_edge(G,N,E)");
+        success("start_graph(G), label('f',AL), graph_edge(G,E), label_edge(G,AL,E)");
+        failure("start_graph(G), label('f',AL), graph_edge(G,E), edge_label(E,'a'), label_edge(G,AL,E)");
+        // Test label_edge with label text
+        success("start_graph(G), label_edge(G,'f',E), edge_label(E,'f'), edge_role_binary(E)");
+        success("start_graph(G), label_edge(G,'a',E), edge_role_flag(E)");
+        failure("start_graph(G), label_edge(G,'g',E)");
         // Test node_self_edges
         success("start_graph(G), graph_node(G,N), node_self_edges(G,N,E), length(E,1)");
         failure("start_graph(G), graph_node(G,N), node_self_edges(G,N,E), length(E,2)");
@@ -352,6 +372,32 @@ public class PredicateTests {
         success("start_graph(G), label('num',L), node_with_attribute(G,N,L,8), is_node(N)");
     }
 
+    /**
+     * Tests the parallel evaluation of queries on all states
+     */
+    @Test
+    public void testStateChecker() {
+        checkStates("active_state(S), final_state(S)");
+        checkStates("active_state(S), state_graph(S,G), graph_edge(G,E), edge_label(E,'f')");
+        checkStates("active_state(S), graph_node_count(S,N), N > 2");
+    }
+
+    /** Compares the parallel outcome of a query on all states with the sequential one. */
+    private void checkStates(String query) {
+        try {
+            GTS gts = getGTS();
+            BitSet expected = new BitSet();
+            for (GraphState state : gts.getStates()) {
+                if (PrologTestUtil.test(new GrooveState(gts.getGrammar(), gts, state, null), query)) {
+                    expected.set(state.getNumber());
+                }
+            }
+            assertEquals(expected, new StateChecker(gts, 2).check(query));
+        } catch (Exception e) {
+            fail(e.getMessage());
+        }
+    }
+
     private void success(String predicate) {
         assertTrue(test(predicate));
     }
@@ -24,7 +24,7 @@ import org.junit.runners.Suite;
  * @version $Revision: 5479 $
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({RuleApplicationTest.class})
+@Suite.SuiteClasses({RuleApplicationTest.class, RuleDependenciesTest.class})
 public class AllRuleTests {
     // Empty by design.
 }
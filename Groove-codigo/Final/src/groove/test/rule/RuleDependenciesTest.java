@@ -0,0 +1,175 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2010 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.test.rule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import groove.grammar.Grammar;
+import groove.grammar.GrammarProperties;
+import groove.grammar.Rule;
+import groove.grammar.RuleDependencies;
+import groove.grammar.model.GrammarModel;
+import groove.util.Groove;
+import groove.util.parse.FormatException;
+
+import java.io.IOException;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the dependencies between the rules of a grammar.
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public class RuleDependenciesTest {
+    /** Location of the samples. */
+    public static final String INPUT_DIR = "junit/samples";
+
+    /** Loads the grammars used in the tests. */
+    @BeforeClass
+    public static void loadGrammar() {
+        grammar = loadGrammar("recipes", false);
+        depGrammar = loadGrammar("dependencies", false);
+        danglingGrammar = loadGrammar("dependencies", true);
+    }
+
+    /** Loads a grammar from the samples, with or without dangling edge check. */
+    private static Grammar loadGrammar(String name, boolean checkDangling) {
+        Grammar result = null;
+        try {
+            GrammarModel model = Groove.loadGrammar(INPUT_DIR + "/" + name);
+            if (checkDangling) {
+                GrammarProperties properties = model.getProperties().clone();
+                properties.setCheckDangling(true);
+                model.setProperties(properties);
+            }
+            result = model.toGrammar();
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (FormatException e) {
+            fail(e.getMessage());
+        }
+        return result;
+    }
+
+    /** Tests that the dependencies are cached in the grammar. */
+    @Test
+    public void testCaching() {
+        assertSame(grammar.getDependencies(), grammar.getDependencies());
+    }
+
+    /**
+     * Tests that rules testing for the same label on nodes of
+     * unrelated types do not depend on one another.
+     */
+    @Test
+    public void testNodeTypes() {
+        RuleDependencies deps = grammar.getDependencies();
+        Rule newA = grammar.getRule("newA");
+        Rule delA = grammar.getRule("delA");
+        Rule delB = grammar.getRule("delB");
+        assertTrue(deps.getEnableds(newA).contains(delA));
+        assertTrue(deps.getDisableds(newA).contains(newA));
+        assertFalse(deps.getEnableds(newA).contains(delB));
+        assertFalse(deps.getDisableds(newA).contains(delB));
+        assertFalse(deps.getDisableds(delA).contains(grammar.getRule("newB")));
+    }
+
+    /**
+     * Tests the dependencies of a rule with a negative application condition.
+     * Only flags created on nodes the condition may be about disable the rule;
+     * deleting the flag enables it other than by producing elements.
+     */
+    @Test
+    public void testNAC() {
+        RuleDependencies deps = depGrammar.getDependencies();
+        Rule noFlag = depGrammar.getRule("noFlag");
+        assertTrue(deps.getDisableds(depGrammar.getRule("addFlag")).contains(noFlag));
+        assertFalse(deps.getDisableds(depGrammar.getRule("addFlagB")).contains(noFlag));
+        Rule delFlag = depGrammar.getRule("delFlag");
+        assertTrue(deps.getEnableds(delFlag).contains(noFlag));
+        assertTrue(deps.getIndirectEnableds(delFlag).contains(noFlag));
+        assertFalse(deps.getIndirectEnableds(depGrammar.getRule("addFlag")).contains(noFlag));
+        assertTrue(noFlag.isSeedable());
+        assertEquals(1, noFlag.getSeedNodes().size());
+    }
+
+    /**
+     * Tests the dependencies of rules with constants in the left hand side.
+     * Creating an edge to one constant does not enable a rule that tests
+     * for an edge to another.
+     */
+    @Test
+    public void testConstants() {
+        RuleDependencies deps = depGrammar.getDependencies();
+        Rule setOne = depGrammar.getRule("setOne");
+        Rule hasOne = depGrammar.getRule("hasOne");
+        Rule hasTwo = depGrammar.getRule("hasTwo");
+        assertTrue(deps.getEnableds(setOne).contains(hasOne));
+        assertFalse(deps.getEnableds(setOne).contains(hasTwo));
+        assertFalse(deps.getIndirectEnableds(setOne).contains(hasOne));
+        // the value nodes are not seed nodes
+        for (Rule rule : new Rule[] {hasOne, hasTwo}) {
+            assertTrue(rule.isSeedable());
+            assertEquals(1, rule.getSeedNodes().size());
+        }
+    }
+
+    /**
+     * Tests the dependencies of rules that delete nodes with incident edges.
+     * Without dangling edge check, the incident edges are deleted along with the node;
+     * with the check, creating or deleting incident edges affects the deleting rule.
+     */
+    @Test
+    public void testDanglingEdges() {
+        RuleDependencies deps = depGrammar.getDependencies();
+        Rule delA = depGrammar.getRule("delA");
+        Rule delB = depGrammar.getRule("delB");
+        assertTrue(deps.getDisableds(delA).contains(depGrammar.getRule("hasLink")));
+        assertTrue(deps.getDisableds(delA).contains(depGrammar.getRule("noFlag")));
+        assertTrue(deps.getDisableds(delB).contains(depGrammar.getRule("hasLink")));
+        assertFalse(deps.getDisableds(delB).contains(depGrammar.getRule("noFlag")));
+        assertFalse(deps.getDisableds(delB).contains(depGrammar.getRule("hasOne")));
+        assertTrue(delA.isSeedable());
+
+        deps = danglingGrammar.getDependencies();
+        delA = danglingGrammar.getRule("delA");
+        delB = danglingGrammar.getRule("delB");
+        Rule addLink = danglingGrammar.getRule("addLink");
+        assertTrue(deps.getDisableds(addLink).contains(delA));
+        assertTrue(deps.getDisableds(addLink).contains(delB));
+        assertTrue(deps.getIndirectEnableds(danglingGrammar.getRule("delLink")).contains(delA));
+        // the flag is declared on a supertype of the deleted node
+        Rule addFlag = danglingGrammar.getRule("addFlag");
+        assertTrue(deps.getDisableds(addFlag).contains(delA));
+        assertFalse(deps.getDisableds(addFlag).contains(delB));
+        assertTrue(deps.getDisableds(danglingGrammar.getRule("addFlagB")).contains(delB));
+        assertTrue(deps.getIndirectEnableds(danglingGrammar.getRule("delFlag")).contains(delA));
+        // nodes with a value edge cannot be deleted
+        assertTrue(deps.getDisableds(danglingGrammar.getRule("setOne")).contains(delA));
+        assertFalse(deps.getDisableds(delA).contains(danglingGrammar.getRule("hasOne")));
+        assertTrue(delA.isSeedable());
+    }
+
+    private static Grammar grammar;
+    private static Grammar depGrammar;
+    private static Grammar danglingGrammar;
+}
@@ -22,6 +22,7 @@ import groove.explore.Exploration;
 import groove.grammar.model.GrammarModel;
 import groove.grammar.model.ResourceKind;
 import groove.lts.GTS;
+import groove.lts.GraphState;
 import groove.util.Groove;
 import junit.framework.Assert;
 
@@ -78,6 +79,11 @@ public class DynamicConstraintTest {
             assertEquals(nodeCount, lts.nodeCount());
             assertEquals(edgeCount, lts.edgeCount());
             assertEquals(errorCount, lts.getErrorStateCount());
+            // the incremental checks during exploration should agree with a full check
+            for (GraphState state : lts.getStates()) {
+                boolean violated = !state.getGraph().checkTypeConstraints().isEmpty();
+                assertEquals(violated, state.isError());
+            }
         } catch (Exception exc) {
             exc.printStackTrace();
             Assert.fail(exc.toString());
@@ -23,7 +23,8 @@ import org.junit.runners.Suite;
  * @author Eduardo Zambon
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({CTLTest.class, LTLTest.class, FormulaTest.class, LTL2BuchiGraphTest.class})
+@Suite.SuiteClasses({CTLTest.class, LTLTest.class, FormulaTest.class, LTL2BuchiGraphTest.class,
+    MinimiserTest.class})
 public class AllVerifyTests {
     // Empty by design.
 }
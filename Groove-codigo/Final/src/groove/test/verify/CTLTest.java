@@ -18,15 +18,19 @@
 package groove.test.verify;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import groove.explore.ExploreResult;
 import groove.explore.Generator;
 import groove.explore.util.LTSLabels;
 import groove.graph.Graph;
+import groove.graph.Node;
 import groove.util.Groove;
 import groove.verify.CTLMarker;
 import groove.verify.CTLModelChecker;
+import groove.verify.CompactModel;
 import groove.verify.Formula;
+import groove.verify.Minimiser;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -90,6 +94,16 @@ public class CTLTest {
         testFormula("EF $result", 2);
     }
 
+    /** Test on a model that is reduced by bisimulation minimisation. */
+    @Test
+    public void testFerryman() {
+        setGTS("ferryman", null);
+        assertTrue(this.minimiser.getBlockCount() < this.compactModel.nodeCount());
+        testFormula("EF eat", 80);
+        testFormula("AG !load", 0);
+        testFormula("A(!eat U unload)", 42);
+    }
+
     /** Sets the GTS to a given grammar in the JUnit samples. */
     private void setGTS(String grammarName, String startGraphName, String... otherArgs) {
         try {
@@ -111,6 +125,11 @@ public class CTLTest {
             this.result = generator.start();
             this.gtsGraph = Groove.loadGraph(tmp);
             tmp.delete();
+            File compact = File.createTempFile("gts-" + grammarName, ".glts");
+            CompactModel.save(this.result, compact);
+            this.compactModel = CompactModel.load(compact);
+            this.minimiser = new Minimiser(this.compactModel);
+            compact.delete();
         } catch (Exception e) {
             e.printStackTrace();
             Assert.fail(e.getMessage());
@@ -128,6 +147,16 @@ public class CTLTest {
             marker =
                 new CTLMarker(property, CTLModelChecker.newModel(this.gtsGraph, this.ltsLabels));
             assertEquals(stateCount, marker.getCount(true));
+            marker = new CTLMarker(property, this.compactModel);
+            assertEquals(stateCount, marker.getCount(true));
+            // bisimilar states satisfy the same formulas
+            CompactModel quotient = this.minimiser.getQuotient();
+            CTLMarker quotientMarker = new CTLMarker(property, quotient);
+            for (int state = 0; state < this.compactModel.nodeCount(); state++) {
+                Node block = quotient.getNode(this.minimiser.getBlock(state));
+                assertEquals(marker.hasValue(this.compactModel.getNode(state), true),
+                    quotientMarker.hasValue(block, true));
+            }
         } catch (Exception efe) {
             fail(efe.getMessage());
         }
@@ -137,4 +166,6 @@ public class CTLTest {
     private ExploreResult result;
     private LTSLabels ltsLabels;
     private Graph gtsGraph;
+    private CompactModel compactModel;
+    private Minimiser minimiser;
 }
@@ -0,0 +1,114 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.test.verify;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import groove.explore.util.LTSLabels.Flag;
+import groove.verify.CompactModel;
+import groove.verify.Minimiser;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * Tests the bisimulation minimisation of compact models.
+ * @version $Revision $
+ */
+public class MinimiserTest {
+    /**
+     * Tests a hand-built model with known bisimilarity classes:
+     * {0}, {1, 2}, {3, 4}, {5}, {6} and the cycles {7, 8, 9}.
+     * States 3 and 4 are final; state 5 is a non-final deadlock,
+     * which distinguishes 6 from 1 and 2.
+     */
+    @Test
+    public void testClasses() {
+        byte start = CompactModel.START_MASK;
+        byte fin = CompactModel.FINAL_MASK;
+        CompactModel model =
+            new CompactModel(new String[] {"a", "b", "c", "d"}, new byte[] {start, 0, 0, fin,
+                fin, 0, 0, 0, 0, 0}, new int[] {0, 5, 6, 7, 7, 7, 7, 8, 9, 10, 11}, new int[] {1,
+                2, 6, 7, 8, 3, 4, 5, 7, 9, 8}, new int[] {0, 0, 0, 2, 2, 1, 1, 1, 3, 3, 3});
+        Minimiser minimiser = new Minimiser(model);
+        assertEquals(6, minimiser.getBlockCount());
+        // classes are numbered in the order of their smallest states
+        int[] expected = {0, 1, 1, 2, 2, 3, 4, 5, 5, 5};
+        for (int state = 0; state < expected.length; state++) {
+            assertEquals(expected[state], minimiser.getBlock(state));
+        }
+
+        CompactModel quotient = minimiser.getQuotient();
+        assertEquals(6, quotient.nodeCount());
+        // the three a- and c-transitions of state 0 collapse to distinct label/target pairs
+        assertEquals(6, quotient.getTransitionCount());
+        String[] expectedTransitions =
+            {"a->1 a->4 c->5", "b->2", "", "", "b->3", "d->5"};
+        for (int block = 0; block < quotient.nodeCount(); block++) {
+            assertEquals(expectedTransitions[block], getTransitions(quotient, block));
+            assertEquals(block == 0, quotient.isSpecial(block, Flag.START));
+            assertEquals(block == 2, quotient.isSpecial(block, Flag.FINAL));
+        }
+
+        // the quotient is minimal
+        assertEquals(6, new Minimiser(quotient).getBlockCount());
+    }
+
+    /** Tests that states with different flags are never merged. */
+    @Test
+    public void testFlags() {
+        byte start = CompactModel.START_MASK;
+        byte open = CompactModel.OPEN_MASK;
+        byte result = CompactModel.RESULT_MASK;
+        // 0 -a-> 1, 0 -a-> 2, 0 -a-> 3; all successors are deadlocks
+        CompactModel model =
+            new CompactModel(new String[] {"a"}, new byte[] {start, open, result, 0}, new int[] {
+                0, 3, 3, 3, 3}, new int[] {1, 2, 3}, new int[] {0, 0, 0});
+        Minimiser minimiser = new Minimiser(model);
+        assertEquals(4, minimiser.getBlockCount());
+        for (int state = 1; state < 4; state++) {
+            assertFalse(minimiser.getBlock(state) == minimiser.getBlock(0));
+        }
+        // without the flags, the successors are bisimilar
+        model =
+            new CompactModel(new String[] {"a"}, new byte[] {start, 0, 0, 0}, new int[] {0, 3, 3,
+                3, 3}, new int[] {1, 2, 3}, new int[] {0, 0, 0});
+        minimiser = new Minimiser(model);
+        assertEquals(2, minimiser.getBlockCount());
+        assertTrue(minimiser.getBlock(1) == minimiser.getBlock(3));
+    }
+
+    /** Returns a sorted description of the outgoing transitions of a state. */
+    private String getTransitions(CompactModel model, int state) {
+        Set<String> result = new TreeSet<String>();
+        int last = model.getFirstTransition(state + 1);
+        for (int trans = model.getFirstTransition(state); trans < last; trans++) {
+            result.add(model.getLabelText(model.getLabel(trans)) + "->" + model.getTarget(trans));
+        }
+        StringBuilder text = new StringBuilder();
+        for (String transition : result) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(transition);
+        }
+        return text.toString();
+    }
+}
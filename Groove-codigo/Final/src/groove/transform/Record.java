@@ -91,8 +91,9 @@ public class Record {
     /**
      * Returns a "normal" event representing a given event. If
      * {@link #getReuse()} is set, events are stored internally and reused.
+     * Synchronised, as events may be created during parallel matching.
      */
-    public RuleEvent normaliseEvent(RuleEvent event) {
+    public synchronized RuleEvent normaliseEvent(RuleEvent event) {
         RuleEvent result;
         if (getReuse() == EVENT && event instanceof AbstractRuleEvent<?,?>) {
             result = this.eventMap.put((AbstractRuleEvent<?,?>) event);
@@ -144,6 +145,17 @@ public class Record {
         return getDependencies().getEnableds(enabler);
     }
 
+    /**
+     * Returns the set of rules that may be enabled by a given rule other than
+     * through the elements it produces, according to the currently calculated dependencies.
+     * @param enabler the (potential) enabler rule
+     * @return the subset of {@link #getEnabledRules(Rule)} that may be
+     * enabled by <code>enabler</code> without involving the elements it produces
+     */
+    public Set<Rule> getIndirectlyEnabledRules(Rule enabler) {
+        return getDependencies().getIndirectEnableds(enabler);
+    }
+
     /**
      * Returns the set of rules that may be disabled by a given rule, according
      * to the currently calculated dependencies.
@@ -158,19 +170,12 @@ public class Record {
     }
 
     /**
-     * Initialises the rule dependencies.
+     * Returns the rule dependencies, which are cached in the grammar.
      */
     protected RuleDependencies getDependencies() {
-        if (this.dependencies == null) {
-            this.dependencies = new RuleDependencies(getGrammar());
-        }
-        return this.dependencies;
+        return getGrammar().getDependencies();
     }
 
-    /**
-     * Rule dependencies of the rule system.
-     */
-    private RuleDependencies dependencies;
     /**
      * Identity map for events that have been encountered during exploration.
      * Events are stored only if {@link #getReuse()} is set.
@@ -319,4 +324,30 @@ public class Record {
      * as in the simulator. This means the copyGraphs should never be disabled.
      */
     private boolean randomAccess = false;
+
+    /**
+     * Changes the state pruning property.
+     * @see #isPruning()
+     */
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    /**
+     * Indicates that the GTS is only used as a set of visited states,
+     * and is not itself analysed or saved as an LTS. A fresh state that
+     * is found to be known may then be pruned, meaning that no transition
+     * to it is added at all. This is required for bit-state hashing,
+     * which cannot determine to which known state a fresh state corresponds.
+     * @return <code>true</code> if fresh states may be pruned
+     */
+    public boolean isPruning() {
+        return this.pruning;
+    }
+
+    /**
+     * Flag indicating that fresh states may be pruned rather than
+     * identified with known states. Default value is <code>false</code>.
+     */
+    private boolean pruning = false;
 }
@@ -279,6 +279,7 @@ public class Transformer {
      */
     private GTS getFreshGTS(Grammar grammar) throws FormatException {
         GTS result = createGTS(grammar);
+        result.getRecord().setPruning(isPruning());
         this.gts = result;
         return result;
     }
@@ -314,12 +315,12 @@ public class Transformer {
         if (result == null) {
             result = new Exploration();
         }
-        boolean rebuild = hasStrategy() || hasAcceptor() || hasResultCount();
+        boolean rebuild = hasStrategy() || hasAcceptor() || hasResultCount() || isDistinct();
         if (rebuild) {
             Serialized strategy = hasStrategy() ? getStrategy() : result.getStrategy();
             Serialized acceptor = hasAcceptor() ? getAcceptor() : result.getAcceptor();
             int resultCount = hasResultCount() ? getResultCount() : result.getBound();
-            result = new Exploration(strategy, acceptor, resultCount);
+            result = new Exploration(strategy, acceptor, resultCount, isDistinct());
         }
         for (ExplorationListener listener : getListeners()) {
             result.addListener(listener);
@@ -412,6 +413,36 @@ public class Transformer {
         return getResultCount() != 0;
     }
 
+    /**
+     * Sets the next exploration to only count results that are distinct
+     * up to isomorphism, even if the GTS does not collapse isomorphic states.
+     */
+    public void setDistinct(boolean distinct) {
+        this.distinct = distinct;
+        // reset the exploration, so that it will be regenerated
+        this.exploration = null;
+    }
+
+    /** Indicates if the next exploration only counts results that are distinct up to isomorphism. */
+    private boolean isDistinct() {
+        return this.distinct;
+    }
+
+    /**
+     * Sets the GTS of the next exploration to prune states that it finds to be known,
+     * rather than adding transitions to them. This should only be set if the GTS
+     * will not be saved or analysed as an LTS.
+     * @see Record#isPruning()
+     */
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    /** Indicates if the GTS of the next exploration may prune known states. */
+    private boolean isPruning() {
+        return this.pruning;
+    }
+
     /** Adds a listener for the subsequent explorations. */
     public void addListener(ExplorationListener listener) {
         this.gtsListeners.add(listener);
@@ -439,4 +470,6 @@ public class Transformer {
     private Serialized strategy;
     private Serialized acceptor;
     private int resultCount;
+    private boolean distinct;
+    private boolean pruning;
 }
@@ -34,9 +34,11 @@ import groove.transform.RuleEvent;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -52,6 +54,14 @@ class ConfluenceAnalyzer {
 
     private static IsoChecker isoChecker = IsoChecker.getInstance(true);
 
+    /**
+     * Returns the certificate of the host graph of a given state.
+     * States that are confluent have isomorphic host graphs, and hence equal certificates.
+     */
+    static Object getCertificate(HostGraphWithMorphism state) {
+        return isoChecker.getCertifier(state.getHostGraph(), true).getGraphCertificate();
+    }
+
     /**
      * Checks if the given CriticalPair is strictly locally confluent
      * Strict local confluence means that the pair of direct transformations is locally
@@ -84,10 +94,10 @@ class ConfluenceAnalyzer {
      */
     private static ConfluentPair getConfluentPair(CriticalPair pair, Grammar grammar,
             int searchDepth) {
-        Set<HostGraphWithMorphism> oldStates1 = new HashSet<HostGraphWithMorphism>();
-        Set<HostGraphWithMorphism> oldStates2 = new HashSet<HostGraphWithMorphism>();
-        Set<HostGraphWithMorphism> newStates1 = new HashSet<HostGraphWithMorphism>();
-        Set<HostGraphWithMorphism> newStates2 = new HashSet<HostGraphWithMorphism>();
+        CertifiedStateSet oldStates1 = new CertifiedStateSet();
+        CertifiedStateSet oldStates2 = new CertifiedStateSet();
+        CertifiedStateSet newStates1 = new CertifiedStateSet();
+        CertifiedStateSet newStates2 = new CertifiedStateSet();
 
         RuleApplication app1 = pair.getRuleApplication1();
         RuleApplication app2 = pair.getRuleApplication2();
@@ -111,19 +121,21 @@ class ConfluenceAnalyzer {
             oldStates2.addAll(newStates2);
 
             //create the sets of next states
-            Set<HostGraphWithMorphism> nextStates1 = computeNewStates(newStates1, grammar);
+            List<HostGraphWithMorphism> nextStates1 = computeNewStates(newStates1, grammar);
             HostGraphWithMorphism confluentState = getConfluentState(nextStates1, oldStates2);
             if (confluentState != null) {
                 pair.setStrictlyConfluent(ConfluenceStatus.STRICTLY_CONFLUENT, grammar);
                 return new ConfluentPair(pair, confluentState);
             }
-            Set<HostGraphWithMorphism> nextStates2 = computeNewStates(newStates2, grammar);
-            confluentState = getConfluentState(nextStates1, nextStates2);
+            List<HostGraphWithMorphism> nextStates2 = computeNewStates(newStates2, grammar);
+            CertifiedStateSet nextStateSet2 = new CertifiedStateSet();
+            nextStateSet2.addAll(nextStates2);
+            confluentState = getConfluentState(nextStates1, nextStateSet2);
             if (confluentState != null) {
                 pair.setStrictlyConfluent(ConfluenceStatus.STRICTLY_CONFLUENT, grammar);
                 return new ConfluentPair(pair, confluentState);
             } else {
-                confluentState = getConfluentState(oldStates1, nextStates2);
+                confluentState = getConfluentState(oldStates1, nextStateSet2);
                 if (confluentState != null) {
                     pair.setStrictlyConfluent(ConfluenceStatus.STRICTLY_CONFLUENT, grammar);
                     return new ConfluentPair(pair, confluentState);
@@ -132,34 +144,24 @@ class ConfluenceAnalyzer {
             //no evidence for confluence has been found, we continue the search
 
             //It is possible that nextStates1 or nextStates2 contains a state that is similar to one of the states
-            //we have already visited, check this
-            Iterator<HostGraphWithMorphism> stateIt = nextStates1.iterator();
-            while (stateIt.hasNext()) {
-                HostGraphWithMorphism current = stateIt.next();
-                for (HostGraphWithMorphism oldState : oldStates1) {
-                    //if the state is confluent with a state we have already discovered, then the states are isomorphic
-                    //this means we can remove it from nextStates because it is not actually a new state
-                    if (isConfluent(current, oldState)) {
-                        stateIt.remove();
-                        break;
-                    }
+            //we have already visited (or to another next state); such a state is not actually new.
+            //Only states with the same graph certificate can be similar, so we only compare those
+            newStates1 = new CertifiedStateSet();
+            for (HostGraphWithMorphism current : nextStates1) {
+                if (oldStates1.getConfluentState(current) == null
+                    && newStates1.getConfluentState(current) == null) {
+                    newStates1.add(current);
                 }
             }
             //repeat for nextStates2
-            stateIt = nextStates2.iterator();
-            while (stateIt.hasNext()) {
-                HostGraphWithMorphism current = stateIt.next();
-                for (HostGraphWithMorphism oldState : oldStates2) {
-                    if (isConfluent(current, oldState)) {
-                        stateIt.remove();
-                        break;
-                    }
+            newStates2 = new CertifiedStateSet();
+            for (HostGraphWithMorphism current : nextStates2) {
+                if (oldStates2.getConfluentState(current) == null
+                    && newStates2.getConfluentState(current) == null) {
+                    newStates2.add(current);
                 }
             }
 
-            newStates1 = nextStates1;
-            newStates2 = nextStates2;
-
             if (oldStates1.size() + oldStates2.size() > searchDepth) {
                 pair.setStrictlyConfluent(ConfluenceStatus.UNDECIDED, grammar);
                 return null;
@@ -174,12 +176,12 @@ class ConfluenceAnalyzer {
      * For every element of states compute all possible rule applications
      * @param states the states for which the next states will be computed
      * @param grammar the grammar which contains the rules which can be applied 
-     * @return A set of HostGraphWithMorphism states which can be reached in a single step from an element of "states"
+     * @return A list of HostGraphWithMorphism states which can be reached in a single step from an element of "states"
      */
-    private static Set<HostGraphWithMorphism> computeNewStates(Set<HostGraphWithMorphism> states,
-            Grammar grammar) {
+    private static List<HostGraphWithMorphism> computeNewStates(
+            Iterable<HostGraphWithMorphism> states, Grammar grammar) {
         Set<Rule> rules = grammar.getAllRules();
-        Set<HostGraphWithMorphism> result = new HashSet<HostGraphWithMorphism>();
+        List<HostGraphWithMorphism> result = new ArrayList<HostGraphWithMorphism>();
         for (HostGraphWithMorphism state : states) {
             Record record = new Record(grammar, state.getHostGraph().getFactory());
             for (Rule rule : rules) {
@@ -200,13 +202,11 @@ class ConfluenceAnalyzer {
      * @return a if there exists a pair (a, b) such that isConfluent(a,b)
      * If no such pair exists then null will be returned
      */
-    private static HostGraphWithMorphism getConfluentState(Set<HostGraphWithMorphism> first,
-            Set<HostGraphWithMorphism> second) {
+    private static HostGraphWithMorphism getConfluentState(Iterable<HostGraphWithMorphism> first,
+            CertifiedStateSet second) {
         for (HostGraphWithMorphism hwm1 : first) {
-            for (HostGraphWithMorphism hwm2 : second) {
-                if (isConfluent(hwm1, hwm2)) {
-                    return hwm1;
-                }
+            if (second.getConfluentState(hwm1) != null) {
+                return hwm1;
             }
         }
         return null;
@@ -217,7 +217,7 @@ class ConfluenceAnalyzer {
      * @return true if and only if there exists an isomorphism iso from hwm1.getHostGraph() to hwm2.getHostGraph()
      * such that hwm1.getMorphism().then(iso) equals hwm2.getMorphism() (i.e., the morphisms commute)
      */
-    private static boolean isConfluent(HostGraphWithMorphism hwm1, HostGraphWithMorphism hwm2) {
+    static boolean isConfluent(HostGraphWithMorphism hwm1, HostGraphWithMorphism hwm2) {
 
         if (hwm1.getMorphism().nodeMap().size() != hwm2.getMorphism().nodeMap().size()
             || hwm1.getMorphism().edgeMap().size() != hwm2.getMorphism().edgeMap().size()) {
@@ -479,3 +479,63 @@ class ConfluentPair {
         return this.confluentState;
     }
 }
+
+/**
+ * Set of HostGraphWithMorphism states, indexed by the certificates of their host graphs.
+ * This allows to look up confluent states without comparing a state to all elements of the set
+ * 
+ * @author Arend Rensink
+ */
+class CertifiedStateSet implements Iterable<HostGraphWithMorphism> {
+    //the states in the order in which they were added
+    private final List<HostGraphWithMorphism> states = new ArrayList<HostGraphWithMorphism>();
+    //the states, bucketed by their certificates
+    private final Map<Object,List<HostGraphWithMorphism>> certMap =
+        new HashMap<Object,List<HostGraphWithMorphism>>();
+
+    void add(HostGraphWithMorphism state) {
+        Object cert = ConfluenceAnalyzer.getCertificate(state);
+        List<HostGraphWithMorphism> bucket = this.certMap.get(cert);
+        if (bucket == null) {
+            this.certMap.put(cert, bucket = new ArrayList<HostGraphWithMorphism>(1));
+        }
+        bucket.add(state);
+        this.states.add(state);
+    }
+
+    void addAll(Iterable<HostGraphWithMorphism> states) {
+        for (HostGraphWithMorphism state : states) {
+            add(state);
+        }
+    }
+
+    /**
+     * Returns a state in this set with which the given state is confluent
+     * (in the sense of {@link ConfluenceAnalyzer#isConfluent}), or null if there is no such state
+     */
+    HostGraphWithMorphism getConfluentState(HostGraphWithMorphism state) {
+        List<HostGraphWithMorphism> bucket =
+            this.certMap.get(ConfluenceAnalyzer.getCertificate(state));
+        if (bucket != null) {
+            for (HostGraphWithMorphism candidate : bucket) {
+                if (ConfluenceAnalyzer.isConfluent(state, candidate)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    boolean isEmpty() {
+        return this.states.isEmpty();
+    }
+
+    int size() {
+        return this.states.size();
+    }
+
+    @Override
+    public Iterator<HostGraphWithMorphism> iterator() {
+        return this.states.iterator();
+    }
+}
@@ -18,10 +18,15 @@ package groove.transform.criticalpair;
 
 import groove.grammar.Grammar;
 import groove.grammar.Rule;
+import groove.match.MatcherFactory;
+import groove.util.ThreadPool;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Utility class which allows checking whether a graph transformation system (grammar without hostgraph)
@@ -185,26 +190,25 @@ public class ConfluenceResult {
     }
 
     /**
-     * Analyse all critical pairs in the grammar
+     * Analyse all critical pairs in the grammar.
+     * If concurrent analysis is possible (see {@link #isConcurrent()}), then the
+     * critical pairs of different pairs of rules are computed and analysed in parallel,
+     * in the global {@link ThreadPool}; the results are collected in the order of the rule pairs
      */
     public void analyzeAll() {
+        boolean analysed = isConcurrent();
+        if (analysed) {
+            analyzeConcurrently();
+        }
         Iterator<Set<CriticalPair>> setIt = this.untestedPairs.setIterator();
         while (setIt.hasNext()) {
             Set<CriticalPair> pairSet = setIt.next();
-            if (this.alternateMethod) {
-                ConfluenceAnalyzer.analysePairSet(pairSet, this.grammar);
-                for (CriticalPair pair : pairSet) {
-                    //the confluenceStatus will not be computed again
-                    updateStatus(pair);
-                }
-            } else {
-                Iterator<CriticalPair> pairIt = pairSet.iterator();
-                while (pairIt.hasNext()) {
-                    CriticalPair pair = pairIt.next();
-                    updateStatus(pair);
-                    //remove the pair from the untested set
-                    pairIt.remove();
-                }
+            if (!analysed) {
+                analyze(pairSet);
+            }
+            for (CriticalPair pair : pairSet) {
+                //the confluenceStatus will not be computed again
+                updateStatus(pair);
             }
             //remove all pairs in the set from the setIterator
             setIt.remove();
@@ -216,6 +220,45 @@ public class ConfluenceResult {
         }
     }
 
+    /**
+     * Computes and analyses the critical pairs of all pairs of rules in parallel.
+     * The status of the analysed pairs is stored in the pairs themselves, but
+     * this.status and the sets of undecided and nonconfluent pairs are not yet updated
+     */
+    private void analyzeConcurrently() {
+        this.untestedPairs.computeAllPairs();
+        List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+        Iterator<Set<CriticalPair>> setIt = this.untestedPairs.setIterator();
+        while (setIt.hasNext()) {
+            final Set<CriticalPair> pairSet = setIt.next();
+            if (!pairSet.isEmpty()) {
+                tasks.add(ThreadPool.instance().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        analyze(pairSet);
+                    }
+                }));
+            }
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * Analyses a set of critical pairs for the same pair of rules,
+     * storing the result in the critical pairs.
+     */
+    private void analyze(Set<CriticalPair> pairSet) {
+        if (this.alternateMethod) {
+            ConfluenceAnalyzer.analysePairSet(pairSet, this.grammar);
+        } else {
+            for (CriticalPair pair : pairSet) {
+                pair.getStrictlyConfluent(this.grammar);
+            }
+        }
+    }
+
     /**
      * Updates the set of undecidedPairs and nonConfluentPairs
      */
@@ -267,4 +310,28 @@ public class ConfluenceResult {
         }
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Indicates if the analysis of all critical pairs can be done concurrently.
+     * This is the case if parallel analysis is enabled, the global {@link ThreadPool}
+     * has more than one thread and the current search engine is thread-safe.
+     * @see #setParallel(boolean)
+     */
+    static boolean isConcurrent() {
+        return isParallel() && ThreadPool.instance().isParallel()
+            && MatcherFactory.instance().getEngine().isConcurrent();
+    }
+
+    /** Enables or disables parallel analysis of the pairs of rules. */
+    public static void setParallel(boolean parallel) {
+        ConfluenceResult.parallel = parallel;
+    }
+
+    /** Indicates whether parallel analysis is enabled. */
+    public static boolean isParallel() {
+        return parallel;
+    }
+
+    /** Flag indicating that parallel analysis is enabled. */
+    private static volatile boolean parallel = true;
+}
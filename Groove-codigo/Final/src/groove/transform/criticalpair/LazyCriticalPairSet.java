@@ -17,6 +17,7 @@
 package groove.transform.criticalpair;
 
 import groove.grammar.Rule;
+import groove.util.ThreadPool;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -28,6 +29,8 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * @author Ruud Welling
@@ -104,18 +107,44 @@ class LazyCriticalPairSet implements Set<CriticalPair> {
         if (!this.ruleTuplesToProcess.remove(tuple)) {
             result = Collections.emptySet();
         } else {
-            result = CriticalPair.computeCriticalPairs(tuple.rule1, tuple.rule2);
+            LinkedHashSet<CriticalPair> pairs =
+                CriticalPair.computeCriticalPairs(tuple.rule1, tuple.rule2);
+            //Add the new pairs to the internal set
+            this.pairMap.put(tuple, pairs);
+            result = pairs;
         }
         return result;
     }
 
-    private void computeAllPairs() {
-        Iterator<RuleTuple> it = this.ruleTuplesToProcess.iterator();
-        while (it.hasNext()) {
-            RuleTuple nextTuple = it.next();
-            this.pairMap.put(nextTuple,
-                CriticalPair.computeCriticalPairs(nextTuple.rule1, nextTuple.rule2));
-            it.remove();
+    /**
+     * Computes the critical pairs for all remaining rule tuples.
+     * If concurrent analysis is possible (see {@link ConfluenceResult#isConcurrent()})
+     * then the tuples are processed in parallel, in the global {@link ThreadPool}
+     */
+    void computeAllPairs() {
+        if (this.ruleTuplesToProcess.size() > 1 && ConfluenceResult.isConcurrent()) {
+            Map<RuleTuple,ForkJoinTask<LinkedHashSet<CriticalPair>>> tasks =
+                new LinkedHashMap<RuleTuple,ForkJoinTask<LinkedHashSet<CriticalPair>>>();
+            for (final RuleTuple tuple : this.ruleTuplesToProcess) {
+                tasks.put(tuple,
+                    ThreadPool.instance().submit(new Callable<LinkedHashSet<CriticalPair>>() {
+                        @Override
+                        public LinkedHashSet<CriticalPair> call() {
+                            return CriticalPair.computeCriticalPairs(tuple.rule1, tuple.rule2);
+                        }
+                    }));
+            }
+            for (Map.Entry<RuleTuple,ForkJoinTask<LinkedHashSet<CriticalPair>>> entry : tasks.entrySet()) {
+                this.pairMap.put(entry.getKey(), entry.getValue().join());
+            }
+        } else {
+            Iterator<RuleTuple> it = this.ruleTuplesToProcess.iterator();
+            while (it.hasNext()) {
+                RuleTuple nextTuple = it.next();
+                this.pairMap.put(nextTuple,
+                    CriticalPair.computeCriticalPairs(nextTuple.rule1, nextTuple.rule2));
+                it.remove();
+            }
         }
         //make sure that there are no remaining ruleTuples
         this.ruleTuplesToProcess.clear();
@@ -48,6 +48,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class that models combinations of ruleNodes for two rules. Used for generation of critical pairs
@@ -71,13 +73,13 @@ class ParallelPair {
     private CriticalPair critPair = null;
 
     //ensures that the targets of matches are unique when this is desired
-    private static long matchTargetCounter = 0;
+    private static final AtomicLong matchTargetCounter = new AtomicLong();
     //counter to ensure that created variables are unique
-    private static int variableCounter = 0;
+    private static final AtomicInteger variableCounter = new AtomicInteger();
 
     //return an unused number which can be used to group sets of ruleNodes
     static Long getNextMatchTargetNumber() {
-        return matchTargetCounter++;
+        return matchTargetCounter.getAndIncrement();
     }
 
     public Map<Long,Set<RuleNode>> getNodeMatch1() {
@@ -278,7 +280,7 @@ class ParallelPair {
                     if (constant == null) {
                         target =
                             host.getFactory().createNode(alg,
-                                new Variable("x" + variableCounter++, varNode.getSignature()));
+                                new Variable("x" + variableCounter.getAndIncrement(), varNode.getSignature()));
                     } else {
                         target = host.getFactory().createNode(alg, constant);
                     }
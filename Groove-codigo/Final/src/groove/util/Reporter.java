@@ -19,24 +19,36 @@ package groove.util;
 import groove.util.parse.StringHandler;
 
 import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 /**
  * Class used to generate performance reports. Performance reports concern
  * number of calls made and time taken.
+ * Measurements are collected in thread-local counters, so that reporters
+ * can be used from several threads without synchronisation; the counters
+ * are only combined when the figures are queried.
+ * Reporting can be switched off by setting the system property
+ * {@value #REPORT_PROPERTY} to {@code false}; if the system property
+ * {@value #JMX_PROPERTY} is {@code true}, all reporters are exported
+ * as JMX MBeans.
  * @author Arend Rensink
  * @version $Revision: 5479 $
  */
-public class Reporter {
+public class Reporter implements ReporterMBean {
     /**
      * Constructs a new reporter, for a certain class and event name.
      * @param parent the parent reporter
      * @param name the name of the event being reported
      */
     private Reporter(Reporter parent, String name) {
-        this.parent = parent;
         this.type = parent.type;
         this.name = name;
         this.subreporters = null;
@@ -44,7 +56,6 @@ public class Reporter {
 
     /** Constructs a top-level reporter for a given class. */
     private Reporter(Class<?> type) {
-        this.parent = null;
         this.type = type;
         this.name = null;
         this.subreporters = new TreeMap<String,Reporter>();
@@ -55,34 +66,71 @@ public class Reporter {
      * @return a new index in the array of call report
      */
     public Reporter register(String name) {
-        Reporter result = this.subreporters.get(name);
-        if (result == null) {
-            this.subreporters.put(name, result = new Reporter(this, name));
+        synchronized (Reporter.class) {
+            Reporter result = this.subreporters.get(name);
+            if (result == null) {
+                this.subreporters.put(name, result = new Reporter(this, name));
+                if (JMX) {
+                    export(result);
+                }
+            }
+            return result;
         }
-        return result;
     }
 
     /**
-     * Returns the total duration of a given method according to this reporter.
+     * Returns the total duration of a given method according to this reporter,
+     * in milliseconds.
      */
     public long getTotalTime() {
-        return this.duration;
+        return getTotalNanos() / 1000000;
     }
 
     /**
      * Returns the average duration of a given method according to this
-     * reporter.
+     * reporter, in milliseconds.
      */
     public long getAverageTime() {
-        return this.duration / getCallCount();
+        return getTotalTime() / getCallCount();
     }
 
     /**
-     * Returns the average duration of a given method according to this
+     * Returns the number of calls of a given method according to this
      * reporter.
      */
+    @Override
     public int getCallCount() {
-        return this.topCount + this.nestedCount;
+        int result = 0;
+        for (Counter counter : getCounters()) {
+            result += counter.nestedCount;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of top-level (i.e., non-nested) calls of a given
+     * method according to this reporter.
+     */
+    @Override
+    public int getTopCount() {
+        int result = 0;
+        for (Counter counter : getCounters()) {
+            result += counter.topCount;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total duration of a given method according to this reporter,
+     * in nanoseconds.
+     */
+    @Override
+    public long getTotalNanos() {
+        long result = 0;
+        for (Counter counter : getCounters()) {
+            result += counter.duration;
+        }
+        return result;
     }
 
     /** Returns the type on which this reporter is based. */
@@ -90,30 +138,32 @@ public class Reporter {
         return this.type;
     }
 
+    @Override
+    public String getTypeName() {
+        return this.type.getName();
+    }
+
     /**
      * Returns the event name associated this reporter.
      */
+    @Override
     public String getName() {
         return this.name;
     }
 
     /**
      * Signals the start of a new method to be reported.
-     * @require currentNesting < MAX_NESTING
      */
-    public final synchronized void start() {
+    public final void start() {
         if (REPORT) {
-            long now = System.currentTimeMillis();
-            this.nestedCount++;
-            if (this.currentNesting == 0) {
-                this.topCount++;
+            Counter counter = this.counter.get();
+            counter.nestedCount++;
+            if (counter.nesting++ == 0) {
+                counter.topCount++;
                 if (TIME_METHODS) {
-                    this.duration -= now;
-                    this.parent.totalTime -= now;
+                    counter.startTime = System.nanoTime();
                 }
             }
-            this.currentNesting++;
-            reportTime += System.currentTimeMillis() - now;
         }
     }
 
@@ -121,17 +171,12 @@ public class Reporter {
      * Signals the restart of a method to be reported. A restart means the the
      * invocation is not counted, but the time is measured
      */
-    public final synchronized void restart() {
+    public final void restart() {
         if (REPORT) {
-            long now = System.currentTimeMillis();
-            if (this.currentNesting == 0) {
-                if (TIME_METHODS) {
-                    this.duration -= now;
-                    this.parent.totalTime -= now;
-                }
+            Counter counter = this.counter.get();
+            if (counter.nesting++ == 0 && TIME_METHODS) {
+                counter.startTime = System.nanoTime();
             }
-            this.currentNesting++;
-            reportTime += System.currentTimeMillis() - now;
         }
     }
 
@@ -139,37 +184,47 @@ public class Reporter {
      * Reports the end of the most deeply nested method.
      * @require <tt>currentNesting > 0</tt>
      */
-    public final synchronized void stop() {
+    public final void stop() {
         if (REPORT) {
-            this.currentNesting--;
-            long now = System.currentTimeMillis();
-            if (TIME_METHODS) {
-                if (this.currentNesting == 0) {
-                    this.duration += now;
-                    this.parent.totalTime += now;
-                }
+            Counter counter = this.counter.get();
+            if (--counter.nesting == 0 && TIME_METHODS) {
+                counter.duration += System.nanoTime() - counter.startTime;
             }
-            reportTime += System.currentTimeMillis() - now;
         }
     }
 
+    /** Returns a snapshot of the per-thread counters of this reporter. */
+    private Counter[] getCounters() {
+        synchronized (this.counters) {
+            return this.counters.toArray(new Counter[this.counters.size()]);
+        }
+    }
+
+    /**
+     * Returns the total time spent in the methods reported by
+     * the subreporters of this (top-level) reporter, in nanoseconds.
+     */
+    private long getClassNanos() {
+        long result = 0;
+        for (Reporter subreporter : this.subreporters.values()) {
+            result += subreporter.getTotalNanos();
+        }
+        return result;
+    }
+
     private void calculateFieldWidths() {
         // calculate the width of the required fields
         int maxTopCount = 1, maxNestedCount = 1;
         long maxTotTime = 1, maxAvgTime = 1;
         for (Reporter subreporter : this.subreporters.values()) {
+            int topCount = subreporter.getTopCount();
+            int nestedCount = subreporter.getCallCount();
+            long duration = subreporter.getTotalTime();
             this.methodNameLength = Math.max(subreporter.getName().length(), this.methodNameLength);
-            maxTopCount = Math.max(subreporter.topCount, maxTopCount);
-            maxNestedCount =
-                Math.max(subreporter.nestedCount - subreporter.topCount, maxNestedCount);
-            maxTotTime = Math.max(subreporter.duration, maxTotTime);
-            long avgDuration = 0;
-            if (TIME_TOP_ONLY) {
-                avgDuration = (1000 * subreporter.duration) / subreporter.topCount;
-            } else if (subreporter.nestedCount > 0) {
-                avgDuration = (1000 * subreporter.duration) / subreporter.nestedCount;
-            }
-            maxAvgTime = Math.max(avgDuration, maxAvgTime);
+            maxTopCount = Math.max(topCount, maxTopCount);
+            maxNestedCount = Math.max(nestedCount - topCount, maxNestedCount);
+            maxTotTime = Math.max(duration, maxTotTime);
+            maxAvgTime = Math.max(subreporter.getAverageMicros(), maxAvgTime);
         }
         double log10 = Math.log(10);
         this.topCountLength = (int) (Math.log(maxTopCount) / log10) + 1;
@@ -178,6 +233,12 @@ public class Reporter {
         this.avgTimeLength = (int) (Math.log(maxAvgTime) / log10) + 1;
     }
 
+    /** Returns the average duration of the reported method, in microseconds. */
+    private long getAverageMicros() {
+        int count = TIME_TOP_ONLY ? getTopCount() : getCallCount();
+        return count == 0 ? 0 : getTotalNanos() / (1000 * count);
+    }
+
     /**
      * Generates some reports on standard output, for the purpose of
      * optimization. Reports include:
@@ -189,51 +250,43 @@ public class Reporter {
             int nestedCountLength, int totTimeLength, int avgTimeLength) {
         out.println("Reporting " + this.type);
         for (Reporter subreporter : this.subreporters.values()) {
+            int topCount = subreporter.getTopCount();
+            int nestedCount = subreporter.getCallCount();
             out.print(INDENT + StringHandler.pad(subreporter.getName(), methodNameLength, false) + " ");
             out.print(TOP_COUNT_FIELD + "="
-                + StringHandler.pad("" + subreporter.topCount, topCountLength, false) + " ");
-            out.print(NESTED_COUNT_FIELD
-                + "="
-                + StringHandler.pad("" + (subreporter.nestedCount - subreporter.topCount),
-                    nestedCountLength, false) + " ");
+                + StringHandler.pad("" + topCount, topCountLength, false) + " ");
+            out.print(NESTED_COUNT_FIELD + "="
+                + StringHandler.pad("" + (nestedCount - topCount), nestedCountLength, false) + " ");
             if (TIME_METHODS) {
                 out.print(TOT_TIME_FIELD + "="
-                    + StringHandler.pad("" + subreporter.duration, totTimeLength, false) + " ");
-                long avgDuration;
-                if (subreporter.duration > 0) {
-                    if (TIME_TOP_ONLY) {
-                        avgDuration = (1000 * subreporter.duration) / subreporter.topCount;
-                    } else {
-                        avgDuration = (1000 * subreporter.duration) / subreporter.nestedCount;
-                    }
-                } else {
-                    avgDuration = 0;
-                }
-                out.print(AVG_TIME_FIELD + "=" + StringHandler.pad("" + avgDuration, avgTimeLength, false)
+                    + StringHandler.pad("" + subreporter.getTotalTime(), totTimeLength, false) + " ");
+                out.print(AVG_TIME_FIELD + "="
+                    + StringHandler.pad("" + subreporter.getAverageMicros(), avgTimeLength, false)
                     + " ");
             }
             out.println();
         }
     }
 
-    /** The top-level (i.e., non-nested) method call count. */
-    private int topCount;
-    /** The nested method call count. */
-    private int nestedCount;
-    /** The method call duration */
-    private long duration;
-    /** The current nesting depth. */
-    private int currentNesting;
-    /** Total time spent in the class being reported */
-    private long totalTime;
-    /** Parent reporter (if any). */
-    private Reporter parent;
     /** type for which we are reporting */
     private final Class<?> type;
     /** The name of the event being reported. */
     private final String name;
     /** Set of subreporters of this reporter. */
     private final Map<String,Reporter> subreporters;
+    /** The counters of all threads that have used this reporter. */
+    private final List<Counter> counters = new ArrayList<Counter>();
+    /** The counter of the current thread. */
+    private final ThreadLocal<Counter> counter = new ThreadLocal<Counter>() {
+        @Override
+        protected Counter initialValue() {
+            Counter result = new Counter();
+            synchronized (Reporter.this.counters) {
+                Reporter.this.counters.add(result);
+            }
+            return result;
+        }
+    };
 
     // temporary variables for report field width
     private int methodNameLength;
@@ -297,11 +350,11 @@ public class Reporter {
             out.println("Total measured time spent in");
             for (Reporter reporter : getAllReporters()) {
                 out.println(INDENT + StringHandler.pad(reporter.type.toString(), classNameLength, false)
-                    + ": " + reporter.totalTime + " ms");
+                    + ": " + reporter.getClassNanos() / 1000000 + " ms");
             }
             out.println();
 
-            // print the time spent inside the reporters, i.e., the time spent
+            // print the (estimated) time spent inside the reporters, i.e., the time spent
             // reporting
             if (TIME_METHODS) {
                 out.println("Time spent collection information: " + getReportTime() + " ms");
@@ -318,12 +371,42 @@ public class Reporter {
     }
 
     /**
-     * Returns the total time spent in measuring.
+     * Returns the (estimated) total time spent in measuring, in milliseconds.
+     * The estimate is based on the total number of calls to {@link #start()}
+     * and the cost of a single start/stop pair, as measured on the
+     * first invocation of this method.
      */
-    public static long getReportTime() {
-        return reportTime;
+    public static synchronized long getReportTime() {
+        if (!REPORT) {
+            return 0;
+        }
+        long calls = 0;
+        for (Reporter reporter : getAllReporters()) {
+            for (Reporter subreporter : reporter.subreporters.values()) {
+                calls += subreporter.getCallCount();
+            }
+        }
+        if (callNanos < 0) {
+            callNanos = measureCallNanos();
+        }
+        return (long) (calls * callNanos) / 1000000;
+    }
+
+    /** Measures the average time of a start/stop pair, in nanoseconds. */
+    private static double measureCallNanos() {
+        Reporter probe = new Reporter(new Reporter(Reporter.class), "probe");
+        int rounds = 100000;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            probe.start();
+            probe.stop();
+        }
+        return (System.nanoTime() - start) / (double) rounds;
     }
 
+    /** Estimated time of a start/stop pair; negative if not yet measured. */
+    private static double callNanos = -1;
+
     /**
      * Prints a report of the measured data on the standard output.
      * @see #report(PrintWriter)
@@ -332,6 +415,32 @@ public class Reporter {
         report(new PrintWriter(System.out));
     }
 
+    /** Registers a (sub)reporter with the platform MBean server. */
+    private static void export(Reporter reporter) {
+        try {
+            ObjectName name =
+                new ObjectName("groove:type=Reporter,class=" + reporter.type.getName() + ",name="
+                    + ObjectName.quote(reporter.getName()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(reporter, name);
+        } catch (JMException exc) {
+            // the reporter cannot be exported; it can still be used locally
+        }
+    }
+
+    /** Per-thread measurements of a reporter. */
+    private static class Counter {
+        /** The top-level (i.e., non-nested) method call count. */
+        int topCount;
+        /** The method call count, including nested calls. */
+        int nestedCount;
+        /** The current nesting depth. */
+        int nesting;
+        /** Start time of the current top-level call, in nanoseconds. */
+        long startTime;
+        /** The total method call duration, in nanoseconds. */
+        long duration;
+    }
+
     // ---------------------------- other constants
     // ------------------------------
     /** Length of a count field */
@@ -350,6 +459,10 @@ public class Reporter {
     public static final String TOT_TIME_FIELD = "tot(m)";
     /** Field name of the average duration */
     public static final String AVG_TIME_FIELD = "avg(mu)";
+    /** Name of the system property that switches reporting on or off. */
+    public static final String REPORT_PROPERTY = "groove.report";
+    /** Name of the system property that causes reporters to be exported through JMX. */
+    public static final String JMX_PROPERTY = "groove.report.jmx";
     /** Flag to control whether execution times are reported. */
     private static final boolean TIME_METHODS = true;
     /**
@@ -357,7 +470,8 @@ public class Reporter {
      * reported.
      */
     private static final boolean TIME_TOP_ONLY = TIME_METHODS && false;
-    private static final boolean REPORT = true;
+    private static final boolean REPORT = !"false".equals(System.getProperty(REPORT_PROPERTY));
+    private static final boolean JMX = REPORT && Boolean.getBoolean(JMX_PROPERTY);
     /** Sorted map of all registered reporters */
     private static Map<Class<?>,Reporter> reporters = new TreeMap<Class<?>,Reporter>(
         new Comparator<Class<?>>() {
@@ -366,6 +480,4 @@ public class Reporter {
                 return o1.getName().compareTo(o2.getName());
             }
         });
-    /** System time spent reporting */
-    private static long reportTime;
 }
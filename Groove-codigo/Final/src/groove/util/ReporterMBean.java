@@ -0,0 +1,40 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.util;
+
+/**
+ * Management interface of a {@link Reporter}, through which
+ * the measurements of a single reported method can be monitored.
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public interface ReporterMBean {
+    /** Returns the name of the class in which the method is reported. */
+    String getTypeName();
+
+    /** Returns the name of the reported method. */
+    String getName();
+
+    /** Returns the number of calls, including nested ones. */
+    int getCallCount();
+
+    /** Returns the number of top-level calls. */
+    int getTopCount();
+
+    /** Returns the total duration of the top-level calls, in nanoseconds. */
+    long getTotalNanos();
+}
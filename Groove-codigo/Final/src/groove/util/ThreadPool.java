@@ -18,65 +18,142 @@ package groove.util;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
-/** Global thread pool. */
+/**
+ * Global thread pool, shared by all parallel computations in GROOVE
+ * (building and initialising control automata, matching and applying rules,
+ * critical pair analysis, parallel strategies, imaging).
+ * The pool is a work-stealing {@link ForkJoinPool}; tasks may therefore
+ * themselves submit and join subtasks without running out of threads.
+ * By default the pool is the common fork-join pool, whose size can be set through
+ * the system property {@code java.util.concurrent.ForkJoinPool.common.parallelism};
+ * a dedicated pool of a given size may be installed using {@link #setParallelism(int)}.
+ * The pool outlives individual computations and need not be shut down.
+ */
 public class ThreadPool {
-    private ThreadPool() {
-        int threadCount = (Runtime.getRuntime().availableProcessors() + 1) / 2;
-        this.exec = Executors.newFixedThreadPool(threadCount);
-        this.futures = new ArrayList<Future<?>>();
+    private ThreadPool(ForkJoinPool exec) {
+        this.exec = exec;
+    }
+
+    /** Returns the executor service underlying this thread pool. */
+    public ForkJoinPool getExecutor() {
+        return this.exec;
+    }
+
+    /** Returns the number of worker threads of this thread pool. */
+    public int getParallelism() {
+        return this.exec.getParallelism();
+    }
+
+    /**
+     * Indicates if this thread pool has more than one worker thread.
+     * If not, there is no point in splitting up computations.
+     */
+    public boolean isParallel() {
+        return getParallelism() > 1;
     }
 
     /** Schedules a runnable for execution by this thread pool. */
-    public void start(Runnable runnable) {
-        this.futures.add(this.exec.submit(runnable));
+    public ForkJoinTask<?> submit(Runnable runnable) {
+        return submit(ForkJoinTask.adapt(runnable));
     }
 
-    /** Synchronises with all currently running tasks. */
-    public void sync() {
-        for (Future<?> future : this.futures) {
-            try {
-                future.get();
-            } catch (InterruptedException exc) {
-                assert false;
-                // empty
-            } catch (ExecutionException exc) {
-                throw new RuntimeException(exc);
-            }
-        }
-        this.futures.clear();
+    /** Schedules a callable for execution by this thread pool. */
+    public <T> ForkJoinTask<T> submit(Callable<T> callable) {
+        return submit(ForkJoinTask.adapt(callable));
     }
 
-    /** Shuts down the thread pool. */
-    public void shutdown() {
-        if (!isShutDown()) {
-            this.isShutDown = true;
-            this.exec.shutdown();
+    /**
+     * Schedules a task for execution by this thread pool.
+     * If the current thread is itself a worker of the pool, the task is forked
+     * onto the worker's own queue, so that a subsequent join will execute
+     * the task if no other worker has stolen it. This is essential if the
+     * current thread holds a lock that the other workers are waiting for.
+     */
+    private <T> ForkJoinTask<T> submit(ForkJoinTask<T> task) {
+        Thread current = Thread.currentThread();
+        if (current instanceof ForkJoinWorkerThread
+            && ((ForkJoinWorkerThread) current).getPool() == this.exec) {
+            task.fork();
+        } else {
+            this.exec.execute(task);
         }
+        return task;
     }
 
-    private boolean isShutDown() {
-        return this.isShutDown;
+    /** Returns a fresh batch of tasks, to be run by this thread pool. */
+    public Batch newBatch() {
+        return new Batch();
     }
 
-    private boolean isShutDown;
-
     /** The internal thread pool */
-    private final ExecutorService exec;
-    /** Futures of the currently running tasks. */
-    private final List<Future<?>> futures;
+    private final ForkJoinPool exec;
 
-    /** Returns the singleton instance of this thread pool. */
+    /**
+     * Returns the singleton instance of this thread pool.
+     * Note that the instance changes upon {@link #setParallelism(int)}.
+     */
     public static ThreadPool instance() {
-        if (INSTANCE == null || INSTANCE.isShutDown()) {
-            INSTANCE = new ThreadPool();
-        }
         return INSTANCE;
     }
 
-    private static ThreadPool INSTANCE = new ThreadPool();
-}
\ No newline at end of file
+    /**
+     * Sets the number of worker threads of the global thread pool.
+     * Tasks already submitted are completed by the previous pool.
+     * @param parallelism the number of worker threads; if {@code 0},
+     * the common fork-join pool is used
+     */
+    public static synchronized void setParallelism(int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("Parallelism should be non-negative");
+        }
+        ThreadPool old = INSTANCE;
+        if (parallelism == 0) {
+            INSTANCE = new ThreadPool(ForkJoinPool.commonPool());
+        } else if (old.exec == ForkJoinPool.commonPool() || old.getParallelism() != parallelism) {
+            INSTANCE = new ThreadPool(new ForkJoinPool(parallelism));
+        }
+        if (INSTANCE != old && old.exec != ForkJoinPool.commonPool()) {
+            old.exec.shutdown();
+        }
+    }
+
+    private static volatile ThreadPool INSTANCE = new ThreadPool(ForkJoinPool.commonPool());
+
+    /**
+     * Set of tasks that are started together, and then waited for
+     * by a single thread.
+     * A batch is not itself thread-safe.
+     */
+    public class Batch {
+        private Batch() {
+            // only created through the thread pool
+        }
+
+        /** Schedules a runnable for execution as part of this batch. */
+        public void start(Runnable runnable) {
+            this.tasks.add(submit(runnable));
+        }
+
+        /**
+         * Synchronises with all tasks started in this batch since the last call.
+         * If any task has thrown an exception, it is passed on.
+         */
+        public void sync() {
+            try {
+                for (ForkJoinTask<?> task : this.tasks) {
+                    task.join();
+                }
+            } finally {
+                this.tasks.clear();
+            }
+        }
+
+        /** Tasks started in this batch and not yet synchronised with. */
+        private final List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+    }
+}
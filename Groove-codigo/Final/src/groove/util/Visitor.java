@@ -17,6 +17,7 @@
 package groove.util;
 
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /** 
  * Visitor for objects of a certain type.
@@ -84,8 +85,8 @@ public abstract class Visitor<T,R> {
      * Also sets the result object to {@code null}.
      */
     public void dispose() {
-        this.disposed = true;
         this.result = null;
+        this.disposed = 1;
     }
 
     /** Indicates whether the visitor has been disposed.
@@ -93,14 +94,23 @@ public abstract class Visitor<T,R> {
      * @see #dispose()
      */
     protected final boolean isDisposed() {
-        return this.disposed;
+        return this.disposed != 0;
     }
 
-    /** Resets the disposed flag to {@code false}
-     * and the continuation state to {@code true}. */
-    protected final void resurrect() {
-        this.disposed = false;
-        this.cont = true;
+    /**
+     * Attempts to claim this visitor for reuse.
+     * If the visitor is disposed, resets the disposed flag to {@code false}
+     * and the continuation state to {@code true}.
+     * The test-and-reset is atomic, so that a disposed visitor
+     * is claimed by at most one thread.
+     * @return {@code true} if the visitor was disposed and has been claimed
+     */
+    protected final boolean resurrect() {
+        boolean result = DISPOSED.compareAndSet(this, 1, 0);
+        if (result) {
+            this.cont = true;
+        }
+        return result;
     }
 
     /** 
@@ -127,8 +137,8 @@ public abstract class Visitor<T,R> {
 
     /** The result object. */
     private R result;
-    /** Flag indicating that the visitor has been disposed. */
-    private boolean disposed;
+    /** Flag indicating that the visitor has been disposed; nonzero if so. */
+    private volatile int disposed;
     /** 
      * Flag storing the continuation state of the visitor.
      */
@@ -166,6 +176,11 @@ public abstract class Visitor<T,R> {
         return result;
     }
 
+    /** Updater for the {@link #disposed} flag. */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Visitor> DISPOSED =
+        AtomicIntegerFieldUpdater.newUpdater(Visitor.class, "disposed");
+
     @SuppressWarnings({"rawtypes", "unchecked"})
     private static final Collector prototypeCollector = new Collector(null);
 
@@ -202,9 +217,8 @@ public abstract class Visitor<T,R> {
          * Reuses this object if it has been disposed.
          */
         public Finder<T> newInstance(Property<T> property) {
-            if (isDisposed()) {
+            if (resurrect()) {
                 this.property = property;
-                resurrect();
                 return this;
             } else {
                 return new Finder<T>(property);
@@ -259,9 +273,8 @@ public abstract class Visitor<T,R> {
          * Reuses this object if it has been disposed.
          */
         public Collector<T,C> newInstance(C collection) {
-            if (isDisposed()) {
+            if (resurrect()) {
                 setResult(collection);
-                resurrect();
                 return this;
             } else {
                 return createInstance(collection, this.property);
@@ -273,10 +286,9 @@ public abstract class Visitor<T,R> {
          * Reuses this object if it has been disposed.
          */
         public Collector<T,C> newInstance(C collection, Property<T> property) {
-            if (isDisposed()) {
+            if (resurrect()) {
                 setResult(collection);
                 this.property = property;
-                resurrect();
                 return this;
             } else {
                 return createInstance(collection, property);
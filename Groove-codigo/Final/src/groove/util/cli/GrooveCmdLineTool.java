@@ -17,6 +17,7 @@
 package groove.util.cli;
 
 import groove.explore.Verbosity;
+import groove.util.ThreadPool;
 
 import java.awt.Window;
 import java.lang.reflect.InvocationTargetException;
@@ -26,7 +27,7 @@ import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.Option;
 
 /**
- * Command-line tool superclass that implements help and verbosity options.
+ * Command-line tool superclass that implements help, verbosity and thread pool options.
  * A prototypical implementation should have the following static methods:<p>
  * <pre>
    public static void main(String[] args) {
@@ -77,6 +78,9 @@ public abstract class GrooveCmdLineTool<T> {
             getParser().printHelp();
             return null;
         } else {
+            if (getPoolSize() > 0) {
+                ThreadPool.setParallelism(getPoolSize());
+            }
             return run();
         }
     }
@@ -111,6 +115,20 @@ public abstract class GrooveCmdLineTool<T> {
             usage = VerbosityHandler.USAGE, handler = VerbosityHandler.class)
     private Verbosity verbosity = Verbosity.MEDIUM;
 
+    /**
+     * Returns the number of worker threads to be used for parallel computations,
+     * or {@code 0} if the default thread pool is to be used.
+     * @see ThreadPool#setParallelism(int)
+     */
+    protected final int getPoolSize() {
+        return this.poolSize;
+    }
+
+    @Option(name = "-pool", metaVar = "size",
+            usage = "Uses <size> worker threads for all parallel computations "
+                + "(default: the common fork-join pool of the JVM)")
+    private int poolSize;
+
     /** 
      * Returns the parser used for parsing the command-line arguments
      * passed in to the constructor.
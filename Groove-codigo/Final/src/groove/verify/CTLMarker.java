@@ -73,9 +73,6 @@ public class CTLMarker {
         // initialise the forward count and backward structure
         // & initialise the outgoing transition count
         // as well as the satisfaction of the atoms
-        this.states = new Node[nodeCount];
-        @SuppressWarnings("unchecked")
-        List<Integer>[] backward = new List[nodeCount];
         this.outCount = new int[nodeCount];
         // collect the special flag labels used in the formula
         Map<Flag,Integer> flagNrs = new EnumMap<Flag,Integer>(Flag.class);
@@ -85,6 +82,13 @@ public class CTLMarker {
                 flagNrs.put(flag, flagIx);
             }
         }
+        if (this.model instanceof CompactModel) {
+            initCompact((CompactModel) this.model, flagNrs);
+            return;
+        }
+        this.states = new Node[nodeCount];
+        @SuppressWarnings("unchecked")
+        List<Integer>[] backward = new List[nodeCount];
         for (Node node : this.model.nodeSet()) {
             Set<? extends Edge> outEdges = this.model.outEdgeSet(node);
             // EZ says: change for SF bug #442.
@@ -134,6 +138,55 @@ public class CTLMarker {
         }
     }
 
+    /**
+     * Initialises the backward structure, outgoing transition counts
+     * and atom markings directly from the arrays of a compact model,
+     * without going through the node and edge sets.
+     * @param flagNrs mapping from the special flags used in the formula
+     * to their atom numbers
+     */
+    private void initCompact(CompactModel model, Map<Flag,Integer> flagNrs) {
+        int nodeCount = this.nodeCount;
+        // atom number for each label index, or -1 if the label does not occur in the formula
+        int[] labelAtoms = new int[model.getLabelCount()];
+        for (int label = 0; label < labelAtoms.length; label++) {
+            Integer atomIx = this.atoms.get(model.getLabelText(label));
+            labelAtoms[label] = atomIx == null ? -1 : atomIx;
+        }
+        int[] inCount = new int[nodeCount];
+        for (int nodeNr = 0; nodeNr < nodeCount; nodeNr++) {
+            int first = model.getFirstTransition(nodeNr);
+            int last = model.getFirstTransition(nodeNr + 1);
+            for (int trans = first; trans < last; trans++) {
+                inCount[model.getTarget(trans)]++;
+                int atomIx = labelAtoms[model.getLabel(trans)];
+                if (atomIx >= 0) {
+                    this.marking[atomIx].set(nodeNr);
+                }
+            }
+            this.outCount[nodeNr] = last - first;
+            for (Map.Entry<Flag,Integer> flagEntry : flagNrs.entrySet()) {
+                if (model.isSpecial(nodeNr, flagEntry.getKey())) {
+                    this.marking[flagEntry.getValue()].set(nodeNr);
+                }
+            }
+        }
+        // Calculate the backward structure
+        this.backward = new int[nodeCount][];
+        for (int i = 0; i < nodeCount; i++) {
+            this.backward[i] = new int[inCount[i]];
+            inCount[i] = 0;
+        }
+        for (int nodeNr = 0; nodeNr < nodeCount; nodeNr++) {
+            int last = model.getFirstTransition(nodeNr + 1);
+            for (int trans = model.getFirstTransition(nodeNr); trans < last; trans++) {
+                int target = model.getTarget(trans);
+                this.backward[target][inCount[target]] = nodeNr;
+                inCount[target]++;
+            }
+        }
+    }
+
     /**
      * Marks a given node as satisfying an atomic proposition,
      * if the proposition occurs in the formula.
@@ -491,7 +544,7 @@ public class CTLMarker {
         } else {
             BitSet startNodes = this.marking[this.formulaNr.get(START_ATOM)];
             if (startNodes.cardinality() == 1) {
-                result = this.states[startNodes.nextSetBit(0)];
+                result = getState(startNodes.nextSetBit(0));
             }
         }
         return result;
@@ -544,7 +597,7 @@ public class CTLMarker {
                         if (!hasNext()) {
                             throw new NoSuchElementException();
                         }
-                        Node result = CTLMarker.this.states[this.stateIx];
+                        Node result = getState(this.stateIx);
                         this.stateIx =
                             value ? sat.nextSetBit(this.stateIx + 1)
                                 : sat.nextClearBit(this.stateIx + 1);
@@ -578,7 +631,22 @@ public class CTLMarker {
     private int[][] backward;
     /** Backward reachability matrix. */
     private int[] outCount;
-    /** State number-indexed array of states in the GTS. */
+    /**
+     * Returns the state with a given index.
+     * For compact models, the state is retrieved from the model.
+     */
+    private Node getState(int index) {
+        if (this.states == null) {
+            return ((CompactModel) this.model).getNode(index);
+        } else {
+            return this.states[index];
+        }
+    }
+
+    /**
+     * State number-indexed array of states in the GTS.
+     * Not used for compact models.
+     */
     private Node[] states;
     /** State count of the transition system. */
     private int nodeCount;
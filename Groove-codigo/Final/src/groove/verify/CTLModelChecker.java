@@ -24,6 +24,7 @@ import groove.explore.util.LTSLabels.Flag;
 import groove.graph.Edge;
 import groove.graph.Graph;
 import groove.graph.Node;
+import groove.io.FileType;
 import groove.lts.GTS;
 import groove.lts.GraphState;
 import groove.util.Groove;
@@ -32,6 +33,7 @@ import groove.util.cli.GrooveCmdLineTool;
 import groove.util.parse.FormatException;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -112,14 +114,19 @@ public class CTLModelChecker extends GrooveCmdLineTool<Object> {
         long genStartTime = System.currentTimeMillis();
         Model model;
         if (genArgs != null) {
+            ExploreResult result;
             try {
-                model = new GTSModel(Generator.execute(genArgs));
+                result = Generator.execute(genArgs);
             } catch (Exception e) {
                 throw new Exception("Error while invoking Generator\n" + e.getMessage(), e);
             }
+            if (result.getGTS().isPartial()) {
+                throw new Exception("Can't model check a GTS generated with bit-state hashing");
+            }
+            model = new GTSModel(result);
         } else {
             emit("Model: %s%n", this.modelGraph);
-            model = new GraphModel(Groove.loadGraph(this.modelGraph), this.ltsLabels);
+            model = newModel(this.modelGraph, this.ltsLabels);
         }
         long mcStartTime = System.currentTimeMillis();
         int maxWidth = 0;
@@ -157,7 +164,8 @@ public class CTLModelChecker extends GrooveCmdLineTool<Object> {
         handler = GeneratorHandler.class)
     private GeneratorArgs genArgs;
 
-    @Argument(metaVar = "graph", usage = "File name of graph to be checked",
+    @Argument(metaVar = "graph",
+        usage = "File name of graph to be checked (extension .glts for compact LTS files)",
         handler = FileOptionHandler.class)
     private File modelGraph;
 
@@ -254,6 +262,23 @@ public class CTLModelChecker extends GrooveCmdLineTool<Object> {
         return new GraphModel(graph, ltsLabels == null ? LTSLabels.DEFAULT : ltsLabels);
     }
 
+    /**
+     * Creates a CTL-checkable model from a file.
+     * Compact LTS files are mapped into memory directly; other files are
+     * loaded as a graph and interpreted using the special labels mapping.
+     * @throws IOException if the file cannot be read
+     * @throws FormatException if the file content is not a valid model
+     * @see FileType#COMPACT_LTS
+     */
+    public static Model newModel(File file, LTSLabels ltsLabels) throws IOException,
+        FormatException {
+        if (FileType.COMPACT_LTS.hasExtension(file)) {
+            return CompactModel.load(file);
+        } else {
+            return newModel(Groove.loadGraph(file), ltsLabels);
+        }
+    }
+
     /** Facade for models, with the functionality required for CTL model checking. */
     public static interface Model {
         /** Returns the number of (real) nodes of the model. */
@@ -0,0 +1,571 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.verify;
+
+import groove.explore.ExploreResult;
+import groove.explore.util.LTSLabels;
+import groove.explore.util.LTSLabels.Flag;
+import groove.graph.AEdge;
+import groove.graph.Edge;
+import groove.graph.GraphRole;
+import groove.graph.Node;
+import groove.graph.multi.MultiGraph;
+import groove.graph.multi.MultiNode;
+import groove.graph.plain.PlainLabel;
+import groove.graph.plain.PlainNode;
+import groove.io.FileType;
+import groove.lts.GTS;
+import groove.lts.GraphState;
+import groove.lts.GraphTransition;
+import groove.util.parse.FormatException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * CTL-checkable model stored in a compact binary file, which is read back
+ * through memory-mapped arrays rather than parsed into a graph.
+ * The file stores the states by consecutive index, the outgoing
+ * transitions in compressed sparse row form, the interned transition
+ * labels and the special state flags. See {@link FileType#COMPACT_LTS}.
+ * <p>
+ * The file layout (all integers big-endian) is:
+ * <ul>
+ * <li> magic number, version, state count, transition count, start state index,
+ * label count
+ * <li> for every label: its UTF-8 length and bytes
+ * <li> one flag byte per state
+ * <li> padding up to a multiple of four bytes
+ * <li> state count + 1 transition offsets
+ * <li> transition count target state indices
+ * <li> transition count label indices
+ * </ul>
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public class CompactModel implements CTLModelChecker.Model {
+    /**
+     * Constructs an in-memory model from arrays.
+     * @param labels the transition labels, indexed by label number
+     * @param flags the state flags, indexed by state number; each is a combination
+     * of {@link #START_MASK}, {@link #FINAL_MASK}, {@link #OPEN_MASK},
+     * {@link #RESULT_MASK} and {@link #ERROR_MASK}
+     * @param offsets the state-indexed offsets into {@code targets} and {@code labelIxs}
+     * @param targets the transition-indexed target states
+     * @param labelIxs the transition-indexed label numbers
+     */
+    public CompactModel(String[] labels, byte[] flags, int[] offsets, int[] targets,
+        int[] labelIxs) {
+        this(labels, flags, IntBuffer.wrap(offsets), IntBuffer.wrap(targets),
+            IntBuffer.wrap(labelIxs));
+    }
+
+    private CompactModel(String[] labels, byte[] flags, IntBuffer offsets, IntBuffer targets,
+        IntBuffer labelIxs) {
+        this.labels = new PlainLabel[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            this.labels[i] = PlainLabel.parseLabel(labels[i]);
+        }
+        this.flags = flags;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.labelIxs = labelIxs;
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.flags.length;
+    }
+
+    @Override
+    public Set<? extends Node> nodeSet() {
+        return new AbstractSet<Node>() {
+            @Override
+            public Iterator<Node> iterator() {
+                return new Iterator<Node>() {
+                    @Override
+                    public boolean hasNext() {
+                        return this.index < nodeCount();
+                    }
+
+                    @Override
+                    public Node next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Node result = getNode(this.index);
+                        this.index++;
+                        return result;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    private int index;
+                };
+            }
+
+            @Override
+            public int size() {
+                return nodeCount();
+            }
+        };
+    }
+
+    @Override
+    public Set<? extends Edge> outEdgeSet(Node node) {
+        final PlainNode source = (PlainNode) node;
+        final int first = getFirstTransition(source.getNumber());
+        final int last = getFirstTransition(source.getNumber() + 1);
+        return new AbstractSet<Edge>() {
+            @Override
+            public Iterator<Edge> iterator() {
+                return new Iterator<Edge>() {
+                    @Override
+                    public boolean hasNext() {
+                        return this.trans < last;
+                    }
+
+                    @Override
+                    public Edge next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Edge result =
+                            new CompactEdge(source,
+                                CompactModel.this.labels[getLabel(this.trans)],
+                                getNode(getTarget(this.trans)), this.trans);
+                        this.trans++;
+                        return result;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    private int trans = first;
+                };
+            }
+
+            @Override
+            public int size() {
+                return last - first;
+            }
+        };
+    }
+
+    @Override
+    public boolean isSpecial(Node node, Flag flag) {
+        return isSpecial(node.getNumber(), flag);
+    }
+
+    @Override
+    public int nodeIndex(Node node) {
+        return node.getNumber();
+    }
+
+    /** Special states are recorded as flags, not as labels. */
+    @Override
+    public Flag getFlag(String label) {
+        return null;
+    }
+
+    /** Returns the node for a given state index. */
+    public Node getNode(int state) {
+        return new PlainNode(state);
+    }
+
+    /** Returns the total number of transitions of the model. */
+    public int getTransitionCount() {
+        return this.targets.limit();
+    }
+
+    /**
+     * Returns the index of the first outgoing transition of a given state.
+     * The outgoing transitions of a state are consecutively numbered,
+     * up to (but not including) the first outgoing transition of the next state.
+     * @param state the state index; may equal {@link #nodeCount()}
+     */
+    public int getFirstTransition(int state) {
+        return this.offsets.get(state);
+    }
+
+    /** Returns the target state index of a given transition. */
+    public int getTarget(int trans) {
+        return this.targets.get(trans);
+    }
+
+    /** Returns the label index of a given transition. */
+    public int getLabel(int trans) {
+        return this.labelIxs.get(trans);
+    }
+
+    /** Returns the number of distinct transition labels. */
+    public int getLabelCount() {
+        return this.labels.length;
+    }
+
+    /** Returns the text of a given label index. */
+    public String getLabelText(int label) {
+        return this.labels[label].text();
+    }
+
+    /** Tests if a given state satisfies the special property expressed by a given flag. */
+    public boolean isSpecial(int state, Flag flag) {
+        int mask;
+        switch (flag) {
+        case START:
+            mask = START_MASK;
+            break;
+        case FINAL:
+            mask = FINAL_MASK;
+            break;
+        case OPEN:
+            mask = OPEN_MASK;
+            break;
+        case RESULT:
+            mask = RESULT_MASK;
+            break;
+        default:
+            mask = 0;
+        }
+        return (this.flags[state] & mask) != 0;
+    }
+
+    /** Returns the flag byte of a given state, combining all its special properties. */
+    byte getFlags(int state) {
+        return this.flags[state];
+    }
+
+    /** Tests if a given state was erroneous in the original GTS. */
+    public boolean isError(int state) {
+        return (this.flags[state] & ERROR_MASK) != 0;
+    }
+
+    /** The transition labels, indexed by label number. */
+    private final PlainLabel[] labels;
+    /** The state flags, indexed by state number. */
+    private final byte[] flags;
+    /** The state-indexed offsets into {@link #targets} and {@link #labelIxs}. */
+    private final IntBuffer offsets;
+    /** The transition-indexed target states. */
+    private final IntBuffer targets;
+    /** The transition-indexed label numbers. */
+    private final IntBuffer labelIxs;
+
+    /**
+     * Loads a model from a compact LTS file.
+     * @throws IOException if the file cannot be read
+     * @throws FormatException if the file is not a well-formed compact LTS file
+     */
+    public static CompactModel load(File file) throws IOException, FormatException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        String[] labels;
+        byte[] flags;
+        int stateCount;
+        int transCount;
+        long position;
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new FormatException("File %s is not a compact LTS file", file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new FormatException("Compact LTS file version %d is not supported", version);
+            }
+            stateCount = in.readInt();
+            transCount = in.readInt();
+            int start = in.readInt();
+            labels = new String[in.readInt()];
+            position = HEADER_SIZE;
+            for (int i = 0; i < labels.length; i++) {
+                byte[] text = new byte[in.readInt()];
+                in.readFully(text);
+                labels[i] = new String(text, "UTF-8");
+                position += 4 + text.length;
+            }
+            flags = new byte[stateCount];
+            in.readFully(flags);
+            position = align(position + stateCount);
+            if (start < 0 || start >= stateCount || (flags[start] & START_MASK) == 0) {
+                throw new FormatException("Start state %d of compact LTS is not flagged", start);
+            }
+        } finally {
+            in.close();
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long offsetsSize = 4L * (stateCount + 1);
+            long transSize = 4L * transCount;
+            if (channel.size() != position + offsetsSize + 2 * transSize) {
+                throw new FormatException("Compact LTS file %s has inconsistent size", file);
+            }
+            IntBuffer offsets = map(channel, position, offsetsSize);
+            position += offsetsSize;
+            IntBuffer targets = map(channel, position, transSize);
+            position += transSize;
+            IntBuffer labelIxs = map(channel, position, transSize);
+            return new CompactModel(labels, flags, offsets, targets, labelIxs);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /** Maps a region of a file channel into memory, as a read-only integer buffer. */
+    private static IntBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(MapMode.READ_ONLY, position, size).asIntBuffer();
+    }
+
+    /**
+     * Saves the GTS of an exploration result as a compact LTS file.
+     * Only the real states and transitions are included; result states
+     * are flagged according to the exploration result.
+     * @throws IOException if an error occurred while writing
+     */
+    public static void save(ExploreResult result, File file) throws IOException {
+        build(result).save(file);
+    }
+
+    /**
+     * Builds an in-memory compact model from the GTS of an exploration result.
+     * Only the real states and transitions are included; result states
+     * are flagged according to the exploration result.
+     */
+    public static CompactModel build(ExploreResult result) {
+        GTS gts = result.getGTS();
+        Collection<GraphState> states = gts.getStates();
+        int stateCount = states.size();
+        // mapping from state numbers to compact state indices, or -1 for non-real states
+        int[] index = new int[gts.nodeCount()];
+        Arrays.fill(index, -1);
+        int stateIx = 0;
+        for (GraphState state : states) {
+            index[state.getNumber()] = stateIx;
+            stateIx++;
+        }
+        // first pass: count the transitions and intern the labels
+        int[] offsets = new int[stateCount + 1];
+        byte[] flags = new byte[stateCount];
+        Map<String,Integer> labelMap = new LinkedHashMap<String,Integer>();
+        int transCount = 0;
+        stateIx = 0;
+        for (GraphState state : states) {
+            offsets[stateIx] = transCount;
+            for (GraphTransition trans : state.getTransitions()) {
+                if (getIndex(index, trans.target()) >= 0) {
+                    transCount++;
+                    String label = trans.label().text();
+                    if (!labelMap.containsKey(label)) {
+                        labelMap.put(label, labelMap.size());
+                    }
+                }
+            }
+            flags[stateIx] = getFlags(gts, result, state);
+            stateIx++;
+        }
+        offsets[stateCount] = transCount;
+        // second pass: fill in the transition targets and labels
+        int[] targets = new int[transCount];
+        int[] labelIxs = new int[transCount];
+        stateIx = 0;
+        for (GraphState state : states) {
+            int trans = offsets[stateIx];
+            for (GraphTransition out : state.getTransitions()) {
+                int target = getIndex(index, out.target());
+                if (target >= 0) {
+                    targets[trans] = target;
+                    labelIxs[trans] = labelMap.get(out.label().text());
+                    trans++;
+                }
+            }
+            assert trans == offsets[stateIx + 1];
+            stateIx++;
+        }
+        String[] labels = labelMap.keySet().toArray(new String[labelMap.size()]);
+        return new CompactModel(labels, flags, offsets, targets, labelIxs);
+    }
+
+    /**
+     * Saves this model as a compact LTS file.
+     * @throws IOException if an error occurred while writing
+     */
+    public void save(File file) throws IOException {
+        int stateCount = nodeCount();
+        int transCount = getTransitionCount();
+        int start = 0;
+        while (start < stateCount && !isSpecial(start, Flag.START)) {
+            start++;
+        }
+        // write the header, labels and flags
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(stateCount);
+        header.writeInt(transCount);
+        header.writeInt(start);
+        header.writeInt(getLabelCount());
+        for (int label = 0; label < getLabelCount(); label++) {
+            byte[] text = getLabelText(label).getBytes("UTF-8");
+            header.writeInt(text.length);
+            header.write(text);
+        }
+        header.write(this.flags);
+        while (header.size() % 4 != 0) {
+            header.writeByte(0);
+        }
+        header.close();
+        long position = headerBytes.size();
+        long offsetsSize = 4L * (stateCount + 1);
+        long transSize = 4L * transCount;
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(position + offsetsSize + 2 * transSize);
+            FileChannel channel = raf.getChannel();
+            channel.write(ByteBuffer.wrap(headerBytes.toByteArray()), 0);
+            write(channel, position, this.offsets, offsetsSize);
+            position += offsetsSize;
+            write(channel, position, this.targets, transSize);
+            position += transSize;
+            write(channel, position, this.labelIxs, transSize);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /** Copies an integer buffer into a region of a file channel. */
+    private static void write(FileChannel channel, long position, IntBuffer values, long size)
+        throws IOException {
+        IntBuffer target = channel.map(MapMode.READ_WRITE, position, size).asIntBuffer();
+        target.put(values.duplicate());
+    }
+
+    /**
+     * Converts this model to a plain graph,
+     * with options to label particular special states.
+     * The nodes of the graph are numbered by state index.
+     * @param name the name of the resulting graph
+     * @param labels options to label particular special states
+     */
+    public MultiGraph toPlainGraph(String name, LTSLabels labels) {
+        MultiGraph result = new MultiGraph(name, GraphRole.LTS);
+        MultiNode[] nodes = new MultiNode[nodeCount()];
+        for (int state = 0; state < nodeCount(); state++) {
+            MultiNode image = nodes[state] = result.addNode(state);
+            for (Flag flag : Flag.values()) {
+                if (labels.hasFlag(flag) && isSpecial(state, flag)) {
+                    result.addEdge(image, labels.getLabel(flag), image);
+                }
+            }
+            if (labels.showNumber()) {
+                String label = labels.getNumberLabel().replaceAll("#", "" + state);
+                result.addEdge(image, label, image);
+            }
+        }
+        for (int state = 0; state < nodeCount(); state++) {
+            int last = getFirstTransition(state + 1);
+            for (int trans = getFirstTransition(state); trans < last; trans++) {
+                result.addEdge(nodes[state], getLabelText(getLabel(trans)),
+                    nodes[getTarget(trans)]);
+            }
+        }
+        return result;
+    }
+
+    /** Returns the compact index of a given state, or {@code -1} if it is not a real state. */
+    private static int getIndex(int[] index, GraphState state) {
+        int nr = state.getNumber();
+        return nr < index.length ? index[nr] : -1;
+    }
+
+    /** Computes the flag byte of a given state. */
+    private static byte getFlags(GTS gts, ExploreResult result, GraphState state) {
+        int flags = 0;
+        if (state == gts.startState()) {
+            flags |= START_MASK;
+        }
+        if (state.isFinal()) {
+            flags |= FINAL_MASK;
+        }
+        if (!state.isClosed()) {
+            flags |= OPEN_MASK;
+        }
+        if (result.containsState(state)) {
+            flags |= RESULT_MASK;
+        }
+        if (state.isError()) {
+            flags |= ERROR_MASK;
+        }
+        return (byte) flags;
+    }
+
+    /** Rounds a file position up to the next multiple of four. */
+    private static long align(long position) {
+        return (position + 3) & ~3L;
+    }
+
+    /** Magic number identifying compact LTS files (the characters {@code GLTS}). */
+    private static final int MAGIC = 0x474C5453;
+    /** Version number of the compact LTS format. */
+    private static final int VERSION = 1;
+    /** Size of the fixed part of the header, in bytes. */
+    private static final int HEADER_SIZE = 24;
+    /** Flag mask for the start state. */
+    public static final int START_MASK = 0x01;
+    /** Flag mask for final states. */
+    public static final int FINAL_MASK = 0x02;
+    /** Flag mask for open states. */
+    public static final int OPEN_MASK = 0x04;
+    /** Flag mask for result states. */
+    public static final int RESULT_MASK = 0x08;
+    /** Flag mask for error states. */
+    public static final int ERROR_MASK = 0x10;
+
+    /** Lightweight edge between two compact model nodes. */
+    private static class CompactEdge extends AEdge<PlainNode,PlainLabel> {
+        CompactEdge(PlainNode source, PlainLabel label, Node target, int number) {
+            super(source, label, (PlainNode) target, number);
+        }
+
+        @Override
+        public boolean isSimple() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,634 @@
+/* GROOVE: GRaphs for Object Oriented VErification
+ * Copyright 2003--2011 University of Twente
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * $Id$
+ */
+package groove.verify;
+
+import java.util.Arrays;
+
+/**
+ * Minimises a compact model up to strong bisimilarity.
+ * Two states are bisimilar if they have the same flags and can mimic
+ * each other's labelled transitions into bisimilar states.
+ * As a consequence, bisimilar states satisfy the same CTL formulas.
+ * <p>
+ * The bisimilarity classes are computed by the partition refinement
+ * algorithm of Paige and Tarjan, extended to labelled transitions:
+ * blocks are only ever refined with respect to the smaller half of
+ * a compound block, which makes the algorithm run in {@code O(m log n)}
+ * time for {@code n} states and {@code m} transitions.
+ * <p>
+ * Recipe-internal steps are not part of a compact model, as recipes
+ * are represented by single transitions; hence on a compact model,
+ * strong bisimilarity coincides with branching bisimilarity.
+ * @author Arend Rensink
+ * @version $Revision $
+ */
+public class Minimiser {
+    /** Creates a minimiser for a given model. */
+    public Minimiser(CompactModel model) {
+        this.model = model;
+    }
+
+    /** Returns the model being minimised. */
+    public CompactModel getModel() {
+        return this.model;
+    }
+
+    private final CompactModel model;
+
+    /** Returns the number of bisimilarity classes of the model. */
+    public int getBlockCount() {
+        compute();
+        return this.blockCount;
+    }
+
+    /**
+     * Returns the bisimilarity class of a given state.
+     * Classes are numbered in the order of their smallest states;
+     * the class numbers are the state indices of the quotient.
+     */
+    public int getBlock(int state) {
+        compute();
+        return this.blockOf[state];
+    }
+
+    /**
+     * Returns the quotient of the model with respect to bisimilarity.
+     * The states of the quotient are the bisimilarity classes; there is a
+     * transition between two classes for every distinct label of a
+     * transition between their elements.
+     */
+    public CompactModel getQuotient() {
+        if (this.quotient == null) {
+            this.quotient = computeQuotient();
+        }
+        return this.quotient;
+    }
+
+    private CompactModel quotient;
+
+    private CompactModel computeQuotient() {
+        compute();
+        int blockCount = this.blockCount;
+        CompactModel model = getModel();
+        // representative state of each class
+        int[] reps = new int[blockCount];
+        Arrays.fill(reps, -1);
+        for (int state = 0; state < model.nodeCount(); state++) {
+            int block = this.blockOf[state];
+            if (reps[block] < 0) {
+                reps[block] = state;
+            }
+        }
+        byte[] flags = new byte[blockCount];
+        int[] offsets = new int[blockCount + 1];
+        // transitions of the quotient, encoded as label/target pairs
+        long[] keys = new long[model.getTransitionCount()];
+        int transCount = 0;
+        for (int block = 0; block < blockCount; block++) {
+            int rep = reps[block];
+            flags[block] = model.getFlags(rep);
+            offsets[block] = transCount;
+            int first = transCount;
+            int last = model.getFirstTransition(rep + 1);
+            for (int trans = model.getFirstTransition(rep); trans < last; trans++) {
+                keys[transCount] =
+                    ((long) model.getLabel(trans) << 32) | this.blockOf[model.getTarget(trans)];
+                transCount++;
+            }
+            // remove duplicate transitions
+            Arrays.sort(keys, first, transCount);
+            int unique = first;
+            for (int i = first; i < transCount; i++) {
+                if (i == first || keys[i] != keys[unique - 1]) {
+                    keys[unique] = keys[i];
+                    unique++;
+                }
+            }
+            transCount = unique;
+        }
+        offsets[blockCount] = transCount;
+        int[] targets = new int[transCount];
+        int[] labelIxs = new int[transCount];
+        for (int trans = 0; trans < transCount; trans++) {
+            targets[trans] = (int) keys[trans];
+            labelIxs[trans] = (int) (keys[trans] >>> 32);
+        }
+        String[] labels = new String[model.getLabelCount()];
+        for (int label = 0; label < labels.length; label++) {
+            labels[label] = model.getLabelText(label);
+        }
+        return new CompactModel(labels, flags, offsets, targets, labelIxs);
+    }
+
+    /** Computes the bisimilarity classes, if this has not yet been done. */
+    private void compute() {
+        if (this.blockOf != null) {
+            return;
+        }
+        CompactModel model = getModel();
+        int stateCount = model.nodeCount();
+        int transCount = model.getTransitionCount();
+        this.sources = new int[transCount];
+        for (int state = 0; state < stateCount; state++) {
+            int last = model.getFirstTransition(state + 1);
+            for (int trans = model.getFirstTransition(state); trans < last; trans++) {
+                this.sources[trans] = state;
+            }
+        }
+        initIncoming();
+        initPartition();
+        initCounters();
+        refine();
+        // number the blocks in the order of their smallest states
+        int[] number = new int[this.blockCount];
+        Arrays.fill(number, -1);
+        int blockNr = 0;
+        int[] blockOf = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            int block = this.block[state];
+            if (number[block] < 0) {
+                number[block] = blockNr;
+                blockNr++;
+            }
+            blockOf[state] = number[block];
+        }
+        // release the refinement data structures
+        this.sources = null;
+        this.inOffsets = null;
+        this.inTrans = null;
+        this.elems = null;
+        this.loc = null;
+        this.block = null;
+        this.first = null;
+        this.end = null;
+        this.mid = null;
+        this.touched = null;
+        this.compOf = null;
+        this.nextInComp = null;
+        this.prevInComp = null;
+        this.compHead = null;
+        this.compBlockCount = null;
+        this.inWork = null;
+        this.work = null;
+        this.counter = null;
+        this.counts = null;
+        this.free = null;
+        this.stamp = null;
+        this.stampCounter = null;
+        this.blockOf = blockOf;
+    }
+
+    /** Computes the incoming transitions of all states, in compressed sparse row form. */
+    private void initIncoming() {
+        CompactModel model = getModel();
+        int stateCount = model.nodeCount();
+        int transCount = model.getTransitionCount();
+        this.inOffsets = new int[stateCount + 1];
+        for (int trans = 0; trans < transCount; trans++) {
+            this.inOffsets[model.getTarget(trans) + 1]++;
+        }
+        for (int state = 0; state < stateCount; state++) {
+            this.inOffsets[state + 1] += this.inOffsets[state];
+        }
+        int[] fill = Arrays.copyOf(this.inOffsets, stateCount);
+        this.inTrans = new int[transCount];
+        for (int trans = 0; trans < transCount; trans++) {
+            int target = model.getTarget(trans);
+            this.inTrans[fill[target]] = trans;
+            fill[target]++;
+        }
+    }
+
+    /**
+     * Sets up the initial partition, in which states are grouped by their flags,
+     * and a single compound block containing all states.
+     */
+    private void initPartition() {
+        CompactModel model = getModel();
+        int stateCount = model.nodeCount();
+        // there is at least one compound block, even if there are no states
+        int blockMax = Math.max(1, stateCount);
+        this.elems = new int[stateCount];
+        this.loc = new int[stateCount];
+        this.block = new int[stateCount];
+        this.first = new int[blockMax];
+        this.end = new int[blockMax];
+        this.mid = new int[blockMax];
+        this.touched = new int[blockMax];
+        this.compOf = new int[blockMax];
+        this.nextInComp = new int[blockMax];
+        this.prevInComp = new int[blockMax];
+        this.compHead = new int[blockMax];
+        this.compBlockCount = new int[blockMax];
+        this.inWork = new boolean[blockMax];
+        this.work = new int[blockMax];
+        // count the states per flag value, and number the flag values
+        int[] flagBlock = new int[256];
+        Arrays.fill(flagBlock, -1);
+        int[] sizes = new int[256];
+        int blockCount = 0;
+        for (int state = 0; state < stateCount; state++) {
+            int flags = model.getFlags(state) & 0xFF;
+            if (flagBlock[flags] < 0) {
+                flagBlock[flags] = blockCount;
+                blockCount++;
+            }
+            sizes[flagBlock[flags]]++;
+        }
+        int pos = 0;
+        for (int block = 0; block < blockCount; block++) {
+            this.first[block] = this.mid[block] = this.end[block] = pos;
+            pos += sizes[block];
+        }
+        for (int state = 0; state < stateCount; state++) {
+            int block = flagBlock[model.getFlags(state) & 0xFF];
+            this.block[state] = block;
+            this.loc[state] = this.end[block];
+            this.elems[this.end[block]] = state;
+            this.end[block]++;
+        }
+        this.blockCount = blockCount;
+        // all blocks are in compound block 0
+        this.compCount = 1;
+        this.compHead[0] = -1;
+        for (int block = blockCount - 1; block >= 0; block--) {
+            addToComp(block, 0);
+        }
+        addWork(0);
+    }
+
+    /**
+     * Sets up the transition counters with respect to the initial
+     * compound block, and makes the partition stable with respect to it.
+     */
+    private void initCounters() {
+        CompactModel model = getModel();
+        int stateCount = model.nodeCount();
+        int transCount = model.getTransitionCount();
+        int labelCount = model.getLabelCount();
+        this.counter = new int[transCount];
+        this.counts = new int[Math.max(16, transCount)];
+        this.free = new int[this.counts.length];
+        this.stamp = new int[stateCount];
+        this.stampCounter = new int[stateCount];
+        // one counter per source state and label
+        int[] labelStamp = new int[labelCount];
+        int[] labelCounter = new int[labelCount];
+        Arrays.fill(labelStamp, -1);
+        // transitions sorted by label
+        int[] labelOffsets = new int[labelCount + 1];
+        for (int state = 0; state < stateCount; state++) {
+            int last = model.getFirstTransition(state + 1);
+            for (int trans = model.getFirstTransition(state); trans < last; trans++) {
+                int label = model.getLabel(trans);
+                if (labelStamp[label] != state) {
+                    labelStamp[label] = state;
+                    labelCounter[label] = newCounter();
+                }
+                this.counter[trans] = labelCounter[label];
+                this.counts[labelCounter[label]]++;
+                labelOffsets[label + 1]++;
+            }
+        }
+        for (int label = 0; label < labelCount; label++) {
+            labelOffsets[label + 1] += labelOffsets[label];
+        }
+        int[] byLabel = new int[transCount];
+        int[] fill = Arrays.copyOf(labelOffsets, labelCount);
+        for (int trans = 0; trans < transCount; trans++) {
+            int label = model.getLabel(trans);
+            byLabel[fill[label]] = trans;
+            fill[label]++;
+        }
+        // split by the presence of outgoing transitions for every label
+        for (int label = 0; label < labelCount; label++) {
+            for (int i = labelOffsets[label]; i < labelOffsets[label + 1]; i++) {
+                mark(this.sources[byLabel[i]]);
+            }
+            split();
+        }
+    }
+
+    /**
+     * Refines the partition until it is stable with respect to all blocks.
+     * In every step, a block that is at most half the size of its compound
+     * block is split off, and the partition is made stable with respect to
+     * both the block and the remainder of the compound block.
+     */
+    private void refine() {
+        CompactModel model = getModel();
+        int labelCount = model.getLabelCount();
+        int[] buffer = new int[model.getTransitionCount()];
+        int[] sorted = new int[buffer.length];
+        int[] labelSize = new int[labelCount];
+        int[] labelStart = new int[labelCount];
+        int[] labels = new int[labelCount];
+        while (this.workSize > 0) {
+            int comp = this.work[--this.workSize];
+            this.inWork[comp] = false;
+            if (this.compBlockCount[comp] < 2) {
+                continue;
+            }
+            // pick the smaller of the first two blocks of the compound block
+            int splitter = this.compHead[comp];
+            int other = this.nextInComp[splitter];
+            if (size(other) < size(splitter)) {
+                splitter = other;
+            }
+            removeFromComp(splitter);
+            int newComp = this.compCount;
+            this.compCount++;
+            this.compHead[newComp] = -1;
+            addToComp(splitter, newComp);
+            if (this.compBlockCount[comp] >= 2) {
+                addWork(comp);
+            }
+            // collect the incoming transitions of the splitter, grouped by label
+            int size = 0;
+            int labelsUsed = 0;
+            for (int pos = this.first[splitter]; pos < this.end[splitter]; pos++) {
+                int state = this.elems[pos];
+                for (int i = this.inOffsets[state]; i < this.inOffsets[state + 1]; i++) {
+                    int trans = this.inTrans[i];
+                    int label = model.getLabel(trans);
+                    if (labelSize[label] == 0) {
+                        labels[labelsUsed] = label;
+                        labelsUsed++;
+                    }
+                    labelSize[label]++;
+                    buffer[size] = trans;
+                    size++;
+                }
+            }
+            int start = 0;
+            for (int l = 0; l < labelsUsed; l++) {
+                int label = labels[l];
+                labelStart[label] = start;
+                start += labelSize[label];
+                labelSize[label] = 0;
+            }
+            for (int i = 0; i < size; i++) {
+                int label = model.getLabel(buffer[i]);
+                sorted[labelStart[label] + labelSize[label]] = buffer[i];
+                labelSize[label]++;
+            }
+            for (int l = 0; l < labelsUsed; l++) {
+                int label = labels[l];
+                int from = labelStart[label];
+                int to = from + labelSize[label];
+                labelSize[label] = 0;
+                splitBy(sorted, from, to);
+            }
+        }
+    }
+
+    /**
+     * Makes the partition stable with respect to a set of equally labelled transitions
+     * into the most recently split-off block, and to the remainder of its former compound block.
+     * Afterwards, the counters of the transitions refer to the new block.
+     * @param trans array containing the transitions, with target states in the splitter
+     * @param from first index of the transitions in {@code trans}
+     * @param to index after the last transition in {@code trans}
+     */
+    private void splitBy(int[] trans, int from, int to) {
+        this.stampNr++;
+        int stampNr = this.stampNr;
+        // count the transitions into the splitter, per source state
+        for (int i = from; i < to; i++) {
+            int source = this.sources[trans[i]];
+            if (this.stamp[source] != stampNr) {
+                this.stamp[source] = stampNr;
+                this.stampCounter[source] = newCounter();
+            }
+            this.counts[this.stampCounter[source]]++;
+        }
+        // split off the states with transitions into the splitter
+        for (int i = from; i < to; i++) {
+            mark(this.sources[trans[i]]);
+        }
+        split();
+        // split off the states without transitions into the remainder
+        for (int i = from; i < to; i++) {
+            int source = this.sources[trans[i]];
+            if (this.counts[this.counter[trans[i]]] == this.counts[this.stampCounter[source]]) {
+                mark(source);
+            }
+        }
+        split();
+        // move the transitions to the counters for the splitter
+        for (int i = from; i < to; i++) {
+            int old = this.counter[trans[i]];
+            this.counts[old]--;
+            if (this.counts[old] == 0) {
+                this.free[this.freeCount] = old;
+                this.freeCount++;
+            }
+            this.counter[trans[i]] = this.stampCounter[this.sources[trans[i]]];
+        }
+    }
+
+    /** Returns a fresh counter, with count 0. */
+    private int newCounter() {
+        int result;
+        if (this.freeCount > 0) {
+            this.freeCount--;
+            result = this.free[this.freeCount];
+        } else {
+            result = this.counterCount;
+            this.counterCount++;
+            if (result == this.counts.length) {
+                this.counts = Arrays.copyOf(this.counts, 2 * result);
+                this.free = Arrays.copyOf(this.free, 2 * result);
+            }
+        }
+        return result;
+    }
+
+    /** Marks a state for the next {@link #split()}. */
+    private void mark(int state) {
+        int block = this.block[state];
+        int pos = this.loc[state];
+        int mid = this.mid[block];
+        if (pos < mid) {
+            return;
+        }
+        if (mid == this.first[block]) {
+            this.touched[this.touchedCount] = block;
+            this.touchedCount++;
+        }
+        int other = this.elems[mid];
+        this.elems[pos] = other;
+        this.loc[other] = pos;
+        this.elems[mid] = state;
+        this.loc[state] = mid;
+        this.mid[block] = mid + 1;
+    }
+
+    /**
+     * Splits all blocks with marked states into a marked and an unmarked part,
+     * and removes the marks. The smaller part becomes the new block.
+     */
+    private void split() {
+        while (this.touchedCount > 0) {
+            this.touchedCount--;
+            int block = this.touched[this.touchedCount];
+            int first = this.first[block];
+            int mid = this.mid[block];
+            int end = this.end[block];
+            this.mid[block] = first;
+            if (mid == end) {
+                continue;
+            }
+            int newBlock = this.blockCount;
+            this.blockCount++;
+            if (mid - first <= end - mid) {
+                this.first[newBlock] = first;
+                this.end[newBlock] = mid;
+                this.first[block] = mid;
+            } else {
+                this.first[newBlock] = mid;
+                this.end[newBlock] = end;
+                this.end[block] = mid;
+            }
+            this.mid[block] = this.first[block];
+            this.mid[newBlock] = this.first[newBlock];
+            for (int pos = this.first[newBlock]; pos < this.end[newBlock]; pos++) {
+                this.block[this.elems[pos]] = newBlock;
+            }
+            int comp = this.compOf[block];
+            addToComp(newBlock, comp);
+            if (this.compBlockCount[comp] == 2) {
+                addWork(comp);
+            }
+        }
+    }
+
+    /** Returns the number of states in a block. */
+    private int size(int block) {
+        return this.end[block] - this.first[block];
+    }
+
+    /** Adds a block to the front of the block list of a compound block. */
+    private void addToComp(int block, int comp) {
+        int head = this.compHead[comp];
+        this.compOf[block] = comp;
+        this.prevInComp[block] = -1;
+        this.nextInComp[block] = head;
+        if (head >= 0) {
+            this.prevInComp[head] = block;
+        }
+        this.compHead[comp] = block;
+        this.compBlockCount[comp]++;
+    }
+
+    /** Removes a block from the block list of its compound block. */
+    private void removeFromComp(int block) {
+        int comp = this.compOf[block];
+        int prev = this.prevInComp[block];
+        int next = this.nextInComp[block];
+        if (prev >= 0) {
+            this.nextInComp[prev] = next;
+        } else {
+            this.compHead[comp] = next;
+        }
+        if (next >= 0) {
+            this.prevInComp[next] = prev;
+        }
+        this.compBlockCount[comp]--;
+    }
+
+    /** Adds a compound block to the work list, if it is not already there. */
+    private void addWork(int comp) {
+        if (!this.inWork[comp] && this.compBlockCount[comp] >= 2) {
+            this.inWork[comp] = true;
+            this.work[this.workSize] = comp;
+            this.workSize++;
+        }
+    }
+
+    /** Final bisimilarity class of every state. */
+    private int[] blockOf;
+    /** Number of blocks of the partition. */
+    private int blockCount;
+    /** Source state of every transition. */
+    private int[] sources;
+    /** State-indexed offsets into {@link #inTrans}. */
+    private int[] inOffsets;
+    /** Transitions sorted by target state. */
+    private int[] inTrans;
+    /** States, ordered so that every block is a consecutive range. */
+    private int[] elems;
+    /** Position of every state in {@link #elems}. */
+    private int[] loc;
+    /** Current block of every state. */
+    private int[] block;
+    /** First position of every block in {@link #elems}. */
+    private int[] first;
+    /** Position after the last state of every block in {@link #elems}. */
+    private int[] end;
+    /** Position after the last marked state of every block in {@link #elems}. */
+    private int[] mid;
+    /** Blocks with marked states. */
+    private int[] touched;
+    /** Number of entries in {@link #touched}. */
+    private int touchedCount;
+    /** Compound block of every block. */
+    private int[] compOf;
+    /** Next block in the same compound block, or {@code -1}. */
+    private int[] nextInComp;
+    /** Previous block in the same compound block, or {@code -1}. */
+    private int[] prevInComp;
+    /** First block of every compound block, or {@code -1}. */
+    private int[] compHead;
+    /** Number of blocks of every compound block. */
+    private int[] compBlockCount;
+    /** Number of compound blocks. */
+    private int compCount;
+    /** Flags indicating which compound blocks are in {@link #work}. */
+    private boolean[] inWork;
+    /** Compound blocks that consist of more than one block. */
+    private int[] work;
+    /** Number of entries in {@link #work}. */
+    private int workSize;
+    /**
+     * Counter of every transition, which counts the transitions with the same
+     * source state and label into the compound block of the target state.
+     */
+    private int[] counter;
+    /** Counts, indexed by counter. */
+    private int[] counts;
+    /** Number of counters in use or freed. */
+    private int counterCount;
+    /** Freed counters, available for reuse. */
+    private int[] free;
+    /** Number of entries in {@link #free}. */
+    private int freeCount;
+    /** State-indexed stamps, used to create one counter per source state in {@link #splitBy}. */
+    private int[] stamp;
+    /** State-indexed counters into the splitter, valid if the stamp is current. */
+    private int[] stampCounter;
+    /** Current stamp number. */
+    private int stampNr;
+
+    /**
+     * Returns the quotient of a given model with respect to bisimilarity.
+     * @see #getQuotient()
+     */
+    public static CompactModel minimise(CompactModel model) {
+        return new Minimiser(model).getQuotient();
+    }
+}